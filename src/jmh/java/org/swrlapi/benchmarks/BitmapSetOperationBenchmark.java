@@ -0,0 +1,106 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.swrlapi.test.SQWRLIdBitmap;
+import org.swrlapi.test.SQWRLIdCollection;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intersects and joins two random sets of individual ids drawn from a universe a few times larger than each set, as
+ * hash sets, which is how the engine's <code>sqwrl:intersection</code> and <code>sqwrl:union</code> combine
+ * collections, as sorted {@link SQWRLIdCollection}s and as {@link SQWRLIdBitmap}s. The sets are built once, so the
+ * benchmarks measure only the set operations.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="BitmapSetOperationBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BitmapSetOperationBenchmark
+{
+  private static final long SEED = 42L;
+
+  @Param({ "100000", "1000000" }) public int members;
+
+  @Param({ "2", "16" }) public int sparsity;
+
+  private Set<Integer> aHashSet;
+  private Set<Integer> bHashSet;
+  private SQWRLIdCollection aCollection;
+  private SQWRLIdCollection bCollection;
+  private SQWRLIdBitmap aBitmap;
+  private SQWRLIdBitmap bBitmap;
+
+  @Setup(Level.Trial) public void setUp()
+  {
+    Random random = new Random(SEED);
+    int[] aIds = random.ints(this.members, 0, this.members * this.sparsity).toArray();
+    int[] bIds = random.ints(this.members, 0, this.members * this.sparsity).toArray();
+
+    this.aHashSet = new HashSet<>();
+    Arrays.stream(aIds).forEach(this.aHashSet::add);
+    this.bHashSet = new HashSet<>();
+    Arrays.stream(bIds).forEach(this.bHashSet::add);
+    this.aCollection = SQWRLIdCollection.set(aIds, aIds.length);
+    this.bCollection = SQWRLIdCollection.set(bIds, bIds.length);
+    this.aBitmap = SQWRLIdBitmap.of(aIds);
+    this.bBitmap = SQWRLIdBitmap.of(bIds);
+  }
+
+  @Benchmark public int hashSetIntersection()
+  {
+    Set<Integer> intersection = new HashSet<>(this.aHashSet);
+
+    intersection.retainAll(this.bHashSet);
+
+    return intersection.size();
+  }
+
+  @Benchmark public int sortedIntersection()
+  {
+    return this.aCollection.intersection(this.bCollection).size();
+  }
+
+  @Benchmark public int bitmapIntersection()
+  {
+    return this.aBitmap.and(this.bBitmap).getCardinality();
+  }
+
+  @Benchmark public int hashSetUnion()
+  {
+    Set<Integer> union = new HashSet<>(this.aHashSet);
+
+    union.addAll(this.bHashSet);
+
+    return union.size();
+  }
+
+  @Benchmark public int sortedUnion()
+  {
+    return this.aCollection.union(this.bCollection).size();
+  }
+
+  @Benchmark public int bitmapUnion()
+  {
+    return this.aBitmap.or(this.bBitmap).getCardinality();
+  }
+}
@@ -0,0 +1,99 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SWRLBodyAtomReorderer;
+import org.swrlapi.test.SWRLCardinalityStatistics;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs deliberately badly ordered SQWRL queries as written and as reordered by {@link SWRLBodyAtomReorderer}. Every
+ * individual is a person with an age and three acquaintances, and one in a hundred is a driver. The
+ * <code>lowSelectivityFirst</code> shape joins all persons before filtering on drivers; the
+ * <code>crossProduct</code> shape writes two atoms that share no variable next to each other.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="BodyAtomReorderingBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BodyAtomReorderingBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLClass PERSON = SyntheticOntologyGenerator.generatedClass("Person");
+  private static final OWLClass DRIVER = SyntheticOntologyGenerator.generatedClass("Driver");
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final OWLObjectProperty KNOWS = SyntheticOntologyGenerator.generatedObjectProperty("knows");
+
+  private static final Map<String, String> QUERIES = new HashMap<>();
+
+  static {
+    QUERIES.put("lowSelectivityFirst", "Person(?p) ^ knows(?p, ?q) ^ hasAge(?q, ?age) ^ "
+      + "swrlb:greaterThan(?age, 90) ^ Driver(?p) -> sqwrl:select(?p, ?q)");
+    QUERIES.put("crossProduct", "hasAge(?q, ?age) ^ Driver(?p) ^ swrlb:greaterThan(?age, 90) ^ knows(?p, ?q) "
+      + "-> sqwrl:select(?p, ?q)");
+  }
+
+  @Param({ "1000", "10000" }) public int individuals;
+
+  @Param({ "lowSelectivityFirst", "crossProduct" }) public String shape;
+
+  private SQWRLQueryEngine queryEngine;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLParseException, SQWRLException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 3);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.classAssertions(PERSON, persons));
+    SyntheticOntologyGenerator
+      .addOWLAxioms(ontology, generator.classAssertions(DRIVER, persons.subList(0, this.individuals / 100)));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.objectPropertyAssertions(KNOWS, persons));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.queryEngine.createSQWRLQuery("written", QUERIES.get(this.shape));
+    new SWRLBodyAtomReorderer(SWRLCardinalityStatistics.of(ontology))
+      .createSQWRLQuery(this.queryEngine, "reordered", QUERIES.get(this.shape));
+  }
+
+  @Benchmark public int written() throws SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("written").getNumberOfRows();
+  }
+
+  @Benchmark public int reordered() throws SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("reordered").getNumberOfRows();
+  }
+}
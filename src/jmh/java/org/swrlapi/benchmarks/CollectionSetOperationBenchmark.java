@@ -0,0 +1,123 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.SQWRLCollectionBuilder;
+import org.swrlapi.test.SQWRLIdCollection;
+import org.swrlapi.test.SQWRLResultValueDictionary;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Intersects two overlapping sets of named individuals, each holding two thirds of them. The <code>engine</code>
+ * benchmark runs a <code>sqwrl:makeSet</code> and <code>sqwrl:intersection</code> query, whose two class atoms are
+ * joined as a cross product before the sets are made, which limits it to a few thousand individuals. The
+ * <code>hashSets</code> and <code>idCollections</code> benchmarks build the two sets from materialized class
+ * results, the first as hash sets of result values, as the engine does, and the second as {@link SQWRLIdCollection}s,
+ * and intersect them.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="CollectionSetOperationBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CollectionSetOperationBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLClass A = SyntheticOntologyGenerator.generatedClass("A");
+  private static final OWLClass B = SyntheticOntologyGenerator.generatedClass("B");
+
+  @Param({ "1000", "3000" }) public int individuals;
+
+  private SQWRLQueryEngine queryEngine;
+  private SQWRLResult aResult;
+  private SQWRLResult bResult;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> individuals = generator.individuals("i", this.individuals);
+
+    int third = this.individuals / 3;
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.classAssertions(A, individuals.subList(0, 2 * third)));
+    SyntheticOntologyGenerator
+      .addOWLAxioms(ontology, generator.classAssertions(B, individuals.subList(third, this.individuals)));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.aResult = this.queryEngine.runSQWRLQuery("q1", "A(?x) -> sqwrl:select(?x)");
+    this.bResult = this.queryEngine.runSQWRLQuery("q2", "B(?x) -> sqwrl:select(?x)");
+  }
+
+  @Benchmark public int engine() throws SWRLParseException, SQWRLException
+  {
+    SQWRLResult result = this.queryEngine.runSQWRLQuery("q3", "A(?a) ^ B(?b) . sqwrl:makeSet(?sa, ?a) "
+      + "^ sqwrl:makeSet(?sb, ?b) . sqwrl:intersection(?s, ?sa, ?sb) ^ sqwrl:size(?n, ?s) -> sqwrl:select(?n)");
+
+    result.next();
+
+    return result.getLiteral(0).getInteger().intValue();
+  }
+
+  @Benchmark public int hashSets() throws SQWRLException
+  {
+    Set<SQWRLResultValue> a = new HashSet<>(), b = new HashSet<>();
+
+    this.aResult.reset();
+    while (this.aResult.next())
+      a.add(this.aResult.getValue(0));
+
+    this.bResult.reset();
+    while (this.bResult.next())
+      b.add(this.bResult.getValue(0));
+
+    a.retainAll(b);
+
+    return a.size();
+  }
+
+  @Benchmark public int idCollections() throws SQWRLException
+  {
+    SQWRLResultValueDictionary dictionary = new SQWRLResultValueDictionary();
+    SQWRLCollectionBuilder a = SQWRLCollectionBuilder.makeSet(dictionary, 0);
+    SQWRLCollectionBuilder b = SQWRLCollectionBuilder.makeSet(dictionary, 0);
+
+    this.aResult.reset();
+    a.addAll(this.aResult);
+    this.bResult.reset();
+    b.addAll(this.bResult);
+
+    return a.getCollection().intersection(b.getCollection()).size();
+  }
+}
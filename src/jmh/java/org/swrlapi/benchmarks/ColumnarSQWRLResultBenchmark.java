@@ -0,0 +1,97 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.ColumnarSQWRLResult;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sums a numeric result column, once cell by cell through {@link SQWRLResult#getLiteral(int)} and once over the
+ * primitive array of a {@link ColumnarSQWRLResult}. The <code>convert</code> benchmark measures the one-off cost of
+ * building the columns. Per-operation allocation is reported by JMH's GC profiler, e.g.,
+ * <code>-Dbenchmark.args="ColumnarSQWRLResultBenchmark -prof gc"</code>.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="ColumnarSQWRLResultBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ColumnarSQWRLResultBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+
+  @Param({ "10000", "100000", "1000000" }) public int individuals;
+
+  private SQWRLResult result;
+  private ColumnarSQWRLResult columns;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    this.result = queryEngine.runSQWRLQuery("q1", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)");
+    this.columns = ColumnarSQWRLResult.fromResult(this.result);
+  }
+
+  @Benchmark public long boxedScan() throws SQWRLException
+  {
+    long sum = 0;
+
+    this.result.reset();
+    while (this.result.next())
+      sum += this.result.getLiteral(1).getInteger().longValue();
+
+    return sum;
+  }
+
+  @Benchmark public long columnarScan()
+  {
+    long[] ages = this.columns.getLongColumn(1);
+    long sum = 0;
+
+    for (long age : ages)
+      sum += age;
+
+    return sum;
+  }
+
+  @Benchmark public ColumnarSQWRLResult convert() throws SQWRLException
+  {
+    return ColumnarSQWRLResult.fromResult(this.result);
+  }
+}
@@ -0,0 +1,124 @@
+package org.swrlapi.benchmarks;
+
+import org.nfunk.jep.JEP;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SWRLExpressionCache;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * Evaluates one score expression over the heights and weights of 10^5 individuals: through a <code>swrlm:eval</code>
+ * query, with a JEP parser that parses the expression for every binding as the built-in does, and with an expression
+ * from {@link SWRLExpressionCache}.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="CompiledExpressionBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CompiledExpressionBenchmark
+{
+  private static final long SEED = 42L;
+  private static final String EXPRESSION = "w / (h / 100)^2 + 0.1 sqrt(h) - if(w > 90, 2, 0)";
+  private static final List<String> VARIABLE_NAMES = Arrays.asList("h", "w");
+  private static final OWLDataProperty HAS_HEIGHT = SyntheticOntologyGenerator.generatedDataProperty("hasHeight");
+  private static final OWLDataProperty HAS_WEIGHT = SyntheticOntologyGenerator.generatedDataProperty("hasWeight");
+
+  @Param({ "100000" }) public int individuals;
+
+  private double[] heights, weights;
+  private SQWRLQueryEngine queryEngine;
+  private SWRLExpressionCache cache;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLParseException, SQWRLException
+  {
+    Random random = new Random(SEED);
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    List<OWLNamedIndividual> items = new SyntheticOntologyGenerator(SEED, 1).individuals("i", this.individuals);
+    List<OWLAxiom> axioms = new ArrayList<>(2 * this.individuals);
+
+    this.heights = new double[this.individuals];
+    this.weights = new double[this.individuals];
+    for (int i = 0; i < this.individuals; i++) {
+      this.heights[i] = 140.0 + random.nextDouble() * 60.0;
+      this.weights[i] = 40.0 + random.nextDouble() * 80.0;
+      axioms.add(
+        DataPropertyAssertion(HAS_HEIGHT, items.get(i), Literal("" + this.heights[i], OWL2Datatype.XSD_DOUBLE)));
+      axioms.add(
+        DataPropertyAssertion(HAS_WEIGHT, items.get(i), Literal("" + this.weights[i], OWL2Datatype.XSD_DOUBLE)));
+    }
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, axioms);
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.queryEngine.createSQWRLQuery("q1",
+      "hasHeight(?i, ?h) ^ hasWeight(?i, ?w) ^ swrlm:eval(?s, \"" + EXPRESSION + "\", ?h, ?w) -> sqwrl:avg(?s)");
+    this.cache = new SWRLExpressionCache(16);
+  }
+
+  @Benchmark public int engine() throws SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("q1").getNumberOfRows();
+  }
+
+  @Benchmark public double parsePerBinding()
+  {
+    JEP jep = new JEP();
+    double total = 0.0;
+
+    jep.addStandardFunctions();
+    jep.addStandardConstants();
+    jep.setImplicitMul(true);
+
+    for (int i = 0; i < this.individuals; i++) {
+      jep.addVariable("h", this.heights[i]);
+      jep.addVariable("w", this.weights[i]);
+      jep.parseExpression(EXPRESSION);
+      total += jep.getValue();
+    }
+
+    return total;
+  }
+
+  @Benchmark public double compiledExpression()
+  {
+    double total = 0.0;
+
+    for (int i = 0; i < this.individuals; i++)
+      total += this.cache.eval(EXPRESSION, VARIABLE_NAMES, this.heights[i], this.weights[i]);
+
+    return total;
+  }
+}
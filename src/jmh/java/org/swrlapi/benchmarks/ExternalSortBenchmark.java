@@ -0,0 +1,91 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.ExternalSQWRLResultSorter;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorts a materialized result on a numeric column with an {@link ExternalSQWRLResultSorter} under memory budgets of
+ * 16 MB, which spills most rows, and 1 GB, which sorts in heap. The <code>orderBy</code> benchmark runs the query
+ * with the engine's in-heap <code>sqwrl:orderBy</code> for comparison.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="ExternalSortBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ExternalSortBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final String QUERY = "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)";
+
+  @Param({ "100000", "1000000" }) public int individuals;
+
+  @Param({ "16", "1024" }) public int memoryBudgetMB;
+
+  private SQWRLQueryEngine queryEngine;
+  private SQWRLResult result;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator
+      .addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, this.individuals));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.result = this.queryEngine.runSQWRLQuery("q1", QUERY);
+  }
+
+  @Benchmark public long externalSort() throws SQWRLException
+  {
+    long rows = 0;
+
+    this.result.reset();
+    try (ExternalSQWRLResultSorter sorter = new ExternalSQWRLResultSorter(this.queryEngine,
+      this.memoryBudgetMB * 1024L * 1024L, 1)) {
+      sorter.addAll(this.result);
+      sorter.sort();
+      while (sorter.next())
+        rows++;
+    }
+    return rows;
+  }
+
+  @Benchmark public int orderBy() throws SWRLParseException, SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("q2", QUERY + " ^ sqwrl:orderBy(?age)").getNumberOfRows();
+  }
+}
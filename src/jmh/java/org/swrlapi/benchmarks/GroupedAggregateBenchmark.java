@@ -0,0 +1,115 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.SQWRLStreamingAggregator;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Averages ages per group over 10^6 persons spread over 10 to 10^6 groups. The <code>engine</code> benchmark runs a
+ * grouped <code>sqwrl:avg</code> query. The <code>bagGrouping</code> and <code>hashGrouping</code> benchmarks group
+ * the same materialized rows, the first as the engine does, with a bag of values per list-keyed group, and the second
+ * with a {@link SQWRLStreamingAggregator}, which keys groups by interned ids in an open-addressing table and keeps one
+ * accumulator per group.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="GroupedAggregateBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GroupedAggregateBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final OWLDataProperty HAS_GROUP = SyntheticOntologyGenerator.generatedDataProperty("hasGroup");
+  private static final String BODY = "hasAge(?p, ?age) ^ hasGroup(?p, ?g)";
+
+  @Param({ "1000000" }) public int individuals;
+
+  @Param({ "10", "1000", "100000", "1000000" }) public int groups;
+
+  private SQWRLQueryEngine queryEngine;
+  private SQWRLResult result;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+    SyntheticOntologyGenerator
+      .addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_GROUP, persons, this.groups));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.result = this.queryEngine.runSQWRLQuery("q1", BODY + " -> sqwrl:select(?g, ?age)");
+  }
+
+  @Benchmark public int engine() throws SWRLParseException, SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("q2", BODY + " -> sqwrl:select(?g) ^ sqwrl:avg(?age)").getNumberOfRows();
+  }
+
+  @Benchmark public void bagGrouping(Blackhole blackhole) throws SQWRLException
+  {
+    Map<List<SQWRLResultValue>, List<SQWRLResultValue>> bags = new HashMap<>();
+
+    this.result.reset();
+    while (this.result.next()) {
+      List<SQWRLResultValue> row = this.result.getRow();
+      bags.computeIfAbsent(Collections.singletonList(row.get(0)), group -> new ArrayList<>()).add(row.get(1));
+    }
+
+    for (List<SQWRLResultValue> bag : bags.values()) {
+      double sum = 0.0;
+      for (SQWRLResultValue value : bag)
+        sum += value.asLiteralResult().getDouble();
+      blackhole.consume(sum / bag.size());
+    }
+  }
+
+  @Benchmark public void hashGrouping(Blackhole blackhole) throws SQWRLException
+  {
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(this.queryEngine, 1, 0);
+
+    this.result.reset();
+    aggregator.addAll(this.result);
+
+    for (List<SQWRLResultValue> group : aggregator.getGroups())
+      blackhole.consume(aggregator.avg(group));
+  }
+}
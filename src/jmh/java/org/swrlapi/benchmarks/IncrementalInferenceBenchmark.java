@@ -0,0 +1,120 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.test.IncrementalSWRLInferrer;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+
+/**
+ * An edit-then-infer loop over an ontology where each iteration makes at most one edit. The <code>edit</code>
+ * parameter selects whether an iteration changes nothing, adds a class assertion, or alternately adds and removes
+ * one. Each iteration then infers with either a bare {@link SWRLRuleEngine#infer()} or an
+ * {@link IncrementalSWRLInferrer}. The edited class shares no rule or axiom with the rest of the ontology, so the
+ * inferrer re-infers only its component.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="IncrementalInferenceBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class IncrementalInferenceBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLClass PERSON = SyntheticOntologyGenerator.generatedClass("Person");
+  private static final OWLClass EDITED = SyntheticOntologyGenerator.generatedClass("Edited");
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+
+  @Param({ "1000", "10000" }) public int individuals;
+
+  @Param({ "none", "add", "remove" }) public String edit;
+
+  private OWLOntology ontology;
+  private SWRLRuleEngine ruleEngine;
+  private IncrementalSWRLInferrer inferrer;
+  private List<OWLNamedIndividual> persons;
+  private int nextEdit;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SWRLBuiltInException
+  {
+    this.ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    this.persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator.addOWLAxioms(this.ontology, generator.classAssertions(PERSON, this.persons));
+    SyntheticOntologyGenerator
+      .addOWLAxioms(this.ontology, generator.dataPropertyAssertions(HAS_AGE, this.persons, 100));
+
+    this.ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(this.ontology);
+    this.ruleEngine.createSWRLRule("R1", "Person(?p) ^ hasAge(?p, ?age) ^ swrlb:greaterThan(?age, 17) -> Adult(?p)");
+    this.inferrer = new IncrementalSWRLInferrer(this.ruleEngine);
+    this.inferrer.infer();
+  }
+
+  @TearDown(Level.Trial) public void tearDown()
+  {
+    this.inferrer.dispose();
+  }
+
+  @Benchmark public void full() throws SWRLRuleEngineException
+  {
+    applyEdit();
+    this.ruleEngine.infer();
+  }
+
+  @Benchmark public void incremental() throws SWRLRuleEngineException
+  {
+    applyEdit();
+    this.inferrer.infer();
+  }
+
+  /**
+   * In <code>remove</code> mode, odd iterations remove the assertion added by the preceding even one.
+   */
+  private void applyEdit()
+  {
+    OWLNamedIndividual individual = this.persons.get((this.nextEdit / 2) % this.persons.size());
+    OWLAxiom axiom = ClassAssertion(EDITED, individual);
+
+    if (this.edit.equals("add"))
+      this.ontology.getOWLOntologyManager()
+        .addAxiom(this.ontology, ClassAssertion(EDITED, this.persons.get(this.nextEdit % this.persons.size())));
+    else if (this.edit.equals("remove") && this.nextEdit % 2 == 0)
+      this.ontology.getOWLOntologyManager().addAxiom(this.ontology, axiom);
+    else if (this.edit.equals("remove"))
+      this.ontology.getOWLOntologyManager().removeAxiom(this.ontology, axiom);
+
+    this.nextEdit++;
+  }
+}
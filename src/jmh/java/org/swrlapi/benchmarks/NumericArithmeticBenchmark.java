@@ -0,0 +1,135 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SWRLNumericArithmetic;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * Multiplies and adds 10^6 pairs of <code>xsd:int</code> or <code>xsd:double</code> literals: through a SQWRL query
+ * with <code>swrlb:multiply</code> and <code>swrlb:add</code>, on {@link BigDecimal} values as the built-in library
+ * computes them, and with {@link SWRLNumericArithmetic}. The <code>primitive</code> benchmark computes
+ * <code>xsd:double</code> results as the library does; the <code>ieee</code> benchmark opts in to IEEE arithmetic,
+ * which only differs from <code>primitive</code> for <code>xsd:double</code>.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="NumericArithmeticBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class NumericArithmeticBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_A = SyntheticOntologyGenerator.generatedDataProperty("hasA");
+  private static final OWLDataProperty HAS_B = SyntheticOntologyGenerator.generatedDataProperty("hasB");
+
+  @Param({ "1000000" }) public int pairs;
+
+  @Param({ "int", "double" }) public String datatype;
+
+  private List<OWLLiteral> as, bs;
+  private OWLLiteral one;
+  private SQWRLQueryEngine queryEngine;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLParseException, SQWRLException
+  {
+    Random random = new Random(SEED);
+    OWL2Datatype owl2Datatype = "int".equals(this.datatype) ? OWL2Datatype.XSD_INT : OWL2Datatype.XSD_DOUBLE;
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    List<OWLNamedIndividual> items = new SyntheticOntologyGenerator(SEED, 1).individuals("i", this.pairs);
+    List<OWLAxiom> axioms = new ArrayList<>(2 * this.pairs);
+
+    this.as = new ArrayList<>(this.pairs);
+    this.bs = new ArrayList<>(this.pairs);
+    for (OWLNamedIndividual item : items) {
+      OWLLiteral a = createLiteral(random, owl2Datatype), b = createLiteral(random, owl2Datatype);
+      this.as.add(a);
+      this.bs.add(b);
+      axioms.add(DataPropertyAssertion(HAS_A, item, a));
+      axioms.add(DataPropertyAssertion(HAS_B, item, b));
+    }
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, axioms);
+    this.one = Literal("1", owl2Datatype);
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.queryEngine.createSQWRLQuery("q1", "hasA(?i, ?a) ^ hasB(?i, ?b) ^ swrlb:multiply(?p, ?a, ?b) ^ "
+      + "swrlb:add(?r, ?p, \"1\"^^xsd:" + this.datatype + ") -> sqwrl:count(?r)");
+  }
+
+  @Benchmark public int engine() throws SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("q1").getNumberOfRows();
+  }
+
+  @Benchmark public void bigDecimal(Blackhole blackhole)
+  {
+    BigDecimal one = new BigDecimal(this.one.getLiteral());
+
+    for (int i = 0; i < this.pairs; i++) {
+      BigDecimal product = new BigDecimal(this.as.get(i).getLiteral())
+        .multiply(new BigDecimal(this.bs.get(i).getLiteral()));
+      BigDecimal sum = product.add(one);
+      blackhole.consume("int".equals(this.datatype) ?
+        Literal(Integer.toString(sum.intValue()), OWL2Datatype.XSD_INT) :
+        Literal(Double.toString(sum.doubleValue()), OWL2Datatype.XSD_DOUBLE));
+    }
+  }
+
+  @Benchmark public void primitive(Blackhole blackhole)
+  {
+    for (int i = 0; i < this.pairs; i++)
+      blackhole.consume(
+        SWRLNumericArithmetic.add(SWRLNumericArithmetic.multiply(this.as.get(i), this.bs.get(i)), this.one));
+  }
+
+  @Benchmark public void ieee(Blackhole blackhole)
+  {
+    SWRLNumericArithmetic.FloatingPointSemantics ieee = SWRLNumericArithmetic.FloatingPointSemantics.IEEE;
+
+    for (int i = 0; i < this.pairs; i++)
+      blackhole.consume(SWRLNumericArithmetic
+        .add(ieee, SWRLNumericArithmetic.multiply(ieee, this.as.get(i), this.bs.get(i)), this.one));
+  }
+
+  private static OWLLiteral createLiteral(Random random, OWL2Datatype datatype)
+  {
+    return datatype == OWL2Datatype.XSD_INT ?
+      Literal(Integer.toString(random.nextInt(200000) - 100000), datatype) :
+      Literal(Double.toString(random.nextDouble() * 1000.0), datatype);
+  }
+}
@@ -0,0 +1,101 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.test.ParallelSWRLInferrer;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Infers over a rule base made of <code>vocabularies</code> groups of rules, each group over its own classes and
+ * properties, once with a single rule engine and once with a {@link ParallelSWRLInferrer}. Every invocation infers
+ * over a fresh copy of the asserted ontology.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="ParallelInferenceBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParallelInferenceBenchmark
+{
+  private static final long SEED = 42L;
+  private static final int RULES_PER_VOCABULARY = 4;
+
+  @Param({ "8", "64" }) public int vocabularies;
+
+  @Param({ "1000" }) public int individualsPerVocabulary;
+
+  @Param({ "2", "8", "32" }) public int parallelism;
+
+  private Set<OWLAxiom> assertedAxioms;
+  private OWLOntology ontology;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SWRLBuiltInException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+
+    for (int v = 0; v < this.vocabularies; v++) {
+      List<OWLNamedIndividual> individuals = generator.individuals("v" + v + "i", this.individualsPerVocabulary);
+
+      SyntheticOntologyGenerator.addOWLAxioms(ontology,
+        generator.classAssertions(SyntheticOntologyGenerator.generatedClass("V" + v + "C0"), individuals));
+      SyntheticOntologyGenerator.addOWLAxioms(ontology, generator
+        .dataPropertyAssertions(SyntheticOntologyGenerator.generatedDataProperty("v" + v + "Value"), individuals, 100));
+
+      ruleEngine.createSWRLRule("V" + v + "R0",
+        "V" + v + "C0(?x) ^ v" + v + "Value(?x, ?n) ^ swrlb:greaterThan(?n, 50) -> V" + v + "C1(?x)");
+      for (int r = 1; r < RULES_PER_VOCABULARY; r++)
+        ruleEngine.createSWRLRule("V" + v + "R" + r, "V" + v + "C" + r + "(?x) -> V" + v + "C" + (r + 1) + "(?x)");
+    }
+
+    this.assertedAxioms = ontology.getAxioms();
+  }
+
+  @Setup(Level.Invocation) public void copyOntology() throws OWLOntologyCreationException
+  {
+    this.ontology = OWLManager.createOWLOntologyManager().createOntology(this.assertedAxioms);
+  }
+
+  @Benchmark public int sequential() throws SWRLRuleEngineException
+  {
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(this.ontology);
+
+    ruleEngine.infer();
+
+    return ruleEngine.getNumberOfInferredOWLAxioms();
+  }
+
+  @Benchmark public int parallel() throws SWRLRuleEngineException
+  {
+    return new ParallelSWRLInferrer(this.ontology, this.parallelism).infer().size();
+  }
+}
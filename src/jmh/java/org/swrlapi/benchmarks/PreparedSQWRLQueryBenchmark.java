@@ -0,0 +1,96 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.PreparedSQWRLQuery;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * A threshold query run with a different literal on every invocation, once by splicing the literal into the query
+ * text and once through a {@link PreparedSQWRLQuery}.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="PreparedSQWRLQueryBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PreparedSQWRLQueryBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final String QUERY = "hasAge(?p, ?age) ^ swrlb:greaterThan(?age, $minAge) -> sqwrl:count(?p)";
+
+  @Param({ "100", "10000" }) public int individuals;
+
+  private SQWRLQueryEngine queryEngine;
+  private PreparedSQWRLQuery preparedQuery;
+  private int minAge;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.preparedQuery = PreparedSQWRLQuery.prepareSQWRLQuery(this.queryEngine, "prepared", QUERY);
+  }
+
+  @TearDown(Level.Trial) public void tearDown()
+  {
+    this.preparedQuery.close();
+  }
+
+  @Benchmark public int spliced() throws SWRLParseException, SQWRLException
+  {
+    String query = QUERY.replace("$minAge", "\"" + nextMinAge() + "\"^^xsd:int");
+
+    return this.queryEngine.runSQWRLQuery("spliced", query).getNumberOfRows();
+  }
+
+  @Benchmark public int prepared() throws SQWRLException
+  {
+    this.preparedQuery.bind("minAge", Literal(nextMinAge()));
+
+    return this.preparedQuery.execute().getNumberOfRows();
+  }
+
+  private int nextMinAge()
+  {
+    this.minAge = (this.minAge + 1) % 100;
+
+    return this.minAge;
+  }
+}
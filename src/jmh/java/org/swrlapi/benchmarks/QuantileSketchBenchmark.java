@@ -0,0 +1,117 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.test.QuantileSketch;
+import org.swrlapi.test.SQWRLStreamingAggregator;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the median of an age column with the engine's <code>sqwrl:median</code>, which sorts every age, and with
+ * a {@link SQWRLStreamingAggregator} whose {@link QuantileSketch} holds a few hundred of them. The
+ * <code>sortedPercentile</code> and <code>sketchPercentile</code> benchmarks compare an exact p95 over a sorted array
+ * with a sketch's p95 over the same values, without the cost of the query.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="QuantileSketchBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class QuantileSketchBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final String QUERY = "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)";
+
+  @Param({ "100000", "1000000" }) public int individuals;
+
+  @Param({ "0.01" }) public double rankError;
+
+  private SQWRLQueryEngine queryEngine;
+  private SQWRLResult result;
+  private double[] values;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator
+      .addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, this.individuals));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.result = this.queryEngine.runSQWRLQuery("q1", QUERY);
+    this.values = new Random(SEED).doubles(this.individuals).toArray();
+  }
+
+  @Benchmark public SQWRLLiteralResultValue engineMedian() throws SWRLParseException, SQWRLException
+  {
+    SQWRLResult result = this.queryEngine.runSQWRLQuery("q2", "hasAge(?p, ?age) -> sqwrl:median(?age)");
+
+    result.next();
+
+    return result.getLiteral(0);
+  }
+
+  @Benchmark public SQWRLLiteralResultValue approximateMedian() throws SQWRLException
+  {
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(this.queryEngine, 1)
+      .withApproximateQuantiles(this.rankError);
+
+    this.result.reset();
+    aggregator.addAll(this.result);
+
+    return aggregator.median();
+  }
+
+  @Benchmark public double sortedPercentile()
+  {
+    double[] sorted = this.values.clone();
+
+    Arrays.sort(sorted);
+
+    return sorted[(int)Math.ceil(0.95 * sorted.length) - 1];
+  }
+
+  @Benchmark public double sketchPercentile()
+  {
+    QuantileSketch sketch = QuantileSketch.withRankError(this.rankError);
+
+    for (double value : this.values)
+      sketch.update(value);
+
+    return sketch.getQuantile(0.95);
+  }
+}
@@ -0,0 +1,93 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of {@link SQWRLQueryEngine#runSQWRLQuery(String, String)} for the query shapes exercised by
+ * <code>SQWRLCoreIT</code>, <code>SQWRLCollectionsIT</code> and <code>SWRLCoreNumericIT</code>, on ontologies of
+ * 10^3 to 10^6 individuals. The sample-time mode reports p50/p99 latencies.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="SQWRLQueryBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SQWRLQueryBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLClass MALE = SyntheticOntologyGenerator.generatedClass("Male");
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+
+  private static final Map<String, String> QUERIES = new HashMap<>();
+
+  static {
+    // SQWRLCoreIT
+    QUERIES.put("select", "Male(?m) -> sqwrl:select(?m)");
+    QUERIES.put("count", "Male(?m) -> sqwrl:count(?m)");
+    QUERIES.put("avg", "hasAge(?p, ?age) -> sqwrl:avg(?age)");
+    QUERIES.put("orderBy", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age) ^ sqwrl:orderBy(?age)");
+    // SQWRLCollectionsIT
+    QUERIES.put("makeSet", "Male(?m) . sqwrl:makeSet(?s, ?m) . sqwrl:size(?size, ?s) -> sqwrl:select(?size)");
+    // SWRLCoreNumericIT
+    QUERIES.put("greaterThan", "hasAge(?p, ?age) ^ swrlb:greaterThan(?age, \"42\"^^xsd:int) -> sqwrl:select(?p)");
+  }
+
+  @Param({ "1000", "10000", "100000", "1000000" }) public int individuals;
+
+  @Param({ "select", "count", "avg", "orderBy", "makeSet", "greaterThan" }) public String shape;
+
+  private SQWRLQueryEngine queryEngine;
+  private String query;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLRuleEngineException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.classAssertions(MALE, persons));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.query = QUERIES.get(this.shape);
+  }
+
+  @Benchmark public int runSQWRLQuery() throws SWRLParseException, SQWRLException
+  {
+    SQWRLResult result = this.queryEngine.runSQWRLQuery("q1", this.query);
+
+    return result.getNumberOfRows();
+  }
+}
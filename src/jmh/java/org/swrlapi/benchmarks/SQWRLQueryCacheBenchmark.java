@@ -0,0 +1,119 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SQWRLQueryCache;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the query mix of <code>SQWRLCoreIT</code> against one engine, with and without a {@link SQWRLQueryCache}.
+ * The cache's hit and miss counts are reported as auxiliary counters.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="SQWRLQueryCacheBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SQWRLQueryCacheBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLClass MALE = SyntheticOntologyGenerator.generatedClass("Male");
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final OWLDataProperty HAS_HEIGHT = SyntheticOntologyGenerator.generatedDataProperty("hasHeight");
+
+  private static final String[] QUERY_MIX = { "Male(?m) -> sqwrl:select(?m)", "Male(?m) -> sqwrl:count(?m)",
+    "hasAge(?p, ?age)-> sqwrl:avg(?age)", "hasAge(?p, ?age)-> sqwrl:max(?age)", "hasAge(?p, ?age)-> sqwrl:min(?age)",
+    "hasAge(?p, ?age)-> sqwrl:sum(?age)", "hasAge(?p, ?age)-> sqwrl:median(?age)",
+    "hasAge(?p, ?age)-> sqwrl:select(?p, ?age) ^ sqwrl:orderBy(?age)",
+    "hasAge(?p, ?age)-> sqwrl:select(?p, ?age) ^ sqwrl:orderByDescending(?age)",
+    "hasHeight(?p, ?height)-> sqwrl:avg(?height)", "hasHeight(?p, ?height)-> sqwrl:max(?height)",
+    "hasHeight(?p, ?height)-> sqwrl:select(?p, ?height) ^ sqwrl:orderBy(?height)",
+    "-> sqwrl:select(\"34\"^^xsd:int)", "-> sqwrl:select(3, 4) ^ sqwrl:columnNames(\"col1\", \"col2\")" };
+
+  @Param({ "100", "10000" }) public int individuals;
+
+  @Param({ "16" }) public int cacheSize;
+
+  private SQWRLQueryEngine queryEngine;
+  private SQWRLQueryCache cache;
+  private int nextQuery;
+
+  @State(Scope.Thread) @AuxCounters(AuxCounters.Type.EVENTS) public static class CacheCounters
+  {
+    public long hits;
+    public long misses;
+  }
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLRuleEngineException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.classAssertions(MALE, persons));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_HEIGHT, persons, 250));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.cache = new SQWRLQueryCache(this.queryEngine, this.cacheSize);
+  }
+
+  @TearDown(Level.Trial) public void tearDown()
+  {
+    this.cache.dispose();
+  }
+
+  @Benchmark public int uncached() throws SWRLParseException, SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("q1", nextQuery()).getNumberOfRows();
+  }
+
+  @Benchmark public int cached(CacheCounters counters) throws SWRLParseException, SQWRLException
+  {
+    long hits = this.cache.getHits(), misses = this.cache.getMisses();
+    int rows = this.cache.runSQWRLQuery(nextQuery()).getNumberOfRows();
+
+    counters.hits += this.cache.getHits() - hits;
+    counters.misses += this.cache.getMisses() - misses;
+
+    return rows;
+  }
+
+  private String nextQuery()
+  {
+    String query = QUERY_MIX[this.nextQuery];
+
+    this.nextQuery = (this.nextQuery + 1) % QUERY_MIX.length;
+
+    return query;
+  }
+}
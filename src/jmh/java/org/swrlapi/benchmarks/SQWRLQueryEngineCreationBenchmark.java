@@ -0,0 +1,89 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SQWRLQueryEnginePool;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a short query on a freshly created engine (cold) versus on an engine borrowed from a
+ * {@link SQWRLQueryEnginePool} (warm).
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="SQWRLQueryEngineCreationBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SQWRLQueryEngineCreationBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLClass MALE = SyntheticOntologyGenerator.generatedClass("Male");
+  private static final String QUERY = "Male(?m) -> sqwrl:count(?m)";
+
+  @Param({ "10", "1000" }) public int individuals;
+
+  private OWLOntology ontology;
+  private SQWRLQueryEnginePool pool;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLRuleEngineException
+  {
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+
+    this.ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator
+      .addOWLAxioms(this.ontology, generator.classAssertions(MALE, generator.individuals("p", this.individuals)));
+
+    this.pool = new SQWRLQueryEnginePool(1);
+  }
+
+  /**
+   * Copies the source axioms into a new ontology, as the pool does, so that both benchmarks pay the same copying cost.
+   */
+  @Benchmark public int cold()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    OWLOntology copy = OWLManager.createOWLOntologyManager().createOntology();
+    copy.getOWLOntologyManager().addAxioms(copy, this.ontology.getAxioms());
+
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(copy);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", QUERY);
+
+    return result.getNumberOfRows();
+  }
+
+  @Benchmark public int warm() throws SWRLParseException, SQWRLException, InterruptedException
+  {
+    SQWRLQueryEngine queryEngine = this.pool.borrow(this.ontology);
+
+    try {
+      return queryEngine.runSQWRLQuery("q1", QUERY).getNumberOfRows();
+    } finally {
+      this.pool.release(queryEngine);
+    }
+  }
+}
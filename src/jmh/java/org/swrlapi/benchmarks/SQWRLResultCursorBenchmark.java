@@ -0,0 +1,116 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SQWRLQueryEnginePool;
+import org.swrlapi.test.SQWRLResultCursor;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains every row of a <code>sqwrl:select</code> export, once from a fully materialized result and once through a
+ * {@link SQWRLResultCursor} with varying partition sizes. Heap use is best compared with JMH's GC profiler, e.g.,
+ * <code>-Dbenchmark.args="SQWRLResultCursorBenchmark -prof gc"</code>.
+ * <p>
+ * The cursor buys its memory bound with time: every partition is a full query run over the whole ontology. The
+ * <code>queryRuns</code> counter reports the runs behind each score, one for <code>materialized</code> and
+ * <code>ceil(individuals / partitionSize)</code> for <code>cursor</code>, so the results show next to each time how
+ * many full runs the partition size cost.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="SQWRLResultCursorBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SQWRLResultCursorBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final String QUERY = "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)";
+
+  @Param({ "10000", "100000", "1000000" }) public int individuals;
+
+  @Param({ "1000", "10000", "100000" }) public int partitionSize;
+
+  private OWLOntology ontology;
+  private SQWRLQueryEngine queryEngine;
+  private SQWRLQueryEnginePool pool;
+
+  @State(Scope.Thread) @AuxCounters(AuxCounters.Type.EVENTS) public static class RunCounters
+  {
+    public long queryRuns;
+  }
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLRuleEngineException
+  {
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    this.ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator.addOWLAxioms(this.ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(this.ontology);
+    this.pool = new SQWRLQueryEnginePool(1);
+  }
+
+  @Benchmark public long materialized(Blackhole blackhole, RunCounters counters)
+    throws SWRLParseException, SQWRLException
+  {
+    SQWRLResult result = this.queryEngine.runSQWRLQuery("materialized", QUERY);
+    long rows = 0;
+
+    while (result.next()) {
+      blackhole.consume(result.getValue(1));
+      rows++;
+    }
+    this.queryEngine.deleteSWRLRule("materialized");
+    counters.queryRuns++;
+
+    return rows;
+  }
+
+  @Benchmark public long cursor(Blackhole blackhole, RunCounters counters)
+    throws SWRLParseException, SQWRLException, InterruptedException
+  {
+    long rows = 0;
+
+    try (SQWRLResultCursor cursor = SQWRLResultCursor
+      .openCursor(this.pool, this.ontology, "cursor", QUERY, "p", this.partitionSize)) {
+      while (cursor.next()) {
+        blackhole.consume(cursor.getValue(1));
+        rows++;
+      }
+      counters.queryRuns += cursor.getNumberOfPartitionsRun();
+    }
+
+    return rows;
+  }
+}
@@ -0,0 +1,89 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SameIndividualIndex;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * Counts the members of a class whose only asserted member is part of a <code>sameAs</code> clique, once through the
+ * engine's OWL 2 RL equality rules and once over an ontology canonicalized by a {@link SameIndividualIndex}, whose
+ * result is expanded back to clique members. The cliques are asserted as chains of <code>SameIndividual</code> axioms.
+ * <p>
+ * The pairwise closure of a clique of 10^4 individuals has 10^8 <code>sameAs</code> facts, so the
+ * <code>pairwise</code> benchmark needs a very large heap at that size.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="SameIndividualBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class SameIndividualBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLClass MARKED = SyntheticOntologyGenerator.generatedClass("Marked");
+  private static final String QUERY = "Marked(?x) -> sqwrl:select(?x)";
+
+  @Param({ "100", "1000", "10000" }) public int cliqueSize;
+
+  @Param({ "10" }) public int cliques;
+
+  private OWLOntology ontology;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException
+  {
+    this.ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> individuals = generator.individuals("i", this.cliqueSize * this.cliques);
+
+    SyntheticOntologyGenerator
+      .addOWLAxioms(this.ontology, generator.sameIndividualChains(individuals, this.cliqueSize));
+    this.ontology.getOWLOntologyManager().addAxiom(this.ontology, ClassAssertion(MARKED, individuals.get(0)));
+  }
+
+  @Benchmark public int pairwise() throws SWRLParseException, SQWRLException
+  {
+    return SWRLAPIFactory.createSQWRLQueryEngine(this.ontology).runSQWRLQuery("q1", QUERY).getNumberOfRows();
+  }
+
+  @Benchmark public int canonical() throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SameIndividualIndex index = SameIndividualIndex.fromOntology(this.ontology);
+    OWLOntology canonicalOntology = index.canonicalize(this.ontology);
+    SQWRLResult result = SWRLAPIFactory.createSQWRLQueryEngine(canonicalOntology).runSQWRLQuery("q1", QUERY);
+    int members = 0;
+
+    while (result.next())
+      members += index.getMembers(NamedIndividual(result.getNamedIndividual(0).getIRI())).size();
+
+    return members;
+  }
+}
@@ -0,0 +1,108 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.test.SQWRLQueryEnginePool;
+import org.swrlapi.test.SQWRLResultCursor;
+import org.swrlapi.test.SQWRLStreamingAggregator;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Averages an age column with the engine's <code>sqwrl:avg</code>, which holds every age until the result is prepared,
+ * and with a {@link SQWRLStreamingAggregator} fed from a {@link SQWRLResultCursor}, which holds one accumulator and
+ * one partition of rows. The <code>aggregateResult</code> benchmark times the aggregator alone over an already
+ * materialized result.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="StreamingAggregateBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StreamingAggregateBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final String QUERY = "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)";
+
+  @Param({ "100000", "1000000" }) public int individuals;
+
+  @Param({ "100000" }) public int partitionSize;
+
+  private OWLOntology ontology;
+  private SQWRLQueryEngine queryEngine;
+  private SQWRLQueryEnginePool pool;
+  private SQWRLResult result;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    this.ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator.addOWLAxioms(this.ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(this.ontology);
+    this.pool = new SQWRLQueryEnginePool(1);
+    this.result = this.queryEngine.runSQWRLQuery("q1", QUERY);
+  }
+
+  @Benchmark public SQWRLLiteralResultValue engineAvg() throws SWRLParseException, SQWRLException
+  {
+    SQWRLResult result = this.queryEngine.runSQWRLQuery("q2", "hasAge(?p, ?age) -> sqwrl:avg(?age)");
+
+    result.next();
+
+    return result.getLiteral(0);
+  }
+
+  @Benchmark public SQWRLLiteralResultValue streamingAvg()
+    throws SWRLParseException, SQWRLException, InterruptedException
+  {
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(this.queryEngine, 1);
+
+    try (SQWRLResultCursor cursor = SQWRLResultCursor
+      .openCursor(this.pool, this.ontology, "cursor", QUERY, "p", this.partitionSize)) {
+      aggregator.addAll(cursor);
+    }
+    return aggregator.avg();
+  }
+
+  @Benchmark public SQWRLLiteralResultValue aggregateResult() throws SQWRLException
+  {
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(this.queryEngine, 1);
+
+    this.result.reset();
+    aggregator.addAll(this.result);
+
+    return aggregator.avg();
+  }
+}
@@ -0,0 +1,111 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SWRLStringPatternCache;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * Applies one regular expression to 10^6 string literals: through a <code>swrlb:matches</code> query, which compiles
+ * the pattern for every literal, with {@link Pattern#matches(String, CharSequence)} as the built-in calls it, and with
+ * a pattern from {@link SWRLStringPatternCache}.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="StringPatternCacheBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class StringPatternCacheBenchmark
+{
+  private static final long SEED = 42L;
+  private static final String REGEX = "[A-Z]{2}-[0-9]{3,4}(-[a-z]+)?";
+  private static final OWLDataProperty HAS_CODE = SyntheticOntologyGenerator.generatedDataProperty("hasCode");
+
+  @Param({ "1000000" }) public int literals;
+
+  private List<String> codes;
+  private SQWRLQueryEngine queryEngine;
+  private SWRLStringPatternCache cache;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLParseException, SQWRLException
+  {
+    Random random = new Random(SEED);
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> items = generator.individuals("i", this.literals);
+    List<OWLAxiom> axioms = new ArrayList<>(this.literals);
+
+    this.codes = new ArrayList<>(this.literals);
+    for (OWLNamedIndividual item : items) {
+      String code = "" + (char)('A' + random.nextInt(26)) + (char)('A' + random.nextInt(26)) + "-" + random
+        .nextInt(100000) + (random.nextBoolean() ? "-x" : "");
+      this.codes.add(code);
+      axioms.add(DataPropertyAssertion(HAS_CODE, item, Literal(code)));
+    }
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, axioms);
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.queryEngine
+      .createSQWRLQuery("q1", "hasCode(?i, ?c) ^ swrlb:matches(?c, \"" + REGEX + "\") -> sqwrl:count(?i)");
+    this.cache = new SWRLStringPatternCache(SWRLStringPatternCache.DEFAULT_MAXIMUM_SIZE);
+  }
+
+  @Benchmark public int engine() throws SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("q1").getNumberOfRows();
+  }
+
+  @Benchmark public int compilePerValue()
+  {
+    int matches = 0;
+
+    for (String code : this.codes)
+      if (Pattern.matches(REGEX, code))
+        matches++;
+
+    return matches;
+  }
+
+  @Benchmark public int cachedPattern()
+  {
+    int matches = 0;
+
+    for (String code : this.codes)
+      if (this.cache.matches(code, REGEX))
+        matches++;
+
+    return matches;
+  }
+}
@@ -0,0 +1,112 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SWRLTemporalIndex;
+import org.swrlapi.test.SWRLTemporalValue;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * Finds the events among 10^5 individuals whose times fall in a one-year window of a twenty-year span: through a
+ * <code>temporal:during</code> query, with a filter over every parsed time, and with range scans of a
+ * {@link SWRLTemporalIndex}.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="TemporalIndexBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TemporalIndexBenchmark
+{
+  private static final long SEED = 42L;
+  private static final DateTimeFormatter LEXICAL_FORM = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+  private static final String START = "2010-01-01T00:00:00", FINISH = "2010-12-31T00:00:00";
+  private static final OWLDataProperty HAS_TIME = SyntheticOntologyGenerator.generatedDataProperty("hasTime");
+
+  @Param({ "100000" }) public int individuals;
+
+  private SWRLTemporalValue start, finish;
+  private SWRLTemporalValue[] times;
+  private SQWRLQueryEngine queryEngine;
+  private SWRLTemporalIndex index;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLParseException, SQWRLException
+  {
+    Random random = new Random(SEED);
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    List<OWLNamedIndividual> events = new SyntheticOntologyGenerator(SEED, 1).individuals("e", this.individuals);
+    List<OWLAxiom> axioms = new ArrayList<>(this.individuals);
+
+    this.times = new SWRLTemporalValue[this.individuals];
+    for (int i = 0; i < this.individuals; i++) {
+      String time = LocalDateTime.of(2000, 1, 1, 0, 0).plusSeconds(random.nextInt(20 * 365 * 86400))
+        .format(LEXICAL_FORM);
+      this.times[i] = SWRLTemporalValue.parse(time, SWRLTemporalValue.Kind.DATE_TIME);
+      axioms.add(DataPropertyAssertion(HAS_TIME, events.get(i), Literal(time, OWL2Datatype.XSD_DATE_TIME)));
+    }
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, axioms);
+
+    this.start = SWRLTemporalValue.parse(START, SWRLTemporalValue.Kind.DATE_TIME);
+    this.finish = SWRLTemporalValue.parse(FINISH, SWRLTemporalValue.Kind.DATE_TIME);
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.queryEngine.createSQWRLQuery("q1", "hasTime(?e, ?t) ^ temporal:during(?t, \"" + START + "\", \"" + FINISH
+      + "\", \"Days\") -> sqwrl:count(?e)");
+    this.index = SWRLTemporalIndex.fromOntology(ontology, HAS_TIME);
+  }
+
+  @Benchmark public int engine() throws SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("q1").getNumberOfRows();
+  }
+
+  @Benchmark public int filter()
+  {
+    long from = this.start.getMillis(), to = this.finish.getMillis() + 86400000L;
+    int during = 0;
+
+    for (SWRLTemporalValue time : this.times)
+      if (time.getMillis() >= from && time.getMillis() < to)
+        during++;
+
+    return during;
+  }
+
+  @Benchmark public int index()
+  {
+    return this.index.getDuring(this.start, this.finish, SWRLTemporalIndex.Granularity.DAYS).size();
+  }
+}
@@ -0,0 +1,131 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.literal.XSDDateTime;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SWRLTemporalValueCache;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * Counts the events of 10^5 individuals whose timestamps fall before a bound: through a <code>swrlb:lessThan</code>
+ * query, by building an {@link XSDDateTime} for every comparison, by parsing with <code>java.time</code>, and with
+ * values from a {@link SWRLTemporalValueCache}, which parses each timestamp once across invocations.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="TemporalValueBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TemporalValueBenchmark
+{
+  private static final long SEED = 42L;
+  private static final DateTimeFormatter LEXICAL_FORM = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+  private static final String BOUND = "2010-06-15T12:00:00";
+  private static final OWLDataProperty HAS_TIMESTAMP = SyntheticOntologyGenerator.generatedDataProperty("hasTimestamp");
+
+  @Param({ "100000" }) public int individuals;
+
+  private List<OWLLiteral> timestamps;
+  private OWLLiteral bound;
+  private SQWRLQueryEngine queryEngine;
+  private SWRLTemporalValueCache cache;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException, SWRLParseException, SQWRLException
+  {
+    Random random = new Random(SEED);
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    List<OWLNamedIndividual> events = new SyntheticOntologyGenerator(SEED, 1).individuals("e", this.individuals);
+    List<OWLAxiom> axioms = new ArrayList<>(this.individuals);
+
+    this.timestamps = new ArrayList<>(this.individuals);
+    for (int i = 0; i < this.individuals; i++) {
+      OWLLiteral timestamp = Literal(
+        LocalDateTime.of(2000, 1, 1, 0, 0).plusSeconds(random.nextInt(20 * 365 * 86400)).format(LEXICAL_FORM),
+        OWL2Datatype.XSD_DATE_TIME);
+      this.timestamps.add(timestamp);
+      axioms.add(DataPropertyAssertion(HAS_TIMESTAMP, events.get(i), timestamp));
+    }
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, axioms);
+
+    this.bound = Literal(BOUND, OWL2Datatype.XSD_DATE_TIME);
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.queryEngine.createSQWRLQuery("q1",
+      "hasTimestamp(?e, ?t) ^ swrlb:lessThan(?t, \"" + BOUND + "\"^^xsd:dateTime) -> sqwrl:count(?e)");
+    this.cache = new SWRLTemporalValueCache(this.individuals + 1);
+  }
+
+  @Benchmark public int engine() throws SQWRLException
+  {
+    return this.queryEngine.runSQWRLQuery("q1").getNumberOfRows();
+  }
+
+  @Benchmark public int xsdDateTime()
+  {
+    XSDDateTime bound = new XSDDateTime(BOUND);
+    int before = 0;
+
+    for (OWLLiteral timestamp : this.timestamps)
+      if (new XSDDateTime(timestamp.getLiteral()).compareTo(bound) < 0)
+        before++;
+
+    return before;
+  }
+
+  @Benchmark public int javaTime()
+  {
+    LocalDateTime bound = LocalDateTime.parse(BOUND);
+    int before = 0;
+
+    for (OWLLiteral timestamp : this.timestamps)
+      if (LocalDateTime.parse(timestamp.getLiteral()).isBefore(bound))
+        before++;
+
+    return before;
+  }
+
+  @Benchmark public int temporalValueCache()
+  {
+    int before = 0;
+
+    for (OWLLiteral timestamp : this.timestamps)
+      if (this.cache.compare(timestamp, this.bound) < 0)
+        before++;
+
+    return before;
+  }
+}
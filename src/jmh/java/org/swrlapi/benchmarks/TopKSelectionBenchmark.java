@@ -0,0 +1,111 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.SQWRLTopKSelection;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selects the ten greatest ages of a result, once with the engine's <code>sqwrl:orderBy</code> and
+ * <code>sqwrl:greatestN(10)</code>, which sort the whole result, and once with a {@link SQWRLTopKSelection} over the
+ * unordered result. The <code>sort</code> and <code>heap</code> benchmarks compare the two strategies over an already
+ * materialized result, without the cost of running the query.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="TopKSelectionBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TopKSelectionBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLDataProperty HAS_AGE = SyntheticOntologyGenerator.generatedDataProperty("hasAge");
+  private static final String QUERY = "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)";
+
+  @Param({ "10000", "100000", "1000000" }) public int individuals;
+
+  @Param({ "10" }) public int k;
+
+  private SQWRLQueryEngine queryEngine;
+  private SQWRLResult result;
+
+  @Setup(Level.Trial) public void setUp()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, SWRLParseException, SQWRLException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", this.individuals);
+
+    SyntheticOntologyGenerator
+      .addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, this.individuals));
+
+    this.queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    this.result = this.queryEngine.runSQWRLQuery("q1", QUERY);
+  }
+
+  @Benchmark public int engineGreatestN() throws SWRLParseException, SQWRLException
+  {
+    return this.queryEngine
+      .runSQWRLQuery("q2", QUERY + " ^ sqwrl:orderBy(?age) ^ sqwrl:greatestN(" + this.k + ")").getNumberOfRows();
+  }
+
+  @Benchmark public int engineHeap() throws SWRLParseException, SQWRLException
+  {
+    return SQWRLTopKSelection.greatestN(this.k, 1).selectFrom(this.queryEngine.runSQWRLQuery("q3", QUERY)).size();
+  }
+
+  @Benchmark public List<List<SQWRLResultValue>> sort() throws SQWRLException
+  {
+    List<List<SQWRLResultValue>> rows = new ArrayList<>(this.result.getNumberOfRows());
+
+    this.result.reset();
+    while (this.result.next())
+      rows.add(this.result.getRow());
+
+    rows.sort((row1, row2) -> {
+      try {
+        return row1.get(1).asLiteralResult().compareTo(row2.get(1).asLiteralResult());
+      } catch (SQWRLException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+
+    return rows.subList(rows.size() - this.k, rows.size());
+  }
+
+  @Benchmark public List<List<SQWRLResultValue>> heap() throws SQWRLException
+  {
+    this.result.reset();
+
+    return SQWRLTopKSelection.greatestN(this.k, 1).selectFrom(this.result);
+  }
+}
@@ -0,0 +1,84 @@
+package org.swrlapi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+import org.swrlapi.test.TransitiveClosureIndex;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.TransitiveObjectProperty;
+
+/**
+ * Enumerates every <code>partOf(?x, ?y)</code> pair of a transitive part-of hierarchy, once through the engine's
+ * <code>prp-trp</code> materialization and once from a {@link TransitiveClosureIndex} built over the asserted
+ * assertions. A fan-out of 1 gives a single chain whose closure is quadratic in its length; a fan-out of 2 gives a
+ * binary tree of logarithmic depth.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="TransitiveClosureBenchmark"</code>.
+ */
+@BenchmarkMode({ Mode.SingleShotTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx16g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TransitiveClosureBenchmark
+{
+  private static final long SEED = 42L;
+  private static final OWLObjectProperty PART_OF = SyntheticOntologyGenerator.generatedObjectProperty("partOf");
+
+  @Param({ "100", "1000", "3000" }) public int parts;
+
+  @Param({ "1", "2" }) public int fanOut;
+
+  private OWLOntology ontology;
+  private List<OWLNamedIndividual> individuals;
+
+  @Setup(Level.Trial) public void setUp() throws OWLOntologyCreationException
+  {
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, this.fanOut);
+
+    this.ontology = OWLManager.createOWLOntologyManager().createOntology();
+    this.individuals = generator.individuals("part", this.parts);
+
+    this.ontology.getOWLOntologyManager().addAxiom(this.ontology, TransitiveObjectProperty(PART_OF));
+    SyntheticOntologyGenerator.addOWLAxioms(this.ontology, generator.objectPropertyTree(PART_OF, this.individuals));
+  }
+
+  @Benchmark public int engine() throws SWRLParseException, SQWRLException
+  {
+    return SWRLAPIFactory.createSQWRLQueryEngine(this.ontology)
+      .runSQWRLQuery("q1", "partOf(?x, ?y) -> sqwrl:select(?x, ?y)").getNumberOfRows();
+  }
+
+  @Benchmark public long index()
+  {
+    TransitiveClosureIndex index = TransitiveClosureIndex.fromOntology(this.ontology, PART_OF);
+    long pairs = 0;
+
+    for (OWLNamedIndividual individual : this.individuals)
+      pairs += index.getTransitiveSuccessors(individual).size();
+
+    return pairs;
+  }
+}
@@ -0,0 +1,156 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.core.SWRLAPIRule;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQuery;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLQueryPlan;
+import org.swrlapi.test.SWRLBodyAtomReorderer;
+import org.swrlapi.test.SWRLCardinalityStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyAssertion;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLBodyAtomReorderingIT extends IntegrationTestBase
+{
+  private static final OWLClass PERSON = Class(iri("Person"));
+  private static final OWLClass DRIVER = Class(iri("Driver"));
+  private static final OWLClass ADULT = Class(iri("Adult"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final OWLObjectProperty KNOWS = ObjectProperty(iri("knows"));
+
+  private static final String BADLY_ORDERED_QUERY = "swrlb:greaterThan(?age, 17) ^ Person(?p) ^ knows(?p, ?q) ^ "
+    + "hasAge(?q, ?age) ^ Driver(?p) -> sqwrl:select(?p, ?q, ?age)";
+
+  @Test public void TestReorderedSQWRLQueryJoinsSelectiveAtomsFirst()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SWRLBodyAtomReorderer reorderer = new SWRLBodyAtomReorderer(SWRLCardinalityStatistics.of(ontology));
+
+    reorderer.createSQWRLQuery(queryEngine, "q1", BADLY_ORDERED_QUERY);
+
+    List<String> atoms = new ArrayList<>();
+    for (SQWRLQueryPlan.Step step : SQWRLQueryPlan.explain(queryEngine, "q1").getSteps())
+      atoms.add(step.getAtom());
+
+    Assert.assertEquals(Arrays
+        .asList("Driver(?p)", "Person(?p)", "knows(?p, ?q)", "hasAge(?q, ?age)", "swrlb:greaterThan(?age, 17)"),
+      atoms);
+  }
+
+  @Test public void TestReorderedSQWRLQueryReturnsSameRows()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SWRLBodyAtomReorderer reorderer = new SWRLBodyAtomReorderer(SWRLCardinalityStatistics.of(ontology));
+
+    reorderer.createSQWRLQuery(queryEngine, "q1", BADLY_ORDERED_QUERY + " ^ sqwrl:orderBy(?p, ?q)");
+
+    SQWRLResult reordered = queryEngine.runSQWRLQuery("q1");
+    List<List<SQWRLResultValue>> reorderedRows = new ArrayList<>();
+    while (reordered.next())
+      reorderedRows.add(reordered.getRow());
+
+    SQWRLResult written = queryEngine.runSQWRLQuery("q2", BADLY_ORDERED_QUERY + " ^ sqwrl:orderBy(?p, ?q)");
+    List<List<SQWRLResultValue>> writtenRows = new ArrayList<>();
+    while (written.next())
+      writtenRows.add(written.getRow());
+
+    Assert.assertEquals(9, reorderedRows.size());
+    Assert.assertEquals(writtenRows, reorderedRows);
+  }
+
+  @Test public void TestReorderedSQWRLQueryKeepsCollectionPhase()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SWRLBodyAtomReorderer reorderer = new SWRLBodyAtomReorderer(SWRLCardinalityStatistics.of(ontology));
+
+    SQWRLQuery query = reorderer.createSQWRLQuery(queryEngine, "q1",
+      "Person(?p) ^ Driver(?p) . sqwrl:makeSet(?s, ?p) ^ sqwrl:size(?n, ?s) -> sqwrl:select(?n)");
+
+    Assert.assertEquals(2, query.getSQWRLPhase2BodyAtoms().size());
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1");
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(10, result.getLiteral(0).getInteger());
+  }
+
+  @Test public void TestReorderedSWRLRuleKeepsBuiltInBindings()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+    SWRLBodyAtomReorderer reorderer = new SWRLBodyAtomReorderer(SWRLCardinalityStatistics.of(ontology));
+
+    addOWLAxioms(ontology, Declaration(ADULT));
+
+    SWRLAPIRule rule = reorderer.createSWRLRule(ruleEngine, "R1",
+      "swrlb:add(?next, ?age, 1) ^ swrlb:greaterThan(?next, 18) ^ Person(?p) ^ hasAge(?p, ?age) ^ Driver(?p) "
+        + "-> Adult(?p)");
+
+    Assert.assertEquals(DRIVER, rule.getNonBuiltInAtomsFromBody().get(0).getPredicate());
+    Assert.assertEquals("swrlb:add", rule.getBuiltInAtomsFromBody().get(0).getBuiltInPrefixedName());
+    Assert.assertTrue(rule.getBuiltInAtomsFromBody().get(0).isArgumentUnbound(0));
+
+    ruleEngine.infer();
+
+    Assert.assertFalse(ontology.containsAxiom(ClassAssertion(ADULT, NamedIndividual(iri("p0")))));
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(ADULT, NamedIndividual(iri("p30")))));
+    Assert.assertFalse(ontology.containsAxiom(ClassAssertion(ADULT, NamedIndividual(iri("p31")))));
+  }
+
+  /**
+   * Three hundred persons aged 0 to 299, every thirtieth of which is a driver, each knowing one other person.
+   */
+  private OWLOntology createOntology() throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    for (int i = 0; i < 300; i++) {
+      OWLNamedIndividual p = NamedIndividual(iri("p" + i));
+
+      addOWLAxioms(ontology, ClassAssertion(PERSON, p), DataPropertyAssertion(HAS_AGE, p, Literal("" + i, XSD_INT)),
+        ObjectPropertyAssertion(KNOWS, p, NamedIndividual(iri("p" + (i * 7) % 300))));
+      if (i % 30 == 0)
+        addOWLAxioms(ontology, ClassAssertion(DRIVER, p));
+    }
+
+    return ontology;
+  }
+}
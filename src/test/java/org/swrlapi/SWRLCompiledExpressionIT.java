@@ -0,0 +1,186 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.nfunk.jep.JEP;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SWRLCompiledExpression;
+import org.swrlapi.test.SWRLExpressionCache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLCompiledExpressionIT extends IntegrationTestBase
+{
+  private static final OWLDataProperty HAS_HEIGHT = DataProperty(iri("hasHeight"));
+  private static final OWLDataProperty HAS_WEIGHT = DataProperty(iri("hasWeight"));
+  private static final List<String> XY = Arrays.asList("x", "y");
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSWRLCompiledExpressionMatchesEvalBuiltIn()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    String expression = "weight / (height / 100)^2 + 2 sqrt(height) - if(weight > 70, 1, 0)";
+    SWRLExpressionCache cache = new SWRLExpressionCache(8);
+    List<String> variableNames = Arrays.asList("height", "weight");
+
+    for (int i = 0; i < 20; i++) {
+      OWLNamedIndividual p = NamedIndividual(iri("p" + i));
+      addOWLAxioms(ontology, DataPropertyAssertion(HAS_HEIGHT, p, Literal("" + (150.0 + 2.5 * i), XSD_DOUBLE)),
+        DataPropertyAssertion(HAS_WEIGHT, p, Literal("" + (50.0 + 1.5 * i), XSD_DOUBLE)));
+    }
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "hasHeight(?p, ?height) ^ hasWeight(?p, ?weight) ^ "
+      + "swrlm:eval(?r, \"" + expression + "\", ?height, ?weight) -> sqwrl:select(?height, ?weight, ?r)");
+
+    Assert.assertEquals(20, result.getNumberOfRows());
+    while (result.next()) {
+      double height = result.getLiteral(0).getDouble(), weight = result.getLiteral(1).getDouble();
+      Assert.assertEquals(result.getLiteral(2).getDouble(), cache.eval(expression, variableNames, height, weight),
+        DELTA);
+    }
+    Assert.assertEquals(1, cache.getStatistics().getMisses());
+    Assert.assertEquals(19, cache.getStatistics().getHits());
+  }
+
+  @Test public void TestSWRLCompiledExpressionMatchesJEP()
+  {
+    List<String> expressions = Arrays
+      .asList("x + y * 2", "-x^2", "2^3^2", "2x + 3 y", "(x + 1)(y - 1)", "x % y", "x / y - y / x", "x^-1",
+        "sin(x) + cos(y) - tan(x / 10)", "atan2(y, x) + asin(0.5) + acos(0.25) + atan(x)",
+        "sinh(0.5) + cosh(0.5) + tanh(y / 10)", "log(x) + ln(y) + exp(1) + sqrt(x y)", "abs(x - y) + mod(y, x)",
+        "pow(x, 3) + sum(x, y, 1) + round(x / 3) + floor(y / 4) + ceil(x / 7)", "round(pi, 3) + 2 e",
+        "if(x > y, x, y) + (x < y) + (x <= y) + (x >= y) + (x == y) + (x != y)", "x > 2 && y > 2 || !(x == 3)",
+        "1.5e2 + .5 + 2.");
+    double[][] bindings = { { 3.0, 5.0 }, { 7.5, 2.0 }, { 1.0, 1.0 }, { 12.0, 0.5 } };
+
+    for (String expression : expressions) {
+      SWRLCompiledExpression compiled = SWRLCompiledExpression.compile(expression, XY);
+      for (double[] binding : bindings) {
+        JEP jep = new JEP();
+        jep.addStandardFunctions();
+        jep.addStandardConstants();
+        jep.setImplicitMul(true);
+        jep.addVariable("x", binding[0]);
+        jep.addVariable("y", binding[1]);
+        jep.parseExpression(expression);
+
+        Assert.assertFalse(expression + ": " + jep.getErrorInfo(), jep.hasError());
+        Assert.assertEquals(expression + " " + Arrays.toString(binding), jep.getValue(), compiled.evaluate(binding),
+          DELTA);
+      }
+    }
+  }
+
+  @Test public void TestSWRLCompiledExpressionPrecedence()
+  {
+    Assert.assertEquals(-4.0, SWRLCompiledExpression.compile("-2^2", XY).evaluate(0, 0), 0.0);
+    Assert.assertEquals(512.0, SWRLCompiledExpression.compile("2^3^2", XY).evaluate(0, 0), 0.0);
+    Assert.assertEquals(0.5, SWRLCompiledExpression.compile("2^-1", XY).evaluate(0, 0), 0.0);
+    Assert.assertEquals(18.0, SWRLCompiledExpression.compile("2 x^2", XY).evaluate(3, 0), 0.0);
+    Assert.assertEquals(7.0, SWRLCompiledExpression.compile("1 + 2 * 3", XY).evaluate(0, 0), 0.0);
+    Assert.assertEquals(1.0, SWRLCompiledExpression.compile("1 < 2 == 1", XY).evaluate(0, 0), 0.0);
+  }
+
+  @Test public void TestSWRLCompiledExpressionFoldsConstants()
+  {
+    Assert.assertTrue(SWRLCompiledExpression.compile("2 pi + sqrt(16)", XY).isConstant());
+    Assert.assertEquals(2 * Math.PI + 4, SWRLCompiledExpression.compile("2 pi + sqrt(16)", XY).evaluate(0, 0), 0.0);
+    Assert.assertFalse(SWRLCompiledExpression.compile("2 pi x", XY).isConstant());
+  }
+
+  @Test public void TestSWRLCompiledExpressionVariablesShadowConstants()
+  {
+    Assert.assertEquals(10.0,
+      SWRLCompiledExpression.compile("e + 1", Collections.singletonList("e")).evaluate(9.0), 0.0);
+  }
+
+  @Test public void TestSWRLExpressionCacheKeysOnVariableNames()
+  {
+    SWRLExpressionCache cache = new SWRLExpressionCache(8);
+
+    Assert.assertEquals(-1.0, cache.eval("x - y", XY, 1, 2), 0.0);
+    Assert.assertEquals(1.0, cache.eval("x - y", Arrays.asList("y", "x"), 1, 2), 0.0);
+    Assert.assertSame(cache.getExpression("x - y", XY), cache.getExpression("x - y", Arrays.asList("x", "y")));
+    Assert.assertEquals(2, cache.getStatistics().getSize());
+    Assert.assertEquals(2, cache.getStatistics().getHits());
+  }
+
+  @Test public void TestSWRLExpressionCacheEvictsLeastRecentlyUsed()
+  {
+    SWRLExpressionCache cache = new SWRLExpressionCache(2);
+    SWRLCompiledExpression a = cache.getExpression("x", XY);
+
+    cache.getExpression("y", XY);
+    cache.getExpression("x", XY);
+    cache.getExpression("x + y", XY);
+
+    Assert.assertEquals(2, cache.getStatistics().getSize());
+    Assert.assertEquals(1, cache.getStatistics().getEvictions());
+    Assert.assertSame(a, cache.getExpression("x", XY));
+  }
+
+  @Test public void TestSWRLCompiledExpressionUnknownVariable()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("unknown variable 'z' at position 5 of expression 'x + z'");
+
+    SWRLCompiledExpression.compile("x + z", XY);
+  }
+
+  @Test public void TestSWRLCompiledExpressionUnknownFunction()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("unknown function 'cube'");
+
+    SWRLCompiledExpression.compile("cube(x)", XY);
+  }
+
+  @Test public void TestSWRLCompiledExpressionWrongArity()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("function 'atan2' expects 2 arguments; got 1");
+
+    SWRLCompiledExpression.compile("atan2(x)", XY);
+  }
+
+  @Test public void TestSWRLCompiledExpressionMalformed()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("expecting ')' at position 6 of expression '(x + y'");
+
+    SWRLCompiledExpression.compile("(x + y", XY);
+  }
+
+  @Test public void TestSWRLCompiledExpressionWrongNumberOfValues()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("expecting 2 variable values for expression 'x + y'; got 1");
+
+    SWRLCompiledExpression.compile("x + y", XY).evaluate(1.0);
+  }
+}
@@ -0,0 +1,214 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IncrementalSWRLInferrer;
+import org.swrlapi.test.IntegrationTestBase;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLIncrementalInferenceIT extends IntegrationTestBase
+{
+  private static final OWLClass PERSON = Class(iri("Person"));
+  private static final OWLClass ADULT = Class(iri("Adult"));
+  private static final OWLClass MALE = Class(iri("Male"));
+  private static final OWLClass MAN = Class(iri("Man"));
+  private static final OWLNamedIndividual P1 = NamedIndividual(iri("p1"));
+  private static final OWLNamedIndividual P2 = NamedIndividual(iri("p2"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+
+  private static final String ADULT_RULE = "Person(?p) ^ hasAge(?p, ?age) ^ swrlb:greaterThan(?age, 17) -> Adult(?p)";
+  private static final String MAN_RULE = "Male(?m) -> Man(?m)";
+
+  @Test public void TestIncrementalInferenceSkipsUnchangedOntology()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+    IncrementalSWRLInferrer inferrer = new IncrementalSWRLInferrer(ruleEngine);
+
+    addOWLAxioms(ontology, Declaration(ADULT), ClassAssertion(PERSON, P1),
+      DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+    ruleEngine.createSWRLRule("R1", ADULT_RULE);
+
+    inferrer.infer();
+
+    Assert.assertFalse(inferrer.hasPendingChanges());
+
+    inferrer.infer();
+
+    Assert.assertEquals(1, inferrer.getNumberOfRuns());
+    Assert.assertEquals(1, inferrer.getNumberOfSkippedRuns());
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+    Assert.assertTrue(inferrer.getDerivedOWLAxioms().contains(ClassAssertion(ADULT, P1)));
+  }
+
+  @Test public void TestIncrementalInferenceAfterAddition()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+    IncrementalSWRLInferrer inferrer = new IncrementalSWRLInferrer(ruleEngine);
+
+    addOWLAxioms(ontology, Declaration(ADULT), ClassAssertion(PERSON, P1),
+      DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+    ruleEngine.createSWRLRule("R1", ADULT_RULE);
+
+    inferrer.infer();
+
+    addOWLAxioms(ontology, ClassAssertion(PERSON, P2), DataPropertyAssertion(HAS_AGE, P2, Literal("42", XSD_INT)));
+
+    Assert.assertTrue(inferrer.hasPendingChanges());
+
+    inferrer.infer();
+
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(ADULT, P2)));
+    Assert.assertEquals(0, inferrer.getNumberOfRetractions());
+  }
+
+  @Test public void TestIncrementalInferenceRetractsAfterRemoval()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+    IncrementalSWRLInferrer inferrer = new IncrementalSWRLInferrer(ruleEngine);
+
+    addOWLAxioms(ontology, Declaration(ADULT), ClassAssertion(PERSON, P1), ClassAssertion(PERSON, P2),
+      DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)),
+      DataPropertyAssertion(HAS_AGE, P2, Literal("42", XSD_INT)));
+    ruleEngine.createSWRLRule("R1", ADULT_RULE);
+
+    inferrer.infer();
+
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+
+    ontology.getOWLOntologyManager().removeAxiom(ontology, DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+
+    inferrer.infer();
+
+    Assert.assertFalse(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(ADULT, P2)));
+    Assert.assertEquals(1, inferrer.getNumberOfRetractions());
+  }
+
+  @Test public void TestIncrementalInferenceInfersOnlyChangedComponents()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+    IncrementalSWRLInferrer inferrer = new IncrementalSWRLInferrer(ruleEngine);
+
+    addOWLAxioms(ontology, Declaration(ADULT), Declaration(MAN), ClassAssertion(PERSON, P1), ClassAssertion(MALE, P1),
+      DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+    ruleEngine.createSWRLRule("R1", ADULT_RULE);
+    ruleEngine.createSWRLRule("R2", MAN_RULE);
+
+    inferrer.infer();
+
+    Assert.assertTrue(inferrer.isFullRun());
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P2));
+
+    inferrer.infer();
+
+    Assert.assertFalse(inferrer.isFullRun());
+    Assert.assertEquals(1, inferrer.getNumberOfComponentsInferred());
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(MAN, P2)));
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+    Assert.assertTrue(inferrer.getDerivedOWLAxioms().contains(ClassAssertion(MAN, P2)));
+  }
+
+  @Test public void TestIncrementalInferenceRetractsOnlyChangedComponents()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+    IncrementalSWRLInferrer inferrer = new IncrementalSWRLInferrer(ruleEngine);
+    Set<OWLAxiom> removedAxioms = new HashSet<>();
+
+    addOWLAxioms(ontology, Declaration(ADULT), Declaration(MAN), ClassAssertion(PERSON, P1), ClassAssertion(MALE, P1),
+      DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+    ruleEngine.createSWRLRule("R1", ADULT_RULE);
+    ruleEngine.createSWRLRule("R2", MAN_RULE);
+
+    inferrer.infer();
+
+    ontology.getOWLOntologyManager().addOntologyChangeListener(changes -> changes.stream()
+      .filter(change -> change instanceof RemoveAxiom).forEach(change -> removedAxioms.add(change.getAxiom())));
+    ontology.getOWLOntologyManager().removeAxiom(ontology, DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+
+    inferrer.infer();
+
+    Assert.assertFalse(inferrer.isFullRun());
+    Assert.assertEquals(1, inferrer.getNumberOfRetractions());
+    Assert.assertFalse(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+    Assert.assertTrue(removedAxioms.contains(ClassAssertion(ADULT, P1)));
+    Assert.assertFalse(removedAxioms.contains(ClassAssertion(MAN, P1)));
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(MAN, P1)));
+  }
+
+  @Test public void TestIncrementalInferenceRetractsAfterRuleDeletion()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+    IncrementalSWRLInferrer inferrer = new IncrementalSWRLInferrer(ruleEngine);
+
+    addOWLAxioms(ontology, Declaration(ADULT), ClassAssertion(PERSON, P1),
+      DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+    ruleEngine.createSWRLRule("R1", ADULT_RULE);
+
+    inferrer.infer();
+
+    ruleEngine.deleteSWRLRule("R1");
+
+    inferrer.infer();
+
+    Assert.assertFalse(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+    Assert.assertTrue(inferrer.getDerivedOWLAxioms().isEmpty());
+  }
+
+  @Test public void TestIncrementalInferenceIgnoresSQWRLQueries()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    IncrementalSWRLInferrer inferrer = new IncrementalSWRLInferrer(queryEngine.getSWRLRuleEngine());
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P1));
+
+    inferrer.infer();
+
+    queryEngine.runSQWRLQuery("q1", "Male(?m) -> sqwrl:select(?m)");
+    queryEngine.deleteSWRLRule("q1");
+
+    Assert.assertFalse(inferrer.hasPendingChanges());
+  }
+}
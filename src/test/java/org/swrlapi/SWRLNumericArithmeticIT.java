@@ -0,0 +1,235 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SWRLNumericArithmetic;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLNumericArithmeticIT extends IntegrationTestBase
+{
+  private static final String ARITHMETIC_QUERY =
+    "swrlb:add(?sum, %1$s, %2$s) ^ swrlb:subtract(?difference, %1$s, %2$s) ^ swrlb:multiply(?product, %1$s, %2$s)"
+      + " ^ swrlb:divide(?quotient, %1$s, %2$s) ^ swrlb:mod(?remainder, %1$s, %2$s) ^ swrlb:pow(?power, %1$s, %3$s)"
+      + " -> sqwrl:select(?sum, ?difference, ?product, ?quotient, ?remainder, ?power)";
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSWRLNumericArithmeticMatchesBuiltInsForIntegralTypes()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    List<OWLDatatype> datatypes = Arrays.asList(XSD_BYTE, XSD_SHORT, XSD_INT, XSD_LONG, XSD_INTEGER);
+    List<String[]> operandPairs = Arrays
+      .asList(new String[] { "7", "2" }, new String[] { "-7", "2" }, new String[] { "5", "-2" },
+        new String[] { "12", "4" });
+    int queryNumber = 0;
+
+    for (OWLDatatype datatype : datatypes) {
+      for (String[] operands : operandPairs) {
+        OWLLiteral a = Literal(operands[0], datatype), b = Literal(operands[1], datatype);
+        OWLLiteral exponent = Literal("3", datatype);
+        SQWRLResult result = queryEngine.runSQWRLQuery("q" + queryNumber++,
+          String.format(ARITHMETIC_QUERY, quote(a), quote(b), quote(exponent)));
+
+        Assert.assertTrue(result.next());
+        assertSameNumber(SWRLNumericArithmetic.add(a, b), result.getLiteral(0).getOWLLiteral());
+        assertSameNumber(SWRLNumericArithmetic.subtract(a, b), result.getLiteral(1).getOWLLiteral());
+        assertSameNumber(SWRLNumericArithmetic.multiply(a, b), result.getLiteral(2).getOWLLiteral());
+        assertSameNumber(SWRLNumericArithmetic.divide(a, b), result.getLiteral(3).getOWLLiteral());
+        assertSameNumber(SWRLNumericArithmetic.mod(a, b), result.getLiteral(4).getOWLLiteral());
+        assertSameNumber(SWRLNumericArithmetic.pow(a, exponent), result.getLiteral(5).getOWLLiteral());
+      }
+    }
+  }
+
+  @Test public void TestSWRLNumericArithmeticMatchesBuiltInsForDoubles()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    OWLLiteral a = Literal("7.5", XSD_DOUBLE), b = Literal("2.5", XSD_DOUBLE), exponent = Literal("2", XSD_INT);
+    OWLLiteral one = Literal("1.0", XSD_DOUBLE), three = Literal("3.0", XSD_DOUBLE);
+    OWLLiteral x = Literal("0.1", XSD_FLOAT), y = Literal("0.2", XSD_FLOAT);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1",
+      "swrlb:add(?sum, \"7.5\"^^xsd:double, \"2.5\"^^xsd:double, 1) ^ "
+        + "swrlb:multiply(?product, \"7.5\"^^xsd:double, \"2.5\"^^xsd:double) ^ "
+        + "swrlb:divide(?quotient, \"7.5\"^^xsd:double, \"2.5\"^^xsd:double) ^ "
+        + "swrlb:pow(?power, \"7.5\"^^xsd:double, 2) ^ "
+        + "swrlb:divide(?third, \"1.0\"^^xsd:double, \"3.0\"^^xsd:double) ^ "
+        + "swrlb:add(?floatSum, \"0.1\"^^xsd:float, \"0.2\"^^xsd:float)"
+        + " -> sqwrl:select(?sum, ?product, ?quotient, ?power, ?third, ?floatSum)");
+
+    Assert.assertTrue(result.next());
+    assertSameNumber(SWRLNumericArithmetic.add(a, b, Literal("1", XSD_INT)), result.getLiteral(0).getOWLLiteral());
+    assertSameNumber(SWRLNumericArithmetic.multiply(a, b), result.getLiteral(1).getOWLLiteral());
+    assertSameNumber(SWRLNumericArithmetic.divide(a, b), result.getLiteral(2).getOWLLiteral());
+    assertSameNumber(SWRLNumericArithmetic.pow(a, exponent), result.getLiteral(3).getOWLLiteral());
+    assertSameNumber(SWRLNumericArithmetic.divide(one, three), result.getLiteral(4).getOWLLiteral());
+    assertSameNumber(SWRLNumericArithmetic.add(x, y), result.getLiteral(5).getOWLLiteral());
+  }
+
+  @Test public void TestSWRLNumericArithmeticIntegerOverflowFallsBackToBigInteger()
+  {
+    OWLLiteral maximum = Literal(Long.toString(Long.MAX_VALUE), XSD_INTEGER);
+
+    Assert.assertEquals(Literal("18446744073709551614", XSD_INTEGER),
+      SWRLNumericArithmetic.multiply(maximum, Literal("2", XSD_INT)));
+    Assert.assertEquals(Literal("-9223372036854775809", XSD_INTEGER),
+      SWRLNumericArithmetic.subtract(Literal(Long.toString(Long.MIN_VALUE), XSD_INTEGER), Literal("1", XSD_BYTE)));
+    Assert.assertEquals(Literal("9223372036854775808", XSD_INTEGER),
+      SWRLNumericArithmetic.divide(Literal(Long.toString(Long.MIN_VALUE), XSD_INTEGER), Literal("-1", XSD_INTEGER)));
+    Assert.assertEquals(Literal("100000000000000000001", XSD_INTEGER),
+      SWRLNumericArithmetic.add(Literal("100000000000000000000", XSD_INTEGER), Literal("1", XSD_INTEGER)));
+    Assert.assertEquals(Literal("4611686018427387904", XSD_INTEGER),
+      SWRLNumericArithmetic.pow(Literal("2", XSD_INTEGER), Literal("62", XSD_INT)));
+    Assert.assertEquals(Literal("18446744073709551616", XSD_INTEGER),
+      SWRLNumericArithmetic.pow(Literal("2", XSD_INTEGER), Literal("64", XSD_INT)));
+  }
+
+  @Test public void TestSWRLNumericArithmeticBoundedTypesWrapAsBuiltIns()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    OWLLiteral maximum = Literal(Long.toString(Long.MAX_VALUE), XSD_LONG);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1",
+      "swrlb:add(?longSum, " + quote(maximum) + ", \"1\"^^xsd:int) ^ "
+        + "swrlb:add(?byteSum, \"127\"^^xsd:byte, \"1\"^^xsd:byte) ^ "
+        + "swrlb:pow(?intPower, \"2\"^^xsd:int, \"32\"^^xsd:int) ^ "
+        + "swrlb:multiply(?shortProduct, \"1\"^^xsd:byte, \"2\"^^xsd:short, \"3\"^^xsd:byte)"
+        + " -> sqwrl:select(?longSum, ?byteSum, ?intPower, ?shortProduct)");
+
+    Assert.assertTrue(result.next());
+    assertSameNumber(SWRLNumericArithmetic.add(maximum, Literal("1", XSD_INT)), result.getLiteral(0).getOWLLiteral());
+    assertSameNumber(SWRLNumericArithmetic.add(Literal("127", XSD_BYTE), Literal("1", XSD_BYTE)),
+      result.getLiteral(1).getOWLLiteral());
+    assertSameNumber(SWRLNumericArithmetic.pow(Literal("2", XSD_INT), Literal("32", XSD_INT)),
+      result.getLiteral(2).getOWLLiteral());
+    assertSameNumber(
+      SWRLNumericArithmetic.multiply(Literal("1", XSD_BYTE), Literal("2", XSD_SHORT), Literal("3", XSD_BYTE)),
+      result.getLiteral(3).getOWLLiteral());
+  }
+
+  @Test public void TestSWRLNumericArithmeticRoundsIntegralQuotientsHalfUp()
+  {
+    OWLLiteral minimum = Literal(Long.toString(Long.MIN_VALUE), XSD_LONG);
+
+    Assert.assertEquals(Literal("4", XSD_INT),
+      SWRLNumericArithmetic.divide(Literal("7", XSD_INT), Literal("2", XSD_INT)));
+    Assert.assertEquals(Literal("-3", XSD_INT),
+      SWRLNumericArithmetic.divide(Literal("5", XSD_INT), Literal("-2", XSD_INT)));
+    Assert.assertEquals(Literal("2", XSD_INT),
+      SWRLNumericArithmetic.divide(Literal("7", XSD_INT), Literal("3", XSD_INT)));
+    Assert.assertEquals(Literal("1", XSD_LONG), SWRLNumericArithmetic.divide(minimum, minimum));
+    Assert.assertEquals(Literal("-4611686018427387904", XSD_LONG),
+      SWRLNumericArithmetic.divide(minimum, Literal("2", XSD_LONG)));
+    Assert.assertEquals(Literal("0", XSD_LONG),
+      SWRLNumericArithmetic.divide(Literal("-4611686018427387903", XSD_LONG), minimum));
+    Assert.assertEquals(Literal("1", XSD_LONG),
+      SWRLNumericArithmetic.divide(Literal("-4611686018427387904", XSD_LONG), minimum));
+    Assert.assertEquals(Literal("3.3", XSD_DECIMAL),
+      SWRLNumericArithmetic.divide(Literal("10.0", XSD_DECIMAL), Literal("3", XSD_DECIMAL)));
+  }
+
+  @Test public void TestSWRLNumericArithmeticDoubleDivisionAsLibrary()
+  {
+    Assert.assertEquals(Literal("0.3", XSD_DOUBLE),
+      SWRLNumericArithmetic.divide(Literal("1.0", XSD_DOUBLE), Literal("3.0", XSD_DOUBLE)));
+    Assert.assertEquals(Literal("0.7", XSD_FLOAT),
+      SWRLNumericArithmetic.divide(Literal("2.0", XSD_FLOAT), Literal("3", XSD_INT)));
+  }
+
+  @Test public void TestSWRLNumericArithmeticDoubleDivisionByZero()
+  {
+    this.thrown.expect(ArithmeticException.class);
+    this.thrown.expectMessage("division by zero");
+
+    SWRLNumericArithmetic.divide(Literal("1.0", XSD_DOUBLE), Literal("0", XSD_INT));
+  }
+
+  @Test public void TestSWRLNumericArithmeticIEEEDoubleDivision()
+  {
+    SWRLNumericArithmetic.FloatingPointSemantics ieee = SWRLNumericArithmetic.FloatingPointSemantics.IEEE;
+
+    Assert.assertEquals(Literal("INF", XSD_DOUBLE),
+      SWRLNumericArithmetic.divide(ieee, Literal("1.0", XSD_DOUBLE), Literal("0", XSD_INT)));
+    Assert.assertEquals(Literal("-INF", XSD_FLOAT),
+      SWRLNumericArithmetic.divide(ieee, Literal("-1.0", XSD_FLOAT), Literal("0", XSD_INT)));
+    Assert.assertEquals(Literal(Double.toString(1.0 / 3.0), XSD_DOUBLE),
+      SWRLNumericArithmetic.divide(ieee, Literal("1.0", XSD_DOUBLE), Literal("3.0", XSD_DOUBLE)));
+  }
+
+  @Test public void TestSWRLNumericArithmeticIEEEFloatSumsNarrowEachStep()
+  {
+    OWLLiteral large = Literal("16777216", XSD_FLOAT), one = Literal("1", XSD_FLOAT);
+
+    Assert.assertEquals(Literal("1.6777216E7", XSD_FLOAT),
+      SWRLNumericArithmetic.add(SWRLNumericArithmetic.FloatingPointSemantics.IEEE, large, one, one));
+    Assert.assertEquals(Literal("1.6777218E7", XSD_FLOAT), SWRLNumericArithmetic.add(large, one, one));
+  }
+
+  @Test public void TestSWRLNumericArithmeticInfiniteOperandWithoutDecimalValue()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("operand has no decimal value");
+
+    SWRLNumericArithmetic.add(Literal("1.5", XSD_DECIMAL), Literal("INF", XSD_DOUBLE));
+  }
+
+  @Test public void TestSWRLNumericArithmeticIntegralDivisionByZero()
+  {
+    this.thrown.expect(ArithmeticException.class);
+    this.thrown.expectMessage("division by zero");
+
+    SWRLNumericArithmetic.mod(Literal("7", XSD_INTEGER), Literal("0", XSD_INT));
+  }
+
+  @Test public void TestSWRLNumericArithmeticNonNumericOperand()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("expecting a byte, short, int, long, integer, float, double or decimal literal");
+
+    SWRLNumericArithmetic.add(Literal("7", XSD_INT), Literal("seven"));
+  }
+
+  @Test public void TestSWRLNumericArithmeticNonIntegralExponent()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("expecting an integral exponent");
+
+    SWRLNumericArithmetic.pow(Literal("2.0", XSD_DOUBLE), Literal("0.5", XSD_DOUBLE));
+  }
+
+  private static String quote(OWLLiteral literal)
+  {
+    return "\"" + literal.getLiteral() + "\"^^xsd:" + literal.getDatatype().getIRI().getShortForm();
+  }
+
+  private static void assertSameNumber(OWLLiteral expected, OWLLiteral actual)
+  {
+    Assert.assertEquals(expected.getDatatype(), actual.getDatatype());
+    Assert.assertEquals(0, new BigDecimal(expected.getLiteral()).compareTo(new BigDecimal(actual.getLiteral())));
+  }
+}
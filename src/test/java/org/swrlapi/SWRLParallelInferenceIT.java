@@ -0,0 +1,146 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.ParallelSWRLInferrer;
+import org.swrlapi.test.SWRLRuleDependencyGraph;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLParallelInferenceIT extends IntegrationTestBase
+{
+  private static final OWLClass PERSON = Class(iri("Person"));
+  private static final OWLClass ADULT = Class(iri("Adult"));
+  private static final OWLClass CITIZEN = Class(iri("Citizen"));
+  private static final OWLClass CAR = Class(iri("Car"));
+  private static final OWLClass FAST_CAR = Class(iri("FastCar"));
+  private static final OWLClass VEHICLE = Class(iri("Vehicle"));
+  private static final OWLNamedIndividual P1 = NamedIndividual(iri("p1"));
+  private static final OWLNamedIndividual C1 = NamedIndividual(iri("c1"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final OWLDataProperty HAS_SPEED = DataProperty(iri("hasSpeed"));
+
+  @Test public void TestSWRLRuleDependencyGraphDisjointRules()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createTwoComponentOntology();
+    SWRLRuleDependencyGraph graph = new SWRLRuleDependencyGraph(ontology);
+
+    Assert.assertTrue(graph.isPartitionable());
+    Assert.assertEquals(2, graph.getNumberOfRuleComponents());
+    Assert.assertEquals(graph.getComponentIndex(PERSON), graph.getComponentIndex(ADULT));
+    Assert.assertNotEquals(graph.getComponentIndex(PERSON), graph.getComponentIndex(CAR));
+  }
+
+  @Test public void TestSWRLRuleDependencyGraphConnectedByAxiom()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createTwoComponentOntology();
+
+    addOWLAxioms(ontology, SubClassOf(ADULT, VEHICLE), SubClassOf(FAST_CAR, VEHICLE));
+
+    SWRLRuleDependencyGraph graph = new SWRLRuleDependencyGraph(ontology);
+
+    Assert.assertEquals(1, graph.getNumberOfRuleComponents());
+    Assert.assertEquals(graph.getComponentIndex(PERSON), graph.getComponentIndex(CAR));
+  }
+
+  @Test public void TestSWRLRuleDependencyGraphSameAsRule()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createTwoComponentOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+
+    ruleEngine.createSWRLRule("R4", "Adult(?x) ^ Adult(?y) ^ hasAge(?x, ?a) ^ hasAge(?y, ?a) -> sameAs(?x, ?y)");
+
+    Assert.assertFalse(new SWRLRuleDependencyGraph(ontology).isPartitionable());
+  }
+
+  @Test public void TestSWRLParallelInferenceMatchesSequential()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createTwoComponentOntology();
+    OWLOntology sequentialOntology = OWLManager.createOWLOntologyManager().createOntology(ontology.getAxioms());
+    ParallelSWRLInferrer inferrer = new ParallelSWRLInferrer(ontology, 4);
+
+    Set<OWLAxiom> addedAxioms = inferrer.infer();
+    SWRLAPIFactory.createSWRLRuleEngine(sequentialOntology).infer();
+
+    Assert.assertEquals(2, inferrer.getNumberOfPartitions());
+    Assert.assertFalse(inferrer.isSequentialFallback());
+    Assert.assertTrue(addedAxioms.contains(ClassAssertion(ADULT, P1)));
+    Assert.assertTrue(addedAxioms.contains(ClassAssertion(FAST_CAR, C1)));
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(CITIZEN, P1)));
+    Assert.assertEquals(namedClassAssertions(sequentialOntology), namedClassAssertions(ontology));
+  }
+
+  @Test public void TestSWRLParallelInferenceUnpartitionable()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = createTwoComponentOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+
+    ruleEngine.createSWRLRule("R4", "Adult(?x) ^ Adult(?y) ^ hasAge(?x, ?a) ^ hasAge(?y, ?a) -> sameAs(?x, ?y)");
+
+    ParallelSWRLInferrer inferrer = new ParallelSWRLInferrer(ontology, 4);
+    inferrer.infer();
+
+    Assert.assertTrue(inferrer.isSequentialFallback());
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+    Assert.assertTrue(ontology.containsAxiom(ClassAssertion(FAST_CAR, C1)));
+  }
+
+  /**
+   * Two rules over disjoint vocabularies, one of them chained to a third rule.
+   */
+  private OWLOntology createTwoComponentOntology()
+    throws SWRLParseException, SWRLBuiltInException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(ontology);
+
+    addOWLAxioms(ontology, Declaration(ADULT), Declaration(CITIZEN), Declaration(FAST_CAR),
+      ClassAssertion(PERSON, P1), DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)), ClassAssertion(CAR, C1),
+      DataPropertyAssertion(HAS_SPEED, C1, Literal("250", XSD_INT)));
+
+    ruleEngine.createSWRLRule("R1", "Person(?p) ^ hasAge(?p, ?age) ^ swrlb:greaterThan(?age, 17) -> Adult(?p)");
+    ruleEngine.createSWRLRule("R2", "Adult(?p) -> Citizen(?p)");
+    ruleEngine.createSWRLRule("R3", "Car(?c) ^ hasSpeed(?c, ?s) ^ swrlb:greaterThan(?s, 200) -> FastCar(?c)");
+
+    return ontology;
+  }
+
+  private static Set<OWLClassAssertionAxiom> namedClassAssertions(OWLOntology ontology)
+  {
+    return ontology.getAxioms(AxiomType.CLASS_ASSERTION).stream()
+      .filter(axiom -> !axiom.getClassExpression().isAnonymous() && !axiom.getClassExpression().isOWLThing())
+      .collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,122 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SameIndividualIndex;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SameIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLSameIndividualIndexIT extends IntegrationTestBase
+{
+  private static final OWLClass C = Class(iri("C"));
+  private static final OWLObjectProperty OP = ObjectProperty(iri("op"));
+  private static final OWLNamedIndividual I1 = NamedIndividual(iri("i1"));
+  private static final OWLNamedIndividual I2 = NamedIndividual(iri("i2"));
+  private static final OWLNamedIndividual I3 = NamedIndividual(iri("i3"));
+  private static final OWLNamedIndividual I4 = NamedIndividual(iri("i4"));
+  private static final OWLNamedIndividual S = NamedIndividual(iri("s"));
+
+  @Test public void TestSameIndividualIndexTransitivity() throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    addOWLAxioms(ontology, SameIndividual(I3, I2), SameIndividual(I2, I1), ClassAssertion(C, I4));
+
+    SameIndividualIndex index = SameIndividualIndex.fromOntology(ontology);
+
+    Assert.assertTrue(index.isSameIndividual(I1, I3));
+    Assert.assertFalse(index.isSameIndividual(I1, I4));
+    Assert.assertEquals(I1, index.getRepresentative(I3));
+    Assert.assertEquals(I4, index.getRepresentative(I4));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(I1, I2, I3)), index.getMembers(I2));
+    Assert.assertEquals(1, index.getNumberOfEqualityClasses());
+  }
+
+  @Test public void TestSameIndividualIndexGeneratedChains() throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(42L, 1);
+    List<OWLNamedIndividual> individuals = generator.individuals("i", 1000);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.sameIndividualChains(individuals, 100));
+
+    SameIndividualIndex index = SameIndividualIndex.fromOntology(ontology);
+
+    Assert.assertEquals(10, index.getNumberOfEqualityClasses());
+    Assert.assertEquals(990, index.getNumberOfUnions());
+    Assert.assertEquals(100, index.getMembers(individuals.get(150)).size());
+    Assert.assertTrue(index.isSameIndividual(individuals.get(100), individuals.get(199)));
+    Assert.assertFalse(index.isSameIndividual(individuals.get(99), individuals.get(100)));
+  }
+
+  @Test public void TestSameIndividualIndexCanonicalizedQuery()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    addOWLAxioms(ontology, SameIndividual(I1, I2, I3), ClassAssertion(C, I2), ObjectPropertyAssertion(OP, S, I3));
+
+    SameIndividualIndex index = SameIndividualIndex.fromOntology(ontology);
+    OWLOntology canonicalOntology = index.canonicalize(ontology);
+
+    Assert.assertTrue(canonicalOntology.getAxioms(AxiomType.SAME_INDIVIDUAL).isEmpty());
+    Assert.assertTrue(canonicalOntology.containsAxiom(ClassAssertion(C, I1)));
+    Assert.assertTrue(canonicalOntology.containsAxiom(ObjectPropertyAssertion(OP, S, I1)));
+
+    Set<OWLNamedIndividual> expected = selectIndividuals(ontology, "C(?x) -> sqwrl:select(?x)");
+    Set<OWLNamedIndividual> actual = new HashSet<>();
+
+    for (OWLNamedIndividual representative : selectIndividuals(canonicalOntology, "C(?x) -> sqwrl:select(?x)"))
+      actual.addAll(index.getMembers(representative));
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(I1, I2, I3)), expected);
+    Assert.assertEquals(expected, actual);
+
+    Set<OWLNamedIndividual> objects = new HashSet<>();
+
+    for (OWLNamedIndividual representative : selectIndividuals(canonicalOntology, "op(s, ?o) -> sqwrl:select(?o)"))
+      objects.addAll(index.getMembers(representative));
+
+    Assert.assertEquals(selectIndividuals(ontology, "op(s, ?o) -> sqwrl:select(?o)"), objects);
+  }
+
+  private static Set<OWLNamedIndividual> selectIndividuals(OWLOntology ontology, String query)
+    throws SWRLParseException, SQWRLException
+  {
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", query);
+    Set<OWLNamedIndividual> individuals = new HashSet<>();
+
+    while (result.next())
+      individuals.add(NamedIndividual(result.getNamedIndividual(0).getIRI()));
+
+    return individuals;
+  }
+}
@@ -0,0 +1,140 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyAssertion;
+
+/**
+ * Integration tests over ontologies produced by {@link SyntheticOntologyGenerator}.
+ * <p>
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLScalingIT extends IntegrationTestBase
+{
+  private static final long SEED = 42L;
+  private static final OWLClass MALE = Class(iri("Male"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final OWLObjectProperty HAS_FRIEND = ObjectProperty(iri("hasFriend"));
+
+  @Test public void TestGeneratorIsDeterministic()
+  {
+    SyntheticOntologyGenerator generator1 = new SyntheticOntologyGenerator(SEED, 3);
+    SyntheticOntologyGenerator generator2 = new SyntheticOntologyGenerator(SEED, 3);
+    List<OWLNamedIndividual> individuals = generator1.individuals("p", 100);
+
+    Assert.assertEquals(individuals, generator2.individuals("p", 100));
+    Assert.assertEquals(generator1.dataPropertyAssertions(HAS_AGE, individuals, 100),
+      generator2.dataPropertyAssertions(HAS_AGE, individuals, 100));
+    Assert.assertEquals(generator1.objectPropertyAssertions(HAS_FRIEND, individuals),
+      generator2.objectPropertyAssertions(HAS_FRIEND, individuals));
+  }
+
+  @Test public void TestSQWRLCountOverGeneratedClassAssertions()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> individuals = generator.individuals("p", 1000);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.classAssertions(MALE, individuals));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "Male(?m) -> sqwrl:count(?m)");
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(1000, result.getLiteral(0).getInt());
+  }
+
+  @Test public void TestSQWRLSelectOverGeneratedDataPropertyAssertions()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> individuals = generator.individuals("p", 1000);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, individuals, 100));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)");
+
+    Assert.assertEquals(1000, result.getNumberOfRows());
+  }
+
+  @Test public void TestOWL2RLSameIndividualChainClosure()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 1);
+    List<OWLNamedIndividual> individuals = generator.individuals("i", 40);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.sameIndividualChains(individuals, 20));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "sameAs(i0, i19) ^ sameAs(i20, i39) -> sqwrl:select(0)");
+
+    Assert.assertTrue(result.next());
+
+    result = queryEngine.runSQWRLQuery("q2", "sameAs(i19, i20) -> sqwrl:select(0)");
+
+    Assert.assertFalse(result.next());
+  }
+
+  @Test public void TestOWL2RLGeneratedSubClassHierarchy()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 3);
+    List<OWLClass> classes = generator.classHierarchy("C", 3);
+    List<OWLNamedIndividual> individuals = generator.individuals("p", 200);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.subClassAxioms(classes));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.equivalentClassAxioms(classes, "Eq"));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.randomClassAssertions(classes, individuals));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "EqC0(?p) -> sqwrl:count(?p)");
+
+    Assert.assertEquals(40, classes.size());
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(200, result.getLiteral(0).getInt());
+  }
+
+  @Test public void TestOWL2RLGeneratedSubPropertyHierarchy()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(SEED, 2);
+    List<OWLObjectProperty> properties = generator.objectPropertyHierarchy("op", 4);
+    List<OWLNamedIndividual> individuals = generator.individuals("p", 2);
+    OWLObjectProperty leaf = properties.get(properties.size() - 1);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.subObjectPropertyAxioms(properties));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.equivalentObjectPropertyAxioms(properties, "eq"));
+    addOWLAxioms(ontology, ObjectPropertyAssertion(leaf, individuals.get(0), individuals.get(1)));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "eqop0(p0, p1) -> sqwrl:select(0)");
+
+    Assert.assertTrue(result.next());
+  }
+}
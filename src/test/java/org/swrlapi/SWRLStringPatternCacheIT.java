@@ -0,0 +1,209 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.BoundedLruCache;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SWRLStringPatternCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLStringPatternCacheIT extends IntegrationTestBase
+{
+  private static final OWLDataProperty HAS_NAME = DataProperty(iri("hasName"));
+  private static final String[] NAMES = { "abracadabra", "alfalfa", "banana", "a", "cabra", "Abracadabra" };
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSWRLStringPatternCacheMatchesLikeBuiltIn()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createNamesQueryEngine();
+    SWRLStringPatternCache cache = new SWRLStringPatternCache(8);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1",
+      "hasName(?p, ?n) ^ swrlb:matches(?n, \"^a.*a$\") -> sqwrl:select(?n) ^ sqwrl:orderBy(?n)");
+    List<String> expected = new ArrayList<>();
+
+    for (String name : NAMES)
+      if (cache.matches(name, "^a.*a$"))
+        expected.add(name);
+    expected.sort(null);
+
+    Assert.assertEquals(expected, getStrings(result, 0));
+    Assert.assertEquals(1, cache.getPatternStatistics().getMisses());
+    Assert.assertEquals(NAMES.length - 1, cache.getPatternStatistics().getHits());
+  }
+
+  @Test public void TestSWRLStringPatternCacheReplaceLikeBuiltIn()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createNamesQueryEngine();
+    SWRLStringPatternCache cache = new SWRLStringPatternCache(8);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1",
+      "hasName(?p, ?n) ^ swrlb:replace(?r, ?n, \"(b)ra\", \"$1*\") -> sqwrl:select(?n, ?r)");
+    Map<String, String> replacements = new HashMap<>();
+
+    while (result.next())
+      replacements.put(result.getLiteral(0).getString(), result.getLiteral(1).getString());
+
+    Assert.assertEquals(NAMES.length, replacements.size());
+    for (String name : NAMES)
+      Assert.assertEquals(name, replacements.get(name), cache.replace(name, "(b)ra", "$1*"));
+    Assert.assertEquals("ab*cadab*", cache.replace("abracadabra", "(b)ra", "$1*"));
+  }
+
+  @Test public void TestSWRLStringPatternCacheTokenizeLikeBuiltIn()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SWRLStringPatternCache cache = new SWRLStringPatternCache(8);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1",
+      "swrlb:tokenize(?t, \" sat,,cat;bone, \", \",;\") -> sqwrl:select(?t) ^ sqwrl:orderBy(?t)");
+    List<String> tokens = cache.tokenize(" sat,,cat;bone, ", ",;");
+
+    Assert.assertEquals(Arrays.asList("sat", "cat", "bone"), tokens);
+    tokens.sort(null);
+    Assert.assertEquals(tokens, getStrings(result, 0));
+    Assert.assertTrue(cache.tokenize(",,;", ",;").isEmpty());
+  }
+
+  @Test public void TestSWRLStringPatternCacheTranslate()
+  {
+    SWRLStringPatternCache cache = new SWRLStringPatternCache(8);
+
+    Assert.assertEquals("BAr", cache.translate("bar", "abc", "ABC"));
+    Assert.assertEquals("AAA", cache.translate("--aaa--", "abc-", "ABC"));
+    Assert.assertEquals("xyz", cache.translate("xyz", "abc", "ABC"));
+    Assert.assertEquals("AA", cache.translate("aa", "aa", "AB"));
+    Assert.assertEquals("\u00e9t\u00e9", cache.translate("ete", "e", "\u00e9"));
+    Assert.assertEquals("ete", cache.translate("\u00e9t\u00e9", "\u00e9", "e"));
+    Assert.assertEquals(5, cache.getTranslationTableStatistics().getSize());
+    Assert.assertEquals(1, cache.getTranslationTableStatistics().getHits());
+    Assert.assertEquals(0, cache.getPatternStatistics().getSize());
+  }
+
+  @Test public void TestSWRLStringPatternCacheTranslateDiffersFromBuiltIn()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SWRLStringPatternCache cache = new SWRLStringPatternCache(8);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1",
+      "swrlb:translate(?r, \"bar\", \"abc\", \"ABC\") ^ swrlb:translate(?s, \"xabcx\", \"abc\", \"ABC\")"
+        + " -> sqwrl:select(?r, ?s)");
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals("bar".replace("abc", "ABC"), result.getLiteral(0).getString());
+    Assert.assertEquals("xabcx".replace("abc", "ABC"), result.getLiteral(1).getString());
+    Assert.assertEquals("BAr", cache.translate("bar", "abc", "ABC"));
+    Assert.assertEquals("xABCx", cache.translate("xabcx", "abc", "ABC"));
+  }
+
+  @Test public void TestSWRLStringPatternCacheKeysOnFlags()
+  {
+    SWRLStringPatternCache cache = new SWRLStringPatternCache(8);
+    Pattern caseSensitive = cache.getPattern("abc", 0);
+    Pattern caseInsensitive = cache.getPattern("abc", Pattern.CASE_INSENSITIVE);
+
+    Assert.assertNotSame(caseSensitive, caseInsensitive);
+    Assert.assertSame(caseSensitive, cache.getPattern("abc", 0));
+    Assert.assertTrue(caseInsensitive.matcher("ABC").matches());
+    Assert.assertFalse(caseSensitive.matcher("ABC").matches());
+    Assert.assertEquals(2, cache.getPatternStatistics().getSize());
+  }
+
+  @Test public void TestSWRLStringPatternCacheEvictsLeastRecentlyUsed()
+  {
+    SWRLStringPatternCache cache = new SWRLStringPatternCache(2);
+    Pattern a = cache.getPattern("a", 0);
+
+    cache.getPattern("b", 0);
+    cache.getPattern("a", 0);
+    cache.getPattern("c", 0);
+
+    Assert.assertEquals(2, cache.getPatternStatistics().getSize());
+    Assert.assertEquals(1, cache.getPatternStatistics().getEvictions());
+    Assert.assertSame(a, cache.getPattern("a", 0));
+    Assert.assertEquals(3, cache.getPatternStatistics().getMisses());
+
+    cache.getPattern("b", 0);
+
+    Assert.assertEquals(4, cache.getPatternStatistics().getMisses());
+  }
+
+  @Test public void TestSWRLStringPatternCacheConcurrentLookups()
+  {
+    SWRLStringPatternCache cache = new SWRLStringPatternCache(16);
+
+    IntStream.range(0, 10000).parallel()
+      .forEach(i -> Assert.assertTrue(cache.matches("item" + i, "item[0-9]{1," + (1 + i % 8) + "}|item[0-9]+")));
+
+    BoundedLruCache.Statistics statistics = cache.getPatternStatistics();
+
+    Assert.assertEquals(8, statistics.getSize());
+    Assert.assertEquals(10000, statistics.getHits() + statistics.getMisses());
+  }
+
+  @Test public void TestSWRLStringPatternCacheInvalidPattern()
+  {
+    this.thrown.expect(PatternSyntaxException.class);
+
+    SWRLStringPatternCache.getSharedCache().matches("abc", "a(b");
+  }
+
+  @Test public void TestSWRLStringPatternCacheInvalidMaximumSize()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("maximum cache size must be at least 1; got 0");
+
+    new SWRLStringPatternCache(0);
+  }
+
+  private SQWRLQueryEngine createNamesQueryEngine() throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < NAMES.length; i++)
+      addOWLAxioms(ontology, DataPropertyAssertion(HAS_NAME, NamedIndividual(iri("p" + i)), Literal(NAMES[i])));
+
+    return queryEngine;
+  }
+
+  private static List<String> getStrings(SQWRLResult result, int columnIndex) throws SQWRLException
+  {
+    List<String> strings = new ArrayList<>();
+
+    while (result.next())
+      strings.add(result.getLiteral(columnIndex).getString());
+
+    return strings;
+  }
+}
@@ -0,0 +1,230 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SWRLTemporalIndex;
+import org.swrlapi.test.SWRLTemporalIndex.Granularity;
+import org.swrlapi.test.SWRLTemporalValue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLTemporalIndexIT extends IntegrationTestBase
+{
+  private static final OWLDataProperty HAS_TIME = DataProperty(iri("hasTime"));
+  private static final DateTimeFormatter LEXICAL_FORM = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS");
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSWRLTemporalIndexMatchesTemporalBuiltIns()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < 60; i++)
+      addOWLAxioms(ontology, DataPropertyAssertion(HAS_TIME, NamedIndividual(iri("e" + i)),
+        Literal(LocalDateTime.of(1990 + i / 2, 1 + i % 12, 1 + i % 28, i % 24, i).format(LEXICAL_FORM), XSD_DATETIME)));
+
+    SWRLTemporalIndex index = SWRLTemporalIndex.fromOntology(ontology, HAS_TIME);
+    SWRLTemporalValue bound = dateTime("2005-06-15T12:00:00"), finish = dateTime("2012-02-01T00:00:00");
+
+    Assert.assertEquals(getNames(index.getBefore(bound, Granularity.YEARS)), getNames(queryEngine.runSQWRLQuery("q1",
+      "hasTime(?e, ?t) ^ temporal:before(?t, \"2005-06-15T12:00:00\", \"Years\") -> sqwrl:select(?e)")));
+    Assert.assertEquals(getNames(index.getAfter(bound, Granularity.MONTHS)), getNames(queryEngine.runSQWRLQuery("q2",
+      "hasTime(?e, ?t) ^ temporal:after(?t, \"2005-06-15T12:00:00\", \"Months\") -> sqwrl:select(?e)")));
+    Assert.assertEquals(getNames(index.getDuring(bound, finish, Granularity.DAYS)), getNames(queryEngine
+      .runSQWRLQuery("q3", "hasTime(?e, ?t) ^ temporal:during(?t, \"2005-06-15T12:00:00\", \"2012-02-01T00:00:00\", "
+        + "\"Days\") -> sqwrl:select(?e)")));
+  }
+
+  @Test public void TestSWRLTemporalIndexMatchesGranuleComparison()
+  {
+    Random random = new Random(42L);
+    SWRLTemporalIndex index = new SWRLTemporalIndex(HAS_TIME);
+    Map<OWLNamedIndividual, LocalDateTime> times = new LinkedHashMap<>();
+
+    for (int i = 0; i < 2000; i++) {
+      LocalDateTime time = randomTime(random);
+      OWLNamedIndividual event = NamedIndividual(iri("e" + i));
+      times.put(event, time);
+      index.add(event, Literal(time.format(LEXICAL_FORM), XSD_DATETIME));
+    }
+
+    for (Granularity granularity : Granularity.values()) {
+      for (int i = 0; i < 20; i++) {
+        LocalDateTime bound = randomTime(random), other = randomTime(random);
+        LocalDateTime start = bound.isBefore(other) ? bound : other, finish = bound.isBefore(other) ? other : bound;
+        Set<OWLNamedIndividual> before = new HashSet<>(), after = new HashSet<>(), during = new HashSet<>();
+        boolean sameGranule = granule(start, granularity) == granule(finish, granularity);
+
+        for (Map.Entry<OWLNamedIndividual, LocalDateTime> entry : times.entrySet()) {
+          long time = granule(entry.getValue(), granularity);
+          if (time < granule(bound, granularity))
+            before.add(entry.getKey());
+          if (time > granule(bound, granularity))
+            after.add(entry.getKey());
+          if (!sameGranule && time >= granule(start, granularity) && time <= granule(finish, granularity))
+            during.add(entry.getKey());
+        }
+
+        Assert.assertEquals(before, index.getBefore(dateTime(bound), granularity));
+        Assert.assertEquals(after, index.getAfter(dateTime(bound), granularity));
+        Assert.assertEquals(during, index.getDuring(dateTime(start), dateTime(finish), granularity));
+      }
+    }
+  }
+
+  @Test public void TestSWRLTemporalIndexGranularityBoundaries()
+  {
+    SWRLTemporalIndex index = new SWRLTemporalIndex(HAS_TIME);
+    OWLNamedIndividual e1 = NamedIndividual(iri("e1")), e2 = NamedIndividual(iri("e2"));
+    OWLNamedIndividual e3 = NamedIndividual(iri("e3"));
+
+    index.add(e1, Literal("1999-12-31T23:59:59.999", XSD_DATETIME));
+    index.add(e2, Literal("2000-01-01", XSD_DATE));
+    index.add(e3, Literal("2000-02-29T12:00:00Z", XSD_DATETIME));
+
+    Assert.assertEquals(Collections.singleton(e1),
+      index.getBefore(dateTime("2000-12-31T23:59:59"), Granularity.YEARS));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(e1, e2)),
+      index.getBefore(dateTime("2000-02-01T00:00:00"), Granularity.MILLISECONDS));
+    Assert.assertEquals(Collections.singleton(e3),
+      index.getAfter(dateTime("2000-01-31T00:00:00"), Granularity.MONTHS));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(e2, e3)),
+      index.getAfter(dateTime("1999-12-31T23:59:59"), Granularity.SECONDS));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(e1, e2)),
+      index.getDuring(dateTime("1999-12-31T00:00:00"), dateTime("2000-01-01T23:00:00"), Granularity.DAYS));
+    Assert.assertTrue(
+      index.getDuring(dateTime("2000-01-01T00:00:00"), dateTime("2000-12-31T00:00:00"), Granularity.YEARS).isEmpty());
+  }
+
+  @Test public void TestSWRLTemporalIndexFromOntology() throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    OWLNamedIndividual e1 = NamedIndividual(iri("e1")), e2 = NamedIndividual(iri("e2"));
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_TIME, e1, Literal("2001-01-01T00:00:00", XSD_DATETIME)),
+      DataPropertyAssertion(HAS_TIME, e1, Literal("2001-01-01", XSD_DATE)),
+      DataPropertyAssertion(HAS_TIME, e2, Literal("2001-01-01", XSD_STRING)),
+      DataPropertyAssertion(DataProperty(iri("hasOtherTime")), e2, Literal("2001-01-01", XSD_DATE)));
+
+    SWRLTemporalIndex index = SWRLTemporalIndex.fromOntology(ontology, HAS_TIME);
+
+    Assert.assertEquals(1, index.getNumberOfValues());
+    Assert.assertFalse(index.add(e1, Literal("2001-01-01T01:00:00+01:00", XSD_DATETIME)));
+    Assert.assertEquals(Collections.singleton(e1),
+      index.getAfter(dateTime("2000-06-01T00:00:00"), Granularity.fromName("years")));
+  }
+
+  @Test public void TestSWRLTemporalIndexUnknownGranularity()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("unknown granularity 'Fortnights'");
+
+    Granularity.fromName("Fortnights");
+  }
+
+  @Test public void TestSWRLTemporalIndexStartAfterFinish()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("is after finish");
+
+    new SWRLTemporalIndex(HAS_TIME)
+      .getDuring(dateTime("2001-01-01T00:00:00"), dateTime("2000-01-01T00:00:00"), Granularity.DAYS);
+  }
+
+  @Test public void TestSWRLTemporalIndexNonInstantValue()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("expecting a date, dateTime or dateTimeStamp literal");
+
+    new SWRLTemporalIndex(HAS_TIME).add(NamedIndividual(iri("e1")), Literal("10:00:00", XSD_TIME));
+  }
+
+  private static SWRLTemporalValue dateTime(String lexicalForm)
+  {
+    return SWRLTemporalValue.parse(lexicalForm, SWRLTemporalValue.Kind.DATE_TIME);
+  }
+
+  private static SWRLTemporalValue dateTime(LocalDateTime time)
+  {
+    return dateTime(time.format(LEXICAL_FORM));
+  }
+
+  private static LocalDateTime randomTime(Random random)
+  {
+    return LocalDateTime.of(1995, 1, 1, 0, 0).plusSeconds(random.nextInt(10 * 365 * 86400))
+      .plusNanos(random.nextInt(1000) * 1000000L);
+  }
+
+  private static long granule(LocalDateTime time, Granularity granularity)
+  {
+    switch (granularity) {
+    case YEARS:
+      return time.getYear();
+    case MONTHS:
+      return time.getYear() * 12L + time.getMonthValue();
+    case DAYS:
+      return time.truncatedTo(ChronoUnit.DAYS).toInstant(ZoneOffset.UTC).toEpochMilli();
+    case HOURS:
+      return time.truncatedTo(ChronoUnit.HOURS).toInstant(ZoneOffset.UTC).toEpochMilli();
+    case MINUTES:
+      return time.truncatedTo(ChronoUnit.MINUTES).toInstant(ZoneOffset.UTC).toEpochMilli();
+    case SECONDS:
+      return time.truncatedTo(ChronoUnit.SECONDS).toInstant(ZoneOffset.UTC).toEpochMilli();
+    default:
+      return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+  }
+
+  private static Set<String> getNames(Set<OWLNamedIndividual> individuals)
+  {
+    Set<String> names = new HashSet<>();
+
+    for (OWLNamedIndividual individual : individuals)
+      names.add(individual.getIRI().getShortForm());
+
+    return names;
+  }
+
+  private static Set<String> getNames(SQWRLResult result) throws SQWRLException
+  {
+    Set<String> names = new HashSet<>();
+
+    while (result.next())
+      names.add(result.getNamedIndividual("e").getShortName());
+
+    return names;
+  }
+}
@@ -0,0 +1,234 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.literal.XSDDateTime;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SWRLTemporalValue;
+import org.swrlapi.test.SWRLTemporalValueCache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLTemporalValueIT extends IntegrationTestBase
+{
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSWRLTemporalValueDateTimesMatchJavaTime()
+  {
+    Random random = new Random(42L);
+    List<SWRLTemporalValue> values = new ArrayList<>();
+    List<Instant> instants = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      LocalDateTime localDateTime = LocalDateTime.of(1 + random.nextInt(3000), 1 + random.nextInt(12), 1, 0, 0)
+        .plusDays(random.nextInt(31)).plusSeconds(random.nextInt(86400)).plusNanos(
+          random.nextBoolean() ? 0 : random.nextInt(1000000000));
+      ZoneOffset offset = ZoneOffset.ofTotalSeconds((random.nextInt(57) - 28) * 1800);
+      boolean hasTimezone = random.nextBoolean();
+      String lexicalForm = String
+        .format("%04d-%02d-%02dT%02d:%02d:%02d", localDateTime.getYear(), localDateTime.getMonthValue(),
+          localDateTime.getDayOfMonth(), localDateTime.getHour(), localDateTime.getMinute(), localDateTime.getSecond())
+        + (localDateTime.getNano() == 0 ? "" : String.format(".%09d", localDateTime.getNano()).replaceAll("0+$", ""))
+        + (hasTimezone ? offset.getId() : "");
+      Instant instant = hasTimezone ? localDateTime.toInstant(offset) : localDateTime.toInstant(ZoneOffset.UTC);
+      SWRLTemporalValue value = SWRLTemporalValue.of(Literal(lexicalForm, XSD_DATETIME));
+
+      Assert.assertEquals(lexicalForm, instant.toEpochMilli(), value.getMillis());
+      Assert.assertEquals(lexicalForm, instant.getNano() % 1000000, value.getNanos());
+      Assert.assertEquals(lexicalForm, value,
+        SWRLTemporalValue.parse(value.toString(), SWRLTemporalValue.Kind.DATE_TIME));
+      values.add(value);
+      instants.add(instant);
+    }
+
+    for (int i = 1; i < values.size(); i++)
+      Assert.assertEquals(Integer.signum(instants.get(i - 1).compareTo(instants.get(i))),
+        Integer.signum(values.get(i - 1).compareTo(values.get(i))));
+  }
+
+  @Test public void TestSWRLTemporalValueDatesAndTimesMatchJavaTime()
+  {
+    SWRLTemporalValue date = SWRLTemporalValue.of(Literal("2020-02-29", XSD_DATE));
+    SWRLTemporalValue zonedDate = SWRLTemporalValue.of(Literal("2020-02-29+05:30", XSD_DATE));
+    SWRLTemporalValue time = SWRLTemporalValue.of(Literal("13:45:30.25", XSD_TIME));
+    SWRLTemporalValue zonedTime = SWRLTemporalValue.of(Literal("01:00:00+02:00", XSD_TIME));
+
+    Assert.assertEquals(LocalDate.of(2020, 2, 29).toEpochDay() * 86400000L, date.getMillis());
+    Assert.assertEquals(OffsetDateTime.of(2020, 2, 29, 0, 0, 0, 0, ZoneOffset.ofHoursMinutes(5, 30)).toInstant()
+      .toEpochMilli(), zonedDate.getMillis());
+    Assert.assertEquals(LocalTime.of(13, 45, 30, 250000000).toNanoOfDay() / 1000000, time.getMillis());
+    Assert.assertEquals(LocalTime.of(23, 0).toNanoOfDay() / 1000000, zonedTime.getMillis());
+    Assert.assertEquals("2020-02-29+05:30", zonedDate.toString());
+    Assert.assertEquals("13:45:30.25", time.toString());
+    Assert.assertEquals("01:00:00+02:00", zonedTime.toString());
+    Assert.assertEquals(SWRLTemporalValue.parse("2020-03-01T00:00:00", SWRLTemporalValue.Kind.DATE_TIME),
+      SWRLTemporalValue.parse("2020-02-29T24:00:00", SWRLTemporalValue.Kind.DATE_TIME));
+    Assert.assertEquals("-0044-03-15", SWRLTemporalValue.parse("-0044-03-15", SWRLTemporalValue.Kind.DATE).toString());
+  }
+
+  @Test public void TestSWRLTemporalValueDurations()
+  {
+    SWRLTemporalValue duration = SWRLTemporalValue.of(Literal("P1Y2M3DT4H5M6.789S", XSD_DURATION));
+    SWRLTemporalValue negative = SWRLTemporalValue.of(Literal("-PT0.0005S", XSD_DURATION));
+
+    Assert.assertEquals(14, duration.getMonths());
+    Assert.assertEquals(Duration.parse("P3DT4H5M6.789S").toMillis(), duration.getMillis());
+    Assert.assertEquals("P1Y2M3DT4H5M6.789S", duration.toString());
+    Assert.assertEquals(-1, negative.getMillis());
+    Assert.assertEquals(500000, negative.getNanos());
+    Assert.assertEquals("-PT0.0005S", negative.toString());
+    Assert.assertEquals("PT0S", negative.plus(negative.negate()).toString());
+    Assert.assertEquals("P1DT12H", SWRLTemporalValue.parse("PT36H", SWRLTemporalValue.Kind.DURATION).toString());
+    Assert.assertTrue(SWRLTemporalValue.parse("PT36H", SWRLTemporalValue.Kind.DURATION)
+      .compareTo(SWRLTemporalValue.parse("P1D", SWRLTemporalValue.Kind.DURATION)) > 0);
+  }
+
+  @Test public void TestSWRLTemporalValueDurationsArePartiallyOrdered()
+  {
+    SWRLTemporalValue oneMonth = SWRLTemporalValue.parse("P1M", SWRLTemporalValue.Kind.DURATION);
+    SWRLTemporalValue oneYear = SWRLTemporalValue.parse("P1Y", SWRLTemporalValue.Kind.DURATION);
+    SWRLTemporalValue thirtyDays = SWRLTemporalValue.parse("P30D", SWRLTemporalValue.Kind.DURATION);
+
+    Assert.assertTrue(oneMonth.compareTo(SWRLTemporalValue.parse("P40D", SWRLTemporalValue.Kind.DURATION)) < 0);
+    Assert.assertTrue(oneYear.compareTo(SWRLTemporalValue.parse("P400D", SWRLTemporalValue.Kind.DURATION)) < 0);
+    Assert.assertTrue(oneYear.compareTo(SWRLTemporalValue.parse("P364D", SWRLTemporalValue.Kind.DURATION)) > 0);
+    Assert.assertEquals(0, oneYear.compareTo(SWRLTemporalValue.parse("P12M", SWRLTemporalValue.Kind.DURATION)));
+    Assert.assertFalse(oneMonth.partialCompareTo(thirtyDays).isPresent());
+    Assert.assertFalse(thirtyDays.partialCompareTo(oneMonth).isPresent());
+    Assert.assertFalse(oneYear.partialCompareTo(SWRLTemporalValue.parse("P365D", SWRLTemporalValue.Kind.DURATION))
+      .isPresent());
+    Assert.assertNotEquals(oneMonth, thirtyDays);
+  }
+
+  @Test public void TestSWRLTemporalValueIndeterminateDurationOrder()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("order of P1M and P30D is indeterminate");
+
+    SWRLTemporalValue.parse("P1M", SWRLTemporalValue.Kind.DURATION)
+      .compareTo(SWRLTemporalValue.parse("P30D", SWRLTemporalValue.Kind.DURATION));
+  }
+
+  @Test public void TestSWRLTemporalValueArithmetic()
+  {
+    SWRLTemporalValue oneMonth = SWRLTemporalValue.parse("P1M", SWRLTemporalValue.Kind.DURATION);
+    SWRLTemporalValue dayAndAHalf = SWRLTemporalValue.parse("P1DT12H0.000001S", SWRLTemporalValue.Kind.DURATION);
+    SWRLTemporalValue dateTime = SWRLTemporalValue.parse("2020-01-31T10:00:00Z", SWRLTemporalValue.Kind.DATE_TIME);
+
+    Assert.assertEquals("2020-02-29T10:00:00Z", dateTime.plus(oneMonth).toString());
+    Assert.assertEquals("2019-12-31T10:00:00Z", dateTime.minus(oneMonth).toString());
+    Assert.assertEquals("2020-02-01T22:00:00.000001Z", dateTime.plus(dayAndAHalf).toString());
+    Assert.assertEquals("2020-02-29",
+      SWRLTemporalValue.parse("2020-03-31", SWRLTemporalValue.Kind.DATE).minus(oneMonth).toString());
+    Assert.assertEquals("00:30:00",
+      SWRLTemporalValue.parse("23:30:00", SWRLTemporalValue.Kind.TIME)
+        .plus(SWRLTemporalValue.parse("PT1H", SWRLTemporalValue.Kind.DURATION)).toString());
+
+    SWRLTemporalValue later = SWRLTemporalValue.parse("2020-03-01T08:15:00.5+01:00", SWRLTemporalValue.Kind.DATE_TIME);
+    Duration expected = Duration.between(Instant.parse("2020-01-31T10:00:00Z"),
+      OffsetDateTime.parse("2020-03-01T08:15:00.5+01:00").toInstant());
+
+    Assert.assertEquals(expected.toMillis(), later.minus(dateTime).getMillis());
+    Assert.assertEquals(later, dateTime.plus(later.minus(dateTime)));
+  }
+
+  @Test public void TestSWRLTemporalValueMatchesAddDayTimeDurationToDateTime()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1",
+      "swrlb:addDayTimeDurationToDateTime(?dt, \"1999-01-01T12:12:12\"^^xsd:dateTime, \"P1D\"^^xsd:duration) "
+        + "-> sqwrl:select(?dt)");
+    SWRLTemporalValue expected = SWRLTemporalValue.of(Literal("1999-01-01T12:12:12", XSD_DATETIME))
+      .plus(SWRLTemporalValue.of(Literal("P1D", XSD_DURATION)));
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(new XSDDateTime(expected.toString()), result.getLiteral("dt").getDateTime());
+  }
+
+  @Test public void TestSWRLTemporalValueCacheParsesEachLiteralOnce()
+  {
+    SWRLTemporalValueCache cache = new SWRLTemporalValueCache(8);
+    OWLLiteral bound = Literal("2020-01-01T00:00:00", XSD_DATETIME);
+    int before = 0;
+
+    for (String lexicalForm : Arrays.asList("2019-12-31T23:59:59", "2020-01-01T00:00:00.001", "1999-01-01T00:00:00"))
+      if (cache.compare(Literal(lexicalForm, XSD_DATETIME), bound) < 0)
+        before++;
+
+    Assert.assertEquals(2, before);
+    Assert.assertEquals(4, cache.getStatistics().getMisses());
+    Assert.assertEquals(2, cache.getStatistics().getHits());
+  }
+
+  @Test public void TestSWRLTemporalValueInvalidDate()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("invalid xsd:date lexical form '2019-02-29'");
+
+    SWRLTemporalValue.of(Literal("2019-02-29", XSD_DATE));
+  }
+
+  @Test public void TestSWRLTemporalValueInvalidDateTimes()
+  {
+    for (String lexicalForm : Arrays
+      .asList("2020-1-01T00:00:00", "2020-01-01T24:00:01", "2020-01-01T10:00:00+15:00", "2020-01-01T10:00",
+        "02020-01-01T10:00:00", "2020-01-01T10:00:00.", "2020-01-01 10:00:00")) {
+      try {
+        SWRLTemporalValue.parse(lexicalForm, SWRLTemporalValue.Kind.DATE_TIME);
+        Assert.fail(lexicalForm);
+      } catch (IllegalArgumentException e) {
+        Assert.assertEquals("invalid xsd:dateTime lexical form '" + lexicalForm + "'", e.getMessage());
+      }
+    }
+  }
+
+  @Test public void TestSWRLTemporalValueInvalidDurations()
+  {
+    for (String lexicalForm : Arrays.asList("P", "PT", "P1S", "PT1D", "P1M1Y", "P1.5Y", "1D", "P-1D")) {
+      try {
+        SWRLTemporalValue.parse(lexicalForm, SWRLTemporalValue.Kind.DURATION);
+        Assert.fail(lexicalForm);
+      } catch (IllegalArgumentException e) {
+        Assert.assertEquals("invalid xsd:duration lexical form '" + lexicalForm + "'", e.getMessage());
+      }
+    }
+  }
+
+  @Test public void TestSWRLTemporalValueDifferentKinds()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("cannot compare a DATE with a DATE_TIME");
+
+    SWRLTemporalValue.of(Literal("2020-01-01", XSD_DATE))
+      .compareTo(SWRLTemporalValue.of(Literal("2020-01-01T00:00:00", XSD_DATETIME)));
+  }
+}
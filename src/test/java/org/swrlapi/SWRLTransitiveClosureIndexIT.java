@@ -0,0 +1,152 @@
+package org.swrlapi;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+import org.swrlapi.test.TransitiveClosureIndex;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.TransitiveObjectProperty;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SWRLTransitiveClosureIndexIT extends IntegrationTestBase
+{
+  private static final OWLObjectProperty PART_OF = ObjectProperty(iri("partOf"));
+  private static final OWLNamedIndividual CAR = NamedIndividual(iri("car"));
+  private static final OWLNamedIndividual ENGINE = NamedIndividual(iri("engine"));
+  private static final OWLNamedIndividual PISTON = NamedIndividual(iri("piston"));
+  private static final OWLNamedIndividual WHEEL = NamedIndividual(iri("wheel"));
+  private static final OWLNamedIndividual BOAT = NamedIndividual(iri("boat"));
+  private static final OWLNamedIndividual MAST = NamedIndividual(iri("mast"));
+  private static final OWLNamedIndividual SAIL = NamedIndividual(iri("sail"));
+
+  @Test public void TestTransitiveClosureIndexPartOfTree() throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    addOWLAxioms(ontology, TransitiveObjectProperty(PART_OF), ObjectPropertyAssertion(PART_OF, ENGINE, CAR),
+      ObjectPropertyAssertion(PART_OF, PISTON, ENGINE), ObjectPropertyAssertion(PART_OF, WHEEL, CAR));
+
+    TransitiveClosureIndex index = TransitiveClosureIndex.fromOntology(ontology, PART_OF);
+
+    Assert.assertTrue(index.isIntervalLabelled());
+    Assert.assertTrue(index.isReachable(PISTON, CAR));
+    Assert.assertFalse(index.isReachable(CAR, PISTON));
+    Assert.assertFalse(index.isReachable(WHEEL, ENGINE));
+    Assert.assertFalse(index.isReachable(CAR, CAR));
+    Assert.assertEquals(Arrays.asList(ENGINE, CAR), Arrays.asList(index.getTransitiveSuccessors(PISTON).toArray()));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(ENGINE, PISTON, WHEEL)), index.getTransitivePredecessors(CAR));
+    Assert.assertEquals(4, index.getNumberOfClosurePairs());
+  }
+
+  @Test public void TestTransitiveClosureIndexIncrementalSharedPart()
+  {
+    TransitiveClosureIndex index = new TransitiveClosureIndex(PART_OF);
+
+    index.add(PISTON, ENGINE);
+    index.add(ENGINE, CAR);
+
+    Assert.assertTrue(index.isIntervalLabelled());
+
+    Assert.assertTrue(index.add(ENGINE, BOAT));
+    Assert.assertFalse(index.add(ENGINE, BOAT));
+
+    Assert.assertFalse(index.isIntervalLabelled());
+    Assert.assertTrue(index.isReachable(PISTON, BOAT));
+    Assert.assertTrue(index.isReachable(PISTON, CAR));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(ENGINE, CAR, BOAT)), index.getTransitiveSuccessors(PISTON));
+    Assert.assertEquals(5, index.getNumberOfClosurePairs());
+  }
+
+  @Test public void TestTransitiveClosureIndexLabelsTreeComponentsSeparately()
+  {
+    TransitiveClosureIndex index = new TransitiveClosureIndex(PART_OF);
+
+    index.add(PISTON, ENGINE);
+    index.add(ENGINE, CAR);
+    index.add(SAIL, MAST);
+    index.add(SAIL, BOAT);
+
+    Assert.assertEquals(2, index.getNumberOfComponents());
+    Assert.assertFalse(index.isIntervalLabelled());
+    Assert.assertTrue(index.isIntervalLabelled(PISTON));
+    Assert.assertFalse(index.isIntervalLabelled(SAIL));
+    Assert.assertTrue(index.isReachable(PISTON, CAR));
+    Assert.assertFalse(index.isReachable(PISTON, BOAT));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PISTON, ENGINE)), index.getTransitivePredecessors(CAR));
+    Assert.assertEquals(5, index.getNumberOfClosurePairs());
+
+    index.add(MAST, BOAT);
+    index.add(WHEEL, CAR);
+
+    Assert.assertTrue(index.isIntervalLabelled(WHEEL));
+    Assert.assertTrue(index.isReachable(SAIL, BOAT));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PISTON, ENGINE, WHEEL)), index.getTransitivePredecessors(CAR));
+    Assert.assertEquals(7, index.getNumberOfClosurePairs());
+  }
+
+  @Test public void TestTransitiveClosureIndexCycle()
+  {
+    TransitiveClosureIndex index = new TransitiveClosureIndex(PART_OF);
+
+    index.add(ENGINE, CAR);
+    index.add(CAR, ENGINE);
+    index.add(BOAT, BOAT);
+
+    Assert.assertFalse(index.isIntervalLabelled());
+    Assert.assertTrue(index.isReachable(CAR, CAR));
+    Assert.assertTrue(index.isReachable(BOAT, BOAT));
+    Assert.assertFalse(index.isReachable(BOAT, CAR));
+    Assert.assertEquals(5, index.getNumberOfClosurePairs());
+  }
+
+  @Test public void TestTransitiveClosureIndexMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(42L, 3);
+    List<OWLNamedIndividual> individuals = generator.individuals("i", 40);
+
+    addOWLAxioms(ontology, TransitiveObjectProperty(PART_OF));
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.objectPropertyTree(PART_OF, individuals));
+
+    TransitiveClosureIndex index = TransitiveClosureIndex.fromOntology(ontology, PART_OF);
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "partOf(?x, ?y) -> sqwrl:select(?x, ?y)");
+    Set<OWLNamedIndividual> ancestors = new HashSet<>();
+
+    Assert.assertTrue(index.isIntervalLabelled());
+    Assert.assertEquals(index.getNumberOfClosurePairs(), result.getNumberOfRows());
+
+    while (result.next()) {
+      OWLNamedIndividual part = NamedIndividual(result.getNamedIndividual(0).getIRI());
+      OWLNamedIndividual whole = NamedIndividual(result.getNamedIndividual(1).getIRI());
+
+      Assert.assertTrue(index.isReachable(part, whole));
+      if (part.equals(individuals.get(39)))
+        ancestors.add(whole);
+    }
+
+    Assert.assertEquals(ancestors, index.getTransitiveSuccessors(individuals.get(39)));
+  }
+}
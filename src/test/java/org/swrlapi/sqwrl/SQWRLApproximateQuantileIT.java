@@ -0,0 +1,226 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLStreamingAggregator;
+
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLApproximateQuantileIT extends IntegrationTestBase
+{
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final OWLDataProperty HAS_GENDER = DataProperty(iri("hasGender"));
+  private static final String QUERY = "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)";
+  private static final double RANK_ERROR = 0.05;
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLApproximateQuantileMedianOddMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "10", "20", "33", "20", "10" },
+      XSD_BYTE, XSD_SHORT, XSD_INT, XSD_INT, XSD_SHORT);
+
+    assertSameMedian(queryEngine);
+  }
+
+  @Test public void TestSQWRLApproximateQuantileMedianEvenMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "10", "21", "33", "20" },
+      XSD_BYTE, XSD_SHORT, XSD_INT, XSD_LONG);
+
+    assertSameMedian(queryEngine);
+  }
+
+  @Test public void TestSQWRLApproximateQuantileMedianDoubleMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "10", "20.5", "30.25", "7" },
+      XSD_INT, XSD_FLOAT, XSD_DOUBLE, XSD_LONG);
+
+    assertSameMedian(queryEngine);
+  }
+
+  @Test public void TestSQWRLApproximateQuantileGroupedMedianMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < 30; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + (i * 37) % 101, XSD_INT)),
+        DataPropertyAssertion(HAS_GENDER, NamedIndividual(iri("p" + i)), Literal(i % 3 == 0 ? "Female" : "Male")));
+
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 2, 1)
+      .withApproximateQuantiles(RANK_ERROR);
+    aggregator
+      .addAll(queryEngine.runSQWRLQuery("q1", "hasAge(?p, ?age) ^ hasGender(?p, ?g) -> sqwrl:select(?p, ?g, ?age)"));
+
+    SQWRLResult result = queryEngine
+      .runSQWRLQuery("q2", "hasAge(?p, ?age) ^ hasGender(?p, ?g) -> sqwrl:select(?g) ^ sqwrl:median(?age)");
+
+    Assert.assertEquals(2, result.getNumberOfRows());
+    while (result.next()) {
+      List<SQWRLResultValue> row = result.getRow();
+      assertSameLiteral(row.get(1).asLiteralResult(), aggregator.median(row.subList(0, 1)));
+    }
+  }
+
+  @Test public void TestSQWRLApproximateQuantilePercentilesWithinRankError()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    int numberOfPersons = 5000;
+    SQWRLQueryEngine queryEngine = createSequentialAgesQueryEngine(numberOfPersons);
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1)
+      .withApproximateQuantiles(RANK_ERROR);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    for (double percent : new double[] { 5, 50, 95, 99 })
+      Assert.assertEquals("p" + percent, percent / 100.0,
+        aggregator.percentile(percent).getInt() / (double)numberOfPersons, RANK_ERROR);
+
+    Assert.assertEquals(0.5, aggregator.median().getInt() / (double)numberOfPersons, RANK_ERROR);
+    Assert.assertEquals(0, aggregator.percentile(0).getInt());
+    Assert.assertEquals(numberOfPersons - 1, aggregator.percentile(100).getInt());
+  }
+
+  @Test public void TestSQWRLApproximateQuantileMergedPartitions()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    int numberOfPersons = 5000;
+    SQWRLQueryEngine queryEngine = createSequentialAgesQueryEngine(numberOfPersons);
+    SQWRLStreamingAggregator even = new SQWRLStreamingAggregator(queryEngine, 1).withApproximateQuantiles(RANK_ERROR);
+    SQWRLStreamingAggregator odd = new SQWRLStreamingAggregator(queryEngine, 1).withApproximateQuantiles(RANK_ERROR);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", QUERY);
+
+    while (result.next()) {
+      if (result.getLiteral(1).getInt() % 2 == 0)
+        even.add(result.getRow());
+      else
+        odd.add(result.getRow());
+    }
+
+    even.merge(odd);
+
+    Assert.assertEquals(numberOfPersons, even.count().getInt());
+    Assert.assertEquals(numberOfPersons * (numberOfPersons - 1) / 2, even.sum().getInt());
+    Assert.assertEquals(numberOfPersons - 1, even.max().getInt());
+    Assert.assertEquals(0.95, even.percentile(95).getInt() / (double)numberOfPersons, RANK_ERROR);
+  }
+
+  @Test public void TestSQWRLApproximateQuantileMergedDecimals()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "0.1", "0.2", "7", "0.3", "40" },
+      XSD_DECIMAL, XSD_DECIMAL, XSD_INTEGER, XSD_DECIMAL, XSD_SHORT);
+    SQWRLStreamingAggregator even = new SQWRLStreamingAggregator(queryEngine, 1).withApproximateQuantiles(RANK_ERROR);
+    SQWRLStreamingAggregator odd = new SQWRLStreamingAggregator(queryEngine, 1).withApproximateQuantiles(RANK_ERROR);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", QUERY);
+
+    for (int row = 0; result.next(); row++)
+      (row % 2 == 0 ? even : odd).add(result.getRow());
+    even.merge(odd);
+
+    Assert.assertEquals(5, even.count().getInt());
+    Assert.assertEquals(47.6, even.sum().getDouble(), 0.0);
+    Assert.assertEquals("0.1", even.min().getValue());
+    Assert.assertEquals("40", even.max().getValue());
+    Assert.assertEquals(0.3, even.median().getDouble(), DELTA);
+  }
+
+  @Test public void TestSQWRLApproximateQuantileNotEnabled()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    this.thrown.expect(IllegalStateException.class);
+    this.thrown.expectMessage("median requires quantiles to be enabled");
+
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "10" }, XSD_INT);
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    aggregator.median();
+  }
+
+  @Test public void TestSQWRLApproximateQuantileInvalidPercentile()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("percentile must be between 0 and 100; got 101.0");
+
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "10" }, XSD_INT);
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1)
+      .withApproximateQuantiles(RANK_ERROR);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    aggregator.percentile(101);
+  }
+
+  private SQWRLQueryEngine createAgesQueryEngine(String[] ages, OWLDatatype... datatypes)
+    throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    for (int i = 0; i < ages.length; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal(ages[i], datatypes[i])));
+
+    return SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+  }
+
+  /**
+   * Persons whose ages are 0 to <code>numberOfPersons - 1</code>, so an age is also its rank.
+   */
+  private SQWRLQueryEngine createSequentialAgesQueryEngine(int numberOfPersons) throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    for (int i = 0; i < numberOfPersons; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + (i * 7919) % numberOfPersons,
+          XSD_INT)));
+
+    return SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+  }
+
+  private void assertSameMedian(SQWRLQueryEngine queryEngine) throws SWRLParseException, SQWRLException
+  {
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1)
+      .withApproximateQuantiles(RANK_ERROR);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q2", "hasAge(?p, ?age) -> sqwrl:median(?age)");
+    Assert.assertTrue(result.next());
+
+    assertSameLiteral(result.getLiteral(0), aggregator.median());
+  }
+
+  private static void assertSameLiteral(SQWRLLiteralResultValue expected, SQWRLLiteralResultValue actual)
+    throws SQWRLException
+  {
+    Assert.assertEquals(expected.getDatatypePrefixedName(), actual.getDatatypePrefixedName());
+    Assert.assertEquals(expected.getDouble(), actual.getDouble(), DELTA);
+  }
+}
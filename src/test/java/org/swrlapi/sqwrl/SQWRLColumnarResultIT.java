@@ -0,0 +1,164 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.ColumnarSQWRLResult;
+import org.swrlapi.test.ColumnarSQWRLResult.ColumnType;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLQueryEnginePool;
+import org.swrlapi.test.SQWRLResultCursor;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLColumnarResultIT extends IntegrationTestBase
+{
+  private static final OWLNamedIndividual P1 = NamedIndividual(iri("p1"));
+  private static final OWLNamedIndividual P2 = NamedIndividual(iri("p2"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final OWLDataProperty HAS_HEIGHT = DataProperty(iri("hasHeight"));
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLColumnarResultPrimitiveColumns()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)),
+      DataPropertyAssertion(HAS_AGE, P2, Literal("42", XSD_INT)),
+      DataPropertyAssertion(HAS_HEIGHT, P1, Literal("1.5", XSD_DOUBLE)),
+      DataPropertyAssertion(HAS_HEIGHT, P2, Literal("1.75", XSD_DOUBLE)));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1",
+      "hasAge(?p, ?age) ^ hasHeight(?p, ?height) -> sqwrl:select(?p, ?age, ?height) ^ sqwrl:orderBy(?age)");
+    ColumnarSQWRLResult columns = ColumnarSQWRLResult.fromResult(result);
+
+    Assert.assertEquals(2, columns.getNumberOfRows());
+    Assert.assertEquals(ColumnType.VALUE, columns.getColumnType("p"));
+    Assert.assertEquals(ColumnType.INT, columns.getColumnType("age"));
+    Assert.assertEquals(ColumnType.DOUBLE, columns.getColumnType("height"));
+    Assert.assertArrayEquals(new int[] { 18, 42 }, columns.getIntColumn("age"));
+    Assert.assertArrayEquals(new long[] { 18, 42 }, columns.getLongColumn("age"));
+    Assert.assertArrayEquals(new double[] { 1.5, 1.75 }, columns.getDoubleColumn("height"), DELTA);
+    Assert.assertEquals("p1", columns.getValueColumn("p").get(0).asNamedIndividualResult().getShortName());
+    Assert.assertTrue(result.next());
+  }
+
+  @Test public void TestSQWRLColumnarResultWidensIntAndLong()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)),
+      DataPropertyAssertion(HAS_AGE, P2, Literal("4200000000", XSD_LONG)));
+
+    SQWRLResult result = queryEngine
+      .runSQWRLQuery("q1", "hasAge(?p, ?age) -> sqwrl:select(?age) ^ sqwrl:orderBy(?age)");
+    ColumnarSQWRLResult columns = ColumnarSQWRLResult.fromResult(result);
+
+    Assert.assertEquals(ColumnType.LONG, columns.getColumnType(0));
+    Assert.assertArrayEquals(new long[] { 18, 4200000000L }, columns.getLongColumn(0));
+    Assert.assertArrayEquals(new double[] { 18, 4200000000.0 }, columns.getDoubleColumn(0), DELTA);
+  }
+
+  @Test public void TestSQWRLColumnarResultMixedNumericColumnKeepsValues()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)),
+      DataPropertyAssertion(HAS_AGE, P2, Literal("42.5", XSD_DOUBLE)));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "hasAge(?p, ?age) -> sqwrl:select(?age)");
+    ColumnarSQWRLResult columns = ColumnarSQWRLResult.fromResult(result);
+
+    Assert.assertEquals(ColumnType.VALUE, columns.getColumnType(0));
+    Assert.assertEquals(2, columns.getValueColumn(0).size());
+
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("column age has type VALUE; expecting DOUBLE");
+
+    columns.getDoubleColumn(0);
+  }
+
+  @Test public void TestSQWRLColumnarResultEmpty()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)");
+    ColumnarSQWRLResult columns = ColumnarSQWRLResult.fromResult(result);
+
+    Assert.assertEquals(0, columns.getNumberOfRows());
+    Assert.assertEquals(Arrays.asList("p", "age"), columns.getColumnNames());
+    Assert.assertTrue(columns.getValueColumn("age").isEmpty());
+  }
+
+  @Test public void TestSQWRLColumnarResultFromCursor()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(42L, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", 3000);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("full", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)");
+    long expectedSum = Arrays.stream(ColumnarSQWRLResult.fromResult(result).getLongColumn("age")).sum();
+    queryEngine.deleteSWRLRule("full");
+
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+    try (SQWRLResultCursor cursor = SQWRLResultCursor
+      .openCursor(pool, ontology, "q1", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)", "p", 500)) {
+      ColumnarSQWRLResult columns = ColumnarSQWRLResult.fromCursor(cursor, ColumnType.VALUE, ColumnType.LONG);
+
+      Assert.assertEquals(3000, columns.getNumberOfRows());
+      Assert.assertEquals(expectedSum, Arrays.stream(columns.getLongColumn("age")).sum());
+    }
+  }
+
+  @Test public void TestSQWRLColumnarResultFromCursorTypeMismatch()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_HEIGHT, P1, Literal("1.5", XSD_DOUBLE)));
+
+    try (SQWRLResultCursor cursor = SQWRLResultCursor
+      .openCursor(pool, ontology, "q1", "hasHeight(?p, ?height) -> sqwrl:select(?height)", "p", 10)) {
+      this.thrown.expect(SQWRLException.class);
+      this.thrown.expectMessage("does not fit column type INT");
+
+      ColumnarSQWRLResult.fromCursor(cursor, ColumnType.INT);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.ExternalSQWRLResultSorter;
+import org.swrlapi.test.IntegrationTestBase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLExternalSortIT extends IntegrationTestBase
+{
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final OWLDataProperty HAS_NAME = DataProperty(iri("hasName"));
+  private static final String QUERY = "hasAge(?p, ?age) ^ hasName(?p, ?name) -> sqwrl:select(?p, ?age, ?name)";
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test public void TestSQWRLExternalSortMatchesOrderBy()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, IOException
+  {
+    SQWRLQueryEngine queryEngine = createPersonsQueryEngine(50);
+    File directory = this.temporaryFolder.newFolder();
+
+    try (ExternalSQWRLResultSorter sorter = new ExternalSQWRLResultSorter(queryEngine, directory.toPath(), 1024, 1)) {
+      sorter.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+      sorter.sort();
+
+      Assert.assertTrue(sorter.getNumberOfRunsWritten() > 1);
+      Assert.assertEquals(rows(queryEngine.runSQWRLQuery("q2", QUERY + " ^ sqwrl:orderBy(?age)")), rows(sorter));
+    }
+
+    Assert.assertEquals(0, directory.list().length);
+  }
+
+  @Test public void TestSQWRLExternalSortDescending()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, IOException
+  {
+    SQWRLQueryEngine queryEngine = createPersonsQueryEngine(50);
+
+    try (ExternalSQWRLResultSorter sorter = new ExternalSQWRLResultSorter(queryEngine,
+      this.temporaryFolder.newFolder().toPath(), 1024, 1).orderByDescending()) {
+      sorter.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+      sorter.sort();
+
+      Assert.assertEquals(rows(queryEngine.runSQWRLQuery("q2", QUERY + " ^ sqwrl:orderByDescending(?age)")),
+        rows(sorter));
+    }
+  }
+
+  @Test public void TestSQWRLExternalSortMultiplePasses()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, IOException
+  {
+    SQWRLQueryEngine queryEngine = createPersonsQueryEngine(200);
+
+    try (ExternalSQWRLResultSorter sorter = new ExternalSQWRLResultSorter(queryEngine,
+      this.temporaryFolder.newFolder().toPath(), 1, 1)) {
+      sorter.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+      sorter.sort();
+
+      Assert.assertEquals(200, sorter.getNumberOfRowsSpilled());
+      Assert.assertTrue(sorter.getNumberOfRunsWritten() > 200);
+      Assert.assertEquals(rows(queryEngine.runSQWRLQuery("q2", QUERY + " ^ sqwrl:orderBy(?age)")), rows(sorter));
+    }
+  }
+
+  @Test public void TestSQWRLExternalSortWithinBudget()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createPersonsQueryEngine(50);
+
+    try (ExternalSQWRLResultSorter sorter = new ExternalSQWRLResultSorter(queryEngine, 1L << 30, 1)) {
+      sorter.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+      sorter.sort();
+
+      Assert.assertEquals(0, sorter.getNumberOfRunsWritten());
+      Assert.assertEquals(rows(queryEngine.runSQWRLQuery("q2", QUERY + " ^ sqwrl:orderBy(?age)")), rows(sorter));
+    }
+  }
+
+  @Test public void TestSQWRLExternalSortAddAfterSort()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    this.thrown.expect(IllegalStateException.class);
+    this.thrown.expectMessage("rows cannot be added to a sorter after it has been sorted");
+
+    SQWRLQueryEngine queryEngine = createPersonsQueryEngine(1);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", QUERY);
+
+    try (ExternalSQWRLResultSorter sorter = new ExternalSQWRLResultSorter(queryEngine, 1024, 1)) {
+      sorter.sort();
+      result.next();
+      sorter.add(result.getRow());
+    }
+  }
+
+  /**
+   * Persons with distinct ages in a scrambled order and names that need more than one byte in UTF-8.
+   */
+  private SQWRLQueryEngine createPersonsQueryEngine(int numberOfPersons) throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    for (int i = 0; i < numberOfPersons; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + (i * 37) % 211, XSD_INT)),
+        DataPropertyAssertion(HAS_NAME, NamedIndividual(iri("p" + i)), Literal("Zo\u00eb " + i)));
+
+    return SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+  }
+
+  private static List<String> rows(SQWRLResult result) throws SQWRLException
+  {
+    List<String> rows = new ArrayList<>();
+
+    while (result.next())
+      rows.add(row(result.getRow()));
+
+    return rows;
+  }
+
+  private static List<String> rows(ExternalSQWRLResultSorter sorter) throws SQWRLException
+  {
+    List<String> rows = new ArrayList<>();
+
+    while (sorter.next())
+      rows.add(row(sorter.getRow()));
+
+    return rows;
+  }
+
+  private static String row(List<SQWRLResultValue> row) throws SQWRLException
+  {
+    return row.get(0).asNamedIndividualResult().getShortName() + " " + row.get(1).asLiteralResult().getInt() + " "
+      + row.get(1).asLiteralResult().getDatatypePrefixedName() + " " + row.get(2).asLiteralResult().getString();
+  }
+}
@@ -0,0 +1,147 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLCollectionBuilder;
+import org.swrlapi.test.SQWRLIdBitmap;
+import org.swrlapi.test.SQWRLIdCollection;
+import org.swrlapi.test.SQWRLResultValueDictionary;
+
+import java.util.Random;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLIdBitmapIT extends IntegrationTestBase
+{
+  private static final OWLClass PERSON = Class(iri("Person"));
+  private static final OWLClass DRIVER = Class(iri("Driver"));
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLIdBitmapSetOperationsMatchEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < 60; i++) {
+      if (i % 2 == 0)
+        addOWLAxioms(ontology, ClassAssertion(PERSON, NamedIndividual(iri("i" + i))));
+      if (i % 3 == 0)
+        addOWLAxioms(ontology, ClassAssertion(DRIVER, NamedIndividual(iri("i" + i))));
+    }
+
+    SQWRLResultValueDictionary dictionary = new SQWRLResultValueDictionary();
+    SQWRLIdBitmap persons = makeSet(queryEngine, dictionary, "Person").getBitmap();
+    SQWRLIdBitmap drivers = makeSet(queryEngine, dictionary, "Driver").getBitmap();
+    String sets = "Person(?a) ^ Driver(?b) . sqwrl:makeSet(?sa, ?a) ^ sqwrl:makeSet(?sb, ?b) . ";
+
+    for (String operation : new String[] { "intersection", "union", "difference" }) {
+      SQWRLCollectionBuilder elements = SQWRLCollectionBuilder.makeSet(dictionary, 0);
+      elements.addAll(queryEngine.runSQWRLQuery("q" + operation,
+        sets + "sqwrl:" + operation + "(?s, ?sa, ?sb) ^ sqwrl:element(?e, ?s) -> sqwrl:select(?e)"));
+      SQWRLIdBitmap expected = operation.equals("intersection") ?
+        persons.and(drivers) :
+        operation.equals("union") ? persons.or(drivers) : persons.andNot(drivers);
+
+      Assert.assertEquals(operation, expected, elements.getBitmap());
+    }
+  }
+
+  @Test public void TestSQWRLIdBitmapSparseMatchesSortedIds()
+  {
+    assertSameAsSortedIds(1000, 1000000);
+  }
+
+  @Test public void TestSQWRLIdBitmapDenseMatchesSortedIds()
+  {
+    assertSameAsSortedIds(100000, 150000);
+  }
+
+  @Test public void TestSQWRLIdBitmapMixedMatchesSortedIds()
+  {
+    assertSameAsSortedIds(20000, 300000);
+  }
+
+  @Test public void TestSQWRLIdBitmapContainerConversion()
+  {
+    SQWRLIdBitmap evens = new SQWRLIdBitmap();
+    SQWRLIdBitmap firstHalf = new SQWRLIdBitmap();
+
+    for (int id = 0; id < 20000; id += 2)
+      Assert.assertTrue(evens.add(id));
+    for (int id = 0; id < 10000; id++)
+      firstHalf.add(id);
+
+    Assert.assertFalse(evens.add(4096));
+    Assert.assertEquals(10000, evens.getCardinality());
+    Assert.assertTrue(evens.contains(19998));
+    Assert.assertFalse(evens.contains(19999));
+    Assert.assertFalse(evens.contains(-2));
+
+    SQWRLIdBitmap difference = evens.andNot(firstHalf);
+    Assert.assertEquals(5000, difference.getCardinality());
+    Assert.assertEquals(SQWRLIdBitmap.of(difference.toArray()), difference);
+    Assert.assertEquals(5000, evens.and(firstHalf).getCardinality());
+    Assert.assertEquals(15000, evens.or(firstHalf).getCardinality());
+    Assert.assertTrue(evens.andNot(evens).isEmpty());
+  }
+
+  @Test public void TestSQWRLIdBitmapNegativeId()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("ids must not be negative; got -1");
+
+    new SQWRLIdBitmap().add(-1);
+  }
+
+  private SQWRLCollectionBuilder makeSet(SQWRLQueryEngine queryEngine, SQWRLResultValueDictionary dictionary,
+    String className) throws SWRLParseException, SQWRLException
+  {
+    SQWRLCollectionBuilder builder = SQWRLCollectionBuilder.makeSet(dictionary, 0);
+
+    builder.addAll(queryEngine.runSQWRLQuery("q" + className, className + "(?x) -> sqwrl:select(?x)"));
+
+    return builder;
+  }
+
+  /**
+   * Checks the set operations on bitmaps of <code>numberOfIds</code> random ids below <code>maximumId</code> against
+   * those on sorted id collections.
+   */
+  private static void assertSameAsSortedIds(int numberOfIds, int maximumId)
+  {
+    Random random = new Random(numberOfIds);
+    int[] aIds = random.ints(numberOfIds, 0, maximumId).toArray();
+    int[] bIds = random.ints(numberOfIds, 0, maximumId).toArray();
+    SQWRLIdCollection a = SQWRLIdCollection.set(aIds, aIds.length), b = SQWRLIdCollection.set(bIds, bIds.length);
+    SQWRLIdBitmap aBitmap = SQWRLIdBitmap.of(aIds), bBitmap = SQWRLIdBitmap.of(bIds);
+
+    Assert.assertEquals(a.size(), aBitmap.getCardinality());
+    Assert.assertArrayEquals(a.getIds(), aBitmap.toArray());
+    Assert.assertArrayEquals(a.intersection(b).getIds(), aBitmap.and(bBitmap).toArray());
+    Assert.assertArrayEquals(a.union(b).getIds(), aBitmap.or(bBitmap).toArray());
+    Assert.assertArrayEquals(a.difference(b).getIds(), aBitmap.andNot(bBitmap).toArray());
+    Assert.assertArrayEquals(b.difference(a).getIds(), bBitmap.andNot(aBitmap).toArray());
+
+    for (int i = 0; i < 1000; i++) {
+      int id = random.nextInt(maximumId);
+      Assert.assertEquals(a.contains(id), aBitmap.contains(id));
+    }
+  }
+}
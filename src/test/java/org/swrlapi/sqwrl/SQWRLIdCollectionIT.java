@@ -0,0 +1,239 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLCollectionBuilder;
+import org.swrlapi.test.SQWRLIdCollection;
+import org.swrlapi.test.SQWRLResultValueDictionary;
+
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLIdCollectionIT extends IntegrationTestBase
+{
+  private static final OWLClass PERSON = Class(iri("Person"));
+  private static final OWLClass DRIVER = Class(iri("Driver"));
+  private static final OWLDataProperty HAS_ALIAS = DataProperty(iri("hasAlias"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final String SETS = "Person(?a) ^ Driver(?b) . sqwrl:makeSet(?sa, ?a) ^ sqwrl:makeSet(?sb, ?b) . ";
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLIdCollectionIntersectionMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createPersonsAndDriversQueryEngine(60);
+    SQWRLResultValueDictionary dictionary = new SQWRLResultValueDictionary();
+    SQWRLIdCollection persons = makeSet(queryEngine, dictionary, "Person");
+    SQWRLIdCollection drivers = makeSet(queryEngine, dictionary, "Driver");
+
+    assertSameElements(queryEngine, dictionary, "sqwrl:intersection(?s, ?sa, ?sb)", persons.intersection(drivers));
+  }
+
+  @Test public void TestSQWRLIdCollectionUnionMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createPersonsAndDriversQueryEngine(60);
+    SQWRLResultValueDictionary dictionary = new SQWRLResultValueDictionary();
+    SQWRLIdCollection persons = makeSet(queryEngine, dictionary, "Person");
+    SQWRLIdCollection drivers = makeSet(queryEngine, dictionary, "Driver");
+
+    assertSameElements(queryEngine, dictionary, "sqwrl:union(?s, ?sa, ?sb)", persons.union(drivers));
+  }
+
+  @Test public void TestSQWRLIdCollectionDifferenceMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createPersonsAndDriversQueryEngine(60);
+    SQWRLResultValueDictionary dictionary = new SQWRLResultValueDictionary();
+    SQWRLIdCollection persons = makeSet(queryEngine, dictionary, "Person");
+    SQWRLIdCollection drivers = makeSet(queryEngine, dictionary, "Driver");
+
+    assertSameElements(queryEngine, dictionary, "sqwrl:difference(?s, ?sa, ?sb)", persons.difference(drivers));
+  }
+
+  @Test public void TestSQWRLIdCollectionSetOperations()
+  {
+    SQWRLIdCollection bag = SQWRLIdCollection.bag(new int[] { 5, 1, 3, 3, 9, 1 }, 6);
+    SQWRLIdCollection set = SQWRLIdCollection.set(new int[] { 3, 4, 5, 4, 0 }, 4);
+
+    Assert.assertEquals(6, bag.size());
+    Assert.assertEquals(3, set.size());
+    Assert.assertEquals(2, bag.count(3));
+    Assert.assertEquals(1, set.count(4));
+    Assert.assertEquals(0, set.count(0));
+    Assert.assertTrue(bag.contains(9));
+    Assert.assertFalse(bag.contains(4));
+    Assert.assertArrayEquals(new int[] { 3, 5 }, bag.intersection(set).getIds());
+    Assert.assertArrayEquals(new int[] { 1, 3, 4, 5, 9 }, bag.union(set).getIds());
+    Assert.assertArrayEquals(new int[] { 1, 9 }, bag.difference(set).getIds());
+    Assert.assertArrayEquals(new int[] { 4 }, set.difference(bag).getIds());
+    Assert.assertTrue(bag.intersection(set).isSet());
+    Assert.assertTrue(bag.intersects(set));
+    Assert.assertFalse(bag.difference(set).intersects(set));
+    Assert.assertTrue(bag.difference(bag).isEmpty());
+  }
+
+  @Test public void TestSQWRLIdCollectionEqual()
+  {
+    SQWRLIdCollection set1 = SQWRLIdCollection.set(new int[] { 2, 1, 2 }, 3);
+    SQWRLIdCollection set2 = SQWRLIdCollection.set(new int[] { 1, 2 }, 2);
+    SQWRLIdCollection bag1 = SQWRLIdCollection.bag(new int[] { 2, 1, 2 }, 3);
+    SQWRLIdCollection bag2 = SQWRLIdCollection.bag(new int[] { 2, 2, 1 }, 3);
+
+    Assert.assertTrue(set1.equal(set2));
+    Assert.assertTrue(bag1.equal(bag2));
+    Assert.assertFalse(bag1.equal(set1));
+    Assert.assertFalse(bag1.equal(SQWRLIdCollection.bag(new int[] { 1, 2 }, 2)));
+  }
+
+  @Test public void TestSQWRLIdCollectionGroupedSizesMatchEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < 20; i++) {
+      OWLNamedIndividual person = NamedIndividual(iri("p" + i));
+      addOWLAxioms(ontology, ClassAssertion(PERSON, person));
+      for (int j = 0; j <= i % 4; j++)
+        addOWLAxioms(ontology, DataPropertyAssertion(HAS_ALIAS, person, Literal("a" + (i * j) % 7)));
+    }
+
+    SQWRLResultValueDictionary dictionary = new SQWRLResultValueDictionary();
+    SQWRLCollectionBuilder sets = SQWRLCollectionBuilder.makeSet(dictionary, 1, 0);
+    sets.addAll(queryEngine.runSQWRLQuery("q1", "Person(?p) ^ hasAlias(?p, ?alias) -> sqwrl:select(?p, ?alias)"));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q2",
+      "Person(?p) ^ hasAlias(?p, ?alias) . sqwrl:makeSet(?s, ?alias) ^ sqwrl:groupBy(?s, ?p) . sqwrl:size(?size, ?s) "
+        + " -> sqwrl:select(?p, ?size)");
+
+    Assert.assertEquals(20, sets.getNumberOfGroups());
+    Assert.assertEquals(20, result.getNumberOfRows());
+    while (result.next()) {
+      List<SQWRLResultValue> row = result.getRow();
+      Assert.assertEquals(row.get(1).asLiteralResult().getInteger().intValue(),
+        sets.getCollection(row.subList(0, 1)).size());
+    }
+  }
+
+  @Test public void TestSQWRLIdCollectionNumericBagMatchesEngine()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < 25; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + (i * 13) % 17, XSD_INT)));
+
+    SQWRLCollectionBuilder bags = SQWRLCollectionBuilder.makeBag(new SQWRLResultValueDictionary(), 1);
+    bags.addAll(queryEngine.runSQWRLQuery("q1", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)"));
+    double[] ages = bags.getNumericValues();
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q2", "hasAge(?p, ?age) . sqwrl:makeBag(?b, ?age) "
+      + ". sqwrl:size(?size, ?b) ^ sqwrl:min(?min, ?b) ^ sqwrl:max(?max, ?b) -> sqwrl:select(?size, ?min, ?max)");
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(result.getLiteral("size").getInteger().intValue(), ages.length);
+    Assert.assertEquals(result.getLiteral("min").getDouble(), ages[0], DELTA);
+    Assert.assertEquals(result.getLiteral("max").getDouble(), ages[ages.length - 1], DELTA);
+  }
+
+  @Test public void TestSQWRLIdCollectionDecimalAndIntegerBag()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p1")), Literal("2.5", XSD_DECIMAL)),
+      DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p2")), Literal("-1", XSD_INTEGER)),
+      DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p3")), Literal("10", XSD_INT)),
+      DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p4")), Literal("0.75", XSD_DECIMAL)),
+      DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p5")), Literal("3", XSD_POSITIVE_INTEGER)));
+
+    SQWRLCollectionBuilder bags = SQWRLCollectionBuilder.makeBag(new SQWRLResultValueDictionary(), 1);
+    bags.addAll(queryEngine.runSQWRLQuery("q1", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)"));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q2",
+      "hasAge(?p, ?age) . sqwrl:makeBag(?b, ?age) . sqwrl:size(?size, ?b) -> sqwrl:select(?size)");
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(result.getLiteral("size").getInteger().intValue(), bags.getNumericValues().length);
+    Assert.assertArrayEquals(new double[] { -1.0, 0.75, 2.5, 3.0, 10.0 }, bags.getNumericValues(), 0.0);
+  }
+
+  @Test public void TestSQWRLIdCollectionNonNumericValues()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    this.thrown.expect(SQWRLException.class);
+    this.thrown.expectMessage("attempt to use non numeric value");
+
+    SQWRLQueryEngine queryEngine = createPersonsAndDriversQueryEngine(3);
+    SQWRLCollectionBuilder bags = SQWRLCollectionBuilder.makeBag(new SQWRLResultValueDictionary(), 0);
+    bags.addAll(queryEngine.runSQWRLQuery("q1", "Person(?p) -> sqwrl:select(?p)"));
+
+    bags.getNumericValues();
+  }
+
+  /**
+   * Individuals <code>i0</code> to <code>i(n-1)</code>, of which those whose index is a multiple of 2 are persons and
+   * those whose index is a multiple of 3 are drivers.
+   */
+  private SQWRLQueryEngine createPersonsAndDriversQueryEngine(int n) throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    for (int i = 0; i < n; i++) {
+      if (i % 2 == 0)
+        addOWLAxioms(ontology, ClassAssertion(PERSON, NamedIndividual(iri("i" + i))));
+      if (i % 3 == 0)
+        addOWLAxioms(ontology, ClassAssertion(DRIVER, NamedIndividual(iri("i" + i))));
+    }
+
+    return SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+  }
+
+  private SQWRLIdCollection makeSet(SQWRLQueryEngine queryEngine, SQWRLResultValueDictionary dictionary,
+    String className) throws SWRLParseException, SQWRLException
+  {
+    SQWRLCollectionBuilder builder = SQWRLCollectionBuilder.makeSet(dictionary, 0);
+
+    builder.addAll(queryEngine.runSQWRLQuery("q" + className, className + "(?x) -> sqwrl:select(?x)"));
+
+    return builder.getCollection();
+  }
+
+  private void assertSameElements(SQWRLQueryEngine queryEngine, SQWRLResultValueDictionary dictionary,
+    String operation, SQWRLIdCollection expected) throws SWRLParseException, SQWRLException
+  {
+    SQWRLCollectionBuilder elements = SQWRLCollectionBuilder.makeSet(dictionary, 0);
+
+    elements.addAll(
+      queryEngine.runSQWRLQuery("q", SETS + operation + " ^ sqwrl:element(?e, ?s) -> sqwrl:select(?e)"));
+
+    Assert.assertEquals(expected, elements.getCollection());
+  }
+}
@@ -0,0 +1,156 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.PreparedSQWRLQuery;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLPreparedQueryIT extends IntegrationTestBase
+{
+  private static final OWLNamedIndividual P1 = NamedIndividual(iri("p1"));
+  private static final OWLNamedIndividual P2 = NamedIndividual(iri("p2"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final OWLDataProperty HAS_NAME = DataProperty(iri("hasName"));
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLPreparedQueryRebinding()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)),
+      DataPropertyAssertion(HAS_AGE, P2, Literal("42", XSD_INT)));
+
+    PreparedSQWRLQuery query = PreparedSQWRLQuery.prepareSQWRLQuery(queryEngine, "q1",
+      "hasAge(?p, ?age) ^ swrlb:greaterThan(?age, $minAge) -> sqwrl:select(?p) ^ sqwrl:orderBy(?p)");
+
+    query.bind("minAge", Literal("17", XSD_INT));
+    SQWRLResult result = query.execute();
+
+    Assert.assertEquals(2, result.getNumberOfRows());
+
+    query.bind("minAge", Literal("20", XSD_INT));
+    result = query.execute();
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals("p2", result.getNamedIndividual("p").getShortName());
+    Assert.assertFalse(result.next());
+
+    query.bind("minAge", Literal("42", XSD_INT));
+    result = query.execute();
+
+    Assert.assertFalse(result.next());
+    Assert.assertEquals(1, queryEngine.getSQWRLQueryNames().size());
+  }
+
+  @Test public void TestSQWRLPreparedQueryPlaceholderInHead()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    PreparedSQWRLQuery query = PreparedSQWRLQuery
+      .prepareSQWRLQuery(queryEngine, "q1", "-> sqwrl:select($value, \"$notAPlaceholder\")");
+
+    Assert.assertEquals(1, query.getParameterNames().size());
+
+    query.bind("value", Literal("34", XSD_INT));
+    SQWRLResult result = query.execute();
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(34, result.getLiteral(0).getInt());
+    Assert.assertEquals("$notAPlaceholder", result.getLiteral(1).getString());
+  }
+
+  @Test public void TestSQWRLPreparedQueryStringPlaceholder()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_NAME, P1, Literal("Fred")),
+      DataPropertyAssertion(HAS_NAME, P2, Literal("Joe")));
+
+    PreparedSQWRLQuery query = PreparedSQWRLQuery
+      .prepareSQWRLQuery(queryEngine, "q1", "hasName(?p, $name) -> sqwrl:select(?p)");
+
+    query.bind("name", Literal("Joe"));
+    SQWRLResult result = query.execute();
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals("p2", result.getNamedIndividual(0).getShortName());
+    Assert.assertFalse(result.next());
+  }
+
+  @Test public void TestSQWRLPreparedQueryUnboundPlaceholder()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    PreparedSQWRLQuery query = PreparedSQWRLQuery
+      .prepareSQWRLQuery(queryEngine, "q1", "-> sqwrl:select($first, $second)");
+
+    query.bind("first", Literal("1", XSD_INT));
+
+    this.thrown.expect(SQWRLException.class);
+    this.thrown.expectMessage("placeholder $second in query q1 is not bound");
+
+    query.execute();
+  }
+
+  @Test public void TestSQWRLPreparedQueryUnknownPlaceholder()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    PreparedSQWRLQuery query = PreparedSQWRLQuery.prepareSQWRLQuery(queryEngine, "q1", "-> sqwrl:select($value)");
+
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("query q1 has no placeholder $other");
+
+    query.bind("other", Literal("1", XSD_INT));
+  }
+
+  @Test public void TestSQWRLPreparedQueryClose()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+
+    try (PreparedSQWRLQuery query = PreparedSQWRLQuery
+      .prepareSQWRLQuery(queryEngine, "q1", "hasAge(?p, $age) -> sqwrl:select(?p)")) {
+      query.bind("age", Literal("18", XSD_INT));
+      Assert.assertTrue(query.execute().next());
+    }
+
+    Assert.assertTrue(ontology.getDataPropertiesInSignature().stream()
+      .noneMatch(property -> property.getIRI().getShortForm().equals("q1ParamAge")));
+    Assert.assertTrue(ontology.getIndividualsInSignature().stream()
+      .noneMatch(individual -> individual.getIRI().getShortForm().equals("q1Params")));
+    Assert.assertTrue(queryEngine.getSQWRLQueryNames().isEmpty());
+  }
+}
@@ -0,0 +1,140 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLQueryCache;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLQueryCacheIT extends IntegrationTestBase
+{
+  private static final OWLClass MALE = Class(iri("Male"));
+  private static final OWLClass FEMALE = Class(iri("Female"));
+  private static final OWLNamedIndividual P1 = NamedIndividual(iri("p1"));
+  private static final OWLNamedIndividual P2 = NamedIndividual(iri("p2"));
+
+  @Test public void TestSQWRLQueryCacheNormalize()
+  {
+    Assert.assertEquals("Male(?m) -> sqwrl:select(?m)",
+      SQWRLQueryCache.normalize("  Male(?m)\n  ->\tsqwrl:select(?m) "));
+    Assert.assertEquals("-> sqwrl:select(\"a  b\")", SQWRLQueryCache.normalize("->  sqwrl:select(\"a  b\")"));
+    Assert.assertEquals("-> sqwrl:select(\"a \\\"  b\")",
+      SQWRLQueryCache.normalize("->  sqwrl:select(\"a \\\"  b\")"));
+  }
+
+  @Test public void TestSQWRLQueryCacheHit() throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SQWRLQueryCache cache = new SQWRLQueryCache(queryEngine, 10);
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P1));
+
+    SQWRLResult result1 = cache.runSQWRLQuery("Male(?m) -> sqwrl:count(?m)");
+    SQWRLResult result2 = cache.runSQWRLQuery("Male(?m)  ->  sqwrl:count(?m)");
+
+    Assert.assertTrue(result1.next());
+    Assert.assertEquals(1, result1.getLiteral(0).getInt());
+    Assert.assertTrue(result2.next());
+    Assert.assertEquals(1, result2.getLiteral(0).getInt());
+    Assert.assertEquals(1, cache.getMisses());
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(1, queryEngine.getSQWRLQueryNames().size());
+  }
+
+  @Test public void TestSQWRLQueryCacheSeesNewAssertions()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SQWRLQueryCache cache = new SQWRLQueryCache(queryEngine, 10);
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P1), Declaration(P2));
+
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:count(?m)");
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P2));
+
+    SQWRLResult result = cache.runSQWRLQuery("Male(?m) -> sqwrl:count(?m)");
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(2, result.getLiteral(0).getInt());
+    Assert.assertEquals(1, cache.getHits());
+  }
+
+  @Test public void TestSQWRLQueryCacheEviction()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SQWRLQueryCache cache = new SQWRLQueryCache(queryEngine, 2);
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P1), ClassAssertion(FEMALE, P2));
+
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:select(?m)");
+    cache.runSQWRLQuery("Female(?f) -> sqwrl:select(?f)");
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:select(?m)");
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:count(?m)");
+
+    Assert.assertEquals(2, cache.getSize());
+    Assert.assertEquals(1, cache.getEvictions());
+    Assert.assertEquals(2, queryEngine.getSQWRLQueryNames().size());
+
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:select(?m)");
+
+    Assert.assertEquals(2, cache.getHits());
+  }
+
+  @Test public void TestSQWRLQueryCacheInvalidatedBySignatureChange()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SQWRLQueryCache cache = new SQWRLQueryCache(queryEngine, 10);
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P1));
+
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:select(?m)");
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:select(?m)");
+
+    addOWLAxioms(ontology, Declaration(FEMALE));
+
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:select(?m)");
+
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(2, cache.getMisses());
+    Assert.assertEquals(1, cache.getInvalidations());
+    Assert.assertEquals(1, queryEngine.getSQWRLQueryNames().size());
+  }
+
+  @Test public void TestSQWRLQueryCacheDispose()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SQWRLQueryCache cache = new SQWRLQueryCache(queryEngine, 10);
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P1));
+
+    cache.runSQWRLQuery("Male(?m) -> sqwrl:select(?m)");
+    cache.dispose();
+
+    Assert.assertEquals(0, cache.getSize());
+    Assert.assertTrue(queryEngine.getSQWRLQueryNames().isEmpty());
+  }
+}
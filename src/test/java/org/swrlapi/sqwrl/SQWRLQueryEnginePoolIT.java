@@ -0,0 +1,144 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLQueryEnginePool;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLQueryEnginePoolIT extends IntegrationTestBase
+{
+  private static final OWLClass MALE = Class(iri("Male"));
+  private static final OWLClass ADULT = Class(iri("Adult"));
+  private static final OWLNamedIndividual P1 = NamedIndividual(iri("p1"));
+  private static final OWLNamedIndividual P2 = NamedIndividual(iri("p2"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+
+  @Test public void TestPooledEngineSeesSourceOntology()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    addOWLAxioms(ontology, ClassAssertion(MALE, P1), ClassAssertion(MALE, P2));
+
+    SQWRLQueryEngine queryEngine = pool.borrow(ontology);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "Male(?m) -> sqwrl:count(?m)");
+    pool.release(queryEngine);
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(2, result.getLiteral(0).getInt());
+    Assert.assertEquals(1, pool.getNumberOfIdleEngines());
+  }
+
+  @Test public void TestReleasedEngineForgetsPreviousOntology()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+    OWLOntology ontology1 = OWLManager.createOWLOntologyManager().createOntology();
+    OWLOntology ontology2 = OWLManager.createOWLOntologyManager().createOntology();
+
+    addOWLAxioms(ontology1, ClassAssertion(MALE, P1), ClassAssertion(MALE, P2));
+    addOWLAxioms(ontology2, ClassAssertion(MALE, P1));
+
+    SQWRLQueryEngine queryEngine = pool.borrow(ontology1);
+    queryEngine.runSQWRLQuery("q1", "Male(?m) -> sqwrl:count(?m)");
+    pool.release(queryEngine);
+
+    queryEngine = pool.borrow(ontology2);
+    SQWRLResult result = queryEngine.runSQWRLQuery("q2", "Male(?m) -> sqwrl:count(?m)");
+
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(1, result.getLiteral(0).getInt());
+    Assert.assertFalse(queryEngine.getSQWRLQueryNames().contains("q1"));
+    pool.release(queryEngine);
+  }
+
+  @Test public void TestReleasedEngineForgetsRules()
+    throws SWRLParseException, SQWRLException, SWRLBuiltInException, OWLOntologyCreationException,
+    SWRLRuleEngineException, InterruptedException
+  {
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    addOWLAxioms(ontology, Declaration(ADULT), ClassAssertion(MALE, P1),
+      DataPropertyAssertion(HAS_AGE, P1, Literal("18", XSD_INT)));
+
+    SQWRLQueryEngine queryEngine = pool.borrow(ontology);
+    queryEngine.createSWRLRule("R1", "Male(?p) ^ hasAge(?p, ?age) ^ swrlb:greaterThan(?age, 17) -> Adult(?p)");
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1", "Adult(p1) -> sqwrl:select(p1)");
+    pool.release(queryEngine);
+
+    Assert.assertTrue(result.next());
+    Assert.assertFalse(ontology.containsAxiom(ClassAssertion(ADULT, P1)));
+
+    queryEngine = pool.borrow(ontology);
+    result = queryEngine.runSQWRLQuery("q1", "Adult(p1) -> sqwrl:select(p1)");
+    pool.release(queryEngine);
+
+    Assert.assertFalse(result.next());
+  }
+
+  @Test public void TestReleaseOfForeignEngine()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, InterruptedException
+  {
+    SQWRLQueryEnginePool pool1 = new SQWRLQueryEnginePool(1);
+    SQWRLQueryEnginePool pool2 = new SQWRLQueryEnginePool(1);
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    SQWRLQueryEngine queryEngine = pool1.borrow(ontology);
+
+    try {
+      pool2.release(queryEngine);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals("query engine does not belong to this pool", e.getMessage());
+    }
+    pool1.release(queryEngine);
+  }
+
+  @Test public void TestDoubleRelease()
+    throws OWLOntologyCreationException, SWRLRuleEngineException, InterruptedException
+  {
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(3);
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    addOWLAxioms(ontology, ClassAssertion(MALE, P1));
+
+    SQWRLQueryEngine queryEngine1 = pool.borrow(ontology);
+    SQWRLQueryEngine queryEngine2 = pool.borrow(ontology);
+    pool.release(queryEngine1);
+
+    try {
+      pool.release(queryEngine1);
+      Assert.fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("query engine released more than once", e.getMessage());
+    }
+    Assert.assertEquals(2, pool.getNumberOfIdleEngines());
+    Assert.assertFalse(queryEngine2.getOWLOntology().getAxioms().isEmpty());
+
+    pool.release(queryEngine2);
+  }
+}
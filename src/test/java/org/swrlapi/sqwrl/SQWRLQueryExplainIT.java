@@ -0,0 +1,157 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLQueryPlan;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLQueryExplainIT extends IntegrationTestBase
+{
+  private static final OWLClass PERSON = Class(iri("Person"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final String QUERY = "swrlb:greaterThan(?age, 17) ^ hasAge(?p, ?age) ^ swrlb:add(?x, ?age, 1) ^ "
+    + "Person(?p) . sqwrl:makeSet(?s, ?p) ^ sqwrl:size(?n, ?s) -> sqwrl:select(?n)";
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLQueryExplainJoinOrderAndRoles()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createQueryEngine();
+
+    queryEngine.createSQWRLQuery("q1", QUERY);
+
+    List<SQWRLQueryPlan.Step> steps = SQWRLQueryPlan.explain(queryEngine, "q1").getSteps();
+
+    Assert.assertEquals(6, steps.size());
+    assertStep(steps.get(0), 1, SQWRLQueryPlan.AtomKind.DATA_PROPERTY, SQWRLQueryPlan.Role.SCAN, "?p", "?age");
+    assertStep(steps.get(1), 3, SQWRLQueryPlan.AtomKind.CLASS, SQWRLQueryPlan.Role.FILTER);
+    assertStep(steps.get(2), 0, SQWRLQueryPlan.AtomKind.BUILT_IN, SQWRLQueryPlan.Role.FILTER);
+    assertStep(steps.get(3), 2, SQWRLQueryPlan.AtomKind.BUILT_IN, SQWRLQueryPlan.Role.GENERATOR, "?x");
+    assertStep(steps.get(4), 4, SQWRLQueryPlan.AtomKind.BUILT_IN, SQWRLQueryPlan.Role.COLLECTION, "?s");
+    assertStep(steps.get(5), 5, SQWRLQueryPlan.AtomKind.BUILT_IN, SQWRLQueryPlan.Role.COLLECTION, "?n");
+    Assert.assertEquals("hasAge(?p, ?age)", steps.get(0).getAtom());
+  }
+
+  @Test public void TestSQWRLQueryExplainEstimates()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createQueryEngine();
+
+    queryEngine.createSQWRLQuery("q1", QUERY);
+
+    SQWRLQueryPlan plan = SQWRLQueryPlan.explain(queryEngine, "q1");
+    List<SQWRLQueryPlan.Step> steps = plan.getSteps();
+
+    Assert.assertFalse(plan.isAnalyzed());
+    Assert.assertEquals(30.0, steps.get(0).getEstimatedRows(), DELTA);
+    Assert.assertEquals(10.0, steps.get(1).getEstimatedRows(), DELTA);
+    Assert.assertEquals(10.0 / 3.0, steps.get(2).getEstimatedRows(), DELTA);
+    Assert.assertEquals(10.0 / 3.0, steps.get(3).getEstimatedRows(), DELTA);
+    Assert.assertTrue(Double.isNaN(steps.get(4).getEstimatedRows()));
+    Assert.assertEquals(SQWRLQueryPlan.UNKNOWN_ROWS, steps.get(0).getActualRows());
+  }
+
+  @Test public void TestSQWRLQueryAnalyzeActualRows()
+    throws SWRLParseException, SQWRLException, SWRLRuleException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createQueryEngine();
+
+    queryEngine.createSQWRLQuery("q1", QUERY);
+
+    SQWRLQueryPlan plan = SQWRLQueryPlan.analyze(queryEngine, "q1");
+    List<SQWRLQueryPlan.Step> steps = plan.getSteps();
+
+    Assert.assertTrue(plan.isAnalyzed());
+    Assert.assertEquals(30, steps.get(0).getActualRows());
+    Assert.assertEquals(10, steps.get(1).getActualRows());
+    Assert.assertEquals(4, steps.get(2).getActualRows());
+    Assert.assertEquals(4, steps.get(3).getActualRows());
+    Assert.assertEquals(SQWRLQueryPlan.UNKNOWN_ROWS, steps.get(4).getActualRows());
+    Assert.assertFalse(queryEngine.getSWRLRule("q1Explain0").isPresent());
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1");
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(4, result.getLiteral(0).getInteger());
+  }
+
+  @Test public void TestSQWRLQueryAnalyzeKeepsExistingQueries()
+    throws SWRLParseException, SQWRLException, SWRLRuleException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createQueryEngine();
+
+    queryEngine.createSQWRLQuery("q1", QUERY);
+    queryEngine.createSQWRLQuery("q1Explain0", "-> sqwrl:select(42)");
+
+    SQWRLQueryPlan plan = SQWRLQueryPlan.analyze(queryEngine, "q1");
+
+    Assert.assertEquals(30, plan.getSteps().get(0).getActualRows());
+    Assert.assertTrue(queryEngine.getSWRLRule("q1Explain0").isPresent());
+    Assert.assertFalse(queryEngine.getSWRLRule("q1Explain0_1").isPresent());
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q1Explain0");
+    Assert.assertTrue(result.next());
+    Assert.assertEquals(42, result.getLiteral(0).getInt());
+  }
+
+  @Test public void TestSQWRLQueryExplainUnknownQuery()
+    throws SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createQueryEngine();
+
+    this.thrown.expect(SQWRLException.class);
+    this.thrown.expectMessage("no SQWRL query named q2");
+
+    SQWRLQueryPlan.explain(queryEngine, "q2");
+  }
+
+  /**
+   * Thirty individuals aged 0 to 29, every third of which is a person, so persons older than 17 are 18, 21, 24 and 27.
+   */
+  private SQWRLQueryEngine createQueryEngine() throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < 30; i++) {
+      addOWLAxioms(ontology, DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + i, XSD_INT)));
+      if (i % 3 == 0)
+        addOWLAxioms(ontology, ClassAssertion(PERSON, NamedIndividual(iri("p" + i))));
+    }
+
+    return queryEngine;
+  }
+
+  private static void assertStep(SQWRLQueryPlan.Step step, int writtenPosition, SQWRLQueryPlan.AtomKind kind,
+    SQWRLQueryPlan.Role role, String... newVariables)
+  {
+    Assert.assertEquals(step.getAtom(), writtenPosition, step.getWrittenPosition());
+    Assert.assertEquals(step.getAtom(), kind, step.getKind());
+    Assert.assertEquals(step.getAtom(), role, step.getRole());
+    Assert.assertEquals(step.getAtom(), Arrays.asList(newVariables), step.getNewVariables());
+  }
+}
@@ -0,0 +1,173 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLQueryEnginePool;
+import org.swrlapi.test.SQWRLResultCursor;
+import org.swrlapi.test.SyntheticOntologyGenerator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLResultCursorIT extends IntegrationTestBase
+{
+  private static final OWLClass MALE = Class(iri("Male"));
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLResultCursorMatchesFullResult()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(42L, 1);
+    List<OWLNamedIndividual> persons = generator.individuals("p", 250);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.dataPropertyAssertions(HAS_AGE, persons, 100));
+
+    List<String> expectedRows = new ArrayList<>();
+    SQWRLResult result = queryEngine.runSQWRLQuery("full", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)");
+
+    while (result.next())
+      expectedRows.add(result.getNamedIndividual(0).getShortName() + "=" + result.getLiteral(1).getInt());
+    queryEngine.deleteSWRLRule("full");
+
+    List<String> actualRows = new ArrayList<>();
+    try (SQWRLResultCursor cursor = SQWRLResultCursor
+      .openCursor(pool, ontology, "q1", "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)", "p", 40)) {
+      while (cursor.next())
+        actualRows.add(cursor.getNamedIndividual("p").getShortName() + "=" + cursor.getLiteral("age").getInt());
+
+      Assert.assertEquals(7, cursor.getNumberOfPartitions());
+      Assert.assertEquals(7, cursor.getNumberOfPartitionsRun());
+    }
+
+    Collections.sort(expectedRows);
+    Collections.sort(actualRows);
+
+    Assert.assertEquals(250, actualRows.size());
+    Assert.assertEquals(expectedRows, actualRows);
+  }
+
+  @Test public void TestSQWRLResultCursorColumnNames()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(42L, 1);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.classAssertions(MALE, generator.individuals("m", 5)));
+
+    try (SQWRLResultCursor cursor = SQWRLResultCursor
+      .openCursor(pool, ontology, "q1", "Male(?m) -> sqwrl:select(?m) ^ sqwrl:columnNames(\"male\")", "m", 2)) {
+      int rows = 0;
+
+      Assert.assertEquals(Collections.singletonList("male"), cursor.getColumnNames());
+      while (cursor.next())
+        rows++;
+      Assert.assertEquals(5, rows);
+    }
+  }
+
+  @Test public void TestSQWRLResultCursorEmptyOntology()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+
+    try (SQWRLResultCursor cursor = SQWRLResultCursor
+      .openCursor(pool, ontology, "q1", "Male(?m) -> sqwrl:select(?m)", "m", 10)) {
+      Assert.assertFalse(cursor.next());
+      Assert.assertEquals(1, cursor.getNumberOfPartitionsRun());
+    }
+  }
+
+  @Test public void TestSQWRLResultCursorClose()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+    SyntheticOntologyGenerator generator = new SyntheticOntologyGenerator(42L, 1);
+
+    SyntheticOntologyGenerator.addOWLAxioms(ontology, generator.classAssertions(MALE, generator.individuals("m", 3)));
+
+    int axiomCount = ontology.getAxiomCount();
+
+    try (SQWRLResultCursor cursor = SQWRLResultCursor
+      .openCursor(pool, ontology, "q1", "Male(?m) -> sqwrl:select(?m)", "m", 2)) {
+      Assert.assertTrue(cursor.next());
+      Assert.assertEquals(axiomCount, ontology.getAxiomCount());
+      Assert.assertEquals(0, pool.getNumberOfIdleEngines());
+    }
+
+    Assert.assertEquals(1, pool.getNumberOfIdleEngines());
+    Assert.assertTrue(ontology.getClassesInSignature().stream()
+      .noneMatch(cls -> cls.getIRI().getShortForm().equals("q1Partition")));
+    Assert.assertEquals(axiomCount, ontology.getAxiomCount());
+  }
+
+  @Test public void TestSQWRLResultCursorRejectsOrderBy()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("query q1 cannot be streamed because it uses sqwrl:orderBy");
+
+    SQWRLResultCursor.openCursor(pool, ontology, "q1", "Male(?m) -> sqwrl:select(?m) ^ sqwrl:orderBy(?m)", "m", 10);
+  }
+
+  @Test public void TestSQWRLResultCursorRejectsAggregate()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("query q1 cannot be streamed because it uses sqwrl:count");
+
+    SQWRLResultCursor.openCursor(pool, ontology, "q1", "Male(?m) -> sqwrl:count(?m)", "m", 10);
+  }
+
+  @Test public void TestSQWRLResultCursorUnknownPartitionVariable()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException, SWRLRuleEngineException,
+    InterruptedException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEnginePool pool = new SQWRLQueryEnginePool(1);
+
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("partition variable ?p does not appear in query q1");
+
+    SQWRLResultCursor.openCursor(pool, ontology, "q1", "Male(?m) -> sqwrl:select(?m)", "p", 10);
+  }
+}
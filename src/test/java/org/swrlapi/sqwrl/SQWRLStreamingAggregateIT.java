@@ -0,0 +1,311 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLStreamingAggregator;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyAssertion;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLStreamingAggregateIT extends IntegrationTestBase
+{
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final OWLDataProperty HAS_GENDER = DataProperty(iri("hasGender"));
+  private static final OWLDataProperty HAS_NAME = DataProperty(iri("hasName"));
+  private static final OWLDataProperty HAS_BAND = DataProperty(iri("hasBand"));
+  private static final OWLObjectProperty LIVES_IN = ObjectProperty(iri("livesIn"));
+  private static final String QUERY = "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)";
+  private static final String[] AGGREGATES = { "count", "sum", "avg", "min", "max" };
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLStreamingAggregateIntWidest()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "10", "20", "33", "20", "10" },
+      XSD_BYTE, XSD_SHORT, XSD_INT, XSD_INT, XSD_SHORT);
+
+    assertSameAggregates(queryEngine);
+  }
+
+  @Test public void TestSQWRLStreamingAggregateLongWidest()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "10", "20", "30", "-7" },
+      XSD_BYTE, XSD_INT, XSD_LONG, XSD_LONG);
+
+    assertSameAggregates(queryEngine);
+  }
+
+  @Test public void TestSQWRLStreamingAggregateDoubleWidest()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "10", "20.5", "30.25", "7" },
+      XSD_INT, XSD_FLOAT, XSD_DOUBLE, XSD_LONG);
+
+    assertSameAggregates(queryEngine);
+  }
+
+  @Test public void TestSQWRLStreamingAggregateFloatWidest()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new String[] { "1", "2.5", "4" },
+      XSD_SHORT, XSD_FLOAT, XSD_INT);
+
+    assertSameAggregates(queryEngine);
+  }
+
+  @Test public void TestSQWRLStreamingAggregateGrouped()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < 30; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + (i * 37) % 101, XSD_INT)),
+        DataPropertyAssertion(HAS_GENDER, NamedIndividual(iri("p" + i)), Literal(i % 3 == 0 ? "Female" : "Male")));
+
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 2, 1);
+    aggregator
+      .addAll(queryEngine.runSQWRLQuery("q1", "hasAge(?p, ?age) ^ hasGender(?p, ?g) -> sqwrl:select(?p, ?g, ?age)"));
+
+    Assert.assertEquals(2, aggregator.getNumberOfGroups());
+
+    for (String aggregate : AGGREGATES) {
+      SQWRLResult result = queryEngine.runSQWRLQuery("q" + aggregate,
+        "hasAge(?p, ?age) ^ hasGender(?p, ?g) -> sqwrl:select(?g) ^ sqwrl:" + aggregate + "(?age)");
+
+      Assert.assertEquals(2, result.getNumberOfRows());
+      while (result.next()) {
+        List<SQWRLResultValue> row = result.getRow();
+        assertSameLiteral(aggregate, row.get(1).asLiteralResult(),
+          aggregate(aggregator, aggregate, row.subList(0, 1)));
+      }
+    }
+  }
+
+  @Test public void TestSQWRLStreamingAggregateGroupedByThreeColumns()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    for (int i = 0; i < 60; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + (i * 37) % 101, XSD_INT)),
+        DataPropertyAssertion(HAS_GENDER, NamedIndividual(iri("p" + i)), Literal(i % 3 == 0 ? "Female" : "Male")),
+        DataPropertyAssertion(HAS_BAND, NamedIndividual(iri("p" + i)), Literal("" + i % 4, XSD_INT)),
+        ObjectPropertyAssertion(LIVES_IN, NamedIndividual(iri("p" + i)), NamedIndividual(iri("city" + i % 5))));
+
+    assertSameGroupedAggregates(queryEngine,
+      "hasAge(?p, ?age) ^ hasGender(?p, ?g) ^ hasBand(?p, ?b) ^ livesIn(?p, ?c)", "?g, ?b, ?c", 3);
+  }
+
+  @Test public void TestSQWRLStreamingAggregateGroupedByIntegralLiterals()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+    String[] bands = { "5", "-5", "0", "7", "9223372036854775807", "12", "3" };
+    OWLDatatype[] datatypes = { XSD_INT, XSD_INT, XSD_INT, XSD_LONG, XSD_LONG, XSD_INTEGER, XSD_SHORT };
+
+    for (int i = 0; i < 36; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + i, XSD_INT)),
+        DataPropertyAssertion(HAS_BAND, NamedIndividual(iri("p" + i)),
+          Literal(bands[i % bands.length], datatypes[i % bands.length])));
+
+    assertSameGroupedAggregates(queryEngine, "hasAge(?p, ?age) ^ hasBand(?p, ?b)", "?b", 1);
+  }
+
+  @Test public void TestSQWRLStreamingAggregateDecimalAndInteger()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    String[] ages = { "1.25", "2.5", "-0.125", "12345678901234567890", "3", "-4" };
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(ages, XSD_DECIMAL, XSD_DECIMAL, XSD_DECIMAL, XSD_INTEGER,
+      XSD_INT, XSD_NEGATIVE_INTEGER);
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    // The engine sums with getDouble, which rejects decimals, so only its count, min and max can be compared
+    for (String aggregate : new String[] { "count", "min", "max" }) {
+      SQWRLResult result = queryEngine
+        .runSQWRLQuery("q" + aggregate, "hasAge(?p, ?age) -> sqwrl:" + aggregate + "(?age)");
+      Assert.assertTrue(result.next());
+
+      SQWRLLiteralResultValue expected = result.getLiteral(0);
+      SQWRLLiteralResultValue actual = aggregate(aggregator, aggregate, Collections.emptyList());
+      Assert.assertEquals(aggregate, expected.getDatatypePrefixedName(), actual.getDatatypePrefixedName());
+      Assert.assertEquals(aggregate, expected.getValue(), actual.getValue());
+    }
+
+    BigDecimal sum = BigDecimal.ZERO;
+    for (String age : ages)
+      sum = sum.add(new BigDecimal(age));
+
+    Assert.assertEquals("xsd:double", aggregator.sum().getDatatypePrefixedName());
+    Assert.assertEquals(sum.doubleValue(), aggregator.sum().getDouble(), 0.0);
+    Assert.assertEquals(sum.divide(BigDecimal.valueOf(ages.length), MathContext.DECIMAL64).doubleValue(),
+      aggregator.avg().getDouble(), 0.0);
+  }
+
+  @Test public void TestSQWRLStreamingAggregateLongSumOverflow()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(
+      new String[] { "" + (Long.MAX_VALUE - 1), "3", "-10" }, XSD_LONG, XSD_LONG, XSD_LONG);
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    Assert.assertTrue(aggregator.sum().isLong());
+    Assert.assertEquals(Long.MAX_VALUE - 8, aggregator.sum().getLong());
+    Assert.assertEquals((Long.MAX_VALUE - 8) / 3, aggregator.avg().getLong());
+    Assert.assertEquals(Long.MAX_VALUE - 1, aggregator.max().getLong());
+  }
+
+  @Test public void TestSQWRLStreamingAggregateCountNonNumeric()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createNamesQueryEngine();
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", "hasName(?p, ?name) -> sqwrl:select(?p, ?name)"));
+
+    SQWRLResult result = queryEngine.runSQWRLQuery("q2", "hasName(?p, ?name) -> sqwrl:count(?name)");
+    Assert.assertTrue(result.next());
+
+    assertSameLiteral("count", result.getLiteral(0), aggregator.count());
+  }
+
+  @Test public void TestSQWRLStreamingAggregateInvalidSum()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    this.thrown.expect(SQWRLException.class);
+    this.thrown.expectMessage("attempt to use sum aggregate on column with non numeric value");
+
+    SQWRLQueryEngine queryEngine = createNamesQueryEngine();
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", "hasName(?p, ?name) -> sqwrl:select(?p, ?name)"));
+
+    aggregator.sum();
+  }
+
+  private SQWRLQueryEngine createAgesQueryEngine(String[] ages, OWLDatatype... datatypes)
+    throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    for (int i = 0; i < ages.length; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal(ages[i], datatypes[i])));
+
+    return SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+  }
+
+  private SQWRLQueryEngine createNamesQueryEngine() throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    addOWLAxioms(ontology, DataPropertyAssertion(HAS_NAME, NamedIndividual(iri("p1")), Literal("Bob", XSD_STRING)),
+      DataPropertyAssertion(HAS_NAME, NamedIndividual(iri("p2")), Literal("Fred", XSD_STRING)),
+      DataPropertyAssertion(HAS_NAME, NamedIndividual(iri("p3")), Literal("Joe", XSD_STRING)));
+
+    return SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+  }
+
+  /**
+   * Compares each aggregate of the engine over the whole age column with an aggregator over the unaggregated rows.
+   */
+  private void assertSameAggregates(SQWRLQueryEngine queryEngine) throws SWRLParseException, SQWRLException
+  {
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, 1);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    for (String aggregate : AGGREGATES) {
+      SQWRLResult result = queryEngine
+        .runSQWRLQuery("q" + aggregate, "hasAge(?p, ?age) -> sqwrl:" + aggregate + "(?age)");
+      Assert.assertTrue(result.next());
+
+      assertSameLiteral(aggregate, result.getLiteral(0),
+        aggregate(aggregator, aggregate, Collections.emptyList()));
+    }
+  }
+
+  /**
+   * Compares each aggregate of the engine, grouped on the given variables, with an aggregator over the unaggregated
+   * rows, which select the group-by variables followed by <code>?age</code>.
+   */
+  private void assertSameGroupedAggregates(SQWRLQueryEngine queryEngine, String body, String groupByVariables,
+    int numberOfGroupByVariables) throws SWRLParseException, SQWRLException
+  {
+    int[] groupByColumnIndexes = new int[numberOfGroupByVariables];
+    for (int i = 0; i < numberOfGroupByVariables; i++)
+      groupByColumnIndexes[i] = i;
+
+    SQWRLStreamingAggregator aggregator = new SQWRLStreamingAggregator(queryEngine, numberOfGroupByVariables,
+      groupByColumnIndexes);
+    aggregator.addAll(queryEngine.runSQWRLQuery("q1", body + " -> sqwrl:select(" + groupByVariables + ", ?age)"));
+
+    for (String aggregate : AGGREGATES) {
+      SQWRLResult result = queryEngine.runSQWRLQuery("q" + aggregate,
+        body + " -> sqwrl:select(" + groupByVariables + ") ^ sqwrl:" + aggregate + "(?age)");
+
+      Assert.assertEquals(aggregate, result.getNumberOfRows(), aggregator.getNumberOfGroups());
+      while (result.next()) {
+        List<SQWRLResultValue> row = result.getRow();
+        assertSameLiteral(aggregate, row.get(numberOfGroupByVariables).asLiteralResult(),
+          aggregate(aggregator, aggregate, row.subList(0, numberOfGroupByVariables)));
+      }
+    }
+  }
+
+  private static SQWRLLiteralResultValue aggregate(SQWRLStreamingAggregator aggregator, String aggregate,
+    List<SQWRLResultValue> group) throws SQWRLException
+  {
+    switch (aggregate) {
+    case "count":
+      return aggregator.count(group);
+    case "sum":
+      return aggregator.sum(group);
+    case "avg":
+      return aggregator.avg(group);
+    case "min":
+      return aggregator.min(group);
+    default:
+      return aggregator.max(group);
+    }
+  }
+
+  private static void assertSameLiteral(String aggregate, SQWRLLiteralResultValue expected,
+    SQWRLLiteralResultValue actual) throws SQWRLException
+  {
+    Assert.assertEquals(aggregate, expected.getDatatypePrefixedName(), actual.getDatatypePrefixedName());
+    Assert.assertEquals(aggregate, expected.getDouble(), actual.getDouble(), DELTA);
+  }
+}
@@ -0,0 +1,160 @@
+package org.swrlapi.sqwrl;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+import org.swrlapi.test.IntegrationTestBase;
+import org.swrlapi.test.SQWRLTopKSelection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * NOTE: All tests are designed for parallel execution.
+ */
+public class SQWRLTopKSelectionIT extends IntegrationTestBase
+{
+  private static final OWLDataProperty HAS_AGE = DataProperty(iri("hasAge"));
+  private static final String QUERY = "hasAge(?p, ?age) -> sqwrl:select(?p, ?age)";
+  private static final int[] AGES = { 42, 7, 19, 88, 3, 61, 25, 70, 12, 54 };
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test public void TestSQWRLTopKSelectionMatchesEngineSlices()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(AGES);
+
+    assertSameRows(queryEngine, "q1", "sqwrl:orderBy(?age) ^ sqwrl:greatestN(3)", SQWRLTopKSelection.greatestN(3, 1));
+    assertSameRows(queryEngine, "q2", "sqwrl:orderBy(?age) ^ sqwrl:leastN(3)", SQWRLTopKSelection.leastN(3, 1));
+    assertSameRows(queryEngine, "q3", "sqwrl:orderBy(?age) ^ sqwrl:firstN(4)", SQWRLTopKSelection.firstN(4, 1));
+    assertSameRows(queryEngine, "q4", "sqwrl:orderBy(?age) ^ sqwrl:lastN(4)", SQWRLTopKSelection.lastN(4, 1));
+    assertSameRows(queryEngine, "q5", "sqwrl:orderBy(?age) ^ sqwrl:nthGreatest(2)",
+      SQWRLTopKSelection.nthGreatest(2, 1));
+    assertSameRows(queryEngine, "q6", "sqwrl:orderByDescending(?age) ^ sqwrl:firstN(3)",
+      SQWRLTopKSelection.firstN(3, 1).orderByDescending());
+  }
+
+  @Test public void TestSQWRLTopKSelectionGreatestN()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(AGES);
+    SQWRLTopKSelection selection = SQWRLTopKSelection.greatestN(3, 1);
+    List<List<SQWRLResultValue>> rows = selection.selectFrom(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    Assert.assertEquals(Arrays.asList(61, 70, 88), ages(rows));
+    Assert.assertEquals(AGES.length, selection.getNumberOfRowsOffered());
+  }
+
+  @Test public void TestSQWRLTopKSelectionTiesAtBoundary()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(new int[] { 30, 50, 50, 10, 50 });
+    SQWRLResult result = queryEngine
+      .runSQWRLQuery("q1", QUERY + " ^ sqwrl:orderBy(?age) ^ sqwrl:greatestN(2)");
+    List<List<SQWRLResultValue>> engineRows = new ArrayList<>();
+
+    while (result.next())
+      engineRows.add(result.getRow());
+
+    List<List<SQWRLResultValue>> rows = SQWRLTopKSelection.greatestN(2, 1)
+      .selectFrom(queryEngine.runSQWRLQuery("q2", QUERY));
+
+    Assert.assertEquals(Arrays.asList(50, 50), ages(engineRows));
+    Assert.assertEquals(Arrays.asList(50, 50), ages(rows));
+  }
+
+  @Test public void TestSQWRLTopKSelectionUnorderedFirstNIsComplete()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(AGES);
+    SQWRLTopKSelection selection = SQWRLTopKSelection.firstN(3);
+    List<List<SQWRLResultValue>> rows = selection.selectFrom(queryEngine.runSQWRLQuery("q1", QUERY));
+
+    Assert.assertEquals(3, rows.size());
+    Assert.assertTrue(selection.isComplete());
+    Assert.assertEquals(3, selection.getNumberOfRowsOffered());
+  }
+
+  @Test public void TestSQWRLTopKSelectionNthGreatestBeyondResult()
+    throws SWRLParseException, SQWRLException, OWLOntologyCreationException
+  {
+    SQWRLQueryEngine queryEngine = createAgesQueryEngine(AGES);
+    SQWRLTopKSelection selection = SQWRLTopKSelection.nthGreatest(AGES.length + 1, 1);
+
+    Assert.assertTrue(selection.selectFrom(queryEngine.runSQWRLQuery("q1", QUERY)).isEmpty());
+  }
+
+  @Test public void TestSQWRLTopKSelectionInvalidSliceSize()
+  {
+    this.thrown.expect(IllegalArgumentException.class);
+    this.thrown.expectMessage("slice size must be positive; got 0");
+
+    SQWRLTopKSelection.greatestN(0, 1);
+  }
+
+  private SQWRLQueryEngine createAgesQueryEngine(int[] ages) throws OWLOntologyCreationException
+  {
+    OWLOntology ontology = OWLManager.createOWLOntologyManager().createOntology();
+
+    for (int i = 0; i < ages.length; i++)
+      addOWLAxioms(ontology,
+        DataPropertyAssertion(HAS_AGE, NamedIndividual(iri("p" + i)), Literal("" + ages[i], XSD_INT)));
+
+    return SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+  }
+
+  /**
+   * Compares a selection over the rows of the unsliced query with the engine's sliced query.
+   */
+  private void assertSameRows(SQWRLQueryEngine queryEngine, String queryName, String slice,
+    SQWRLTopKSelection selection) throws SWRLParseException, SQWRLException
+  {
+    SQWRLResult slicedResult = queryEngine.runSQWRLQuery(queryName, QUERY + " ^ " + slice);
+    List<List<SQWRLResultValue>> expectedRows = new ArrayList<>();
+
+    while (slicedResult.next())
+      expectedRows.add(slicedResult.getRow());
+
+    List<List<SQWRLResultValue>> rows = selection
+      .selectFrom(queryEngine.runSQWRLQuery(queryName + "Unsliced", QUERY));
+
+    Assert.assertEquals(slice, individuals(expectedRows), individuals(rows));
+    Assert.assertEquals(slice, ages(expectedRows), ages(rows));
+  }
+
+  private static List<String> individuals(List<List<SQWRLResultValue>> rows) throws SQWRLException
+  {
+    List<String> individuals = new ArrayList<>();
+
+    for (List<SQWRLResultValue> row : rows)
+      individuals.add(row.get(0).asNamedIndividualResult().getShortName());
+
+    return individuals;
+  }
+
+  private static List<Integer> ages(List<List<SQWRLResultValue>> rows) throws SQWRLException
+  {
+    List<Integer> ages = new ArrayList<>();
+
+    for (List<SQWRLResultValue> row : rows)
+      ages.add(row.get(1).asLiteralResult().getInt());
+
+    return ages;
+  }
+}
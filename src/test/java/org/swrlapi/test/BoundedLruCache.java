@@ -0,0 +1,114 @@
+package org.swrlapi.test;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded, least-recently-used, thread-safe cache that creates missing values with a caller-supplied function and
+ * counts its hits, misses and evictions.
+ * <p>
+ * Lookups lock the cache only to read or insert an entry; values are created outside the lock, so a key that two
+ * threads miss at once may have its value created twice, and the first insertion wins.
+ */
+public class BoundedLruCache<K, V>
+{
+  private final int maximumSize;
+  private final Map<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long hits = 0, misses = 0, evictions = 0;
+
+  public BoundedLruCache(int maximumSize)
+  {
+    if (maximumSize < 1)
+      throw new IllegalArgumentException("maximum cache size must be at least 1; got " + maximumSize);
+
+    this.maximumSize = maximumSize;
+  }
+
+  /**
+   * The cached value of a key, created with the factory and cached if absent, evicting the least recently used entry
+   * if the cache is full. Exceptions thrown by the factory propagate and nothing is cached.
+   */
+  public V get(K key, Function<? super K, ? extends V> factory)
+  {
+    synchronized (this) {
+      V entry = this.entries.get(key);
+      if (entry != null) {
+        this.hits++;
+        return entry;
+      }
+      this.misses++;
+    }
+
+    V created = factory.apply(key);
+
+    synchronized (this) {
+      V entry = this.entries.putIfAbsent(key, created);
+      if (entry != null)
+        return entry;
+
+      if (this.entries.size() > this.maximumSize) {
+        Iterator<V> iterator = this.entries.values().iterator();
+        iterator.next();
+        iterator.remove();
+        this.evictions++;
+      }
+
+      return created;
+    }
+  }
+
+  /**
+   * A consistent snapshot of the size and counters of the cache.
+   */
+  public synchronized Statistics getStatistics()
+  {
+    return new Statistics(this.entries.size(), this.hits, this.misses, this.evictions);
+  }
+
+  public synchronized void clear()
+  {
+    this.entries.clear();
+  }
+
+  public static final class Statistics
+  {
+    private final int size;
+    private final long hits, misses, evictions;
+
+    private Statistics(int size, long hits, long misses, long evictions)
+    {
+      this.size = size;
+      this.hits = hits;
+      this.misses = misses;
+      this.evictions = evictions;
+    }
+
+    public int getSize()
+    {
+      return this.size;
+    }
+
+    public long getHits()
+    {
+      return this.hits;
+    }
+
+    public long getMisses()
+    {
+      return this.misses;
+    }
+
+    public long getEvictions()
+    {
+      return this.evictions;
+    }
+
+    @Override public String toString()
+    {
+      return "size=" + this.size + ", hits=" + this.hits + ", misses=" + this.misses + ", evictions=" + this.evictions;
+    }
+  }
+}
@@ -0,0 +1,382 @@
+package org.swrlapi.test;
+
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A SQWRL result table stored column by column, with <code>xsd:int</code>, <code>xsd:long</code> and
+ * <code>xsd:double</code> columns held in primitive arrays.
+ * <p>
+ * Reading a numeric column through {@link SQWRLResult#getLiteral(int)} goes through one literal value object per cell.
+ * Once a result is converted, a numeric column costs four or eight bytes per row and can be scanned as a plain array.
+ * A result is converted in two passes, the first of which picks the narrowest type that holds every value of a column:
+ * <code>xsd:byte</code>, <code>xsd:short</code> and <code>xsd:int</code> are stored as {@link ColumnType#INT},
+ * <code>xsd:long</code>, <code>xsd:integer</code> within the range of a long, and a mix of any of these with int as
+ * {@link ColumnType#LONG}, and <code>xsd:float</code> and <code>xsd:double</code> as {@link ColumnType#DOUBLE}. Any
+ * other column keeps its result values.
+ * <p>
+ * Rows can also be read from a {@link SQWRLResultCursor}, in which case the column types are declared up front and
+ * no more than one partition of boxed values is alive at a time.
+ */
+public class ColumnarSQWRLResult
+{
+  public enum ColumnType
+  {
+    INT, LONG, DOUBLE, VALUE
+  }
+
+  private final List<String> columnNames;
+  private final ColumnType[] columnTypes;
+  private final Object[] columns;
+  private final int numberOfRows;
+
+  private ColumnarSQWRLResult(List<String> columnNames, ColumnType[] columnTypes, Object[] columns, int numberOfRows)
+  {
+    this.columnNames = Collections.unmodifiableList(columnNames);
+    this.columnTypes = columnTypes;
+    this.columns = columns;
+    this.numberOfRows = numberOfRows;
+  }
+
+  /**
+   * Converts a materialized result. The result is reset before and after conversion.
+   */
+  public static ColumnarSQWRLResult fromResult(SQWRLResult result) throws SQWRLException
+  {
+    int numberOfColumns = result.getNumberOfColumns();
+    ColumnType[] columnTypes = new ColumnType[numberOfColumns];
+
+    result.reset();
+    while (result.next()) {
+      for (int column = 0; column < numberOfColumns; column++)
+        columnTypes[column] = widen(columnTypes[column], columnType(result.getValue(column)));
+    }
+
+    for (int column = 0; column < numberOfColumns; column++)
+      if (columnTypes[column] == null)
+        columnTypes[column] = ColumnType.VALUE;
+
+    ColumnBuilder builder = new ColumnBuilder(columnTypes, result.getNumberOfRows());
+
+    result.reset();
+    while (result.next())
+      builder.addRow(result.getRow());
+    result.reset();
+
+    return builder.build(result.getColumnNames());
+  }
+
+  /**
+   * Drains a cursor into columns of the given types. A cell that does not fit its declared column type raises a
+   * {@link SQWRLException}.
+   */
+  public static ColumnarSQWRLResult fromCursor(SQWRLResultCursor cursor, ColumnType... columnTypes)
+    throws SQWRLException
+  {
+    List<String> columnNames = cursor.getColumnNames();
+
+    if (columnTypes.length != columnNames.size())
+      throw new IllegalArgumentException(
+        "expecting " + columnNames.size() + " column types for query " + cursor.getQueryName() + "; got "
+          + columnTypes.length);
+
+    ColumnBuilder builder = new ColumnBuilder(columnTypes.clone(), 1024);
+
+    while (cursor.next()) {
+      List<SQWRLResultValue> row = cursor.getRow();
+
+      for (int column = 0; column < columnTypes.length; column++) {
+        if (widen(columnTypes[column], columnType(row.get(column))) != columnTypes[column])
+          throw new SQWRLException(
+            "value " + row.get(column) + " in column " + columnNames.get(column) + " of query " + cursor
+              .getQueryName() + " does not fit column type " + columnTypes[column]);
+      }
+      builder.addRow(row);
+    }
+
+    return builder.build(columnNames);
+  }
+
+  public int getNumberOfRows()
+  {
+    return this.numberOfRows;
+  }
+
+  public int getNumberOfColumns()
+  {
+    return this.columnNames.size();
+  }
+
+  public List<String> getColumnNames()
+  {
+    return this.columnNames;
+  }
+
+  public ColumnType getColumnType(int columnIndex)
+  {
+    return this.columnTypes[checkColumnIndex(columnIndex)];
+  }
+
+  public ColumnType getColumnType(String columnName)
+  {
+    return getColumnType(getColumnIndex(columnName));
+  }
+
+  /**
+   * Returns the backing array of an {@link ColumnType#INT} column, which must not be modified.
+   */
+  public int[] getIntColumn(int columnIndex)
+  {
+    checkColumnType(columnIndex, ColumnType.INT);
+
+    return (int[])this.columns[columnIndex];
+  }
+
+  public int[] getIntColumn(String columnName)
+  {
+    return getIntColumn(getColumnIndex(columnName));
+  }
+
+  /**
+   * Returns the backing array of a {@link ColumnType#LONG} column, which must not be modified, or a widened copy of an
+   * {@link ColumnType#INT} column.
+   */
+  public long[] getLongColumn(int columnIndex)
+  {
+    checkColumnType(columnIndex, ColumnType.LONG, ColumnType.INT);
+
+    if (this.columnTypes[columnIndex] == ColumnType.LONG)
+      return (long[])this.columns[columnIndex];
+
+    return Arrays.stream((int[])this.columns[columnIndex]).asLongStream().toArray();
+  }
+
+  public long[] getLongColumn(String columnName)
+  {
+    return getLongColumn(getColumnIndex(columnName));
+  }
+
+  /**
+   * Returns the backing array of a {@link ColumnType#DOUBLE} column, which must not be modified, or a widened copy of
+   * an {@link ColumnType#INT} or {@link ColumnType#LONG} column.
+   */
+  public double[] getDoubleColumn(int columnIndex)
+  {
+    checkColumnType(columnIndex, ColumnType.DOUBLE, ColumnType.LONG, ColumnType.INT);
+
+    switch (this.columnTypes[columnIndex]) {
+    case DOUBLE:
+      return (double[])this.columns[columnIndex];
+    case LONG:
+      return Arrays.stream((long[])this.columns[columnIndex]).asDoubleStream().toArray();
+    default:
+      return Arrays.stream((int[])this.columns[columnIndex]).asDoubleStream().toArray();
+    }
+  }
+
+  public double[] getDoubleColumn(String columnName)
+  {
+    return getDoubleColumn(getColumnIndex(columnName));
+  }
+
+  /**
+   * Returns the result values of a {@link ColumnType#VALUE} column.
+   */
+  public List<SQWRLResultValue> getValueColumn(int columnIndex)
+  {
+    checkColumnType(columnIndex, ColumnType.VALUE);
+
+    return Collections.unmodifiableList(Arrays.asList((SQWRLResultValue[])this.columns[columnIndex]));
+  }
+
+  public List<SQWRLResultValue> getValueColumn(String columnName)
+  {
+    return getValueColumn(getColumnIndex(columnName));
+  }
+
+  private int getColumnIndex(String columnName)
+  {
+    int columnIndex = this.columnNames.indexOf(columnName);
+
+    if (columnIndex == -1)
+      throw new IllegalArgumentException("no column named " + columnName);
+
+    return columnIndex;
+  }
+
+  private int checkColumnIndex(int columnIndex)
+  {
+    if (columnIndex < 0 || columnIndex >= this.columnTypes.length)
+      throw new IllegalArgumentException(
+        "column index " + columnIndex + " out of bounds; number of columns is " + this.columnTypes.length);
+
+    return columnIndex;
+  }
+
+  private void checkColumnType(int columnIndex, ColumnType... allowedTypes)
+  {
+    ColumnType columnType = getColumnType(columnIndex);
+
+    for (ColumnType allowedType : allowedTypes)
+      if (columnType == allowedType)
+        return;
+
+    throw new IllegalArgumentException(
+      "column " + this.columnNames.get(columnIndex) + " has type " + columnType + "; expecting " + allowedTypes[0]);
+  }
+
+  private static ColumnType columnType(SQWRLResultValue value) throws SQWRLException
+  {
+    if (!value.isLiteral())
+      return ColumnType.VALUE;
+
+    SQWRLLiteralResultValue literal = (SQWRLLiteralResultValue)value;
+
+    if (literal.isInt() || literal.isShort() || literal.isByte())
+      return ColumnType.INT;
+    else if (literal.isLong())
+      return ColumnType.LONG;
+    else if (literal.isInteger())
+      return literal.getInteger().bitLength() < Long.SIZE ? ColumnType.LONG : ColumnType.VALUE;
+    else if (literal.isDouble() || literal.isFloat())
+      return ColumnType.DOUBLE;
+    else
+      return ColumnType.VALUE;
+  }
+
+  /**
+   * Returns the narrowest column type holding values of both types; int and long widen to long, and any other pair of
+   * distinct types falls back to {@link ColumnType#VALUE}.
+   */
+  private static ColumnType widen(ColumnType current, ColumnType next)
+  {
+    if (current == null || current == next)
+      return next;
+    else if ((current == ColumnType.INT && next == ColumnType.LONG) || (current == ColumnType.LONG
+      && next == ColumnType.INT))
+      return ColumnType.LONG;
+    else
+      return ColumnType.VALUE;
+  }
+
+  /**
+   * Appends rows to growable per-column arrays.
+   */
+  private static class ColumnBuilder
+  {
+    private final ColumnType[] columnTypes;
+    private final Object[] columns;
+    private int capacity;
+    private int numberOfRows;
+
+    public ColumnBuilder(ColumnType[] columnTypes, int initialCapacity)
+    {
+      this.columnTypes = columnTypes;
+      this.columns = new Object[columnTypes.length];
+      this.capacity = Math.max(initialCapacity, 1);
+
+      for (int column = 0; column < columnTypes.length; column++)
+        this.columns[column] = allocate(columnTypes[column], this.capacity);
+    }
+
+    public void addRow(List<SQWRLResultValue> row) throws SQWRLException
+    {
+      if (this.numberOfRows == this.capacity)
+        grow();
+
+      for (int column = 0; column < this.columnTypes.length; column++) {
+        SQWRLResultValue value = row.get(column);
+
+        switch (this.columnTypes[column]) {
+        case INT:
+          ((int[])this.columns[column])[this.numberOfRows] = intValue(value.asLiteralResult());
+          break;
+        case LONG:
+          ((long[])this.columns[column])[this.numberOfRows] = longValue(value.asLiteralResult());
+          break;
+        case DOUBLE:
+          ((double[])this.columns[column])[this.numberOfRows] = doubleValue(value.asLiteralResult());
+          break;
+        default:
+          ((SQWRLResultValue[])this.columns[column])[this.numberOfRows] = value;
+        }
+      }
+      this.numberOfRows++;
+    }
+
+    public ColumnarSQWRLResult build(List<String> columnNames)
+    {
+      for (int column = 0; column < this.columnTypes.length; column++)
+        this.columns[column] = resize(this.columns[column], this.numberOfRows);
+
+      return new ColumnarSQWRLResult(columnNames, this.columnTypes, this.columns, this.numberOfRows);
+    }
+
+    private void grow()
+    {
+      this.capacity = this.capacity * 2;
+
+      for (int column = 0; column < this.columnTypes.length; column++)
+        this.columns[column] = resize(this.columns[column], this.capacity);
+    }
+
+    private static Object allocate(ColumnType columnType, int capacity)
+    {
+      switch (columnType) {
+      case INT:
+        return new int[capacity];
+      case LONG:
+        return new long[capacity];
+      case DOUBLE:
+        return new double[capacity];
+      default:
+        return new SQWRLResultValue[capacity];
+      }
+    }
+
+    private static Object resize(Object column, int length)
+    {
+      if (column instanceof int[])
+        return ((int[])column).length == length ? column : Arrays.copyOf((int[])column, length);
+      else if (column instanceof long[])
+        return ((long[])column).length == length ? column : Arrays.copyOf((long[])column, length);
+      else if (column instanceof double[])
+        return ((double[])column).length == length ? column : Arrays.copyOf((double[])column, length);
+      else
+        return ((SQWRLResultValue[])column).length == length ?
+          column :
+          Arrays.copyOf((SQWRLResultValue[])column, length);
+    }
+
+    private static int intValue(SQWRLLiteralResultValue literal) throws SQWRLException
+    {
+      if (literal.isByte())
+        return literal.getByte();
+      else if (literal.isShort())
+        return literal.getShort();
+      else
+        return literal.getInt();
+    }
+
+    private static long longValue(SQWRLLiteralResultValue literal) throws SQWRLException
+    {
+      if (literal.isLong())
+        return literal.getLong();
+      else if (literal.isInteger())
+        return literal.getInteger().longValueExact();
+      else
+        return intValue(literal);
+    }
+
+    private static double doubleValue(SQWRLLiteralResultValue literal) throws SQWRLException
+    {
+      return literal.isFloat() ? literal.getFloat() : literal.getDouble();
+    }
+  }
+}
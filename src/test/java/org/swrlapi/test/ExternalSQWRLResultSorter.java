@@ -0,0 +1,577 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.swrlapi.factory.SQWRLResultValueFactory;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts the rows of a SQWRL result on some of its columns, as <code>sqwrl:orderBy</code> and
+ * <code>sqwrl:orderByDescending</code> do, in a bounded amount of heap.
+ * <p>
+ * Added rows are buffered until their estimated size exceeds the memory budget. The buffer is then sorted and spilled
+ * as a run to a temporary file written through a {@link FileChannel}. Once all rows have been added, {@link #sort()}
+ * merges the runs and the last buffer with a k-way merge that holds one row per run, in passes of at most
+ * {@value #MAXIMUM_FAN_IN} runs, and the sorted rows are read with {@link #next()} and {@link #getRow()}. Rows whose
+ * order-by values compare equal keep the order in which they were added, as they do under the engine's stable sort.
+ * <p>
+ * Spilled rows hold the lexical form, language and datatype of literals and the IRIs of named entities and are read
+ * back through the query engine's result value factory, so rows with anonymous class expressions cannot be spilled.
+ */
+public class ExternalSQWRLResultSorter implements AutoCloseable
+{
+  public static final int MAXIMUM_FAN_IN = 64;
+
+  private static final int IO_BUFFER_SIZE = 1 << 16;
+  private static final int ROW_OVERHEAD_BYTES = 64;
+  private static final int VALUE_OVERHEAD_BYTES = 48;
+
+  private static final byte LITERAL = 0;
+  private static final byte NAMED_INDIVIDUAL = 1;
+  private static final byte CLASS = 2;
+  private static final byte OBJECT_PROPERTY = 3;
+  private static final byte DATA_PROPERTY = 4;
+  private static final byte ANNOTATION_PROPERTY = 5;
+  private static final byte DATATYPE = 6;
+
+  private final SQWRLResultValueFactory valueFactory;
+  private final OWLDataFactory dataFactory;
+  private final Path directory;
+  private final long memoryBudget;
+  private final int[] orderByColumnIndexes;
+  private final List<Entry> buffer = new ArrayList<>();
+  private final List<Run> runs = new ArrayList<>();
+  private final List<Source> sources = new ArrayList<>();
+  private boolean ascending = true;
+  private long bufferedBytes;
+  private long numberOfRows;
+  private long numberOfRowsSpilled;
+  private int numberOfRunsWritten;
+
+  private PriorityQueue<Source> merge;
+  private List<SQWRLResultValue> row;
+
+  /**
+   * Creates a sorter that spills to the default temporary-file directory.
+   *
+   * @param memoryBudget the estimated number of bytes of buffered rows above which the buffer is spilled
+   */
+  public ExternalSQWRLResultSorter(SQWRLQueryEngine queryEngine, long memoryBudget, int... orderByColumnIndexes)
+  {
+    this(queryEngine, Paths.get(System.getProperty("java.io.tmpdir")), memoryBudget, orderByColumnIndexes);
+  }
+
+  public ExternalSQWRLResultSorter(SQWRLQueryEngine queryEngine, Path directory, long memoryBudget,
+    int... orderByColumnIndexes)
+  {
+    if (memoryBudget < 1)
+      throw new IllegalArgumentException("memory budget must be positive; got " + memoryBudget);
+
+    if (orderByColumnIndexes.length == 0)
+      throw new IllegalArgumentException("at least one order-by column is required");
+
+    for (int columnIndex : orderByColumnIndexes)
+      if (columnIndex < 0)
+        throw new IllegalArgumentException("order-by column index must not be negative; got " + columnIndex);
+
+    this.valueFactory = queryEngine.getSWRLAPIOWLOntology().getSWRLAPIOWLDataFactory().getSQWRLResultValueFactory();
+    this.dataFactory = queryEngine.getOWLOntology().getOWLOntologyManager().getOWLDataFactory();
+    this.directory = directory;
+    this.memoryBudget = memoryBudget;
+    this.orderByColumnIndexes = orderByColumnIndexes.clone();
+  }
+
+  /**
+   * Orders rows as <code>sqwrl:orderByDescending</code> does. Must be called before the first row is added.
+   */
+  public ExternalSQWRLResultSorter orderByDescending()
+  {
+    if (this.numberOfRows != 0)
+      throw new IllegalStateException("order of a sorter cannot be changed after rows have been added");
+
+    this.ascending = false;
+
+    return this;
+  }
+
+  public void add(List<SQWRLResultValue> row) throws SQWRLException
+  {
+    if (this.merge != null)
+      throw new IllegalStateException("rows cannot be added to a sorter after it has been sorted");
+
+    for (int columnIndex : this.orderByColumnIndexes)
+      if (columnIndex >= row.size())
+        throw new SQWRLException(
+          "order-by column index " + columnIndex + " out of bounds for row of size " + row.size());
+
+    this.buffer.add(new Entry(row, this.numberOfRows++));
+    this.bufferedBytes += estimateSize(row);
+
+    if (this.bufferedBytes > this.memoryBudget)
+      spillBuffer();
+  }
+
+  /**
+   * Adds every remaining row of a cursor.
+   */
+  public void addAll(SQWRLResultCursor cursor) throws SQWRLException
+  {
+    while (cursor.next())
+      add(cursor.getRow());
+  }
+
+  /**
+   * Adds every remaining row of a result.
+   */
+  public void addAll(SQWRLResult result) throws SQWRLException
+  {
+    while (result.next())
+      add(result.getRow());
+  }
+
+  /**
+   * Ends the input and prepares the merge of the sorted rows, which are then read with {@link #next()}.
+   */
+  public void sort() throws SQWRLException
+  {
+    if (this.merge != null)
+      throw new IllegalStateException("sorter has already been sorted");
+
+    this.buffer.sort(this::compare);
+
+    while (this.runs.size() > MAXIMUM_FAN_IN)
+      mergeRuns(new ArrayList<>(this.runs.subList(0, MAXIMUM_FAN_IN)));
+
+    this.merge = new PriorityQueue<>(this.runs.size() + 1, (source1, source2) -> compare(source1.head, source2.head));
+
+    for (Run run : this.runs)
+      openSource(new RunSource(run));
+    openSource(new BufferSource(new ArrayList<>(this.buffer)));
+
+    this.buffer.clear();
+    this.bufferedBytes = 0;
+  }
+
+  /**
+   * Advances to the next row in sorted order.
+   */
+  public boolean next() throws SQWRLException
+  {
+    if (this.merge == null)
+      throw new IllegalStateException("sorter must be sorted before its rows are read");
+
+    Source source = this.merge.poll();
+
+    if (source == null) {
+      this.row = null;
+      return false;
+    }
+
+    this.row = source.head.row;
+    if (source.advance())
+      this.merge.add(source);
+
+    return true;
+  }
+
+  public List<SQWRLResultValue> getRow()
+  {
+    if (this.row == null)
+      throw new IllegalStateException("sorter is not positioned on a row");
+
+    return this.row;
+  }
+
+  public long getNumberOfRows()
+  {
+    return this.numberOfRows;
+  }
+
+  public long getNumberOfRowsSpilled()
+  {
+    return this.numberOfRowsSpilled;
+  }
+
+  /**
+   * Returns the number of runs written to temporary files, including those written by intermediate merge passes.
+   */
+  public int getNumberOfRunsWritten()
+  {
+    return this.numberOfRunsWritten;
+  }
+
+  /**
+   * Closes and deletes all temporary files.
+   */
+  @Override public void close()
+  {
+    for (Source source : this.sources)
+      source.close();
+    for (Run run : this.runs)
+      run.delete();
+
+    this.sources.clear();
+    this.runs.clear();
+    this.buffer.clear();
+    this.merge = null;
+    this.row = null;
+  }
+
+  private void openSource(Source source) throws SQWRLException
+  {
+    this.sources.add(source);
+    if (source.advance())
+      this.merge.add(source);
+  }
+
+  private void spillBuffer() throws SQWRLException
+  {
+    this.buffer.sort(this::compare);
+
+    Run run = createRun();
+
+    try (DataOutputStream output = run.openOutput()) {
+      for (Entry entry : this.buffer)
+        writeEntry(output, entry);
+    } catch (IOException e) {
+      run.delete();
+      throw new UncheckedIOException("could not spill sorted run to " + run.path, e);
+    } catch (SQWRLException e) {
+      run.delete();
+      throw e;
+    }
+
+    run.size = this.buffer.size();
+    this.runs.add(run);
+    this.numberOfRowsSpilled += this.buffer.size();
+    this.buffer.clear();
+    this.bufferedBytes = 0;
+  }
+
+  /**
+   * Replaces some runs by a single run holding their merged rows.
+   */
+  private void mergeRuns(List<Run> inputRuns) throws SQWRLException
+  {
+    List<RunSource> inputs = new ArrayList<>(inputRuns.size());
+    PriorityQueue<RunSource> inputMerge = new PriorityQueue<>(inputRuns.size(),
+      (source1, source2) -> compare(source1.head, source2.head));
+    Run run = createRun();
+
+    try (DataOutputStream output = run.openOutput()) {
+      for (Run inputRun : inputRuns) {
+        RunSource input = new RunSource(inputRun);
+        inputs.add(input);
+        if (input.advance())
+          inputMerge.add(input);
+      }
+
+      while (!inputMerge.isEmpty()) {
+        RunSource input = inputMerge.poll();
+        writeEntry(output, input.head);
+        run.size++;
+        if (input.advance())
+          inputMerge.add(input);
+      }
+    } catch (IOException e) {
+      run.delete();
+      throw new UncheckedIOException("could not merge sorted runs into " + run.path, e);
+    } catch (SQWRLException e) {
+      run.delete();
+      throw e;
+    } finally {
+      for (RunSource input : inputs)
+        input.close();
+    }
+
+    for (Run inputRun : inputRuns)
+      inputRun.delete();
+    this.runs.removeAll(inputRuns);
+    this.runs.add(run);
+  }
+
+  private Run createRun()
+  {
+    try {
+      this.numberOfRunsWritten++;
+      return new Run(Files.createTempFile(this.directory, "sqwrl-sort-", ".run"));
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not create sorted run in " + this.directory, e);
+    }
+  }
+
+  private int compare(Entry entry1, Entry entry2)
+  {
+    for (int columnIndex : this.orderByColumnIndexes) {
+      int diff = SQWRLTopKSelection.compareValues(entry1.row.get(columnIndex), entry2.row.get(columnIndex));
+
+      if (diff != 0)
+        return this.ascending ? diff : -diff;
+    }
+    return Long.compare(entry1.sequenceNumber, entry2.sequenceNumber);
+  }
+
+  private static long estimateSize(List<SQWRLResultValue> row) throws SQWRLException
+  {
+    long size = ROW_OVERHEAD_BYTES;
+
+    for (SQWRLResultValue value : row) {
+      size += VALUE_OVERHEAD_BYTES;
+      if (value.isLiteral())
+        size += 2L * value.asLiteralResult().getValue().length();
+      else if (value.isEntity())
+        size += 2L * value.asEntityResult().getIRI().length();
+    }
+    return size;
+  }
+
+  private static void writeEntry(DataOutputStream output, Entry entry) throws IOException, SQWRLException
+  {
+    output.writeLong(entry.sequenceNumber);
+    output.writeInt(entry.row.size());
+
+    for (SQWRLResultValue value : entry.row) {
+      if (value.isLiteral()) {
+        OWLLiteral literal = value.asLiteralResult().getOWLLiteral();
+        output.writeByte(LITERAL);
+        writeString(output, literal.getLiteral());
+        writeString(output, literal.getLang());
+        writeString(output, literal.getDatatype().getIRI().toString());
+      } else {
+        output.writeByte(entityKind(value));
+        writeString(output, value.asEntityResult().getIRI().toString());
+      }
+    }
+  }
+
+  private static byte entityKind(SQWRLResultValue value) throws SQWRLException
+  {
+    if (value.isNamedIndividual())
+      return NAMED_INDIVIDUAL;
+    else if (value.isClass())
+      return CLASS;
+    else if (value.isObjectProperty())
+      return OBJECT_PROPERTY;
+    else if (value.isDataProperty())
+      return DATA_PROPERTY;
+    else if (value.isAnnotationProperty())
+      return ANNOTATION_PROPERTY;
+    else if (value.isDatatype())
+      return DATATYPE;
+    else
+      throw new SQWRLException("cannot spill result value " + value + " of type " + value.getClass().getName());
+  }
+
+  private Entry readEntry(DataInputStream input) throws IOException
+  {
+    long sequenceNumber = input.readLong();
+    int numberOfValues = input.readInt();
+    List<SQWRLResultValue> row = new ArrayList<>(numberOfValues);
+
+    for (int i = 0; i < numberOfValues; i++) {
+      byte kind = input.readByte();
+
+      if (kind == LITERAL) {
+        String lexicalForm = readString(input), language = readString(input), datatype = readString(input);
+        OWLLiteral literal = language.isEmpty() ?
+          this.dataFactory.getOWLLiteral(lexicalForm, this.dataFactory.getOWLDatatype(IRI.create(datatype))) :
+          this.dataFactory.getOWLLiteral(lexicalForm, language);
+        row.add(this.valueFactory.getLiteralValue(literal));
+      } else {
+        IRI iri = IRI.create(readString(input));
+
+        switch (kind) {
+        case NAMED_INDIVIDUAL:
+          row.add(this.valueFactory.getNamedIndividualValue(iri));
+          break;
+        case CLASS:
+          row.add(this.valueFactory.getClassValue(iri));
+          break;
+        case OBJECT_PROPERTY:
+          row.add(this.valueFactory.getObjectPropertyValue(iri));
+          break;
+        case DATA_PROPERTY:
+          row.add(this.valueFactory.getDataPropertyValue(iri));
+          break;
+        case ANNOTATION_PROPERTY:
+          row.add(this.valueFactory.getAnnotationPropertyValue(iri));
+          break;
+        case DATATYPE:
+          row.add(this.valueFactory.getDatatypeValue(iri));
+          break;
+        default:
+          throw new IOException("unknown result value kind " + kind);
+        }
+      }
+    }
+    return new Entry(row, sequenceNumber);
+  }
+
+  private static void writeString(DataOutputStream output, String value) throws IOException
+  {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(DataInputStream input) throws IOException
+  {
+    byte[] bytes = new byte[input.readInt()];
+
+    input.readFully(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Entry
+  {
+    private final List<SQWRLResultValue> row;
+    private final long sequenceNumber;
+
+    private Entry(List<SQWRLResultValue> row, long sequenceNumber)
+    {
+      this.row = row;
+      this.sequenceNumber = sequenceNumber;
+    }
+  }
+
+  private static class Run
+  {
+    private final Path path;
+    private long size;
+
+    private Run(Path path)
+    {
+      this.path = path;
+    }
+
+    private DataOutputStream openOutput() throws IOException
+    {
+      return new DataOutputStream(new BufferedOutputStream(
+        Channels.newOutputStream(FileChannel.open(this.path, StandardOpenOption.WRITE)), IO_BUFFER_SIZE));
+    }
+
+    private DataInputStream openInput() throws IOException
+    {
+      return new DataInputStream(new BufferedInputStream(
+        Channels.newInputStream(FileChannel.open(this.path, StandardOpenOption.READ)), IO_BUFFER_SIZE));
+    }
+
+    private void delete()
+    {
+      try {
+        Files.deleteIfExists(this.path);
+      } catch (IOException e) {
+        this.path.toFile().deleteOnExit();
+      }
+    }
+  }
+
+  /**
+   * A sorted sequence of entries whose next entry is {@link #head}.
+   */
+  private abstract static class Source
+  {
+    protected Entry head;
+
+    /**
+     * Moves to the next entry.
+     *
+     * @return false if there are no more entries
+     */
+    protected abstract boolean advance() throws SQWRLException;
+
+    protected void close()
+    {
+    }
+  }
+
+  private static class BufferSource extends Source
+  {
+    private final List<Entry> entries;
+    private int position;
+
+    private BufferSource(List<Entry> entries)
+    {
+      this.entries = entries;
+    }
+
+    @Override protected boolean advance()
+    {
+      if (this.position == this.entries.size()) {
+        this.head = null;
+        return false;
+      }
+      // Release entries as they are consumed
+      this.head = this.entries.set(this.position++, null);
+      return true;
+    }
+  }
+
+  private class RunSource extends Source
+  {
+    private final Run run;
+    private DataInputStream input;
+    private long remaining;
+
+    private RunSource(Run run)
+    {
+      this.run = run;
+      this.remaining = run.size;
+    }
+
+    @Override protected boolean advance()
+    {
+      try {
+        if (this.remaining == 0) {
+          this.head = null;
+          close();
+          return false;
+        }
+
+        if (this.input == null)
+          this.input = this.run.openInput();
+
+        this.head = readEntry(this.input);
+        this.remaining--;
+
+        return true;
+      } catch (IOException e) {
+        throw new UncheckedIOException("could not read sorted run " + this.run.path, e);
+      }
+    }
+
+    @Override protected void close()
+    {
+      try {
+        if (this.input != null)
+          this.input.close();
+        this.input = null;
+      } catch (IOException e) {
+        throw new UncheckedIOException("could not close sorted run " + this.run.path, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,295 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.RemoveAxiom;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLBuiltInAtom;
+import org.semanticweb.owlapi.model.SWRLRule;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.sqwrl.SQWRLNames;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps an ontology's inferences up to date by re-inferring only the rule components that its changes touch.
+ * <p>
+ * A change listener records the axioms added to and removed from the rule engine's ontology by anyone other than the
+ * inferrer itself. SQWRL queries, which are stored as SWRL rules, are ignored since they never contribute
+ * inferences. On {@link #infer()}, the changed axioms are mapped through a {@link SWRLRuleDependencyGraph} to the
+ * components holding their predicates, and:
+ * <ul>
+ * <li>with no recorded changes, nothing is run at all;</li>
+ * <li>the axioms derived earlier within a component that a removal touched are retracted. This is delete-and-rederive
+ * at the granularity of a component: the engine exposes no proof dependencies, so all of the component's derived
+ * axioms are over-deleted. SWRL and OWL 2 RL inference is monotone, so components touched by additions only keep
+ * theirs;</li>
+ * <li>the changed components, plus every axiom without predicates, are copied into a fresh ontology and inferred by a
+ * scratch engine, as {@link ParallelSWRLInferrer} does for a partition, and the new axioms are added to the
+ * ontology.</li>
+ * </ul>
+ * The first inference, and any inference where the graph is not partitionable or a change has no predicates, such as
+ * a <code>SameIndividual</code> axiom, runs the rule engine over the whole ontology instead, retracting every derived
+ * axiom first if there were removals. So does a removal once an earlier run has derived equality axioms, and a
+ * component run that derives a <code>SameIndividual</code> axiom is followed by a full run, since equality applies
+ * across components.
+ * <p>
+ * An inferred axiom that is later asserted explicitly is indistinguishable from one that was already present, so it
+ * is treated as derived and may be retracted and re-derived.
+ */
+public class IncrementalSWRLInferrer
+{
+  private final SWRLRuleEngine ruleEngine;
+  private final OWLOntology ontology;
+  private final OWLOntologyChangeListener changeListener = this::ontologiesChanged;
+  private final Set<OWLAxiom> derivedAxioms = new HashSet<>();
+  private final Set<OWLAxiom> addedAxioms = new HashSet<>();
+  private final Set<OWLAxiom> removedAxioms = new HashSet<>();
+
+  private boolean inferred;
+  private boolean applyingOwnChanges;
+  private boolean fullRun;
+  private int numberOfRuns;
+  private int numberOfSkippedRuns;
+  private int numberOfRetractions;
+  private int numberOfComponentsInferred;
+
+  public IncrementalSWRLInferrer(SWRLRuleEngine ruleEngine)
+  {
+    this.ruleEngine = ruleEngine;
+    this.ontology = ruleEngine.getOWLOntology();
+    this.ontology.getOWLOntologyManager().addOntologyChangeListener(this.changeListener);
+  }
+
+  /**
+   * Brings the ontology's inferences up to date with its assertions.
+   */
+  public void infer() throws SWRLRuleEngineException
+  {
+    if (!hasPendingChanges()) {
+      this.numberOfSkippedRuns++;
+      return;
+    }
+
+    SWRLRuleDependencyGraph graph = new SWRLRuleDependencyGraph(this.ontology);
+
+    this.applyingOwnChanges = true;
+    try {
+      if (requiresFullRun(graph))
+        inferFully(graph, !this.removedAxioms.isEmpty());
+      else
+        inferComponents(graph);
+    } finally {
+      this.applyingOwnChanges = false;
+    }
+
+    this.inferred = true;
+    this.addedAxioms.clear();
+    this.removedAxioms.clear();
+    this.numberOfRuns++;
+  }
+
+  public boolean hasPendingChanges()
+  {
+    return !this.inferred || !this.addedAxioms.isEmpty() || !this.removedAxioms.isEmpty();
+  }
+
+  /**
+   * Returns the axioms that inference has added to the ontology.
+   */
+  public Set<OWLAxiom> getDerivedOWLAxioms()
+  {
+    return Collections.unmodifiableSet(this.derivedAxioms);
+  }
+
+  public int getNumberOfRuns()
+  {
+    return this.numberOfRuns;
+  }
+
+  public int getNumberOfSkippedRuns()
+  {
+    return this.numberOfSkippedRuns;
+  }
+
+  public int getNumberOfRetractions()
+  {
+    return this.numberOfRetractions;
+  }
+
+  /**
+   * Returns true if the last inference ran the rule engine over the whole ontology.
+   */
+  public boolean isFullRun()
+  {
+    return this.fullRun;
+  }
+
+  /**
+   * Returns the number of components that the last inference re-inferred; for a full run, every component.
+   */
+  public int getNumberOfComponentsInferred()
+  {
+    return this.numberOfComponentsInferred;
+  }
+
+  /**
+   * Stops listening to the ontology. Derived axioms stay in the ontology.
+   */
+  public void dispose()
+  {
+    this.ontology.getOWLOntologyManager().removeOntologyChangeListener(this.changeListener);
+  }
+
+  private boolean requiresFullRun(SWRLRuleDependencyGraph graph)
+  {
+    if (!this.inferred || !graph.isPartitionable())
+      return true;
+
+    for (OWLAxiom axiom : this.addedAxioms)
+      if (SWRLRuleDependencyGraph.getPredicates(axiom).isEmpty())
+        return true;
+
+    for (OWLAxiom axiom : this.removedAxioms)
+      if (SWRLRuleDependencyGraph.getPredicates(axiom).isEmpty())
+        return true;
+
+    return !this.removedAxioms.isEmpty() && this.derivedAxioms.stream().anyMatch(
+      axiom -> axiom.isOfType(AxiomType.SAME_INDIVIDUAL) || axiom.isOfType(AxiomType.DIFFERENT_INDIVIDUALS));
+  }
+
+  private void inferFully(SWRLRuleDependencyGraph graph, boolean retract)
+  {
+    if (retract && !this.derivedAxioms.isEmpty())
+      retract(new HashSet<>(this.derivedAxioms));
+
+    this.ruleEngine.importAssertedOWLAxioms();
+    this.ruleEngine.run();
+
+    for (OWLAxiom axiom : this.ruleEngine.getInferredOWLAxioms())
+      if (!this.ontology.containsAxiom(axiom))
+        this.derivedAxioms.add(axiom);
+
+    this.ruleEngine.exportInferredOWLAxioms();
+
+    this.fullRun = true;
+    this.numberOfComponentsInferred = graph.getNumberOfComponents();
+  }
+
+  /**
+   * Retracts the derived axioms of the components touched by removals and re-infers the components touched by any
+   * change with a scratch engine.
+   */
+  private void inferComponents(SWRLRuleDependencyGraph graph) throws SWRLRuleEngineException
+  {
+    Set<Integer> retractedComponents = getComponentIndexes(graph, this.removedAxioms);
+    Set<Integer> changedComponents = getComponentIndexes(graph, this.addedAxioms);
+    Set<OWLAxiom> retractedAxioms = new HashSet<>();
+
+    changedComponents.addAll(retractedComponents);
+
+    for (OWLAxiom axiom : this.derivedAxioms)
+      if (SWRLRuleDependencyGraph.getPredicates(axiom).stream()
+        .anyMatch(predicate -> retractedComponents.contains(graph.getComponentIndex(predicate))))
+        retractedAxioms.add(axiom);
+
+    if (!retractedAxioms.isEmpty())
+      retract(retractedAxioms);
+
+    Set<OWLAxiom> componentAxioms = new HashSet<>();
+
+    for (OWLAxiom axiom : this.ontology.getAxioms(Imports.INCLUDED)) {
+      if (isSQWRLQuery(axiom))
+        continue;
+
+      Set<OWLEntity> predicates = SWRLRuleDependencyGraph.getPredicates(axiom);
+
+      if (predicates.isEmpty() || changedComponents.contains(graph.getComponentIndex(predicates.iterator().next())))
+        componentAxioms.add(axiom);
+    }
+
+    Set<OWLAxiom> newAxioms = new HashSet<>();
+
+    if (!changedComponents.isEmpty()) {
+      try {
+        for (OWLAxiom axiom : ParallelSWRLInferrer.inferPartition(componentAxioms))
+          if (!this.ontology.containsAxiom(axiom))
+            newAxioms.add(axiom);
+      } catch (OWLOntologyCreationException e) {
+        throw new SWRLRuleEngineException("error creating ontology for changed components: " + e.getMessage(), e);
+      }
+    }
+
+    this.ontology.getOWLOntologyManager().addAxioms(this.ontology, newAxioms);
+    this.derivedAxioms.addAll(newAxioms);
+
+    this.fullRun = false;
+    this.numberOfComponentsInferred = changedComponents.size();
+
+    if (newAxioms.stream().anyMatch(axiom -> axiom.isOfType(AxiomType.SAME_INDIVIDUAL)))
+      inferFully(graph, false);
+  }
+
+  private static Set<Integer> getComponentIndexes(SWRLRuleDependencyGraph graph, Set<OWLAxiom> axioms)
+  {
+    Set<Integer> componentIndexes = new HashSet<>();
+
+    for (OWLAxiom axiom : axioms)
+      for (OWLEntity predicate : SWRLRuleDependencyGraph.getPredicates(axiom)) {
+        int componentIndex = graph.getComponentIndex(predicate);
+        if (componentIndex != -1)
+          componentIndexes.add(componentIndex);
+      }
+
+    return componentIndexes;
+  }
+
+  private void retract(Set<OWLAxiom> axioms)
+  {
+    this.ontology.getOWLOntologyManager().removeAxioms(this.ontology, axioms);
+    this.derivedAxioms.removeAll(axioms);
+    this.numberOfRetractions++;
+  }
+
+  private void ontologiesChanged(List<? extends OWLOntologyChange> changes)
+  {
+    if (this.applyingOwnChanges)
+      return;
+
+    for (OWLOntologyChange change : changes) {
+      if (!change.getOntology().equals(this.ontology) || !change.isAxiomChange() || isSQWRLQuery(change.getAxiom()))
+        continue;
+
+      if (change instanceof AddAxiom)
+        this.addedAxioms.add(change.getAxiom());
+      else if (change instanceof RemoveAxiom) {
+        this.removedAxioms.add(change.getAxiom());
+        this.derivedAxioms.remove(change.getAxiom());
+      }
+    }
+  }
+
+  static boolean isSQWRLQuery(OWLAxiom axiom)
+  {
+    if (!(axiom instanceof SWRLRule))
+      return false;
+
+    for (SWRLAtom atom : ((SWRLRule)axiom).getHead())
+      if (atom instanceof SWRLBuiltInAtom && ((SWRLBuiltInAtom)atom).getPredicate().toString()
+        .startsWith(SQWRLNames.SQWRL_NAMESPACE))
+        return true;
+
+    return false;
+  }
+}
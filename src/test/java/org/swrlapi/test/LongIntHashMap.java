@@ -0,0 +1,113 @@
+package org.swrlapi.test;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from <code>long</code> keys to non-negative <code>int</code> values, which stores its
+ * entries in two parallel arrays and so allocates nothing per entry.
+ * <p>
+ * Keys are scrambled with a 64-bit finalizer and probed linearly in a power-of-two table that is doubled when it is
+ * half full. Entries cannot be removed. Lookups of absent keys return {@link #ABSENT}.
+ */
+public class LongIntHashMap
+{
+  public static final int ABSENT = -1;
+
+  private static final int MINIMUM_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+
+  public LongIntHashMap()
+  {
+    this(MINIMUM_CAPACITY);
+  }
+
+  /**
+   * Creates a map that holds <code>expectedSize</code> entries without resizing.
+   */
+  public LongIntHashMap(int expectedSize)
+  {
+    if (expectedSize < 0)
+      throw new IllegalArgumentException("expected size must not be negative; got " + expectedSize);
+
+    int capacity = Integer.highestOneBit(Math.max(MINIMUM_CAPACITY, expectedSize * 2 - 1)) << 1;
+
+    this.keys = new long[capacity];
+    this.values = new int[capacity];
+    this.mask = capacity - 1;
+    Arrays.fill(this.values, ABSENT);
+  }
+
+  public int get(long key)
+  {
+    for (int slot = slot(key); ; slot = (slot + 1) & this.mask) {
+      int value = this.values[slot];
+      if (value == ABSENT || this.keys[slot] == key)
+        return value;
+    }
+  }
+
+  /**
+   * Returns the value of a key, first mapping it to <code>valueIfAbsent</code> if it has none.
+   */
+  public int getOrPut(long key, int valueIfAbsent)
+  {
+    if (valueIfAbsent < 0)
+      throw new IllegalArgumentException("map values must not be negative; got " + valueIfAbsent);
+
+    int slot = slot(key);
+
+    for (; ; slot = (slot + 1) & this.mask) {
+      int value = this.values[slot];
+      if (value == ABSENT)
+        break;
+      if (this.keys[slot] == key)
+        return value;
+    }
+
+    this.keys[slot] = key;
+    this.values[slot] = valueIfAbsent;
+
+    if (++this.size * 2 > this.keys.length)
+      resize();
+
+    return valueIfAbsent;
+  }
+
+  public int size()
+  {
+    return this.size;
+  }
+
+  private int slot(long key)
+  {
+    key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+    key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+    return (int)(key ^ (key >>> 33)) & this.mask;
+  }
+
+  private void resize()
+  {
+    long[] oldKeys = this.keys;
+    int[] oldValues = this.values;
+
+    this.keys = new long[oldKeys.length * 2];
+    this.values = new int[oldValues.length * 2];
+    this.mask = this.keys.length - 1;
+    Arrays.fill(this.values, ABSENT);
+
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != ABSENT) {
+        int slot = slot(oldKeys[i]);
+        while (this.values[slot] != ABSENT)
+          slot = (slot + 1) & this.mask;
+        this.keys[slot] = oldKeys[i];
+        this.values[slot] = oldValues[i];
+      }
+    }
+  }
+}
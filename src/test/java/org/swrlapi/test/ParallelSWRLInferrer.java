@@ -0,0 +1,197 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Infers the independent components of an ontology's rule base concurrently, each with its own rule engine, and
+ * merges the inferred axioms back into the ontology.
+ * <p>
+ * The components are those of a {@link SWRLRuleDependencyGraph}. They are packed into at most
+ * <code>parallelism</code> partitions, largest first, each partition receiving the axioms whose predicates belong to
+ * its components plus every axiom without predicates, such as <code>SameIndividual</code>. A partition is copied into
+ * a fresh ontology and inferred on a thread of its own.
+ * <p>
+ * Inference falls back to a single engine over the whole ontology when the graph is not partitionable. It also
+ * finishes with a single engine when a partition infers a <code>SameIndividual</code> axiom, e.g., through a
+ * functional property, since equality applies across components.
+ */
+public class ParallelSWRLInferrer
+{
+  private final OWLOntology ontology;
+  private final int parallelism;
+
+  private int numberOfPartitions;
+  private boolean sequentialFallback;
+
+  public ParallelSWRLInferrer(OWLOntology ontology, int parallelism)
+  {
+    if (parallelism < 1)
+      throw new IllegalArgumentException("parallelism must be positive; got " + parallelism);
+
+    this.ontology = ontology;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Infers and adds the inferred axioms to the ontology.
+   *
+   * @return the axioms that were added
+   */
+  public Set<OWLAxiom> infer() throws SWRLRuleEngineException
+  {
+    SWRLRuleDependencyGraph graph = new SWRLRuleDependencyGraph(this.ontology);
+
+    this.sequentialFallback = false;
+
+    if (!graph.isPartitionable() || this.parallelism == 1 || graph.getNumberOfComponents() < 2) {
+      this.numberOfPartitions = 1;
+      return inferSequentially();
+    }
+
+    List<Set<OWLAxiom>> partitions = partition(graph);
+    Set<OWLAxiom> inferredAxioms = inferPartitions(partitions);
+    Set<OWLAxiom> addedAxioms = new HashSet<>();
+
+    this.numberOfPartitions = partitions.size();
+
+    for (OWLAxiom axiom : inferredAxioms)
+      if (!this.ontology.containsAxiom(axiom))
+        addedAxioms.add(axiom);
+
+    this.ontology.getOWLOntologyManager().addAxioms(this.ontology, addedAxioms);
+
+    if (addedAxioms.stream().anyMatch(axiom -> axiom.isOfType(AxiomType.SAME_INDIVIDUAL))) {
+      this.sequentialFallback = true;
+      addedAxioms.addAll(inferSequentially());
+    }
+
+    return addedAxioms;
+  }
+
+  public int getNumberOfPartitions()
+  {
+    return this.numberOfPartitions;
+  }
+
+  /**
+   * Returns true if the last inference had to run a single engine over the whole ontology.
+   */
+  public boolean isSequentialFallback()
+  {
+    return this.sequentialFallback || this.numberOfPartitions == 1;
+  }
+
+  /**
+   * Distributes the components over partitions, assigning each component, largest first, to the partition that has
+   * the fewest axioms so far.
+   */
+  private List<Set<OWLAxiom>> partition(SWRLRuleDependencyGraph graph)
+  {
+    List<List<OWLAxiom>> componentAxioms = new ArrayList<>();
+    List<OWLAxiom> sharedAxioms = new ArrayList<>();
+
+    for (int i = 0; i < graph.getNumberOfComponents(); i++)
+      componentAxioms.add(new ArrayList<>());
+
+    for (OWLAxiom axiom : this.ontology.getAxioms(Imports.INCLUDED)) {
+      if (IncrementalSWRLInferrer.isSQWRLQuery(axiom))
+        continue;
+
+      Set<OWLEntity> predicates = SWRLRuleDependencyGraph.getPredicates(axiom);
+
+      if (predicates.isEmpty())
+        sharedAxioms.add(axiom);
+      else
+        componentAxioms.get(graph.getComponentIndex(predicates.iterator().next())).add(axiom);
+    }
+
+    componentAxioms.sort(Comparator.comparingInt((List<OWLAxiom> axioms) -> axioms.size()).reversed());
+
+    List<Set<OWLAxiom>> partitions = new ArrayList<>();
+
+    for (int i = 0; i < Math.min(this.parallelism, componentAxioms.size()); i++)
+      partitions.add(new HashSet<>(sharedAxioms));
+
+    for (List<OWLAxiom> axioms : componentAxioms)
+      partitions.stream().min(Comparator.comparingInt(Set::size)).get().addAll(axioms);
+
+    return partitions;
+  }
+
+  private Set<OWLAxiom> inferPartitions(List<Set<OWLAxiom>> partitions) throws SWRLRuleEngineException
+  {
+    ExecutorService executor = Executors.newFixedThreadPool(partitions.size());
+    Set<OWLAxiom> inferredAxioms = new HashSet<>();
+
+    try {
+      List<Future<Set<OWLAxiom>>> futures = new ArrayList<>();
+
+      for (Set<OWLAxiom> partition : partitions)
+        futures.add(executor.submit(() -> inferPartition(partition)));
+
+      for (Future<Set<OWLAxiom>> future : futures)
+        inferredAxioms.addAll(future.get());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SWRLRuleEngineException)
+        throw (SWRLRuleEngineException)e.getCause();
+      throw new SWRLRuleEngineException("error inferring partition: " + e.getCause().getMessage(), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SWRLRuleEngineException("interrupted while inferring partitions", e);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return inferredAxioms;
+  }
+
+  /**
+   * Infers a set of axioms with a fresh rule engine over a copy of them and returns the inferred axioms.
+   */
+  static Set<OWLAxiom> inferPartition(Set<OWLAxiom> axioms) throws OWLOntologyCreationException
+  {
+    OWLOntology partitionOntology = OWLManager.createOWLOntologyManager().createOntology(axioms);
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(partitionOntology);
+
+    ruleEngine.importAssertedOWLAxioms();
+    ruleEngine.run();
+
+    return new HashSet<>(ruleEngine.getInferredOWLAxioms());
+  }
+
+  private Set<OWLAxiom> inferSequentially() throws SWRLRuleEngineException
+  {
+    SWRLRuleEngine ruleEngine = SWRLAPIFactory.createSWRLRuleEngine(this.ontology);
+    Set<OWLAxiom> addedAxioms = new HashSet<>();
+
+    ruleEngine.importAssertedOWLAxioms();
+    ruleEngine.run();
+
+    for (OWLAxiom axiom : ruleEngine.getInferredOWLAxioms())
+      if (!this.ontology.containsAxiom(axiom))
+        addedAxioms.add(axiom);
+
+    ruleEngine.exportInferredOWLAxioms();
+
+    return addedAxioms;
+  }
+}
@@ -0,0 +1,262 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.swrlapi.core.IRIResolver;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+
+/**
+ * A SQWRL query with named literal placeholders, such as <code>hasAge(?p, ?age) ^ swrlb:greaterThan(?age,
+ * $minAge)</code>, that is parsed once and then executed with different bindings.
+ * <p>
+ * Splicing literals into the query text forces a parse per distinct value and leaves one query per value in the
+ * ontology. Instead, each placeholder is rewritten to a variable that is bound by a data property assertion on a
+ * parameter individual, e.g., <code>q1ParamMinAge(q1Params, ?sqwrlParamMinAge)</code>. Binding a value replaces that
+ * assertion; the query itself is created in the engine only once.
+ * <p>
+ * The parameter property and individual are declared in the engine's ontology while the query is open and removed by
+ * {@link #close()}.
+ */
+public class PreparedSQWRLQuery implements AutoCloseable
+{
+  private static final String VARIABLE_PREFIX = "sqwrlParam";
+
+  private final SQWRLQueryEngine queryEngine;
+  private final OWLOntology ontology;
+  private final String queryName;
+  private final OWLNamedIndividual parameterIndividual;
+  private final Map<String, OWLDataProperty> parameterProperties;
+  private final Map<String, OWLLiteral> bindings = new HashMap<>();
+  private final List<OWLAxiom> declarations = new ArrayList<>();
+
+  private PreparedSQWRLQuery(SQWRLQueryEngine queryEngine, String queryName,
+    Map<String, OWLDataProperty> parameterProperties, OWLNamedIndividual parameterIndividual)
+  {
+    this.queryEngine = queryEngine;
+    this.ontology = queryEngine.getOWLOntology();
+    this.queryName = queryName;
+    this.parameterProperties = parameterProperties;
+    this.parameterIndividual = parameterIndividual;
+  }
+
+  /**
+   * Parses the query text, in which placeholders are written <code>$name</code>, and creates the query in the engine.
+   */
+  public static PreparedSQWRLQuery prepareSQWRLQuery(SQWRLQueryEngine queryEngine, String queryName,
+    String queryText) throws SWRLParseException, SQWRLException
+  {
+    if (!queryName.matches("[A-Za-z][A-Za-z0-9]*"))
+      throw new IllegalArgumentException("prepared query name must be alphanumeric; got " + queryName);
+
+    IRIResolver iriResolver = queryEngine.getSWRLAPIOWLOntology().getIRIResolver();
+    Set<String> parameterNames = new LinkedHashSet<>();
+    String rewrittenQuery = rewritePlaceholders(queryText, parameterNames);
+    Map<String, OWLDataProperty> parameterProperties = new LinkedHashMap<>();
+    Set<String> capitalizedNames = new HashSet<>();
+
+    for (String parameterName : parameterNames) {
+      String capitalizedName = capitalize(parameterName);
+      if (!capitalizedNames.add(capitalizedName))
+        throw new IllegalArgumentException("placeholders in query " + queryName + " differ only in case");
+      parameterProperties
+        .put(parameterName, DataProperty(resolve(iriResolver, queryName + "Param" + capitalizedName)));
+    }
+
+    OWLNamedIndividual parameterIndividual = NamedIndividual(resolve(iriResolver, queryName + "Params"));
+    PreparedSQWRLQuery preparedQuery = new PreparedSQWRLQuery(queryEngine, queryName, parameterProperties,
+      parameterIndividual);
+
+    preparedQuery.declareParameters();
+    try {
+      queryEngine.createSQWRLQuery(queryName, preparedQuery.addBindingAtoms(rewrittenQuery));
+    } catch (SWRLParseException | SQWRLException | RuntimeException e) {
+      preparedQuery.removeParameters();
+      throw e;
+    }
+
+    return preparedQuery;
+  }
+
+  public String getQueryName()
+  {
+    return this.queryName;
+  }
+
+  public Set<String> getParameterNames()
+  {
+    return Collections.unmodifiableSet(this.parameterProperties.keySet());
+  }
+
+  public void bind(String parameterName, OWLLiteral value)
+  {
+    OWLDataProperty property = this.parameterProperties.get(parameterName);
+
+    if (property == null)
+      throw new IllegalArgumentException("query " + this.queryName + " has no placeholder $" + parameterName);
+
+    OWLLiteral previous = this.bindings.put(parameterName, value);
+
+    if (previous != null)
+      this.ontology.getOWLOntologyManager()
+        .removeAxiom(this.ontology, DataPropertyAssertion(property, this.parameterIndividual, previous));
+
+    this.ontology.getOWLOntologyManager()
+      .addAxiom(this.ontology, DataPropertyAssertion(property, this.parameterIndividual, value));
+  }
+
+  /**
+   * Runs the query with the current bindings. Every placeholder must be bound.
+   */
+  public SQWRLResult execute() throws SQWRLException
+  {
+    for (String parameterName : this.parameterProperties.keySet())
+      if (!this.bindings.containsKey(parameterName))
+        throw new SQWRLException("placeholder $" + parameterName + " in query " + this.queryName + " is not bound");
+
+    return this.queryEngine.runSQWRLQuery(this.queryName);
+  }
+
+  /**
+   * Deletes the query from the engine and removes its parameter declarations and bindings from the ontology.
+   */
+  @Override public void close()
+  {
+    this.queryEngine.deleteSWRLRule(this.queryName);
+    removeParameters();
+  }
+
+  /**
+   * Replaces each <code>$name</code> outside string literals with the variable <code>?sqwrlParamName</code> and
+   * collects the placeholder names in order of first appearance.
+   */
+  private static String rewritePlaceholders(String queryText, Set<String> parameterNames)
+  {
+    StringBuilder sb = new StringBuilder(queryText.length());
+    boolean inString = false;
+    int i = 0;
+
+    while (i < queryText.length()) {
+      char c = queryText.charAt(i);
+
+      if (inString) {
+        sb.append(c);
+        if (c == '\\' && i + 1 < queryText.length())
+          sb.append(queryText.charAt(++i));
+        else if (c == '"')
+          inString = false;
+        i++;
+      } else if (c == '$') {
+        int end = i + 1;
+        while (end < queryText.length() && Character.isLetterOrDigit(queryText.charAt(end)))
+          end++;
+        if (end == i + 1 || !Character.isLetter(queryText.charAt(i + 1)))
+          throw new IllegalArgumentException("invalid placeholder at position " + i + " in query: " + queryText);
+        String parameterName = queryText.substring(i + 1, end);
+        parameterNames.add(parameterName);
+        sb.append('?').append(VARIABLE_PREFIX).append(capitalize(parameterName));
+        i = end;
+      } else {
+        if (c == '"')
+          inString = true;
+        sb.append(c);
+        i++;
+      }
+    }
+
+    return sb.toString();
+  }
+
+  /**
+   * Prefixes the rewritten query with one atom per placeholder that binds its variable to the parameter value.
+   */
+  private String addBindingAtoms(String rewrittenQuery)
+  {
+    if (this.parameterProperties.isEmpty())
+      return rewrittenQuery;
+
+    StringBuilder sb = new StringBuilder();
+    String individualName = this.parameterIndividual.getIRI().getShortForm();
+
+    for (Map.Entry<String, OWLDataProperty> entry : this.parameterProperties.entrySet()) {
+      if (sb.length() > 0)
+        sb.append(" ^ ");
+      sb.append(entry.getValue().getIRI().getShortForm()).append('(').append(individualName).append(", ?")
+        .append(VARIABLE_PREFIX).append(capitalize(entry.getKey())).append(')');
+    }
+
+    return prependBodyAtoms(sb.toString(), rewrittenQuery);
+  }
+
+  /**
+   * Adds atoms to the front of a query's body, which may be empty or end in a collection (<code>.</code>) clause.
+   */
+  static String prependBodyAtoms(String bodyAtoms, String queryText)
+  {
+    String rest = queryText.trim();
+
+    if (rest.startsWith("->") || rest.startsWith("."))
+      return bodyAtoms + " " + rest;
+    else
+      return bodyAtoms + " ^ " + rest;
+  }
+
+  private void declareParameters()
+  {
+    this.declarations.add(Declaration(this.parameterIndividual));
+    for (OWLDataProperty property : this.parameterProperties.values())
+      this.declarations.add(Declaration(property));
+
+    this.ontology.getOWLOntologyManager().addAxioms(this.ontology, new HashSet<>(this.declarations));
+  }
+
+  private void removeParameters()
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(this.declarations);
+
+    for (Map.Entry<String, OWLLiteral> binding : this.bindings.entrySet())
+      axioms.add(DataPropertyAssertion(this.parameterProperties.get(binding.getKey()), this.parameterIndividual,
+        binding.getValue()));
+
+    this.ontology.getOWLOntologyManager().removeAxioms(this.ontology, new HashSet<>(axioms));
+    this.bindings.clear();
+    this.declarations.clear();
+  }
+
+  private static String capitalize(String parameterName)
+  {
+    return Character.toUpperCase(parameterName.charAt(0)) + parameterName.substring(1);
+  }
+
+  static IRI resolve(IRIResolver iriResolver, String shortName) throws SQWRLException
+  {
+    Optional<IRI> iri = iriResolver.prefixedName2IRI(shortName);
+
+    if (!iri.isPresent())
+      throw new SQWRLException("could not resolve name " + shortName + " in the default namespace");
+
+    return iri.get();
+  }
+}
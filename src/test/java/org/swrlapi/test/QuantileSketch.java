@@ -0,0 +1,365 @@
+package org.swrlapi.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A mergeable KLL quantile sketch over <code>double</code> values, which answers rank and quantile queries over a
+ * stream of any length from a number of retained values that depends only on the accuracy parameter <code>k</code>.
+ * <p>
+ * Values are added to a stack of compactors. Each value in the compactor at level <code>h</code> stands for
+ * <code>2^h</code> values of the stream. When the compactors together hold more than their capacity, the lowest full
+ * compactor is sorted and every other value, starting at a random offset, is promoted to the next level while the
+ * rest are discarded. Capacities shrink geometrically from the top level down, so a sketch retains
+ * <code>O(k)</code> values and its quantiles are within {@link #getNormalizedRankError(int)} of their true rank with
+ * high probability. Until the first compaction a sketch holds every value and its quantiles are exact, see
+ * {@link #isExact()}.
+ * <p>
+ * Two sketches can be merged by concatenating their compactors level by level, so a stream can be summarized in
+ * parallel partitions and the partial sketches combined.
+ * <p>
+ * A sketch is not thread-safe. Compactions use a pseudo-random generator with a fixed default seed so that a sketch of
+ * a given stream is reproducible.
+ */
+public class QuantileSketch
+{
+  public static final int DEFAULT_K = 200;
+  public static final int MINIMUM_K = 8;
+
+  private static final long DEFAULT_SEED = 42L;
+  private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+  private final int k;
+  private final Random random;
+  private final List<Compactor> compactors = new ArrayList<>();
+  private long n;
+  private int size;
+  private int maximumSize;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+
+  public QuantileSketch()
+  {
+    this(DEFAULT_K);
+  }
+
+  public QuantileSketch(int k)
+  {
+    this(k, DEFAULT_SEED);
+  }
+
+  public QuantileSketch(int k, long seed)
+  {
+    if (k < MINIMUM_K)
+      throw new IllegalArgumentException("sketch accuracy parameter k must be at least " + MINIMUM_K + "; got " + k);
+
+    this.k = k;
+    this.random = new Random(seed);
+    addCompactor();
+  }
+
+  /**
+   * Creates a sketch with the smallest <code>k</code> whose normalized rank error is at most <code>rankError</code>.
+   */
+  public static QuantileSketch withRankError(double rankError)
+  {
+    if (!(rankError > 0.0 && rankError < 1.0))
+      throw new IllegalArgumentException("rank error must be between 0 and 1; got " + rankError);
+
+    int k = MINIMUM_K;
+    while (getNormalizedRankError(k) > rankError)
+      k++;
+
+    return new QuantileSketch(k);
+  }
+
+  /**
+   * The approximate rank error, as a fraction of the number of values, that a single quantile of a sketch with
+   * accuracy parameter <code>k</code> stays within with 99% confidence. The constants are the empirical fit
+   * published for KLL sketches.
+   */
+  public static double getNormalizedRankError(int k)
+  {
+    return 2.296 / Math.pow(k, 0.9723);
+  }
+
+  public int getK()
+  {
+    return this.k;
+  }
+
+  public void update(double value)
+  {
+    if (Double.isNaN(value))
+      throw new IllegalArgumentException("NaN cannot be added to a quantile sketch");
+
+    if (this.n == 0)
+      this.min = this.max = value;
+    else {
+      this.min = Math.min(this.min, value);
+      this.max = Math.max(this.max, value);
+    }
+
+    this.compactors.get(0).add(value);
+    this.n++;
+    this.size++;
+
+    if (this.size >= this.maximumSize)
+      compress();
+  }
+
+  /**
+   * Adds the values summarized by another sketch to this one. The other sketch is left unchanged.
+   */
+  public void merge(QuantileSketch other)
+  {
+    if (other.n == 0)
+      return;
+
+    while (this.compactors.size() < other.compactors.size())
+      addCompactor();
+
+    for (int level = 0; level < other.compactors.size(); level++) {
+      Compactor compactor = other.compactors.get(level);
+      this.compactors.get(level).addAll(compactor.items, compactor.size);
+    }
+
+    this.min = this.n == 0 ? other.min : Math.min(this.min, other.min);
+    this.max = this.n == 0 ? other.max : Math.max(this.max, other.max);
+    this.n += other.n;
+    this.size += other.size;
+
+    while (this.size >= this.maximumSize)
+      compress();
+  }
+
+  /**
+   * The number of values added to the sketch.
+   */
+  public long getN()
+  {
+    return this.n;
+  }
+
+  public boolean isEmpty()
+  {
+    return this.n == 0;
+  }
+
+  /**
+   * Whether the sketch still holds every value added to it, in which case its quantiles are exact.
+   */
+  public boolean isExact()
+  {
+    return this.compactors.size() == 1;
+  }
+
+  public int getNumberOfRetainedValues()
+  {
+    return this.size;
+  }
+
+  public double getMin()
+  {
+    checkNotEmpty();
+
+    return this.min;
+  }
+
+  public double getMax()
+  {
+    checkNotEmpty();
+
+    return this.max;
+  }
+
+  /**
+   * The least retained value whose estimated rank, the fraction of values less than or equal to it, is at least
+   * <code>fraction</code>. Fraction 0 is the minimum and fraction 1 the maximum.
+   */
+  public double getQuantile(double fraction)
+  {
+    checkNotEmpty();
+
+    if (!(fraction >= 0.0 && fraction <= 1.0))
+      throw new IllegalArgumentException("quantile fraction must be between 0 and 1; got " + fraction);
+
+    if (fraction == 0.0)
+      return this.min;
+    else if (fraction == 1.0)
+      return this.max;
+
+    SortedView view = sortedView();
+    long targetWeight = (long)Math.ceil(fraction * this.n);
+    int index = Arrays.binarySearch(view.cumulativeWeights, targetWeight);
+
+    return view.values[index >= 0 ? index : -index - 1];
+  }
+
+  /**
+   * The median. While the sketch is exact, the median of an even number of values is the mean of the two middle
+   * values, as <code>sqwrl:median</code> computes it.
+   */
+  public double getMedian()
+  {
+    checkNotEmpty();
+
+    if (isExact() && this.n % 2 == 0) {
+      Compactor compactor = this.compactors.get(0);
+      double[] values = Arrays.copyOf(compactor.items, compactor.size);
+      int middle = values.length / 2;
+
+      Arrays.sort(values);
+
+      return (values[middle - 1] + values[middle]) / 2.0;
+    } else
+      return getQuantile(0.5);
+  }
+
+  /**
+   * The estimated fraction of values less than or equal to <code>value</code>.
+   */
+  public double getRank(double value)
+  {
+    checkNotEmpty();
+
+    long weight = 0;
+
+    for (int level = 0; level < this.compactors.size(); level++) {
+      Compactor compactor = this.compactors.get(level);
+      for (int i = 0; i < compactor.size; i++)
+        if (compactor.items[i] <= value)
+          weight += 1L << level;
+    }
+
+    return (double)weight / this.n;
+  }
+
+  private void checkNotEmpty()
+  {
+    if (this.n == 0)
+      throw new IllegalStateException("quantile sketch is empty");
+  }
+
+  /**
+   * Compacts the lowest full compactor, and any that are full as a result, until the sketch is within capacity.
+   */
+  private void compress()
+  {
+    for (int level = 0; level < this.compactors.size(); level++) {
+      Compactor compactor = this.compactors.get(level);
+
+      if (compactor.size >= capacity(level)) {
+        if (level + 1 == this.compactors.size())
+          addCompactor();
+
+        int before = compactor.size;
+        int promoted = compactor.compactInto(this.compactors.get(level + 1), this.random.nextBoolean());
+        this.size -= before - compactor.size - promoted;
+
+        if (this.size < this.maximumSize)
+          break;
+      }
+    }
+  }
+
+  private void addCompactor()
+  {
+    this.compactors.add(new Compactor());
+
+    this.maximumSize = 0;
+    for (int level = 0; level < this.compactors.size(); level++)
+      this.maximumSize += capacity(level);
+  }
+
+  private int capacity(int level)
+  {
+    int depth = this.compactors.size() - level - 1;
+
+    return Math.max(2, (int)Math.ceil(Math.pow(CAPACITY_DECAY, depth) * this.k)) + 1;
+  }
+
+  private SortedView sortedView()
+  {
+    double[] values = new double[this.size];
+    long[] weights = new long[this.size];
+    int position = 0;
+
+    for (int level = 0; level < this.compactors.size(); level++) {
+      Compactor compactor = this.compactors.get(level);
+      System.arraycopy(compactor.items, 0, values, position, compactor.size);
+      Arrays.fill(weights, position, position + compactor.size, 1L << level);
+      position += compactor.size;
+    }
+
+    Integer[] order = new Integer[this.size];
+    for (int i = 0; i < order.length; i++)
+      order[i] = i;
+    Arrays.sort(order, (i1, i2) -> Double.compare(values[i1], values[i2]));
+
+    SortedView view = new SortedView(this.size);
+    long cumulativeWeight = 0;
+    for (int i = 0; i < order.length; i++) {
+      cumulativeWeight += weights[order[i]];
+      view.values[i] = values[order[i]];
+      view.cumulativeWeights[i] = cumulativeWeight;
+    }
+
+    return view;
+  }
+
+  private static class Compactor
+  {
+    private double[] items = new double[16];
+    private int size;
+
+    private void add(double value)
+    {
+      if (this.size == this.items.length)
+        this.items = Arrays.copyOf(this.items, this.size * 2);
+
+      this.items[this.size++] = value;
+    }
+
+    private void addAll(double[] values, int count)
+    {
+      if (this.size + count > this.items.length)
+        this.items = Arrays.copyOf(this.items, Math.max(this.size + count, this.items.length * 2));
+
+      System.arraycopy(values, 0, this.items, this.size, count);
+      this.size += count;
+    }
+
+    /**
+     * Sorts the compactor and promotes every other value to the next level, keeping the least value when the
+     * compactor holds an odd number of them. Returns the number of values promoted.
+     */
+    private int compactInto(Compactor next, boolean odd)
+    {
+      Arrays.sort(this.items, 0, this.size);
+
+      int start = this.size % 2;
+      for (int i = start + (odd ? 1 : 0); i < this.size; i += 2)
+        next.add(this.items[i]);
+
+      int promoted = (this.size - start) / 2;
+      this.size = start;
+
+      return promoted;
+    }
+  }
+
+  private static class SortedView
+  {
+    private final double[] values;
+    private final long[] cumulativeWeights;
+
+    private SortedView(int size)
+    {
+      this.values = new double[size];
+      this.cumulativeWeights = new long[size];
+    }
+  }
+}
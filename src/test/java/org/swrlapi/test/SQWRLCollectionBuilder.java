@@ -0,0 +1,205 @@
+package org.swrlapi.test;
+
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the collections of a <code>sqwrl:makeSet</code> or <code>sqwrl:makeBag</code> over the rows of a result as
+ * {@link SQWRLIdCollection}s, with one collection per group of the <code>sqwrl:groupBy</code> columns.
+ * <p>
+ * The values of the element column are interned by a {@link SQWRLResultValueDictionary}, and a group's elements are
+ * appended to a growable <code>int</code> array as rows arrive, so no object is allocated per element. Builders that
+ * share a dictionary produce collections that can be intersected, joined and compared with each other. A group's
+ * numeric elements are also available as a sorted <code>double</code> array, from which the size, least, greatest and
+ * median elements of the collection are read directly.
+ */
+public class SQWRLCollectionBuilder
+{
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final SQWRLResultValueDictionary dictionary;
+  private final boolean isSet;
+  private final int elementColumnIndex;
+  private final SQWRLGroupIndex groupIndex;
+  private final List<List<SQWRLResultValue>> groups = new ArrayList<>();
+  private final List<int[]> groupElementIds = new ArrayList<>();
+  private final int maximumColumnIndex;
+  private int[] groupSizes = new int[INITIAL_CAPACITY];
+
+  private SQWRLCollectionBuilder(SQWRLResultValueDictionary dictionary, boolean isSet, int elementColumnIndex,
+    int... groupByColumnIndexes)
+  {
+    if (elementColumnIndex < 0)
+      throw new IllegalArgumentException("element column index must not be negative; got " + elementColumnIndex);
+
+    for (int columnIndex : groupByColumnIndexes) {
+      if (columnIndex == elementColumnIndex)
+        throw new IllegalArgumentException("element column " + columnIndex + " cannot also be a group-by column");
+    }
+
+    this.dictionary = dictionary;
+    this.isSet = isSet;
+    this.elementColumnIndex = elementColumnIndex;
+    this.groupIndex = new SQWRLGroupIndex(dictionary, groupByColumnIndexes);
+    this.maximumColumnIndex = Arrays.stream(groupByColumnIndexes).reduce(elementColumnIndex, Math::max);
+  }
+
+  /**
+   * A builder of the sets of the values of an element column, grouped on the values of the group-by columns.
+   */
+  public static SQWRLCollectionBuilder makeSet(SQWRLResultValueDictionary dictionary, int elementColumnIndex,
+    int... groupByColumnIndexes)
+  {
+    return new SQWRLCollectionBuilder(dictionary, true, elementColumnIndex, groupByColumnIndexes);
+  }
+
+  /**
+   * A builder of the bags of the values of an element column, grouped on the values of the group-by columns.
+   */
+  public static SQWRLCollectionBuilder makeBag(SQWRLResultValueDictionary dictionary, int elementColumnIndex,
+    int... groupByColumnIndexes)
+  {
+    return new SQWRLCollectionBuilder(dictionary, false, elementColumnIndex, groupByColumnIndexes);
+  }
+
+  public void add(List<SQWRLResultValue> row) throws SQWRLException
+  {
+    if (this.maximumColumnIndex >= row.size())
+      throw new SQWRLException(
+        "column index " + this.maximumColumnIndex + " out of bounds for row of size " + row.size());
+
+    int groupIndex = this.groupIndex.getGroupIndex(row);
+
+    if (groupIndex == this.groups.size()) {
+      List<SQWRLResultValue> group = new ArrayList<>(this.groupIndex.getNumberOfGroupByColumns());
+      for (int i = 0; i < this.groupIndex.getNumberOfGroupByColumns(); i++)
+        group.add(row.get(this.groupIndex.getGroupByColumnIndex(i)));
+      this.groups.add(Collections.unmodifiableList(group));
+      this.groupElementIds.add(new int[INITIAL_CAPACITY]);
+      if (groupIndex == this.groupSizes.length)
+        this.groupSizes = Arrays.copyOf(this.groupSizes, groupIndex * 2);
+    }
+
+    int[] ids = this.groupElementIds.get(groupIndex);
+    int size = this.groupSizes[groupIndex];
+
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, size * 2);
+      this.groupElementIds.set(groupIndex, ids);
+    }
+
+    ids[size] = this.dictionary.getId(row.get(this.elementColumnIndex));
+    this.groupSizes[groupIndex] = size + 1;
+  }
+
+  /**
+   * Adds every remaining row of a cursor.
+   */
+  public void addAll(SQWRLResultCursor cursor) throws SQWRLException
+  {
+    while (cursor.next())
+      add(cursor.getRow());
+  }
+
+  /**
+   * Adds every remaining row of a result.
+   */
+  public void addAll(SQWRLResult result) throws SQWRLException
+  {
+    while (result.next())
+      add(result.getRow());
+  }
+
+  /**
+   * The values of the group-by columns of each group, in the order in which the groups were first seen.
+   */
+  public List<List<SQWRLResultValue>> getGroups()
+  {
+    return new ArrayList<>(this.groups);
+  }
+
+  public int getNumberOfGroups()
+  {
+    return this.groups.size();
+  }
+
+  public SQWRLResultValueDictionary getDictionary()
+  {
+    return this.dictionary;
+  }
+
+  /**
+   * The collection of the single group of a builder without group-by columns.
+   */
+  public SQWRLIdCollection getCollection() throws SQWRLException
+  {
+    return getCollection(Collections.emptyList());
+  }
+
+  /**
+   * The collection of the elements of a group, which is empty for a group that no row was added to.
+   */
+  public SQWRLIdCollection getCollection(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    int groupIndex = this.groupIndex.findGroupIndex(group);
+    int[] ids = groupIndex == LongIntHashMap.ABSENT ? new int[0] : this.groupElementIds.get(groupIndex);
+    int size = groupIndex == LongIntHashMap.ABSENT ? 0 : this.groupSizes[groupIndex];
+
+    return this.isSet ? SQWRLIdCollection.set(ids, size) : SQWRLIdCollection.bag(ids, size);
+  }
+
+  /**
+   * The ids of the members of the collection of the single group of a builder without group-by columns as a bitmap.
+   */
+  public SQWRLIdBitmap getBitmap() throws SQWRLException
+  {
+    return getBitmap(Collections.emptyList());
+  }
+
+  /**
+   * The ids of the members of a group's collection as a bitmap, for set algebra over large collections of individuals.
+   */
+  public SQWRLIdBitmap getBitmap(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    return SQWRLIdBitmap.of(getCollection(group).getIds());
+  }
+
+  /**
+   * The elements of the single group of a builder without group-by columns as ascending <code>double</code> values.
+   */
+  public double[] getNumericValues() throws SQWRLException
+  {
+    return getNumericValues(Collections.emptyList());
+  }
+
+  /**
+   * The elements of a group's collection as ascending <code>double</code> values, with one value per member of a set
+   * and per occurrence in a bag.
+   */
+  public double[] getNumericValues(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    int[] ids = getCollection(group).getIds();
+    double[] values = new double[ids.length];
+
+    for (int i = 0; i < ids.length; i++) {
+      SQWRLResultValue value = this.dictionary.getValue(ids[i]);
+      SQWRLLiteralResultValue literal = value.isLiteral() ? value.asLiteralResult() : null;
+
+      if (literal == null || !literal.isNumeric())
+        throw new SQWRLException("attempt to use non numeric value " + value + " in collection of group " + group);
+
+      values[i] = SQWRLStreamingAggregator.doubleValue(literal);
+    }
+
+    Arrays.sort(values);
+
+    return values;
+  }
+}
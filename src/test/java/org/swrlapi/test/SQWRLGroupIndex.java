@@ -0,0 +1,126 @@
+package org.swrlapi.test;
+
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.util.List;
+
+/**
+ * Assigns dense indexes to the groups of result rows that have the same values in a fixed list of group-by columns.
+ * <p>
+ * Group-by values are interned as ids by a {@link SQWRLResultValueDictionary} and a row's group is found by hashing
+ * those ids in a {@link LongIntHashMap}: a one-column group is keyed by its value's id, and each further column by the
+ * pair of the id of the preceding columns and its value's id, with a map per column. No key objects are built per
+ * row, and an integral literal is hashed as a <code>long</code>. With no group-by columns every row is in group 0.
+ */
+public class SQWRLGroupIndex
+{
+  private final SQWRLResultValueDictionary dictionary;
+  private final int[] groupByColumnIndexes;
+  private final LongIntHashMap[] prefixIds;
+  private final LongIntHashMap groupIds = new LongIntHashMap();
+
+  public SQWRLGroupIndex(SQWRLResultValueDictionary dictionary, int... groupByColumnIndexes)
+  {
+    for (int columnIndex : groupByColumnIndexes) {
+      if (columnIndex < 0)
+        throw new IllegalArgumentException("group-by column index must not be negative; got " + columnIndex);
+    }
+
+    this.dictionary = dictionary;
+    this.groupByColumnIndexes = groupByColumnIndexes.clone();
+    this.prefixIds = new LongIntHashMap[Math.max(0, groupByColumnIndexes.length - 2)];
+    for (int i = 0; i < this.prefixIds.length; i++)
+      this.prefixIds[i] = new LongIntHashMap();
+  }
+
+  /**
+   * The index of the group of a row, assigning the next index, {@link #size()}, to a new group.
+   */
+  public int getGroupIndex(List<SQWRLResultValue> row) throws SQWRLException
+  {
+    return groupIndex(row, true, true);
+  }
+
+  /**
+   * The index of the group with the given group-by values, assigning the next index, {@link #size()}, to a new group.
+   */
+  public int getGroupIndexOfValues(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    checkGroupSize(group);
+
+    return groupIndex(group, false, true);
+  }
+
+  /**
+   * The index of the group with the given group-by values, or {@link LongIntHashMap#ABSENT} if there is no such
+   * group.
+   */
+  public int findGroupIndex(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    return group.size() == this.groupByColumnIndexes.length ?
+      groupIndex(group, false, false) :
+      LongIntHashMap.ABSENT;
+  }
+
+  public int getNumberOfGroupByColumns()
+  {
+    return this.groupByColumnIndexes.length;
+  }
+
+  public int getGroupByColumnIndex(int i)
+  {
+    return this.groupByColumnIndexes[i];
+  }
+
+  public SQWRLResultValueDictionary getDictionary()
+  {
+    return this.dictionary;
+  }
+
+  public int size()
+  {
+    return this.groupIds.size();
+  }
+
+  private void checkGroupSize(List<SQWRLResultValue> group)
+  {
+    if (group.size() != this.groupByColumnIndexes.length)
+      throw new IllegalArgumentException(
+        "expecting " + this.groupByColumnIndexes.length + " group-by values; got " + group.size());
+  }
+
+  /**
+   * Finds the index of the group of a row, or of a list of group-by values, adding the ids of a new group's values and
+   * prefixes if <code>add</code> is set, in which case a new group gets the next index. Returns
+   * {@link LongIntHashMap#ABSENT} for a new group otherwise.
+   */
+  private int groupIndex(List<SQWRLResultValue> values, boolean isRow, boolean add) throws SQWRLException
+  {
+    int numberOfColumns = this.groupByColumnIndexes.length;
+    long key = 0;
+
+    for (int i = 0; i < numberOfColumns; i++) {
+      SQWRLResultValue value = values.get(isRow ? this.groupByColumnIndexes[i] : i);
+      int valueId = add ? this.dictionary.getId(value) : this.dictionary.findId(value);
+
+      if (valueId == LongIntHashMap.ABSENT)
+        return LongIntHashMap.ABSENT;
+
+      if (i == 0)
+        key = valueId;
+      else
+        key = key << 32 | valueId;
+
+      if (i > 0 && i < numberOfColumns - 1) {
+        LongIntHashMap prefixIds = this.prefixIds[i - 1];
+        int prefixId = add ? prefixIds.getOrPut(key, prefixIds.size()) : prefixIds.get(key);
+        if (prefixId == LongIntHashMap.ABSENT)
+          return LongIntHashMap.ABSENT;
+        key = prefixId;
+      }
+    }
+
+    return add ? this.groupIds.getOrPut(key, this.groupIds.size()) : this.groupIds.get(key);
+  }
+}
@@ -0,0 +1,471 @@
+package org.swrlapi.test;
+
+import java.util.Arrays;
+
+/**
+ * A compressed bitmap of non-negative <code>int</code> ids, laid out as a Roaring bitmap, for set algebra over
+ * collections of named individuals whose ids a {@link SQWRLResultValueDictionary} assigned densely.
+ * <p>
+ * Ids are partitioned on their high 16 bits, and the low 16 bits of the ids of each partition are held in a container
+ * of one of two kinds: a sorted <code>char</code> array while the partition has at most 4096 ids, and a 65536-bit
+ * bitmap of 1024 words once it has more. A sparse partition therefore costs two bytes per id and a dense one at most
+ * one bit per possible id. Intersection, union and difference combine containers with matching keys: two bitmaps
+ * word by word, 64 ids per instruction, a bitmap and an array by probing the bitmap for each array element, and two
+ * arrays by a merge. The result of each operation is a new bitmap; the operands are left unchanged.
+ */
+public class SQWRLIdBitmap
+{
+  private static final int MAXIMUM_ARRAY_CARDINALITY = 4096;
+  private static final int BITMAP_WORDS = 1024;
+  private static final int INITIAL_CAPACITY = 4;
+
+  private char[] keys;
+  private Object[] containers; // Each a char[] array container or a long[] bitmap container
+  private int[] cardinalities;
+  private int numberOfContainers;
+
+  public SQWRLIdBitmap()
+  {
+    this(INITIAL_CAPACITY);
+  }
+
+  private SQWRLIdBitmap(int capacity)
+  {
+    this.keys = new char[Math.max(1, capacity)];
+    this.containers = new Object[this.keys.length];
+    this.cardinalities = new int[this.keys.length];
+  }
+
+  public static SQWRLIdBitmap of(int... ids)
+  {
+    SQWRLIdBitmap bitmap = new SQWRLIdBitmap();
+
+    for (int id : ids)
+      bitmap.add(id);
+
+    return bitmap;
+  }
+
+  /**
+   * Adds an id, returning whether it was absent.
+   */
+  public boolean add(int id)
+  {
+    if (id < 0)
+      throw new IllegalArgumentException("ids must not be negative; got " + id);
+
+    char key = (char)(id >>> 16), low = (char)id;
+    int index = Arrays.binarySearch(this.keys, 0, this.numberOfContainers, key);
+
+    if (index < 0) {
+      insertContainer(-index - 1, key, new char[] { low }, 1);
+      return true;
+    }
+
+    Object container = this.containers[index];
+    int cardinality = this.cardinalities[index];
+
+    if (container instanceof long[]) {
+      long[] words = (long[])container;
+      if ((words[low >>> 6] & 1L << low) != 0)
+        return false;
+      words[low >>> 6] |= 1L << low;
+    } else {
+      char[] values = (char[])container;
+      int position = Arrays.binarySearch(values, 0, cardinality, low);
+
+      if (position >= 0)
+        return false;
+
+      position = -position - 1;
+      if (cardinality == MAXIMUM_ARRAY_CARDINALITY) {
+        long[] words = toWords(values, cardinality);
+        words[low >>> 6] |= 1L << low;
+        this.containers[index] = words;
+      } else {
+        if (cardinality == values.length)
+          this.containers[index] = values = Arrays
+            .copyOf(values, Math.min(MAXIMUM_ARRAY_CARDINALITY, Math.max(INITIAL_CAPACITY, cardinality * 2)));
+        System.arraycopy(values, position, values, position + 1, cardinality - position);
+        values[position] = low;
+      }
+    }
+
+    this.cardinalities[index]++;
+
+    return true;
+  }
+
+  public boolean contains(int id)
+  {
+    if (id < 0)
+      return false;
+
+    char low = (char)id;
+    int index = Arrays.binarySearch(this.keys, 0, this.numberOfContainers, (char)(id >>> 16));
+
+    if (index < 0)
+      return false;
+
+    Object container = this.containers[index];
+
+    return container instanceof long[] ?
+      (((long[])container)[low >>> 6] & 1L << low) != 0 :
+      Arrays.binarySearch((char[])container, 0, this.cardinalities[index], low) >= 0;
+  }
+
+  public int getCardinality()
+  {
+    int cardinality = 0;
+
+    for (int i = 0; i < this.numberOfContainers; i++)
+      cardinality += this.cardinalities[i];
+
+    return cardinality;
+  }
+
+  public boolean isEmpty()
+  {
+    return this.numberOfContainers == 0;
+  }
+
+  /**
+   * The ids that are in both bitmaps.
+   */
+  public SQWRLIdBitmap and(SQWRLIdBitmap other)
+  {
+    SQWRLIdBitmap result = new SQWRLIdBitmap(Math.min(this.numberOfContainers, other.numberOfContainers));
+    int i = 0, j = 0;
+
+    while (i < this.numberOfContainers && j < other.numberOfContainers) {
+      if (this.keys[i] < other.keys[j])
+        i++;
+      else if (this.keys[i] > other.keys[j])
+        j++;
+      else {
+        result.appendContainer(this.keys[i],
+          and(this.containers[i], this.cardinalities[i], other.containers[j], other.cardinalities[j]));
+        i++;
+        j++;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * The ids that are in either bitmap.
+   */
+  public SQWRLIdBitmap or(SQWRLIdBitmap other)
+  {
+    SQWRLIdBitmap result = new SQWRLIdBitmap(this.numberOfContainers + other.numberOfContainers);
+    int i = 0, j = 0;
+
+    while (i < this.numberOfContainers || j < other.numberOfContainers) {
+      if (j == other.numberOfContainers || (i < this.numberOfContainers && this.keys[i] < other.keys[j])) {
+        result.appendContainer(this.keys[i], copy(this.containers[i], this.cardinalities[i]));
+        i++;
+      } else if (i == this.numberOfContainers || this.keys[i] > other.keys[j]) {
+        result.appendContainer(other.keys[j], copy(other.containers[j], other.cardinalities[j]));
+        j++;
+      } else {
+        result.appendContainer(this.keys[i],
+          or(this.containers[i], this.cardinalities[i], other.containers[j], other.cardinalities[j]));
+        i++;
+        j++;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * The ids that are in this bitmap and not in the other.
+   */
+  public SQWRLIdBitmap andNot(SQWRLIdBitmap other)
+  {
+    SQWRLIdBitmap result = new SQWRLIdBitmap(this.numberOfContainers);
+    int j = 0;
+
+    for (int i = 0; i < this.numberOfContainers; i++) {
+      while (j < other.numberOfContainers && other.keys[j] < this.keys[i])
+        j++;
+      if (j < other.numberOfContainers && other.keys[j] == this.keys[i])
+        result.appendContainer(this.keys[i],
+          andNot(this.containers[i], this.cardinalities[i], other.containers[j], other.cardinalities[j]));
+      else
+        result.appendContainer(this.keys[i], copy(this.containers[i], this.cardinalities[i]));
+    }
+
+    return result;
+  }
+
+  /**
+   * The ids in ascending order.
+   */
+  public int[] toArray()
+  {
+    int[] ids = new int[getCardinality()];
+    int size = 0;
+
+    for (int i = 0; i < this.numberOfContainers; i++) {
+      int high = this.keys[i] << 16;
+      Object container = this.containers[i];
+
+      if (container instanceof long[]) {
+        long[] words = (long[])container;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+          for (long word = words[w]; word != 0; word &= word - 1)
+            ids[size++] = high | w << 6 | Long.numberOfTrailingZeros(word);
+        }
+      } else {
+        char[] values = (char[])container;
+        for (int v = 0; v < this.cardinalities[i]; v++)
+          ids[size++] = high | values[v];
+      }
+    }
+
+    return ids;
+  }
+
+  @Override public boolean equals(Object o)
+  {
+    if (this == o)
+      return true;
+    if (o == null || getClass() != o.getClass())
+      return false;
+
+    SQWRLIdBitmap other = (SQWRLIdBitmap)o;
+
+    if (this.numberOfContainers != other.numberOfContainers)
+      return false;
+
+    for (int i = 0; i < this.numberOfContainers; i++) {
+      int cardinality = this.cardinalities[i];
+      if (this.keys[i] != other.keys[i] || cardinality != other.cardinalities[i])
+        return false;
+      // Equal cardinalities imply containers of the same kind
+      if (this.containers[i] instanceof long[] ?
+        !Arrays.equals((long[])this.containers[i], (long[])other.containers[i]) :
+        !Arrays.equals((char[])this.containers[i], 0, cardinality, (char[])other.containers[i], 0, cardinality))
+        return false;
+    }
+
+    return true;
+  }
+
+  @Override public int hashCode()
+  {
+    int hashCode = 1;
+
+    for (int i = 0; i < this.numberOfContainers; i++)
+      hashCode = 31 * (31 * hashCode + this.keys[i]) + this.cardinalities[i];
+
+    return hashCode;
+  }
+
+  private void insertContainer(int index, char key, Object container, int cardinality)
+  {
+    if (this.numberOfContainers == this.keys.length) {
+      int capacity = this.keys.length * 2;
+      this.keys = Arrays.copyOf(this.keys, capacity);
+      this.containers = Arrays.copyOf(this.containers, capacity);
+      this.cardinalities = Arrays.copyOf(this.cardinalities, capacity);
+    }
+
+    int moved = this.numberOfContainers - index;
+    System.arraycopy(this.keys, index, this.keys, index + 1, moved);
+    System.arraycopy(this.containers, index, this.containers, index + 1, moved);
+    System.arraycopy(this.cardinalities, index, this.cardinalities, index + 1, moved);
+
+    this.keys[index] = key;
+    this.containers[index] = container;
+    this.cardinalities[index] = cardinality;
+    this.numberOfContainers++;
+  }
+
+  /**
+   * Appends a container with a key greater than those of all other containers, holding a bitmap with few enough ids
+   * as an array and dropping an empty container. An array container must be exactly as long as its cardinality.
+   */
+  private void appendContainer(char key, Object container)
+  {
+    if (container instanceof long[]) {
+      long[] words = (long[])container;
+      int cardinality = 0;
+
+      for (long word : words)
+        cardinality += Long.bitCount(word);
+
+      if (cardinality > MAXIMUM_ARRAY_CARDINALITY)
+        insertContainer(this.numberOfContainers, key, words, cardinality);
+      else if (cardinality > 0)
+        insertContainer(this.numberOfContainers, key, toValues(words, cardinality), cardinality);
+    } else {
+      char[] values = (char[])container;
+
+      if (values.length > 0)
+        insertContainer(this.numberOfContainers, key, values, values.length);
+    }
+  }
+
+  private static Object copy(Object container, int cardinality)
+  {
+    return container instanceof long[] ?
+      ((long[])container).clone() :
+      Arrays.copyOf((char[])container, cardinality);
+  }
+
+  private static Object and(Object a, int aCardinality, Object b, int bCardinality)
+  {
+    if (a instanceof char[]) {
+      return b instanceof char[] ?
+        andArrays((char[])a, aCardinality, (char[])b, bCardinality) :
+        filterArray((char[])a, aCardinality, (long[])b, true);
+    } else if (b instanceof char[])
+      return filterArray((char[])b, bCardinality, (long[])a, true);
+    else {
+      long[] aWords = (long[])a, bWords = (long[])b, words = new long[BITMAP_WORDS];
+      for (int w = 0; w < BITMAP_WORDS; w++)
+        words[w] = aWords[w] & bWords[w];
+      return words;
+    }
+  }
+
+  private static Object or(Object a, int aCardinality, Object b, int bCardinality)
+  {
+    if (a instanceof char[] && b instanceof char[] && aCardinality + bCardinality <= MAXIMUM_ARRAY_CARDINALITY)
+      return orArrays((char[])a, aCardinality, (char[])b, bCardinality);
+
+    long[] words = a instanceof long[] ? ((long[])a).clone() : toWords((char[])a, aCardinality);
+
+    if (b instanceof long[]) {
+      long[] bWords = (long[])b;
+      for (int w = 0; w < BITMAP_WORDS; w++)
+        words[w] |= bWords[w];
+    } else {
+      char[] values = (char[])b;
+      for (int v = 0; v < bCardinality; v++)
+        words[values[v] >>> 6] |= 1L << values[v];
+    }
+
+    return words;
+  }
+
+  private static Object andNot(Object a, int aCardinality, Object b, int bCardinality)
+  {
+    if (a instanceof char[]) {
+      return b instanceof char[] ?
+        andNotArrays((char[])a, aCardinality, (char[])b, bCardinality) :
+        filterArray((char[])a, aCardinality, (long[])b, false);
+    }
+
+    long[] words = ((long[])a).clone();
+
+    if (b instanceof long[]) {
+      long[] bWords = (long[])b;
+      for (int w = 0; w < BITMAP_WORDS; w++)
+        words[w] &= ~bWords[w];
+    } else {
+      char[] values = (char[])b;
+      for (int v = 0; v < bCardinality; v++)
+        words[values[v] >>> 6] &= ~(1L << values[v]);
+    }
+
+    return words;
+  }
+
+  private static char[] andArrays(char[] a, int aCardinality, char[] b, int bCardinality)
+  {
+    char[] values = new char[Math.min(aCardinality, bCardinality)];
+    int i = 0, j = 0, size = 0;
+
+    while (i < aCardinality && j < bCardinality) {
+      if (a[i] < b[j])
+        i++;
+      else if (a[i] > b[j])
+        j++;
+      else {
+        values[size++] = a[i];
+        i++;
+        j++;
+      }
+    }
+
+    return Arrays.copyOf(values, size);
+  }
+
+  private static char[] orArrays(char[] a, int aCardinality, char[] b, int bCardinality)
+  {
+    char[] values = new char[aCardinality + bCardinality];
+    int i = 0, j = 0, size = 0;
+
+    while (i < aCardinality || j < bCardinality) {
+      if (j == bCardinality || (i < aCardinality && a[i] < b[j]))
+        values[size++] = a[i++];
+      else if (i == aCardinality || a[i] > b[j])
+        values[size++] = b[j++];
+      else {
+        values[size++] = a[i++];
+        j++;
+      }
+    }
+
+    return Arrays.copyOf(values, size);
+  }
+
+  private static char[] andNotArrays(char[] a, int aCardinality, char[] b, int bCardinality)
+  {
+    char[] values = new char[aCardinality];
+    int j = 0, size = 0;
+
+    for (int i = 0; i < aCardinality; i++) {
+      while (j < bCardinality && b[j] < a[i])
+        j++;
+      if (j == bCardinality || b[j] != a[i])
+        values[size++] = a[i];
+    }
+
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * The values of an array container that are, or are not, set in a bitmap container.
+   */
+  private static char[] filterArray(char[] a, int aCardinality, long[] words, boolean keepSet)
+  {
+    char[] values = new char[aCardinality];
+    int size = 0;
+
+    for (int i = 0; i < aCardinality; i++) {
+      char value = a[i];
+      if (((words[value >>> 6] & 1L << value) != 0) == keepSet)
+        values[size++] = value;
+    }
+
+    return Arrays.copyOf(values, size);
+  }
+
+  private static long[] toWords(char[] values, int cardinality)
+  {
+    long[] words = new long[BITMAP_WORDS];
+
+    for (int v = 0; v < cardinality; v++)
+      words[values[v] >>> 6] |= 1L << values[v];
+
+    return words;
+  }
+
+  private static char[] toValues(long[] words, int cardinality)
+  {
+    char[] values = new char[cardinality];
+    int size = 0;
+
+    for (int w = 0; w < BITMAP_WORDS; w++) {
+      for (long word = words[w]; word != 0; word &= word - 1)
+        values[size++] = (char)(w << 6 | Long.numberOfTrailingZeros(word));
+    }
+
+    return values;
+  }
+}
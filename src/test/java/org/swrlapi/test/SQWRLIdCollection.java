@@ -0,0 +1,246 @@
+package org.swrlapi.test;
+
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable SQWRL set or bag of result values held as a sorted <code>int</code> array of the ids that a
+ * {@link SQWRLResultValueDictionary} assigned to them.
+ * <p>
+ * The engine keeps the members of a <code>sqwrl:makeSet</code> or <code>sqwrl:makeBag</code> collection as built-in
+ * argument objects in a hash set or list, and <code>sqwrl:intersection</code>, <code>sqwrl:union</code> and
+ * <code>sqwrl:difference</code> copy and probe those hash sets element by element. Here a member costs four bytes,
+ * membership is a binary search, and the set operations are linear merges of two sorted arrays. As in the engine, the
+ * set operations return sets, whether their operands are sets or bags. A bag keeps one id per occurrence; bags are
+ * equal when they hold the same members the same number of times.
+ * <p>
+ * Collections can only be combined with collections whose ids come from the same dictionary.
+ */
+public class SQWRLIdCollection
+{
+  private static final int[] NO_IDS = new int[0];
+
+  private final int[] ids;
+  private final boolean isSet;
+
+  private SQWRLIdCollection(int[] ids, boolean isSet)
+  {
+    this.ids = ids;
+    this.isSet = isSet;
+  }
+
+  /**
+   * A set of the first <code>length</code> ids of an array, which is left unchanged.
+   */
+  public static SQWRLIdCollection set(int[] ids, int length)
+  {
+    int[] sorted = sortedCopy(ids, length);
+    int size = 0;
+
+    for (int i = 0; i < length; i++) {
+      if (size == 0 || sorted[size - 1] != sorted[i])
+        sorted[size++] = sorted[i];
+    }
+
+    return new SQWRLIdCollection(size == length ? sorted : Arrays.copyOf(sorted, size), true);
+  }
+
+  /**
+   * A bag of the first <code>length</code> ids of an array, which is left unchanged.
+   */
+  public static SQWRLIdCollection bag(int[] ids, int length)
+  {
+    return new SQWRLIdCollection(sortedCopy(ids, length), false);
+  }
+
+  public boolean isSet()
+  {
+    return this.isSet;
+  }
+
+  public int size()
+  {
+    return this.ids.length;
+  }
+
+  public boolean isEmpty()
+  {
+    return this.ids.length == 0;
+  }
+
+  public boolean contains(int id)
+  {
+    return Arrays.binarySearch(this.ids, id) >= 0;
+  }
+
+  /**
+   * The number of occurrences of an id, which is at most one in a set.
+   */
+  public int count(int id)
+  {
+    int index = Arrays.binarySearch(this.ids, id);
+
+    if (index < 0)
+      return 0;
+
+    int first = index, last = index;
+    while (first > 0 && this.ids[first - 1] == id)
+      first--;
+    while (last < this.ids.length - 1 && this.ids[last + 1] == id)
+      last++;
+
+    return last - first + 1;
+  }
+
+  /**
+   * The set of ids that are in both collections.
+   */
+  public SQWRLIdCollection intersection(SQWRLIdCollection other)
+  {
+    int[] a = this.ids, b = other.ids;
+    int[] result = new int[Math.min(a.length, b.length)];
+    int i = 0, j = 0, size = 0;
+
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j])
+        i++;
+      else if (a[i] > b[j])
+        j++;
+      else {
+        if (size == 0 || result[size - 1] != a[i])
+          result[size++] = a[i];
+        i++;
+        j++;
+      }
+    }
+
+    return new SQWRLIdCollection(trimmed(result, size), true);
+  }
+
+  /**
+   * The set of ids that are in either collection.
+   */
+  public SQWRLIdCollection union(SQWRLIdCollection other)
+  {
+    int[] a = this.ids, b = other.ids;
+    int[] result = new int[a.length + b.length];
+    int i = 0, j = 0, size = 0;
+
+    while (i < a.length || j < b.length) {
+      int id = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+      if (size == 0 || result[size - 1] != id)
+        result[size++] = id;
+    }
+
+    return new SQWRLIdCollection(trimmed(result, size), true);
+  }
+
+  /**
+   * The set of ids that are in this collection and not in the other.
+   */
+  public SQWRLIdCollection difference(SQWRLIdCollection other)
+  {
+    int[] a = this.ids, b = other.ids;
+    int[] result = new int[a.length];
+    int i = 0, j = 0, size = 0;
+
+    while (i < a.length) {
+      while (j < b.length && b[j] < a[i])
+        j++;
+      if ((j == b.length || b[j] != a[i]) && (size == 0 || result[size - 1] != a[i]))
+        result[size++] = a[i];
+      i++;
+    }
+
+    return new SQWRLIdCollection(trimmed(result, size), true);
+  }
+
+  /**
+   * Whether two collections are both sets or both bags and hold the same ids the same number of times.
+   */
+  public boolean equal(SQWRLIdCollection other)
+  {
+    return this.isSet == other.isSet && Arrays.equals(this.ids, other.ids);
+  }
+
+  /**
+   * Whether the two collections have at least one id in common.
+   */
+  public boolean intersects(SQWRLIdCollection other)
+  {
+    int[] a = this.ids, b = other.ids;
+    int i = 0, j = 0;
+
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j])
+        i++;
+      else if (a[i] > b[j])
+        j++;
+      else
+        return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * The ids in ascending order.
+   */
+  public int[] getIds()
+  {
+    return this.ids.clone();
+  }
+
+  /**
+   * The values of the ids, in ascending order of id, which is the order in which the dictionary first saw them.
+   */
+  public List<SQWRLResultValue> getValues(SQWRLResultValueDictionary dictionary)
+  {
+    List<SQWRLResultValue> values = new ArrayList<>(this.ids.length);
+
+    for (int id : this.ids)
+      values.add(dictionary.getValue(id));
+
+    return values;
+  }
+
+  @Override public boolean equals(Object o)
+  {
+    if (this == o)
+      return true;
+    if (o == null || getClass() != o.getClass())
+      return false;
+
+    return equal((SQWRLIdCollection)o);
+  }
+
+  @Override public int hashCode()
+  {
+    return 31 * Arrays.hashCode(this.ids) + (this.isSet ? 1 : 0);
+  }
+
+  @Override public String toString()
+  {
+    return (this.isSet ? "set" : "bag") + Arrays.toString(this.ids);
+  }
+
+  private static int[] sortedCopy(int[] ids, int length)
+  {
+    if (length < 0 || length > ids.length)
+      throw new IllegalArgumentException("length must be between 0 and " + ids.length + "; got " + length);
+
+    int[] sorted = Arrays.copyOf(ids, length);
+
+    Arrays.sort(sorted);
+
+    return sorted;
+  }
+
+  private static int[] trimmed(int[] ids, int size)
+  {
+    return size == 0 ? NO_IDS : size == ids.length ? ids : Arrays.copyOf(ids, size);
+  }
+}
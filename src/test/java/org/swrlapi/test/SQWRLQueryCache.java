@@ -0,0 +1,211 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded, least-recently-used cache of parsed SQWRL queries for a single query engine.
+ * <p>
+ * {@link SQWRLQueryEngine#runSQWRLQuery(String, String)} parses the query text on every call. This cache keys queries
+ * on their normalized text, creates each distinct query in the engine once under a generated name, and runs later
+ * requests for the same text with {@link SQWRLQueryEngine#runSQWRLQuery(String)}, which skips parsing. Queries are
+ * parsed against the ontology signature, so the cache is invalidated whenever an entity enters or leaves the
+ * signature. Evicted and invalidated queries are deleted from the engine so that the rule base stays bounded.
+ * <p>
+ * Results are never cached; every call runs the query against the current ontology.
+ */
+public class SQWRLQueryCache
+{
+  private static final String QUERY_NAME_PREFIX = "cachedQuery";
+
+  private final SQWRLQueryEngine queryEngine;
+  private final OWLOntology ontology;
+  private final int maximumSize;
+  private final Map<String, String> queryNames;
+  private final Set<OWLEntity> signature;
+  private final OWLOntologyChangeListener signatureListener;
+
+  private int nextQueryNumber = 0;
+  private long signatureVersion = 0, cachedSignatureVersion = 0;
+  private long hits = 0, misses = 0, evictions = 0, invalidations = 0;
+
+  public SQWRLQueryCache(SQWRLQueryEngine queryEngine, int maximumSize)
+  {
+    if (maximumSize < 1)
+      throw new IllegalArgumentException("maximum cache size must be at least 1; got " + maximumSize);
+
+    this.queryEngine = queryEngine;
+    this.ontology = queryEngine.getOWLOntology();
+    this.maximumSize = maximumSize;
+    this.queryNames = new LinkedHashMap<>(16, 0.75f, true);
+    this.signature = new HashSet<>();
+    this.signatureListener = this::signatureChanged;
+
+    for (OWLEntity entity : this.ontology.getSignature())
+      if (isTrackedEntity(entity))
+        this.signature.add(entity);
+
+    this.ontology.getOWLOntologyManager().addOntologyChangeListener(this.signatureListener);
+  }
+
+  /**
+   * Runs the query, parsing it only if the same normalized text has not been seen since the last invalidation.
+   */
+  public synchronized SQWRLResult runSQWRLQuery(String queryText) throws SWRLParseException, SQWRLException
+  {
+    if (this.cachedSignatureVersion != this.signatureVersion)
+      invalidate();
+
+    String key = normalize(queryText);
+    String queryName = this.queryNames.get(key);
+
+    if (queryName != null) {
+      this.hits++;
+      return this.queryEngine.runSQWRLQuery(queryName);
+    }
+
+    this.misses++;
+    queryName = QUERY_NAME_PREFIX + this.nextQueryNumber++;
+    this.queryEngine.createSQWRLQuery(queryName, queryText);
+    this.queryNames.put(key, queryName);
+
+    if (this.queryNames.size() > this.maximumSize)
+      evictLeastRecentlyUsed();
+
+    return this.queryEngine.runSQWRLQuery(queryName);
+  }
+
+  public synchronized void invalidate()
+  {
+    for (String queryName : this.queryNames.values())
+      this.queryEngine.deleteSWRLRule(queryName);
+
+    if (!this.queryNames.isEmpty())
+      this.invalidations++;
+
+    this.queryNames.clear();
+    this.cachedSignatureVersion = this.signatureVersion;
+  }
+
+  /**
+   * Deletes all cached queries and stops tracking the ontology signature.
+   */
+  public synchronized void dispose()
+  {
+    invalidate();
+    this.ontology.getOWLOntologyManager().removeOntologyChangeListener(this.signatureListener);
+  }
+
+  public synchronized int getSize()
+  {
+    return this.queryNames.size();
+  }
+
+  public synchronized long getHits()
+  {
+    return this.hits;
+  }
+
+  public synchronized long getMisses()
+  {
+    return this.misses;
+  }
+
+  public synchronized long getEvictions()
+  {
+    return this.evictions;
+  }
+
+  public synchronized long getInvalidations()
+  {
+    return this.invalidations;
+  }
+
+  /**
+   * Collapses runs of white space outside string literals to a single space and trims the result.
+   */
+  public static String normalize(String queryText)
+  {
+    StringBuilder sb = new StringBuilder(queryText.length());
+    boolean inString = false, pendingSpace = false;
+
+    for (int i = 0; i < queryText.length(); i++) {
+      char c = queryText.charAt(i);
+
+      if (inString) {
+        sb.append(c);
+        if (c == '\\' && i + 1 < queryText.length())
+          sb.append(queryText.charAt(++i));
+        else if (c == '"')
+          inString = false;
+      } else if (Character.isWhitespace(c))
+        pendingSpace = sb.length() > 0;
+      else {
+        if (pendingSpace)
+          sb.append(' ');
+        pendingSpace = false;
+        sb.append(c);
+        if (c == '"')
+          inString = true;
+      }
+    }
+
+    return sb.toString();
+  }
+
+  private void evictLeastRecentlyUsed()
+  {
+    Iterator<String> iterator = this.queryNames.values().iterator();
+    String queryName = iterator.next();
+
+    iterator.remove();
+    this.queryEngine.deleteSWRLRule(queryName);
+    this.evictions++;
+  }
+
+  private synchronized void signatureChanged(List<? extends OWLOntologyChange> changes)
+  {
+    for (OWLOntologyChange change : changes) {
+      if (change.getOntology() != this.ontology || !change.isAxiomChange())
+        continue;
+
+      OWLAxiom axiom = change.getAxiom();
+
+      if (axiom.getAxiomType() == AxiomType.SWRL_RULE) // Includes the cached queries themselves
+        continue;
+
+      for (OWLEntity entity : axiom.getSignature()) {
+        if (!isTrackedEntity(entity))
+          continue;
+
+        if (change.isAddAxiom()) {
+          if (this.signature.add(entity))
+            this.signatureVersion++;
+        } else if (!this.ontology.containsEntityInSignature(entity)) {
+          if (this.signature.remove(entity))
+            this.signatureVersion++;
+        }
+      }
+    }
+  }
+
+  private static boolean isTrackedEntity(OWLEntity entity)
+  {
+    return !entity.isOWLAnnotationProperty() && !entity.isBuiltIn();
+  }
+}
@@ -0,0 +1,119 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.swrlapi.exceptions.SWRLRuleEngineException;
+import org.swrlapi.factory.SWRLAPIFactory;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A fixed-size pool of pre-warmed SQWRL query engines.
+ * <p>
+ * Creating an engine with {@link SWRLAPIFactory#createSQWRLQueryEngine(OWLOntology)} builds a new target rule engine
+ * and compiles the OWL 2 RL rule base into it, which dominates the cost of short queries. Each pooled engine is created
+ * once over a pool-owned ontology and warmed with a trivial query. {@link #borrow(OWLOntology)} rebinds an engine to a
+ * source ontology by copying the source's axioms into the engine's ontology; {@link #release(SQWRLQueryEngine)} clears
+ * them again. Because the engine re-reads its ontology on every run, no state leaks between borrowers.
+ * <p>
+ * Rules and queries created on a borrowed engine, and axioms inferred by it, are written to the pool-owned ontology,
+ * not to the source ontology. A borrowed engine must be used by one thread at a time.
+ */
+public class SQWRLQueryEnginePool
+{
+  private static final String WARM_UP_QUERY_NAME = "warmUp";
+  private static final String WARM_UP_QUERY = "-> sqwrl:select(1)";
+
+  private final BlockingQueue<SQWRLQueryEngine> idleEngines;
+  private final Set<SQWRLQueryEngine> pooledEngines = new HashSet<>();
+  private final Set<SQWRLQueryEngine> borrowedEngines = ConcurrentHashMap.newKeySet();
+
+  public SQWRLQueryEnginePool(int size) throws OWLOntologyCreationException, SWRLRuleEngineException
+  {
+    if (size < 1)
+      throw new IllegalArgumentException("pool size must be at least 1; got " + size);
+
+    this.idleEngines = new ArrayBlockingQueue<>(size);
+
+    for (int i = 0; i < size; i++) {
+      SQWRLQueryEngine queryEngine = createWarmEngine();
+      this.pooledEngines.add(queryEngine);
+      this.idleEngines.add(queryEngine);
+    }
+  }
+
+  public int getSize()
+  {
+    return this.pooledEngines.size();
+  }
+
+  public int getNumberOfIdleEngines()
+  {
+    return this.idleEngines.size();
+  }
+
+  /**
+   * Waits for an idle engine and binds it to the axioms, rules and queries of the source ontology.
+   */
+  public SQWRLQueryEngine borrow(OWLOntology sourceOntology) throws InterruptedException
+  {
+    SQWRLQueryEngine queryEngine = this.idleEngines.take();
+    OWLOntology ontology = queryEngine.getOWLOntology();
+
+    this.borrowedEngines.add(queryEngine);
+
+    ontology.getOWLOntologyManager().addAxioms(ontology, sourceOntology.getAxioms(Imports.INCLUDED));
+
+    return queryEngine;
+  }
+
+  /**
+   * Unbinds a borrowed engine and returns it to the pool.
+   */
+  public void release(SQWRLQueryEngine queryEngine)
+  {
+    if (!this.pooledEngines.contains(queryEngine))
+      throw new IllegalArgumentException("query engine does not belong to this pool");
+
+    if (!this.borrowedEngines.remove(queryEngine))
+      throw new IllegalStateException("query engine released more than once");
+
+    clear(queryEngine.getOWLOntology());
+
+    this.idleEngines.offer(queryEngine);
+  }
+
+  private static SQWRLQueryEngine createWarmEngine() throws OWLOntologyCreationException, SWRLRuleEngineException
+  {
+    OWLOntologyManager ontologyManager = OWLManager.createOWLOntologyManager();
+    OWLOntology ontology = ontologyManager.createOntology();
+    SQWRLQueryEngine queryEngine = SWRLAPIFactory.createSQWRLQueryEngine(ontology);
+
+    try {
+      queryEngine.runSQWRLQuery(WARM_UP_QUERY_NAME, WARM_UP_QUERY);
+    } catch (SWRLParseException | SQWRLException e) {
+      throw new SWRLRuleEngineException("error warming up query engine: " + e.getMessage(), e);
+    }
+    clear(ontology);
+
+    return queryEngine;
+  }
+
+  private static void clear(OWLOntology ontology)
+  {
+    Set<OWLAxiom> axioms = ontology.getAxioms();
+
+    ontology.getOWLOntologyManager().removeAxioms(ontology, axioms);
+  }
+}
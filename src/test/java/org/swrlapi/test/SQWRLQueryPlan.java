@@ -0,0 +1,368 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.SWRLArgument;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLBuiltInAtom;
+import org.semanticweb.owlapi.model.SWRLClassAtom;
+import org.semanticweb.owlapi.model.SWRLDataPropertyAtom;
+import org.semanticweb.owlapi.model.SWRLDataRangeAtom;
+import org.semanticweb.owlapi.model.SWRLDifferentIndividualsAtom;
+import org.semanticweb.owlapi.model.SWRLObjectPropertyAtom;
+import org.semanticweb.owlapi.model.SWRLVariable;
+import org.swrlapi.core.SWRLAPIBuiltInAtom;
+import org.swrlapi.core.SWRLAPIRule;
+import org.swrlapi.exceptions.SWRLRuleException;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLQueryRenderer;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The plan of a SQWRL query: the order in which its body atoms are joined, the role of each atom in the join, and the
+ * estimated and, once analyzed, actual number of bindings after each atom.
+ * <p>
+ * SWRLAPI hands the target rule engine the non-built-in body atoms of a query in written order, followed by its
+ * built-in atoms in written order, so a built-in sees every variable bound by a class or property atom. A built-in
+ * whose arguments are all bound at that point filters bindings; one with an unbound argument generates values for it.
+ * Built-ins of the <code>sqwrl:</code> namespace, and atoms that use a variable bound by one, operate on collections
+ * after the join and are listed without estimates.
+ * <p>
+ * Estimates come from {@link SWRLCardinalityStatistics} of the engine's ontology. {@link #analyze(SQWRLQueryEngine,
+ * String)} also runs, for each step, a query made of the steps up to and including it that selects every variable
+ * bound so far, and records its number of rows.
+ */
+public class SQWRLQueryPlan
+{
+  public static final int UNKNOWN_ROWS = -1;
+
+  private static final String COLLECTION_BUILT_IN_PREFIX = "sqwrl:";
+
+  public enum AtomKind
+  {
+    CLASS, OBJECT_PROPERTY, DATA_PROPERTY, DATA_RANGE, SAME_INDIVIDUAL, DIFFERENT_INDIVIDUALS, BUILT_IN
+  }
+
+  public enum Role
+  {
+    /**
+     * Binds variables of which none was bound before.
+     */
+    SCAN,
+    /**
+     * Binds new variables and shares at least one bound variable or constant with the atoms before it.
+     */
+    JOIN,
+    /**
+     * Binds no new variables and keeps or drops each binding.
+     */
+    FILTER,
+    /**
+     * A built-in that binds its unbound arguments.
+     */
+    GENERATOR,
+    /**
+     * A <code>sqwrl:</code> built-in, or an atom that uses a variable bound by one, that operates on collections.
+     */
+    COLLECTION
+  }
+
+  private final String queryName;
+  private final List<Step> steps;
+  private final boolean analyzed;
+
+  private SQWRLQueryPlan(String queryName, List<Step> steps, boolean analyzed)
+  {
+    this.queryName = queryName;
+    this.steps = Collections.unmodifiableList(steps);
+    this.analyzed = analyzed;
+  }
+
+  /**
+   * The plan of a query with estimated row counts only.
+   */
+  public static SQWRLQueryPlan explain(SQWRLQueryEngine queryEngine, String queryName) throws SQWRLException
+  {
+    return new SQWRLQueryPlan(queryName, plan(queryEngine, queryName), false);
+  }
+
+  /**
+   * The plan of a query with estimated and actual row counts. A prefix query named after the query with the suffix
+   * <code>Explain</code> and the step position is created, run and deleted for each step that is not a collection
+   * step; if a rule or query of that name already exists, a numbered variant that does not is used instead.
+   */
+  public static SQWRLQueryPlan analyze(SQWRLQueryEngine queryEngine, String queryName)
+    throws SQWRLException, SWRLParseException
+  {
+    List<Step> steps = plan(queryEngine, queryName);
+    List<String> prefix = new ArrayList<>();
+
+    for (Step step : steps) {
+      if (step.role == Role.COLLECTION)
+        continue;
+
+      prefix.add(step.atom);
+
+      String prefixQueryName = unusedRuleName(queryEngine, queryName + "Explain" + step.position);
+      String head = step.variablesSoFar.isEmpty() ?
+        "sqwrl:select(0)" :
+        "sqwrl:select(" + String.join(", ", step.variablesSoFar) + ")";
+
+      try {
+        SQWRLResult result = queryEngine.runSQWRLQuery(prefixQueryName, String.join(" ^ ", prefix) + " -> " + head);
+        step.actualRows = result.getNumberOfRows();
+      } finally {
+        queryEngine.deleteSWRLRule(prefixQueryName);
+      }
+    }
+
+    return new SQWRLQueryPlan(queryName, steps, true);
+  }
+
+  public String getQueryName()
+  {
+    return this.queryName;
+  }
+
+  public List<Step> getSteps()
+  {
+    return this.steps;
+  }
+
+  public boolean isAnalyzed()
+  {
+    return this.analyzed;
+  }
+
+  /**
+   * The steps in join order, one per line, with their estimated and actual row counts.
+   */
+  @Override public String toString()
+  {
+    StringBuilder sb = new StringBuilder("plan of " + this.queryName + (this.analyzed ? " (analyzed)" : "") + "\n");
+
+    for (Step step : this.steps)
+      sb.append(step).append("\n");
+
+    return sb.toString();
+  }
+
+  private static List<Step> plan(SQWRLQueryEngine queryEngine, String queryName) throws SQWRLException
+  {
+    SWRLAPIRule rule = getSQWRLQuery(queryEngine, queryName);
+    SQWRLQueryRenderer renderer = queryEngine.createSQWRLQueryRenderer();
+    SWRLCardinalityStatistics statistics = SWRLCardinalityStatistics.of(queryEngine.getOWLOntology());
+    List<SWRLAtom> bodyAtoms = rule.getBodyAtoms();
+    List<SWRLAtom> joinOrder = new ArrayList<>(rule.getNonBuiltInAtomsFromBody());
+    Map<IRI, String> boundVariables = new LinkedHashMap<>();
+    Map<IRI, String> joinVariables = new LinkedHashMap<>();
+    Set<IRI> collectionVariables = new HashSet<>();
+    List<Step> steps = new ArrayList<>();
+    double estimatedRows = 1.0;
+
+    joinOrder.addAll(rule.getBuiltInAtomsFromBody());
+
+    for (SWRLAtom atom : joinOrder) {
+      boolean isCollection = atom instanceof SWRLAPIBuiltInAtom && ((SWRLAPIBuiltInAtom)atom).getBuiltInPrefixedName()
+        .startsWith(COLLECTION_BUILT_IN_PREFIX);
+      Map<IRI, String> newVariables = new LinkedHashMap<>();
+      boolean sharesBinding = false;
+
+      for (SWRLArgument argument : SWRLCardinalityStatistics.atomArguments(atom)) {
+        if (argument instanceof SWRLVariable) {
+          IRI variableIRI = ((SWRLVariable)argument).getIRI();
+          isCollection |= collectionVariables.contains(variableIRI);
+          if (boundVariables.containsKey(variableIRI))
+            sharesBinding = true;
+          else if (!newVariables.containsKey(variableIRI))
+            newVariables.put(variableIRI, argument.accept(renderer));
+        } else
+          sharesBinding = true;
+      }
+
+      Role role;
+      if (isCollection)
+        role = Role.COLLECTION;
+      else if (newVariables.isEmpty())
+        role = Role.FILTER;
+      else if (atom instanceof SWRLBuiltInAtom)
+        role = Role.GENERATOR;
+      else
+        role = sharesBinding ? Role.JOIN : Role.SCAN;
+
+      double estimate = Double.NaN;
+      if (isCollection)
+        collectionVariables.addAll(newVariables.keySet());
+      else {
+        estimatedRows *= statistics.estimateFanOut(atom,
+          argument -> !(argument instanceof SWRLVariable) || boundVariables.containsKey(((SWRLVariable)argument)
+            .getIRI()));
+        estimate = estimatedRows;
+        joinVariables.putAll(newVariables);
+      }
+      boundVariables.putAll(newVariables);
+
+      steps.add(new Step(steps.size(), bodyAtoms.indexOf(atom), atom.accept(renderer), kindOf(atom), role,
+        new ArrayList<>(newVariables.values()), new ArrayList<>(joinVariables.values()), estimate));
+    }
+
+    return steps;
+  }
+
+  private static SWRLAPIRule getSQWRLQuery(SQWRLQueryEngine queryEngine, String queryName) throws SQWRLException
+  {
+    Optional<SWRLAPIRule> rule;
+
+    try {
+      rule = queryEngine.getSWRLRule(queryName);
+    } catch (SWRLRuleException e) {
+      throw new SQWRLException("error getting query " + queryName + ": " + e.getMessage());
+    }
+
+    if (!rule.isPresent() || !rule.get().isSQWRLQuery())
+      throw new SQWRLException("no SQWRL query named " + queryName);
+
+    return rule.get();
+  }
+
+  /**
+   * The name itself if no rule or query has it, otherwise the first of <code>name_1</code>, <code>name_2</code>, ...
+   * that none has.
+   */
+  private static String unusedRuleName(SQWRLQueryEngine queryEngine, String name) throws SQWRLException
+  {
+    String candidate = name;
+
+    try {
+      for (int suffix = 1; queryEngine.getSWRLRule(candidate).isPresent(); suffix++)
+        candidate = name + "_" + suffix;
+    } catch (SWRLRuleException e) {
+      throw new SQWRLException("error getting rule " + candidate + ": " + e.getMessage());
+    }
+
+    return candidate;
+  }
+
+  private static AtomKind kindOf(SWRLAtom atom)
+  {
+    if (atom instanceof SWRLClassAtom)
+      return AtomKind.CLASS;
+    else if (atom instanceof SWRLObjectPropertyAtom)
+      return AtomKind.OBJECT_PROPERTY;
+    else if (atom instanceof SWRLDataPropertyAtom)
+      return AtomKind.DATA_PROPERTY;
+    else if (atom instanceof SWRLDataRangeAtom)
+      return AtomKind.DATA_RANGE;
+    else if (atom instanceof SWRLDifferentIndividualsAtom)
+      return AtomKind.DIFFERENT_INDIVIDUALS;
+    else if (atom instanceof SWRLBuiltInAtom)
+      return AtomKind.BUILT_IN;
+    else
+      return AtomKind.SAME_INDIVIDUAL;
+  }
+
+  /**
+   * One body atom of a query in join order.
+   */
+  public static class Step
+  {
+    private final int position;
+    private final int writtenPosition;
+    private final String atom;
+    private final AtomKind kind;
+    private final Role role;
+    private final List<String> newVariables;
+    private final List<String> variablesSoFar;
+    private final double estimatedRows;
+    private long actualRows = UNKNOWN_ROWS;
+
+    private Step(int position, int writtenPosition, String atom, AtomKind kind, Role role, List<String> newVariables,
+      List<String> variablesSoFar, double estimatedRows)
+    {
+      this.position = position;
+      this.writtenPosition = writtenPosition;
+      this.atom = atom;
+      this.kind = kind;
+      this.role = role;
+      this.newVariables = Collections.unmodifiableList(newVariables);
+      this.variablesSoFar = Collections.unmodifiableList(variablesSoFar);
+      this.estimatedRows = estimatedRows;
+    }
+
+    /**
+     * The position of the atom in join order.
+     */
+    public int getPosition()
+    {
+      return this.position;
+    }
+
+    /**
+     * The position of the atom in the body of the query as written.
+     */
+    public int getWrittenPosition()
+    {
+      return this.writtenPosition;
+    }
+
+    /**
+     * The atom as rendered by the engine's query renderer, e.g., <code>hasAge(?p, ?age)</code>.
+     */
+    public String getAtom()
+    {
+      return this.atom;
+    }
+
+    public AtomKind getKind()
+    {
+      return this.kind;
+    }
+
+    public Role getRole()
+    {
+      return this.role;
+    }
+
+    /**
+     * The variables that the atom binds, in argument order.
+     */
+    public List<String> getNewVariables()
+    {
+      return this.newVariables;
+    }
+
+    /**
+     * The estimated number of bindings after the atom, or NaN for a collection step.
+     */
+    public double getEstimatedRows()
+    {
+      return this.estimatedRows;
+    }
+
+    /**
+     * The number of bindings after the atom, or {@link #UNKNOWN_ROWS} if the plan was not analyzed or the step is a
+     * collection step.
+     */
+    public long getActualRows()
+    {
+      return this.actualRows;
+    }
+
+    @Override public String toString()
+    {
+      return String.format("%2d %-10s %-21s %s est=%s actual=%s", this.position, this.role, this.kind, this.atom,
+        Double.isNaN(this.estimatedRows) ? "-" : String.format("%.1f", this.estimatedRows),
+        this.actualRows == UNKNOWN_ROWS ? "-" : Long.toString(this.actualRows));
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.sqwrl.values.SQWRLNamedIndividualResultValue;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+
+/**
+ * A forward-only cursor over the rows of a <code>sqwrl:select</code> query that holds at most one partition of the
+ * result in memory.
+ * <p>
+ * The engine materializes a query's full result before returning it, so the cursor instead runs the query once per
+ * partition of the ontology's named individuals. It borrows an engine from a {@link SQWRLQueryEnginePool} for its
+ * lifetime and creates the query there with an extra body atom, <code>q1Partition(?p)</code> for partition variable
+ * <code>?p</code>; before each run the individuals of the next partition, in IRI order, are asserted to be members of
+ * that class in the pool-owned ontology. The caller's ontology is never modified. Rows of a partition are released as
+ * soon as the cursor moves past them.
+ * <p>
+ * Partitioning only preserves the query's result for queries whose rows are independent of one another, so queries
+ * may use no SQWRL operator other than <code>sqwrl:select</code> and <code>sqwrl:columnNames</code>. The partition
+ * variable must be bound to named individuals; rows are returned in partition order, not in the order of a single
+ * run. Every partition re-exports the whole ontology to the engine and runs the query over it, so draining a cursor
+ * over <code>n</code> individuals costs <code>ceil(n / partitionSize)</code> full query runs: a smaller partition size
+ * trades time for memory.
+ */
+public class SQWRLResultCursor implements AutoCloseable
+{
+  private static final Pattern SQWRL_OPERATOR = Pattern.compile("sqwrl:([A-Za-z]+)");
+  private static final Set<String> STREAMABLE_OPERATORS = Collections
+    .unmodifiableSet(new HashSet<>(Arrays.asList("select", "columnNames")));
+
+  private final SQWRLQueryEnginePool pool;
+  private final SQWRLQueryEngine queryEngine;
+  private final OWLOntology ontology;
+  private final String queryName;
+  private final OWLClass partitionClass;
+  private final List<OWLNamedIndividual> individuals;
+  private final int partitionSize;
+  private final List<OWLAxiom> partitionAssertions = new ArrayList<>();
+
+  private SQWRLResult partitionResult;
+  private int nextPartitionStart;
+  private int numberOfPartitionsRun;
+
+  private boolean released;
+
+  private SQWRLResultCursor(SQWRLQueryEnginePool pool, SQWRLQueryEngine queryEngine, String queryName,
+    OWLClass partitionClass, List<OWLNamedIndividual> individuals, int partitionSize)
+  {
+    this.pool = pool;
+    this.queryEngine = queryEngine;
+    this.ontology = queryEngine.getOWLOntology();
+    this.queryName = queryName;
+    this.partitionClass = partitionClass;
+    this.individuals = individuals;
+    this.partitionSize = partitionSize;
+  }
+
+  /**
+   * Borrows an engine from the pool bound to the ontology, creates the partitioned query in it and runs its first
+   * partition. The engine is returned to the pool when the cursor is closed.
+   */
+  public static SQWRLResultCursor openCursor(SQWRLQueryEnginePool pool, OWLOntology ontology, String queryName,
+    String queryText, String partitionVariable, int partitionSize)
+    throws SWRLParseException, SQWRLException, InterruptedException
+  {
+    if (!queryName.matches("[A-Za-z][A-Za-z0-9]*"))
+      throw new IllegalArgumentException("cursor query name must be alphanumeric; got " + queryName);
+
+    if (partitionSize < 1)
+      throw new IllegalArgumentException("partition size must be positive; got " + partitionSize);
+
+    if (!Pattern.compile("\\?" + Pattern.quote(partitionVariable) + "\\b").matcher(queryText).find())
+      throw new IllegalArgumentException(
+        "partition variable ?" + partitionVariable + " does not appear in query " + queryName);
+
+    Matcher matcher = SQWRL_OPERATOR.matcher(queryText);
+    while (matcher.find()) {
+      if (!STREAMABLE_OPERATORS.contains(matcher.group(1)))
+        throw new IllegalArgumentException(
+          "query " + queryName + " cannot be streamed because it uses sqwrl:" + matcher.group(1));
+    }
+
+    List<OWLNamedIndividual> individuals = ontology.getIndividualsInSignature(Imports.INCLUDED).stream()
+      .sorted(Comparator.comparing(OWLNamedIndividual::getIRI)).collect(Collectors.toList());
+    SQWRLQueryEngine queryEngine = pool.borrow(ontology);
+    SQWRLResultCursor cursor;
+
+    try {
+      OWLClass partitionClass = Class(PreparedSQWRLQuery
+        .resolve(queryEngine.getSWRLAPIOWLOntology().getIRIResolver(), queryName + "Partition"));
+      cursor = new SQWRLResultCursor(pool, queryEngine, queryName, partitionClass, individuals, partitionSize);
+    } catch (RuntimeException e) {
+      pool.release(queryEngine);
+      throw e;
+    }
+
+    cursor.ontology.getOWLOntologyManager().addAxiom(cursor.ontology, Declaration(cursor.partitionClass));
+    try {
+      queryEngine.createSQWRLQuery(queryName, PreparedSQWRLQuery
+        .prependBodyAtoms(cursor.partitionClass.getIRI().getShortForm() + "(?" + partitionVariable + ")", queryText));
+      cursor.runNextPartition();
+    } catch (SWRLParseException | SQWRLException | RuntimeException e) {
+      cursor.close();
+      throw e;
+    }
+
+    return cursor;
+  }
+
+  public String getQueryName()
+  {
+    return this.queryName;
+  }
+
+  public List<String> getColumnNames() throws SQWRLException
+  {
+    return this.partitionResult.getColumnNames();
+  }
+
+  public int getNumberOfPartitions()
+  {
+    return Math.max(1, (this.individuals.size() + this.partitionSize - 1) / this.partitionSize);
+  }
+
+  public int getNumberOfPartitionsRun()
+  {
+    return this.numberOfPartitionsRun;
+  }
+
+  /**
+   * Advances to the next row, running further partitions until one yields a row or all have been run.
+   */
+  public boolean next() throws SQWRLException
+  {
+    if (this.partitionResult == null)
+      throw new IllegalStateException("cursor for query " + this.queryName + " is closed");
+
+    while (!this.partitionResult.next()) {
+      if (this.nextPartitionStart >= this.individuals.size())
+        return false;
+      runNextPartition();
+    }
+    return true;
+  }
+
+  public List<SQWRLResultValue> getRow() throws SQWRLException
+  {
+    return this.partitionResult.getRow();
+  }
+
+  public SQWRLResultValue getValue(int columnIndex) throws SQWRLException
+  {
+    return this.partitionResult.getValue(columnIndex);
+  }
+
+  public SQWRLResultValue getValue(String columnName) throws SQWRLException
+  {
+    return this.partitionResult.getValue(columnName);
+  }
+
+  public SQWRLLiteralResultValue getLiteral(int columnIndex) throws SQWRLException
+  {
+    return this.partitionResult.getLiteral(columnIndex);
+  }
+
+  public SQWRLLiteralResultValue getLiteral(String columnName) throws SQWRLException
+  {
+    return this.partitionResult.getLiteral(columnName);
+  }
+
+  public SQWRLNamedIndividualResultValue getNamedIndividual(int columnIndex) throws SQWRLException
+  {
+    return this.partitionResult.getNamedIndividual(columnIndex);
+  }
+
+  public SQWRLNamedIndividualResultValue getNamedIndividual(String columnName) throws SQWRLException
+  {
+    return this.partitionResult.getNamedIndividual(columnName);
+  }
+
+  /**
+   * Deletes the query from the borrowed engine and returns the engine to the pool, which clears the partition class
+   * and its assertions. Closing a closed cursor has no effect.
+   */
+  @Override public void close()
+  {
+    if (this.released)
+      return;
+
+    this.partitionResult = null;
+    this.partitionAssertions.clear();
+    this.released = true;
+    try {
+      this.queryEngine.deleteSWRLRule(this.queryName);
+    } finally {
+      this.pool.release(this.queryEngine);
+    }
+  }
+
+  /**
+   * Replaces the partition class's members with the next partition of individuals and runs the query over it. The
+   * previous partition's result is dropped before the run so that two partitions are never held at once.
+   */
+  private void runNextPartition() throws SQWRLException
+  {
+    int end = Math.min(this.individuals.size(), this.nextPartitionStart + this.partitionSize);
+
+    this.partitionResult = null;
+    this.ontology.getOWLOntologyManager().removeAxioms(this.ontology, new HashSet<>(this.partitionAssertions));
+    this.partitionAssertions.clear();
+
+    for (OWLNamedIndividual individual : this.individuals.subList(this.nextPartitionStart, end))
+      this.partitionAssertions.add(ClassAssertion(this.partitionClass, individual));
+
+    this.ontology.getOWLOntologyManager().addAxioms(this.ontology, new HashSet<>(this.partitionAssertions));
+    this.nextPartitionStart = end;
+    this.numberOfPartitionsRun++;
+    this.partitionResult = this.queryEngine.runSQWRLQuery(this.queryName);
+  }
+}
@@ -0,0 +1,137 @@
+package org.swrlapi.test;
+
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns SQWRL result values as dense <code>int</code> ids, so that structures over result values can key, compare
+ * and store them as primitives.
+ * <p>
+ * Two values get the same id exactly when they are equal as result values. Literals of the integral types
+ * <code>xsd:byte</code>, <code>xsd:short</code>, <code>xsd:int</code>, <code>xsd:long</code> and
+ * <code>xsd:integer</code> in canonical lexical form are keyed by their <code>long</code> value in a
+ * {@link LongIntHashMap} per type, without hashing the literal. All other values, including named entities, whose
+ * hash is that of their IRI, are keyed by the value itself. Ids are assigned from 0 in order of first appearance.
+ */
+public class SQWRLResultValueDictionary
+{
+  // Lexical forms of at most this many characters always parse as a long
+  private static final int MAXIMUM_LONG_DIGITS = 18;
+
+  private final LongIntHashMap[] integralIds = new LongIntHashMap[5];
+  private final Map<SQWRLResultValue, Integer> ids = new HashMap<>();
+  private final List<SQWRLResultValue> values = new ArrayList<>();
+
+  /**
+   * The id of a value, assigning the next id if the value has not been seen before.
+   */
+  public int getId(SQWRLResultValue value) throws SQWRLException
+  {
+    int type = integralType(value);
+
+    if (type != -1) {
+      String lexicalForm = value.asLiteralResult().getValue();
+      if (isCanonicalLong(lexicalForm)) {
+        LongIntHashMap map = this.integralIds[type];
+        if (map == null)
+          map = this.integralIds[type] = new LongIntHashMap();
+
+        int id = map.getOrPut(Long.parseLong(lexicalForm), this.values.size());
+        if (id == this.values.size())
+          this.values.add(value);
+        return id;
+      }
+    }
+
+    Integer id = this.ids.get(value);
+
+    if (id == null) {
+      id = this.values.size();
+      this.ids.put(value, id);
+      this.values.add(value);
+    }
+
+    return id;
+  }
+
+  /**
+   * The id of a value, or {@link LongIntHashMap#ABSENT} if the value has not been seen.
+   */
+  public int findId(SQWRLResultValue value) throws SQWRLException
+  {
+    int type = integralType(value);
+
+    if (type != -1) {
+      String lexicalForm = value.asLiteralResult().getValue();
+      if (isCanonicalLong(lexicalForm)) {
+        LongIntHashMap map = this.integralIds[type];
+        return map == null ? LongIntHashMap.ABSENT : map.get(Long.parseLong(lexicalForm));
+      }
+    }
+
+    Integer id = this.ids.get(value);
+
+    return id == null ? LongIntHashMap.ABSENT : id;
+  }
+
+  public SQWRLResultValue getValue(int id)
+  {
+    return this.values.get(id);
+  }
+
+  public int size()
+  {
+    return this.values.size();
+  }
+
+  private static int integralType(SQWRLResultValue value) throws SQWRLException
+  {
+    if (!value.isLiteral())
+      return -1;
+
+    SQWRLLiteralResultValue literal = value.asLiteralResult();
+
+    if (literal.isInt())
+      return 0;
+    else if (literal.isLong())
+      return 1;
+    else if (literal.isInteger())
+      return 2;
+    else if (literal.isShort())
+      return 3;
+    else if (literal.isByte())
+      return 4;
+    else
+      return -1;
+  }
+
+  /**
+   * Whether a lexical form is the canonical form of a <code>long</code>, i.e., has no sign other than a minus, no
+   * leading zeros and few enough digits, so that literals that differ in form but not in value keep distinct ids.
+   */
+  private static boolean isCanonicalLong(String lexicalForm)
+  {
+    int start = lexicalForm.startsWith("-") ? 1 : 0;
+    int length = lexicalForm.length();
+
+    if (length == start || length - start > MAXIMUM_LONG_DIGITS)
+      return false;
+
+    if (lexicalForm.charAt(start) == '0')
+      return length == 1;
+
+    for (int i = start; i < length; i++) {
+      char c = lexicalForm.charAt(i);
+      if (c < '0' || c > '9')
+        return false;
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,595 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+import org.swrlapi.factory.SQWRLResultValueFactory;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLLiteralResultValue;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes the SQWRL aggregates <code>sqwrl:count</code>, <code>sqwrl:sum</code>, <code>sqwrl:avg</code>,
+ * <code>sqwrl:min</code> and <code>sqwrl:max</code> over a stream of result rows in a single pass, holding a
+ * fixed-size accumulator per group instead of the group's values.
+ * <p>
+ * The engine collects every value of an aggregate column into a list and reduces it when the result is prepared, so
+ * averaging 10^7 values holds 10^7 literals. An aggregator instead adds each value to its group's accumulator as it
+ * arrives. Integral values are summed exactly in a <code>long</code> and only spill into a {@link BigDecimal} when the
+ * sum overflows or a value is an <code>xsd:decimal</code> or does not fit in a <code>long</code>; once an
+ * <code>xsd:float</code> or <code>xsd:double</code> value is seen the sum continues as a <code>double</code>, which
+ * is how the engine sums every column.
+ * <p>
+ * Results have the engine's types: <code>sqwrl:count</code> is an <code>xsd:int</code>, <code>sqwrl:min</code> and
+ * <code>sqwrl:max</code> are the first least or greatest value of the group, and <code>sqwrl:sum</code> and
+ * <code>sqwrl:avg</code> have the widest type of the group's values, in the order <code>xsd:byte</code>,
+ * <code>xsd:short</code>, <code>xsd:int</code>, <code>xsd:long</code>, <code>xsd:float</code> and
+ * <code>xsd:double</code>, with any other numeric type counting as <code>xsd:double</code>. An integral average is
+ * truncated towards zero. Because integral sums are exact, a <code>long</code> sum whose partial sums overflow is
+ * correct here where the engine's <code>double</code> sum rounds.
+ * <p>
+ * Rows are grouped on the values of the group-by columns, which correspond to the columns selected alongside an
+ * aggregate in a query. With no group-by columns all rows fall in a single group, the empty list. A row's group is
+ * found by a {@link SQWRLGroupIndex}, which hashes interned ids of the group-by values rather than the values.
+ * <p>
+ * <code>sqwrl:median</code> needs every value of a group, so it and the quantiles and percentiles that SQWRL has no
+ * operator for are only available once {@link #withApproximateQuantiles(double)} gives each group a
+ * {@link QuantileSketch}. A group's median is exact, and equal to the engine's, until its sketch first compacts and
+ * within the sketch's rank error afterwards. Aggregators over disjoint partitions of a result can be combined with
+ * {@link #merge(SQWRLStreamingAggregator)}, so an aggregation can run in parallel.
+ */
+public class SQWRLStreamingAggregator
+{
+  private static final int BYTE = 0;
+  private static final int SHORT = 1;
+  private static final int INT = 2;
+  private static final int LONG = 3;
+  private static final int FLOAT = 4;
+  private static final int DOUBLE = 5;
+  private static final int DECIMAL = 6; // xsd:decimal, xsd:integer and the types derived from xsd:integer
+
+  // Lexical forms of at most this many characters always parse as a long
+  private static final int MAXIMUM_LONG_DIGITS = 18;
+
+  private final SQWRLResultValueFactory valueFactory;
+  private final OWLDataFactory dataFactory;
+  private final int aggregateColumnIndex;
+  private final int[] groupByColumnIndexes;
+  private final SQWRLGroupIndex groupIndex;
+  private final List<List<SQWRLResultValue>> groups = new ArrayList<>();
+  private final List<Accumulator> accumulators = new ArrayList<>();
+  private final int maximumColumnIndex;
+  private double quantileRankError;
+
+  public SQWRLStreamingAggregator(SQWRLQueryEngine queryEngine, int aggregateColumnIndex, int... groupByColumnIndexes)
+  {
+    if (aggregateColumnIndex < 0)
+      throw new IllegalArgumentException("aggregate column index must not be negative; got " + aggregateColumnIndex);
+
+    for (int columnIndex : groupByColumnIndexes) {
+      if (columnIndex < 0)
+        throw new IllegalArgumentException("group-by column index must not be negative; got " + columnIndex);
+      if (columnIndex == aggregateColumnIndex)
+        throw new IllegalArgumentException("aggregate column " + columnIndex + " cannot also be a group-by column");
+    }
+
+    this.valueFactory = queryEngine.getSWRLAPIOWLOntology().getSWRLAPIOWLDataFactory().getSQWRLResultValueFactory();
+    this.dataFactory = queryEngine.getOWLOntology().getOWLOntologyManager().getOWLDataFactory();
+    this.aggregateColumnIndex = aggregateColumnIndex;
+    this.groupByColumnIndexes = groupByColumnIndexes.clone();
+    this.maximumColumnIndex = Arrays.stream(groupByColumnIndexes).reduce(aggregateColumnIndex, Math::max);
+    this.groupIndex = new SQWRLGroupIndex(new SQWRLResultValueDictionary(), groupByColumnIndexes);
+  }
+
+  /**
+   * Keeps a quantile sketch with the given normalized rank error per group, which enables {@link #median()},
+   * {@link #quantile(double)} and {@link #percentile(double)}. Must be called before the first row is added.
+   */
+  public SQWRLStreamingAggregator withApproximateQuantiles(double rankError)
+  {
+    if (!this.accumulators.isEmpty())
+      throw new IllegalStateException("quantiles cannot be enabled after rows have been added");
+
+    QuantileSketch.withRankError(rankError); // Validates the rank error
+
+    this.quantileRankError = rankError;
+
+    return this;
+  }
+
+  public void add(List<SQWRLResultValue> row) throws SQWRLException
+  {
+    if (this.maximumColumnIndex >= row.size())
+      throw new SQWRLException(
+        "column index " + this.maximumColumnIndex + " out of bounds for row of size " + row.size());
+
+    int groupIndex = this.groupIndex.getGroupIndex(row);
+
+    if (groupIndex == this.groups.size()) {
+      List<SQWRLResultValue> group = new ArrayList<>(this.groupByColumnIndexes.length);
+      for (int columnIndex : this.groupByColumnIndexes)
+        group.add(row.get(columnIndex));
+      addGroup(group);
+    }
+
+    this.accumulators.get(groupIndex).add(row.get(this.aggregateColumnIndex));
+  }
+
+  /**
+   * Adds every remaining row of a cursor.
+   */
+  public void addAll(SQWRLResultCursor cursor) throws SQWRLException
+  {
+    while (cursor.next())
+      add(cursor.getRow());
+  }
+
+  /**
+   * Adds every remaining row of a result.
+   */
+  public void addAll(SQWRLResult result) throws SQWRLException
+  {
+    while (result.next())
+      add(result.getRow());
+  }
+
+  /**
+   * Adds the groups of an aggregator over other rows of the same columns to this one. The other aggregator is left
+   * unchanged.
+   */
+  public void merge(SQWRLStreamingAggregator other) throws SQWRLException
+  {
+    if (other.aggregateColumnIndex != this.aggregateColumnIndex
+      || !Arrays.equals(other.groupByColumnIndexes, this.groupByColumnIndexes))
+      throw new IllegalArgumentException("aggregators over different columns cannot be merged");
+
+    if ((other.quantileRankError == 0.0) != (this.quantileRankError == 0.0))
+      throw new IllegalArgumentException("aggregators with and without quantiles cannot be merged");
+
+    for (int otherGroupIndex = 0; otherGroupIndex < other.groups.size(); otherGroupIndex++) {
+      List<SQWRLResultValue> group = other.groups.get(otherGroupIndex);
+      int groupIndex = this.groupIndex.getGroupIndexOfValues(group);
+
+      if (groupIndex == this.groups.size())
+        addGroup(group);
+
+      this.accumulators.get(groupIndex).merge(other.accumulators.get(otherGroupIndex));
+    }
+  }
+
+  /**
+   * The values of the group-by columns of each group, in the order in which the groups were first seen.
+   */
+  public List<List<SQWRLResultValue>> getGroups()
+  {
+    return new ArrayList<>(this.groups);
+  }
+
+  public int getNumberOfGroups()
+  {
+    return this.groups.size();
+  }
+
+  public SQWRLLiteralResultValue count() throws SQWRLException
+  {
+    return count(Collections.emptyList());
+  }
+
+  public SQWRLLiteralResultValue count(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    return literal(this.dataFactory.getOWLLiteral((int)getAccumulator(group, "count").count));
+  }
+
+  public SQWRLLiteralResultValue sum() throws SQWRLException
+  {
+    return sum(Collections.emptyList());
+  }
+
+  public SQWRLLiteralResultValue sum(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    Accumulator accumulator = getNumericAccumulator(group, "sum");
+
+    if (accumulator.exact)
+      return exactLiteral(accumulator.exactSum(), accumulator.widest);
+    else
+      return doubleLiteral(accumulator.doubleSum, accumulator.widest);
+  }
+
+  public SQWRLLiteralResultValue avg() throws SQWRLException
+  {
+    return avg(Collections.emptyList());
+  }
+
+  public SQWRLLiteralResultValue avg(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    Accumulator accumulator = getNumericAccumulator(group, "avg");
+
+    if (!accumulator.exact)
+      return doubleLiteral(accumulator.doubleSum / accumulator.count, accumulator.widest);
+    else if (accumulator.widest <= LONG)
+      return exactLiteral(accumulator.exactSum().divide(BigDecimal.valueOf(accumulator.count), 0, RoundingMode.DOWN),
+        accumulator.widest);
+    else
+      return exactLiteral(accumulator.exactSum().divide(BigDecimal.valueOf(accumulator.count), MathContext.DECIMAL64),
+        accumulator.widest);
+  }
+
+  public SQWRLLiteralResultValue min() throws SQWRLException
+  {
+    return min(Collections.emptyList());
+  }
+
+  public SQWRLLiteralResultValue min(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    return getNumericAccumulator(group, "min").min;
+  }
+
+  public SQWRLLiteralResultValue max() throws SQWRLException
+  {
+    return max(Collections.emptyList());
+  }
+
+  public SQWRLLiteralResultValue max(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    return getNumericAccumulator(group, "max").max;
+  }
+
+  public SQWRLLiteralResultValue median() throws SQWRLException
+  {
+    return median(Collections.emptyList());
+  }
+
+  /**
+   * The median of a group, as <code>sqwrl:median</code> computes it, narrowed to the widest type of the group's
+   * values.
+   */
+  public SQWRLLiteralResultValue median(List<SQWRLResultValue> group) throws SQWRLException
+  {
+    Accumulator accumulator = getSketchedAccumulator(group, "median");
+
+    return narrowedLiteral(accumulator.sketch.getMedian(), accumulator.widest);
+  }
+
+  public SQWRLLiteralResultValue quantile(double fraction) throws SQWRLException
+  {
+    return quantile(Collections.emptyList(), fraction);
+  }
+
+  /**
+   * The least value of a group at or above the given fraction of its values, narrowed to the widest type of the
+   * group's values.
+   */
+  public SQWRLLiteralResultValue quantile(List<SQWRLResultValue> group, double fraction) throws SQWRLException
+  {
+    Accumulator accumulator = getSketchedAccumulator(group, "quantile");
+
+    return narrowedLiteral(accumulator.sketch.getQuantile(fraction), accumulator.widest);
+  }
+
+  public SQWRLLiteralResultValue percentile(double percent) throws SQWRLException
+  {
+    return percentile(Collections.emptyList(), percent);
+  }
+
+  public SQWRLLiteralResultValue percentile(List<SQWRLResultValue> group, double percent) throws SQWRLException
+  {
+    if (!(percent >= 0.0 && percent <= 100.0))
+      throw new IllegalArgumentException("percentile must be between 0 and 100; got " + percent);
+
+    return quantile(group, percent / 100.0);
+  }
+
+  private Accumulator getAccumulator(List<SQWRLResultValue> group, String function) throws SQWRLException
+  {
+    int groupIndex = this.groupIndex.findGroupIndex(group);
+
+    if (groupIndex == LongIntHashMap.ABSENT)
+      throw new SQWRLException("empty aggregate list for " + function + " in group " + group);
+
+    return this.accumulators.get(groupIndex);
+  }
+
+  private void addGroup(List<SQWRLResultValue> group)
+  {
+    this.groups.add(Collections.unmodifiableList(group));
+    this.accumulators.add(new Accumulator(this.quantileRankError));
+  }
+
+  private Accumulator getNumericAccumulator(List<SQWRLResultValue> group, String function) throws SQWRLException
+  {
+    Accumulator accumulator = getAccumulator(group, function);
+
+    if (accumulator.nonNumericValue != null)
+      throw new SQWRLException(
+        "attempt to use " + function + " aggregate on column with non numeric value " + accumulator.nonNumericValue);
+
+    return accumulator;
+  }
+
+  private Accumulator getSketchedAccumulator(List<SQWRLResultValue> group, String function) throws SQWRLException
+  {
+    if (this.quantileRankError == 0.0)
+      throw new IllegalStateException(function + " requires quantiles to be enabled with withApproximateQuantiles");
+
+    return getNumericAccumulator(group, function);
+  }
+
+  /**
+   * Narrows a value to the widest type as the engine narrows its <code>double</code> results.
+   */
+  private SQWRLLiteralResultValue narrowedLiteral(double value, int widest)
+  {
+    if (widest <= LONG)
+      return exactLiteral(new BigDecimal(value), widest);
+    else
+      return doubleLiteral(value, widest);
+  }
+
+  /**
+   * Narrows an exact value to the widest type as the engine narrows its <code>double</code> result, saturating at
+   * the bounds of <code>xsd:int</code> and <code>xsd:long</code> and wrapping from <code>xsd:int</code> to the
+   * shorter types.
+   */
+  private SQWRLLiteralResultValue exactLiteral(BigDecimal value, int widest)
+  {
+    switch (widest) {
+    case BYTE:
+      return literal(this.dataFactory.getOWLLiteral("" + (byte)saturatedInt(value), OWL2Datatype.XSD_BYTE));
+    case SHORT:
+      return literal(this.dataFactory.getOWLLiteral("" + (short)saturatedInt(value), OWL2Datatype.XSD_SHORT));
+    case INT:
+      return literal(this.dataFactory.getOWLLiteral(saturatedInt(value)));
+    case LONG:
+      return literal(this.dataFactory.getOWLLiteral("" + saturatedLong(value), OWL2Datatype.XSD_LONG));
+    default:
+      return literal(this.dataFactory.getOWLLiteral(value.doubleValue()));
+    }
+  }
+
+  private SQWRLLiteralResultValue doubleLiteral(double value, int widest)
+  {
+    if (widest == FLOAT)
+      return literal(this.dataFactory.getOWLLiteral((float)value));
+    else
+      return literal(this.dataFactory.getOWLLiteral(value));
+  }
+
+  private SQWRLLiteralResultValue literal(OWLLiteral literal)
+  {
+    return this.valueFactory.getLiteralValue(literal);
+  }
+
+  private static int saturatedInt(BigDecimal value)
+  {
+    return (int)Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, saturatedLong(value)));
+  }
+
+  private static long saturatedLong(BigDecimal value)
+  {
+    if (value.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0)
+      return Long.MAX_VALUE;
+    else if (value.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0)
+      return Long.MIN_VALUE;
+    else
+      return value.longValue();
+  }
+
+  /**
+   * The state of one group: the number of values, their exact or <code>double</code> sum, the widest type seen, the
+   * least and greatest values and optionally a quantile sketch, but none of the values themselves.
+   */
+  private static class Accumulator
+  {
+    private final QuantileSketch sketch; // Null unless quantiles are enabled
+    private long count;
+    private int widest = BYTE;
+    private boolean exact = true;
+    private long longSum;
+    private BigDecimal decimalSum; // Overflow of longSum and any values that are not longs; null until needed
+    private double doubleSum;
+    private SQWRLLiteralResultValue min, max;
+    private boolean minIntegral, maxIntegral;
+    private long minLong, maxLong;
+    private double minDouble, maxDouble;
+    private SQWRLResultValue nonNumericValue;
+
+    private Accumulator(double quantileRankError)
+    {
+      this.sketch = quantileRankError == 0.0 ? null : QuantileSketch.withRankError(quantileRankError);
+    }
+
+    private void add(SQWRLResultValue value) throws SQWRLException
+    {
+      this.count++;
+
+      if (this.nonNumericValue != null)
+        return;
+
+      if (!value.isLiteral() || !value.asLiteralResult().isNumeric()) {
+        this.nonNumericValue = value;
+        return;
+      }
+
+      SQWRLLiteralResultValue literal = value.asLiteralResult();
+      int type = type(literal);
+      boolean integral = type <= LONG;
+      long longValue = integral ? longValue(literal) : 0;
+      double doubleValue = integral ? longValue : doubleValue(literal);
+
+      if (Math.min(type, DOUBLE) > this.widest)
+        this.widest = Math.min(type, DOUBLE);
+
+      if (literal.isFloat() || literal.isDouble()) {
+        if (this.exact) {
+          this.doubleSum = exactSum().doubleValue();
+          this.exact = false;
+        }
+        this.doubleSum += doubleValue;
+      } else if (!this.exact)
+        this.doubleSum += doubleValue;
+      else if (integral)
+        addLong(longValue);
+      else
+        addLexical(literal.getValue().trim());
+
+      if (this.sketch != null)
+        this.sketch.update(doubleValue);
+
+      if (this.min == null || compare(integral, longValue, doubleValue, this.minIntegral, this.minLong,
+        this.minDouble) < 0) {
+        this.min = literal;
+        this.minIntegral = integral;
+        this.minLong = longValue;
+        this.minDouble = doubleValue;
+      }
+
+      if (this.max == null || compare(integral, longValue, doubleValue, this.maxIntegral, this.maxLong,
+        this.maxDouble) > 0) {
+        this.max = literal;
+        this.maxIntegral = integral;
+        this.maxLong = longValue;
+        this.maxDouble = doubleValue;
+      }
+    }
+
+    private void merge(Accumulator other)
+    {
+      this.count += other.count;
+
+      if (this.nonNumericValue == null)
+        this.nonNumericValue = other.nonNumericValue;
+
+      if (other.min == null) // No numeric values
+        return;
+
+      if (other.widest > this.widest)
+        this.widest = other.widest;
+
+      if (this.exact && other.exact) {
+        addLong(other.longSum);
+        if (other.decimalSum != null)
+          addDecimal(other.decimalSum);
+      } else {
+        this.doubleSum = (this.exact ? exactSum().doubleValue() : this.doubleSum)
+          + (other.exact ? other.exactSum().doubleValue() : other.doubleSum);
+        this.exact = false;
+      }
+
+      if (this.min == null || compare(other.minIntegral, other.minLong, other.minDouble, this.minIntegral,
+        this.minLong, this.minDouble) < 0) {
+        this.min = other.min;
+        this.minIntegral = other.minIntegral;
+        this.minLong = other.minLong;
+        this.minDouble = other.minDouble;
+      }
+
+      if (this.max == null || compare(other.maxIntegral, other.maxLong, other.maxDouble, this.maxIntegral,
+        this.maxLong, this.maxDouble) > 0) {
+        this.max = other.max;
+        this.maxIntegral = other.maxIntegral;
+        this.maxLong = other.maxLong;
+        this.maxDouble = other.maxDouble;
+      }
+
+      if (this.sketch != null)
+        this.sketch.merge(other.sketch);
+    }
+
+    private void addLong(long value)
+    {
+      long sum = this.longSum + value;
+
+      if (((this.longSum ^ sum) & (value ^ sum)) < 0) { // Overflow
+        addDecimal(BigDecimal.valueOf(this.longSum));
+        this.longSum = value;
+      } else
+        this.longSum = sum;
+    }
+
+    /**
+     * Adds an <code>xsd:decimal</code>, <code>xsd:integer</code> or other numeric value from its lexical form, which
+     * short integers take on the <code>long</code> path.
+     */
+    private void addLexical(String lexicalForm)
+    {
+      if (lexicalForm.length() <= MAXIMUM_LONG_DIGITS && lexicalForm.indexOf('.') == -1)
+        addLong(Long.parseLong(lexicalForm));
+      else
+        addDecimal(new BigDecimal(lexicalForm));
+    }
+
+    private void addDecimal(BigDecimal value)
+    {
+      this.decimalSum = this.decimalSum == null ? value : this.decimalSum.add(value);
+    }
+
+    private BigDecimal exactSum()
+    {
+      BigDecimal sum = BigDecimal.valueOf(this.longSum);
+
+      return this.decimalSum == null ? sum : sum.add(this.decimalSum);
+    }
+
+    /**
+     * Compares integral values as <code>long</code>s and any others as <code>double</code>s.
+     */
+    private static int compare(boolean integral1, long long1, double double1, boolean integral2, long long2,
+      double double2)
+    {
+      return integral1 && integral2 ? Long.compare(long1, long2) : Double.compare(double1, double2);
+    }
+  }
+
+  private static int type(SQWRLLiteralResultValue literal)
+  {
+    if (literal.isByte())
+      return BYTE;
+    else if (literal.isShort())
+      return SHORT;
+    else if (literal.isInt())
+      return INT;
+    else if (literal.isLong())
+      return LONG;
+    else if (literal.isFloat())
+      return FLOAT;
+    else if (literal.isDouble())
+      return DOUBLE;
+    else
+      return DECIMAL;
+  }
+
+  /**
+   * The value of a numeric literal as a <code>double</code>. The literal's own conversion only covers the primitive
+   * types, so <code>xsd:decimal</code>, <code>xsd:integer</code> and the types derived from <code>xsd:integer</code>
+   * are converted from their lexical form.
+   */
+  static double doubleValue(SQWRLLiteralResultValue literal) throws SQWRLException
+  {
+    if (type(literal) == DECIMAL)
+      return new BigDecimal(literal.getValue().trim()).doubleValue();
+    else
+      return literal.getDouble();
+  }
+
+  private static long longValue(SQWRLLiteralResultValue literal) throws SQWRLException
+  {
+    if (literal.isByte())
+      return literal.getByte();
+    else if (literal.isShort())
+      return literal.getShort();
+    else if (literal.isInt())
+      return literal.getInt();
+    else
+      return literal.getLong();
+  }
+}
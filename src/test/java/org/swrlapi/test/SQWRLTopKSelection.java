@@ -0,0 +1,245 @@
+package org.swrlapi.test;
+
+import org.swrlapi.sqwrl.SQWRLResult;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+import org.swrlapi.sqwrl.values.SQWRLResultValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Evaluates the SQWRL slicing operators <code>sqwrl:firstN</code>/<code>leastN</code>,
+ * <code>sqwrl:lastN</code>/<code>greatestN</code> and <code>sqwrl:nthGreatest</code>/<code>nthLast</code> over a
+ * stream of result rows while holding at most <code>n</code> rows.
+ * <p>
+ * The engine sorts the full result on its <code>sqwrl:orderBy</code> columns and then slices it. A selection instead
+ * keeps the <code>n</code> best rows seen so far in a bounded heap, so a top-10 over 10^6 rows costs
+ * <code>O(rows log 10)</code> and ten rows of memory. Rows whose order-by values compare equal keep the order in which
+ * they were offered, as they do under the engine's stable sort, so a selection over the rows of an unsliced query
+ * returns the same rows in the same order as the engine's sliced query. With no order-by columns, rows are ordered by
+ * arrival alone and an unordered <code>firstN</code> is complete, see {@link #isComplete()}, after <code>n</code>
+ * rows.
+ * <p>
+ * Order-by values are compared as the engine compares them: literals with literals and entities with entities.
+ */
+public class SQWRLTopKSelection
+{
+  private enum Slice
+  {
+    FIRST, LAST, NTH_LAST
+  }
+
+  private final Slice slice;
+  private final int n;
+  private final int[] orderByColumnIndexes;
+  private final PriorityQueue<Candidate> candidates;
+  private boolean ascending = true;
+  private long numberOfRowsOffered;
+
+  private SQWRLTopKSelection(Slice slice, int n, int[] orderByColumnIndexes)
+  {
+    if (n < 1)
+      throw new IllegalArgumentException("slice size must be positive; got " + n);
+
+    for (int columnIndex : orderByColumnIndexes)
+      if (columnIndex < 0)
+        throw new IllegalArgumentException("order-by column index must not be negative; got " + columnIndex);
+
+    this.slice = slice;
+    this.n = n;
+    this.orderByColumnIndexes = orderByColumnIndexes.clone();
+    // The heap's head is the worst candidate, i.e., the first to be evicted
+    this.candidates = new PriorityQueue<>(Math.min(n, 1024) + 1,
+      slice == Slice.FIRST ? Collections.reverseOrder(this::compare) : this::compare);
+  }
+
+  /**
+   * The first <code>n</code> rows, as selected by <code>sqwrl:firstN(n)</code>.
+   */
+  public static SQWRLTopKSelection firstN(int n, int... orderByColumnIndexes)
+  {
+    return new SQWRLTopKSelection(Slice.FIRST, n, orderByColumnIndexes);
+  }
+
+  /**
+   * The last <code>n</code> rows, as selected by <code>sqwrl:lastN(n)</code>.
+   */
+  public static SQWRLTopKSelection lastN(int n, int... orderByColumnIndexes)
+  {
+    return new SQWRLTopKSelection(Slice.LAST, n, orderByColumnIndexes);
+  }
+
+  /**
+   * The same rows as {@link #firstN}, as selected by <code>sqwrl:leastN(n)</code>.
+   */
+  public static SQWRLTopKSelection leastN(int n, int... orderByColumnIndexes)
+  {
+    return firstN(n, orderByColumnIndexes);
+  }
+
+  /**
+   * The same rows as {@link #lastN}, as selected by <code>sqwrl:greatestN(n)</code>.
+   */
+  public static SQWRLTopKSelection greatestN(int n, int... orderByColumnIndexes)
+  {
+    return lastN(n, orderByColumnIndexes);
+  }
+
+  /**
+   * The <code>n</code>th row from the end, as selected by <code>sqwrl:nthGreatest(n)</code>, or no row if fewer than
+   * <code>n</code> rows are offered.
+   */
+  public static SQWRLTopKSelection nthGreatest(int n, int... orderByColumnIndexes)
+  {
+    return new SQWRLTopKSelection(Slice.NTH_LAST, n, orderByColumnIndexes);
+  }
+
+  /**
+   * Orders rows as <code>sqwrl:orderByDescending</code> does. Must be called before the first row is offered.
+   */
+  public SQWRLTopKSelection orderByDescending()
+  {
+    if (this.numberOfRowsOffered != 0)
+      throw new IllegalStateException("order of a selection cannot be changed after rows have been offered");
+
+    this.ascending = false;
+
+    return this;
+  }
+
+  /**
+   * Offers a row to the selection.
+   *
+   * @return true if the row is currently among the selected rows
+   */
+  public boolean offer(List<SQWRLResultValue> row) throws SQWRLException
+  {
+    for (int columnIndex : this.orderByColumnIndexes)
+      if (columnIndex >= row.size())
+        throw new SQWRLException(
+          "order-by column index " + columnIndex + " out of bounds for row of size " + row.size());
+
+    Candidate candidate = new Candidate(row, this.numberOfRowsOffered++);
+
+    if (this.candidates.size() < this.n) {
+      this.candidates.add(candidate);
+      return true;
+    }
+
+    Comparator<? super Candidate> heapOrder = this.candidates.comparator();
+
+    if (heapOrder.compare(candidate, this.candidates.peek()) <= 0)
+      return false;
+
+    this.candidates.poll();
+    this.candidates.add(candidate);
+
+    return true;
+  }
+
+  /**
+   * Offers every remaining row of a cursor, stopping early once the selection is complete.
+   *
+   * @return the selected rows
+   */
+  public List<List<SQWRLResultValue>> selectFrom(SQWRLResultCursor cursor) throws SQWRLException
+  {
+    while (!isComplete() && cursor.next())
+      offer(cursor.getRow());
+
+    return getRows();
+  }
+
+  /**
+   * Offers every remaining row of a result, stopping early once the selection is complete.
+   *
+   * @return the selected rows
+   */
+  public List<List<SQWRLResultValue>> selectFrom(SQWRLResult result) throws SQWRLException
+  {
+    while (!isComplete() && result.next())
+      offer(result.getRow());
+
+    return getRows();
+  }
+
+  /**
+   * Returns true if no further row can change the selection, which is only the case for an unordered
+   * <code>firstN</code> that has seen <code>n</code> rows.
+   */
+  public boolean isComplete()
+  {
+    return this.slice == Slice.FIRST && this.orderByColumnIndexes.length == 0 && this.candidates.size() == this.n;
+  }
+
+  /**
+   * Returns the selected rows in result order.
+   */
+  public List<List<SQWRLResultValue>> getRows()
+  {
+    List<Candidate> sorted = new ArrayList<>(this.candidates);
+    List<List<SQWRLResultValue>> rows = new ArrayList<>(sorted.size());
+
+    sorted.sort(this::compare);
+
+    if (this.slice == Slice.NTH_LAST) {
+      if (sorted.size() == this.n)
+        rows.add(sorted.get(0).row);
+    } else
+      for (Candidate candidate : sorted)
+        rows.add(candidate.row);
+
+    return rows;
+  }
+
+  public long getNumberOfRowsOffered()
+  {
+    return this.numberOfRowsOffered;
+  }
+
+  private int compare(Candidate candidate1, Candidate candidate2)
+  {
+    for (int columnIndex : this.orderByColumnIndexes) {
+      int diff = compareValues(candidate1.row.get(columnIndex), candidate2.row.get(columnIndex));
+
+      if (diff != 0)
+        return this.ascending ? diff : -diff;
+    }
+    return Long.compare(candidate1.sequenceNumber, candidate2.sequenceNumber);
+  }
+
+  /**
+   * Compares two result values as the engine's <code>sqwrl:orderBy</code> does.
+   */
+  static int compareValues(SQWRLResultValue value1, SQWRLResultValue value2)
+  {
+    try {
+      if (value1.isLiteral() && value2.isLiteral())
+        return value1.asLiteralResult().compareTo(value2.asLiteralResult());
+      else if (value1.isClassExpression() && value2.isClassExpression())
+        return value1.asClassExpressionResult().compareTo(value2.asClassExpressionResult());
+      else if (value1.isEntity() && value2.isEntity())
+        return value1.asEntityResult().compareTo(value2.asEntityResult());
+      else
+        throw new IllegalArgumentException(
+          "cannot order " + value1.getClass().getName() + " and " + value2.getClass().getName());
+    } catch (SQWRLException e) {
+      throw new IllegalArgumentException("cannot order " + value1 + " and " + value2 + ": " + e.getMessage(), e);
+    }
+  }
+
+  private static class Candidate
+  {
+    private final List<SQWRLResultValue> row;
+    private final long sequenceNumber;
+
+    private Candidate(List<SQWRLResultValue> row, long sequenceNumber)
+    {
+      this.row = row;
+      this.sequenceNumber = sequenceNumber;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.SWRLArgument;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLBuiltInAtom;
+import org.semanticweb.owlapi.model.SWRLVariable;
+import org.swrlapi.core.SWRLAPIRule;
+import org.swrlapi.core.SWRLRuleEngine;
+import org.swrlapi.exceptions.SWRLBuiltInException;
+import org.swrlapi.parser.SWRLParseException;
+import org.swrlapi.sqwrl.SQWRLQuery;
+import org.swrlapi.sqwrl.SQWRLQueryEngine;
+import org.swrlapi.sqwrl.SQWRLQueryRenderer;
+import org.swrlapi.sqwrl.exceptions.SQWRLException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reorders the class and property atoms of SWRL rule and SQWRL query bodies so that the most selective atoms are
+ * joined first.
+ * <p>
+ * The target rule engine joins body atoms in the order in which they are written, so a class with many members
+ * written before a class with few, or a property atom that shares no variable with the atoms before it, builds large
+ * intermediate joins. Atoms are ordered greedily: at each step, among the remaining atoms that share a bound variable
+ * with those already placed, the one with the smallest estimated fan-out given
+ * {@link SWRLCardinalityStatistics} goes next. When no remaining atom shares a bound variable, the cheapest one starts
+ * a new join. Ties keep the written order.
+ * <p>
+ * Built-ins keep their written order after the class and property atoms, where SWRLAPI places them anyway, so every
+ * built-in argument that was bound in the written rule is still bound, and every argument that a built-in binds is
+ * still bound by that built-in. The atoms after the <code>.</code> of a SQWRL query operate on collections and are not
+ * moved.
+ * <p>
+ * The statistics are a snapshot; a reorderer should be recreated after large changes to the ontology's assertions.
+ */
+public class SWRLBodyAtomReorderer
+{
+  private final SWRLCardinalityStatistics statistics;
+
+  public SWRLBodyAtomReorderer(SWRLCardinalityStatistics statistics)
+  {
+    this.statistics = statistics;
+  }
+
+  /**
+   * The atoms in join order: the class and property atoms ordered by estimated fan-out, followed by the built-ins in
+   * their given order.
+   */
+  public List<SWRLAtom> reorder(List<? extends SWRLAtom> bodyAtoms)
+  {
+    List<SWRLAtom> remaining = new ArrayList<>();
+    List<SWRLAtom> builtIns = new ArrayList<>();
+    List<SWRLAtom> ordered = new ArrayList<>(bodyAtoms.size());
+    Set<IRI> boundVariables = new HashSet<>();
+
+    for (SWRLAtom atom : bodyAtoms) {
+      if (atom instanceof SWRLBuiltInAtom)
+        builtIns.add(atom);
+      else
+        remaining.add(atom);
+    }
+
+    while (!remaining.isEmpty()) {
+      boolean anyConnected = remaining.stream().anyMatch(atom -> isConnected(atom, boundVariables));
+      SWRLAtom next = null;
+      double nextFanOut = Double.POSITIVE_INFINITY;
+
+      for (SWRLAtom atom : remaining) {
+        if (anyConnected && !isConnected(atom, boundVariables))
+          continue;
+
+        double fanOut = this.statistics.estimateFanOut(atom,
+          argument -> !(argument instanceof SWRLVariable) || boundVariables
+            .contains(((SWRLVariable)argument).getIRI()));
+
+        if (next == null || fanOut < nextFanOut) {
+          next = atom;
+          nextFanOut = fanOut;
+        }
+      }
+
+      remaining.remove(next);
+      ordered.add(next);
+      boundVariables.addAll(SWRLCardinalityStatistics.getVariableIRIs(next));
+    }
+
+    ordered.addAll(builtIns);
+
+    return ordered;
+  }
+
+  /**
+   * Creates a SWRL rule from its text with its body atoms in join order.
+   */
+  public SWRLAPIRule createSWRLRule(SWRLRuleEngine ruleEngine, String ruleName, String ruleText)
+    throws SWRLParseException, SWRLBuiltInException
+  {
+    SWRLAPIRule rule = ruleEngine.createSWRLRule(ruleName, ruleText);
+    SQWRLQueryRenderer renderer = ruleEngine.getSWRLAPIOWLOntology().createSQWRLQueryRenderer();
+    List<SWRLAtom> bodyAtoms = rule.getBodyAtoms();
+    List<SWRLAtom> reorderedBodyAtoms = reorder(bodyAtoms);
+
+    if (reorderedBodyAtoms.equals(bodyAtoms))
+      return rule;
+
+    ruleEngine.deleteSWRLRule(ruleName);
+
+    return ruleEngine.createSWRLRule(ruleName,
+      render(reorderedBodyAtoms, renderer) + " -> " + render(rule.getHeadAtoms(), renderer));
+  }
+
+  /**
+   * Creates a SQWRL query from its text with the body atoms before its <code>.</code> in join order.
+   */
+  public SQWRLQuery createSQWRLQuery(SQWRLQueryEngine queryEngine, String queryName, String queryText)
+    throws SWRLParseException, SQWRLException
+  {
+    SQWRLQuery query = queryEngine.createSQWRLQuery(queryName, queryText);
+    SQWRLQueryRenderer renderer = queryEngine.createSQWRLQueryRenderer();
+    List<SWRLAtom> phase1BodyAtoms = query.getSQWRLPhase1BodyAtoms();
+    List<SWRLAtom> phase2BodyAtoms = query.getSQWRLPhase2BodyAtoms();
+    List<SWRLAtom> reorderedBodyAtoms = reorder(phase1BodyAtoms);
+
+    if (reorderedBodyAtoms.equals(phase1BodyAtoms))
+      return query;
+
+    queryEngine.deleteSWRLRule(queryName);
+
+    return queryEngine.createSQWRLQuery(queryName, render(reorderedBodyAtoms, renderer) + (phase2BodyAtoms.isEmpty() ?
+      "" :
+      " . " + render(phase2BodyAtoms, renderer)) + " -> " + render(query.getHeadAtoms(), renderer));
+  }
+
+  /**
+   * An atom is connected to the atoms before it if one of its variables is bound, or if it has no variables, in which
+   * case it is a filter.
+   */
+  private static boolean isConnected(SWRLAtom atom, Set<IRI> boundVariables)
+  {
+    Set<IRI> variableIRIs = SWRLCardinalityStatistics.getVariableIRIs(atom);
+
+    return variableIRIs.isEmpty() || variableIRIs.stream().anyMatch(boundVariables::contains);
+  }
+
+  private static String render(List<SWRLAtom> atoms, SQWRLQueryRenderer renderer)
+  {
+    return atoms.stream().map(atom -> atom.accept(renderer)).collect(Collectors.joining(" ^ "));
+  }
+}
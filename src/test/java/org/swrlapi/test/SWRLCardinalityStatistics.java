@@ -0,0 +1,237 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClassAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLDataPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.SWRLArgument;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLBuiltInAtom;
+import org.semanticweb.owlapi.model.SWRLClassAtom;
+import org.semanticweb.owlapi.model.SWRLDataPropertyAtom;
+import org.semanticweb.owlapi.model.SWRLDifferentIndividualsAtom;
+import org.semanticweb.owlapi.model.SWRLObjectPropertyAtom;
+import org.semanticweb.owlapi.model.SWRLSameIndividualAtom;
+import org.semanticweb.owlapi.model.SWRLVariable;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Cardinality statistics of the asserted ABox of an ontology, and estimates of the number of bindings that a SWRL body
+ * atom produces from them.
+ * <p>
+ * The statistics are gathered in one pass over the class, object property and data property assertions of the
+ * ontology and its imports: the number of asserted members of each named class, and the number of assertions and of
+ * distinct subjects and objects of each property. Memberships and values that the rule engine infers are not counted,
+ * so estimates for inferred classes and properties are low.
+ * <p>
+ * Estimates assume that the values of different arguments are independent and uniformly distributed, as a textbook
+ * cost model does. A built-in or data range atom whose arguments are all bound is assumed to keep a third of its
+ * input, and one that binds an argument to produce one binding per input.
+ */
+public class SWRLCardinalityStatistics
+{
+  /**
+   * The fraction of bindings assumed to pass a built-in or data range atom whose arguments are all bound.
+   */
+  public static final double DEFAULT_FILTER_SELECTIVITY = 1.0 / 3.0;
+
+  private final int numberOfIndividuals;
+  private final Map<IRI, Integer> classCardinalities = new HashMap<>();
+  private final Map<IRI, PropertyCardinality> propertyCardinalities = new HashMap<>();
+
+  private SWRLCardinalityStatistics(int numberOfIndividuals)
+  {
+    this.numberOfIndividuals = numberOfIndividuals;
+  }
+
+  public static SWRLCardinalityStatistics of(OWLOntology ontology)
+  {
+    SWRLCardinalityStatistics statistics = new SWRLCardinalityStatistics(
+      ontology.getIndividualsInSignature(Imports.INCLUDED).size());
+    Map<IRI, PropertyCardinality> properties = statistics.propertyCardinalities;
+
+    for (OWLClassAssertionAxiom axiom : ontology.getAxioms(AxiomType.CLASS_ASSERTION, Imports.INCLUDED)) {
+      if (!axiom.getClassExpression().isAnonymous())
+        statistics.classCardinalities.merge(axiom.getClassExpression().asOWLClass().getIRI(), 1, Integer::sum);
+    }
+
+    for (OWLObjectPropertyAssertionAxiom axiom : ontology
+      .getAxioms(AxiomType.OBJECT_PROPERTY_ASSERTION, Imports.INCLUDED)) {
+      if (!axiom.getProperty().isAnonymous())
+        properties.computeIfAbsent(axiom.getProperty().asOWLObjectProperty().getIRI(), p -> new PropertyCardinality())
+          .add(axiom.getSubject(), axiom.getObject());
+    }
+
+    for (OWLDataPropertyAssertionAxiom axiom : ontology.getAxioms(AxiomType.DATA_PROPERTY_ASSERTION, Imports.INCLUDED))
+      properties.computeIfAbsent(axiom.getProperty().asOWLDataProperty().getIRI(), p -> new PropertyCardinality())
+        .add(axiom.getSubject(), axiom.getObject());
+
+    for (PropertyCardinality cardinality : properties.values())
+      cardinality.freeze();
+
+    return statistics;
+  }
+
+  public int getNumberOfIndividuals()
+  {
+    return this.numberOfIndividuals;
+  }
+
+  public int getClassCardinality(IRI classIRI)
+  {
+    return this.classCardinalities.getOrDefault(classIRI, 0);
+  }
+
+  public int getPropertyCardinality(IRI propertyIRI)
+  {
+    PropertyCardinality cardinality = this.propertyCardinalities.get(propertyIRI);
+
+    return cardinality == null ? 0 : cardinality.numberOfAssertions;
+  }
+
+  public int getNumberOfDistinctSubjects(IRI propertyIRI)
+  {
+    PropertyCardinality cardinality = this.propertyCardinalities.get(propertyIRI);
+
+    return cardinality == null ? 0 : cardinality.numberOfDistinctSubjects;
+  }
+
+  public int getNumberOfDistinctObjects(IRI propertyIRI)
+  {
+    PropertyCardinality cardinality = this.propertyCardinalities.get(propertyIRI);
+
+    return cardinality == null ? 0 : cardinality.numberOfDistinctObjects;
+  }
+
+  /**
+   * The estimated number of bindings that an atom produces for each binding of the atoms evaluated before it, given
+   * which of its arguments are bound, i.e., are constants or variables bound by those atoms. An estimate below one is
+   * the fraction of bindings that the atom keeps.
+   */
+  public double estimateFanOut(SWRLAtom atom, Predicate<SWRLArgument> isBound)
+  {
+    int individuals = Math.max(1, this.numberOfIndividuals);
+
+    if (atom instanceof SWRLClassAtom) {
+      SWRLClassAtom classAtom = (SWRLClassAtom)atom;
+      double members = classAtom.getPredicate().isAnonymous() ?
+        individuals :
+        getClassCardinality(classAtom.getPredicate().asOWLClass().getIRI());
+      return isBound.test(classAtom.getArgument()) ? Math.min(1.0, members / individuals) : members;
+    } else if (atom instanceof SWRLObjectPropertyAtom || atom instanceof SWRLDataPropertyAtom) {
+      List<SWRLArgument> arguments = atomArguments(atom);
+      IRI propertyIRI = propertyIRI(atom);
+      double assertions = propertyIRI == null ? individuals : getPropertyCardinality(propertyIRI);
+      boolean subjectBound = isBound.test(arguments.get(0)), objectBound = isBound.test(arguments.get(1));
+      double subjects = propertyIRI == null ? individuals : Math.max(1, getNumberOfDistinctSubjects(propertyIRI));
+      double objects = propertyIRI == null ? individuals : Math.max(1, getNumberOfDistinctObjects(propertyIRI));
+
+      if (subjectBound && objectBound)
+        return Math.min(1.0, assertions / (subjects * objects));
+      else if (subjectBound)
+        return assertions / subjects;
+      else if (objectBound)
+        return assertions / objects;
+      else
+        return assertions;
+    } else if (atom instanceof SWRLBuiltInAtom) {
+      return atom.getAllArguments().stream().allMatch(isBound) ? DEFAULT_FILTER_SELECTIVITY : 1.0;
+    } else {
+      boolean allBound = atom.getAllArguments().stream().allMatch(isBound);
+
+      if (atom instanceof SWRLSameIndividualAtom)
+        return allBound ? 1.0 / individuals : individuals;
+      else if (atom instanceof SWRLDifferentIndividualsAtom)
+        return allBound ? 1.0 - 1.0 / individuals : individuals;
+      else
+        return allBound ? DEFAULT_FILTER_SELECTIVITY : individuals;
+    }
+  }
+
+  /**
+   * The IRIs of the variables of an atom, in argument order.
+   */
+  public static Set<IRI> getVariableIRIs(SWRLAtom atom)
+  {
+    Set<IRI> variableIRIs = new LinkedHashSet<>();
+
+    for (SWRLArgument argument : atomArguments(atom)) {
+      if (argument instanceof SWRLVariable)
+        variableIRIs.add(((SWRLVariable)argument).getIRI());
+    }
+
+    return variableIRIs;
+  }
+
+  /**
+   * The arguments of an atom in order; {@link SWRLAtom#getAllArguments()} does not promise an order.
+   */
+  static List<SWRLArgument> atomArguments(SWRLAtom atom)
+  {
+    if (atom instanceof SWRLObjectPropertyAtom) {
+      SWRLObjectPropertyAtom propertyAtom = (SWRLObjectPropertyAtom)atom;
+      return Arrays.asList(propertyAtom.getFirstArgument(), propertyAtom.getSecondArgument());
+    } else if (atom instanceof SWRLDataPropertyAtom) {
+      SWRLDataPropertyAtom propertyAtom = (SWRLDataPropertyAtom)atom;
+      return Arrays.asList(propertyAtom.getFirstArgument(), propertyAtom.getSecondArgument());
+    } else if (atom instanceof SWRLBuiltInAtom)
+      return new ArrayList<>(((SWRLBuiltInAtom)atom).getArguments());
+    else
+      return new ArrayList<>(atom.getAllArguments());
+  }
+
+  /**
+   * The IRI of the property of a property atom, or null for an inverse object property.
+   */
+  private static IRI propertyIRI(SWRLAtom atom)
+  {
+    if (atom instanceof SWRLObjectPropertyAtom) {
+      OWLObjectPropertyExpression property = ((SWRLObjectPropertyAtom)atom).getPredicate();
+      return property.isAnonymous() ? null : property.asOWLObjectProperty().getIRI();
+    } else {
+      OWLDataPropertyExpression property = ((SWRLDataPropertyAtom)atom).getPredicate();
+      return property.isAnonymous() ? null : property.asOWLDataProperty().getIRI();
+    }
+  }
+
+  private static class PropertyCardinality
+  {
+    private Set<Object> subjects = new HashSet<>();
+    private Set<Object> objects = new HashSet<>();
+    private int numberOfAssertions;
+    private int numberOfDistinctSubjects;
+    private int numberOfDistinctObjects;
+
+    private void add(Object subject, Object object)
+    {
+      this.subjects.add(subject);
+      this.objects.add(object);
+      this.numberOfAssertions++;
+    }
+
+    /**
+     * Keeps the counts of distinct subjects and objects and drops the sets they were counted with.
+     */
+    private void freeze()
+    {
+      this.numberOfDistinctSubjects = this.subjects.size();
+      this.numberOfDistinctObjects = this.objects.size();
+      this.subjects = null;
+      this.objects = null;
+    }
+  }
+}
@@ -0,0 +1,529 @@
+package org.swrlapi.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A <code>swrlm:eval</code> expression compiled once into a tree of nodes that evaluates against an array of
+ * <code>double</code> variable values.
+ * <p>
+ * The built-in library hands the expression text and the variable values to a JEP parser for every binding, which
+ * parses the text again and looks variables up by name. A compiled expression resolves each variable to a slot, the
+ * index of its name in the variable list, so that evaluating it neither parses, boxes nor looks up names. Constant
+ * subexpressions, such as <code>2 * pi</code>, are folded at compile time.
+ * <p>
+ * The grammar and precedence are those of the library's JEP configuration: numbers, variables, the constants
+ * <code>pi</code> and <code>e</code>, parentheses, unary <code>+</code>, <code>-</code> and <code>!</code>,
+ * right-associative <code>^</code>, implicit multiplication (<code>2 x</code>), <code>*</code>, <code>/</code>,
+ * <code>%</code>, <code>+</code>, <code>-</code>, the comparisons <code>&lt; &gt; &lt;= &gt;= == !=</code>, and
+ * <code>&amp;&amp;</code> and <code>||</code>, with comparisons and logical operators giving 1 or 0. The functions are
+ * JEP's standard real-valued ones: <code>sin cos tan asin acos atan atan2 sinh cosh tanh asinh acosh atanh log ln
+ * exp pow sqrt abs mod sum if round floor ceil</code>. Where JEP would produce a complex number, such as for the square
+ * root of a negative number, a compiled expression gives NaN.
+ */
+public class SWRLCompiledExpression
+{
+  private final String expression;
+  private final List<String> variableNames;
+  private final Node root;
+
+  private SWRLCompiledExpression(String expression, List<String> variableNames, Node root)
+  {
+    this.expression = expression;
+    this.variableNames = variableNames;
+    this.root = root;
+  }
+
+  /**
+   * Compiles an expression over the named variables; the value of the variable at position <code>i</code> of
+   * <code>variableNames</code> is passed at position <code>i</code> to {@link #evaluate(double...)}.
+   *
+   * @throws IllegalArgumentException if the expression is malformed or uses an unknown variable or function
+   */
+  public static SWRLCompiledExpression compile(String expression, List<String> variableNames)
+  {
+    List<String> names = Collections.unmodifiableList(new ArrayList<>(variableNames));
+    Parser parser = new Parser(expression, names);
+
+    return new SWRLCompiledExpression(expression, names, parser.parse());
+  }
+
+  /**
+   * The value of the expression for the given variable values, in the order of {@link #getVariableNames()}.
+   *
+   * @throws IllegalArgumentException if the number of values differs from the number of variables
+   */
+  public double evaluate(double... values)
+  {
+    if (values.length != this.variableNames.size())
+      throw new IllegalArgumentException(
+        "expecting " + this.variableNames.size() + " variable values for expression '" + this.expression + "'; got "
+          + values.length);
+
+    return this.root.evaluate(values);
+  }
+
+  public String getExpression()
+  {
+    return this.expression;
+  }
+
+  public List<String> getVariableNames()
+  {
+    return this.variableNames;
+  }
+
+  public boolean isConstant()
+  {
+    return this.root instanceof Constant;
+  }
+
+  @Override public String toString()
+  {
+    return this.expression + " " + this.variableNames;
+  }
+
+  private interface Node
+  {
+    double evaluate(double[] slots);
+  }
+
+  private static class Constant implements Node
+  {
+    private final double value;
+
+    private Constant(double value)
+    {
+      this.value = value;
+    }
+
+    @Override public double evaluate(double[] slots)
+    {
+      return this.value;
+    }
+  }
+
+  private static class Variable implements Node
+  {
+    private final int slot;
+
+    private Variable(int slot)
+    {
+      this.slot = slot;
+    }
+
+    @Override public double evaluate(double[] slots)
+    {
+      return slots[this.slot];
+    }
+  }
+
+  /**
+   * A recursive descent parser that builds the node tree. Each operator gets its own node lambda rather than a node
+   * that switches on an operator code.
+   */
+  private static class Parser
+  {
+    private static final double TRUE = 1.0, FALSE = 0.0;
+
+    private final String expression;
+    private final List<String> variableNames;
+
+    private int position = 0;
+
+    private Parser(String expression, List<String> variableNames)
+    {
+      this.expression = expression;
+      this.variableNames = variableNames;
+    }
+
+    private Node parse()
+    {
+      Node node = parseOr();
+
+      skipWhitespace();
+      if (this.position < this.expression.length())
+        throw error("unexpected '" + this.expression.charAt(this.position) + "'");
+
+      return node;
+    }
+
+    private Node parseOr()
+    {
+      Node node = parseAnd();
+
+      while (accept("||")) {
+        Node left = node, right = parseAnd();
+        node = fold(slots -> left.evaluate(slots) != 0.0 || right.evaluate(slots) != 0.0 ? TRUE : FALSE, left, right);
+      }
+
+      return node;
+    }
+
+    private Node parseAnd()
+    {
+      Node node = parseEquality();
+
+      while (accept("&&")) {
+        Node left = node, right = parseEquality();
+        node = fold(slots -> left.evaluate(slots) != 0.0 && right.evaluate(slots) != 0.0 ? TRUE : FALSE, left, right);
+      }
+
+      return node;
+    }
+
+    private Node parseEquality()
+    {
+      Node node = parseRelational();
+
+      while (true) {
+        Node left = node;
+        if (accept("==")) {
+          Node right = parseRelational();
+          node = fold(slots -> left.evaluate(slots) == right.evaluate(slots) ? TRUE : FALSE, left, right);
+        } else if (accept("!=")) {
+          Node right = parseRelational();
+          node = fold(slots -> left.evaluate(slots) != right.evaluate(slots) ? TRUE : FALSE, left, right);
+        } else
+          return node;
+      }
+    }
+
+    private Node parseRelational()
+    {
+      Node node = parseAdditive();
+
+      while (true) {
+        Node left = node;
+        if (accept("<=")) {
+          Node right = parseAdditive();
+          node = fold(slots -> left.evaluate(slots) <= right.evaluate(slots) ? TRUE : FALSE, left, right);
+        } else if (accept(">=")) {
+          Node right = parseAdditive();
+          node = fold(slots -> left.evaluate(slots) >= right.evaluate(slots) ? TRUE : FALSE, left, right);
+        } else if (accept("<")) {
+          Node right = parseAdditive();
+          node = fold(slots -> left.evaluate(slots) < right.evaluate(slots) ? TRUE : FALSE, left, right);
+        } else if (accept(">")) {
+          Node right = parseAdditive();
+          node = fold(slots -> left.evaluate(slots) > right.evaluate(slots) ? TRUE : FALSE, left, right);
+        } else
+          return node;
+      }
+    }
+
+    private Node parseAdditive()
+    {
+      Node node = parseMultiplicative();
+
+      while (true) {
+        Node left = node;
+        if (accept("+")) {
+          Node right = parseMultiplicative();
+          node = fold(slots -> left.evaluate(slots) + right.evaluate(slots), left, right);
+        } else if (accept("-")) {
+          Node right = parseMultiplicative();
+          node = fold(slots -> left.evaluate(slots) - right.evaluate(slots), left, right);
+        } else
+          return node;
+      }
+    }
+
+    private Node parseMultiplicative()
+    {
+      Node node = parseUnary();
+
+      while (true) {
+        Node left = node;
+        if (accept("*")) {
+          Node right = parseUnary();
+          node = fold(slots -> left.evaluate(slots) * right.evaluate(slots), left, right);
+        } else if (accept("/")) {
+          Node right = parseUnary();
+          node = fold(slots -> left.evaluate(slots) / right.evaluate(slots), left, right);
+        } else if (accept("%")) {
+          Node right = parseUnary();
+          node = fold(slots -> left.evaluate(slots) % right.evaluate(slots), left, right);
+        } else if (startsPrimary()) { // Implicit multiplication; the right operand cannot carry a sign
+          Node right = parsePower();
+          node = fold(slots -> left.evaluate(slots) * right.evaluate(slots), left, right);
+        } else
+          return node;
+      }
+    }
+
+    private Node parseUnary()
+    {
+      if (accept("+"))
+        return parseUnary();
+      else if (accept("-")) {
+        Node operand = parseUnary();
+        return fold(slots -> -operand.evaluate(slots), operand);
+      } else if (accept("!")) {
+        Node operand = parseUnary();
+        return fold(slots -> operand.evaluate(slots) == 0.0 ? TRUE : FALSE, operand);
+      } else
+        return parsePower();
+    }
+
+    private Node parsePower()
+    {
+      Node base = parsePrimary();
+
+      if (accept("^")) {
+        Node exponent = parseUnary();
+        return fold(slots -> Math.pow(base.evaluate(slots), exponent.evaluate(slots)), base, exponent);
+      } else
+        return base;
+    }
+
+    private Node parsePrimary()
+    {
+      skipWhitespace();
+
+      if (this.position >= this.expression.length())
+        throw error("unexpected end of expression");
+
+      char c = this.expression.charAt(this.position);
+
+      if (accept("(")) {
+        Node node = parseOr();
+        expect(")");
+        return node;
+      } else if (Character.isDigit(c) || c == '.')
+        return parseNumber();
+      else if (Character.isLetter(c) || c == '_') {
+        String name = parseIdentifier();
+        if (accept("("))
+          return parseFunction(name);
+
+        int slot = this.variableNames.indexOf(name);
+        if (slot != -1)
+          return new Variable(slot);
+        else if (name.equals("pi"))
+          return new Constant(Math.PI);
+        else if (name.equals("e"))
+          return new Constant(Math.E);
+        else
+          throw error("unknown variable '" + name + "'");
+      } else
+        throw error("unexpected '" + c + "'");
+    }
+
+    private Node parseFunction(String name)
+    {
+      List<Node> arguments = new ArrayList<>();
+
+      if (!accept(")")) {
+        do
+          arguments.add(parseOr());
+        while (accept(","));
+        expect(")");
+      }
+
+      switch (name) {
+      case "sin":
+        return unary(name, arguments, Math::sin);
+      case "cos":
+        return unary(name, arguments, Math::cos);
+      case "tan":
+        return unary(name, arguments, Math::tan);
+      case "asin":
+        return unary(name, arguments, Math::asin);
+      case "acos":
+        return unary(name, arguments, Math::acos);
+      case "atan":
+        return unary(name, arguments, Math::atan);
+      case "sinh":
+        return unary(name, arguments, Math::sinh);
+      case "cosh":
+        return unary(name, arguments, Math::cosh);
+      case "tanh":
+        return unary(name, arguments, Math::tanh);
+      case "asinh":
+        return unary(name, arguments, x -> Math.log(x + Math.sqrt(x * x + 1.0)));
+      case "acosh":
+        return unary(name, arguments, x -> Math.log(x + Math.sqrt(x * x - 1.0)));
+      case "atanh":
+        return unary(name, arguments, x -> 0.5 * Math.log((1.0 + x) / (1.0 - x)));
+      case "log":
+        return unary(name, arguments, Math::log10);
+      case "ln":
+        return unary(name, arguments, Math::log);
+      case "exp":
+        return unary(name, arguments, Math::exp);
+      case "sqrt":
+        return unary(name, arguments, Math::sqrt);
+      case "abs":
+        return unary(name, arguments, Math::abs);
+      case "floor":
+        return unary(name, arguments, Math::floor);
+      case "ceil":
+        return unary(name, arguments, Math::ceil);
+      case "round":
+        if (arguments.size() == 2) {
+          Node value = arguments.get(0), places = arguments.get(1);
+          return fold(slots -> {
+            double scale = Math.pow(10.0, Math.rint(places.evaluate(slots)));
+            return Math.rint(value.evaluate(slots) * scale) / scale;
+          }, value, places);
+        } else
+          return unary(name, arguments, Math::rint);
+      case "atan2": {
+        checkArity(name, arguments, 2);
+        Node y = arguments.get(0), x = arguments.get(1);
+        return fold(slots -> Math.atan2(y.evaluate(slots), x.evaluate(slots)), y, x);
+      }
+      case "pow": {
+        checkArity(name, arguments, 2);
+        Node base = arguments.get(0), exponent = arguments.get(1);
+        return fold(slots -> Math.pow(base.evaluate(slots), exponent.evaluate(slots)), base, exponent);
+      }
+      case "mod": {
+        checkArity(name, arguments, 2);
+        Node dividend = arguments.get(0), divisor = arguments.get(1);
+        return fold(slots -> dividend.evaluate(slots) % divisor.evaluate(slots), dividend, divisor);
+      }
+      case "if": {
+        checkArity(name, arguments, 3);
+        Node condition = arguments.get(0), then = arguments.get(1), otherwise = arguments.get(2);
+        return fold(slots -> condition.evaluate(slots) > 0.0 ? then.evaluate(slots) : otherwise.evaluate(slots),
+          condition, then, otherwise);
+      }
+      case "sum": {
+        if (arguments.isEmpty())
+          throw error("function 'sum' expects at least 1 argument; got 0");
+        Node[] terms = arguments.toArray(new Node[0]);
+        return fold(slots -> {
+          double sum = 0.0;
+          for (Node term : terms)
+            sum += term.evaluate(slots);
+          return sum;
+        }, terms);
+      }
+      default:
+        throw error("unknown function '" + name + "'");
+      }
+    }
+
+    private Node unary(String name, List<Node> arguments, DoubleUnaryOperator function)
+    {
+      checkArity(name, arguments, 1);
+      Node argument = arguments.get(0);
+
+      return fold(slots -> function.applyAsDouble(argument.evaluate(slots)), argument);
+    }
+
+    private void checkArity(String name, List<Node> arguments, int arity)
+    {
+      if (arguments.size() != arity)
+        throw error("function '" + name + "' expects " + arity + " argument" + (arity == 1 ? "" : "s") + "; got "
+          + arguments.size());
+    }
+
+    /**
+     * The node itself, or its value as a constant if all of its operands are constants.
+     */
+    private static Node fold(Node node, Node... operands)
+    {
+      for (Node operand : operands)
+        if (!(operand instanceof Constant))
+          return node;
+
+      return new Constant(node.evaluate(new double[0]));
+    }
+
+    private Node parseNumber()
+    {
+      int start = this.position;
+
+      while (this.position < this.expression.length() && (Character.isDigit(this.expression.charAt(this.position))
+        || this.expression.charAt(this.position) == '.'))
+        this.position++;
+
+      if (this.position < this.expression.length() && (this.expression.charAt(this.position) == 'e'
+        || this.expression.charAt(this.position) == 'E')) {
+        int exponentStart = this.position++;
+        if (this.position < this.expression.length() && (this.expression.charAt(this.position) == '+'
+          || this.expression.charAt(this.position) == '-'))
+          this.position++;
+        if (this.position < this.expression.length() && Character.isDigit(this.expression.charAt(this.position))) {
+          while (this.position < this.expression.length() && Character.isDigit(this.expression.charAt(this.position)))
+            this.position++;
+        } else
+          this.position = exponentStart; // Not an exponent: 2e is 2 times the constant e
+      }
+
+      String number = this.expression.substring(start, this.position);
+
+      try {
+        return new Constant(Double.parseDouble(number));
+      } catch (NumberFormatException e) {
+        this.position = start;
+        throw error("malformed number '" + number + "'");
+      }
+    }
+
+    private String parseIdentifier()
+    {
+      int start = this.position;
+
+      while (this.position < this.expression.length() && (
+        Character.isLetterOrDigit(this.expression.charAt(this.position))
+          || this.expression.charAt(this.position) == '_'))
+        this.position++;
+
+      return this.expression.substring(start, this.position);
+    }
+
+    private boolean startsPrimary()
+    {
+      skipWhitespace();
+
+      if (this.position >= this.expression.length())
+        return false;
+
+      char c = this.expression.charAt(this.position);
+
+      return c == '(' || c == '.' || c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    private boolean accept(String token)
+    {
+      skipWhitespace();
+
+      if (!this.expression.startsWith(token, this.position))
+        return false;
+
+      // Do not take the first character of a two-character operator as a one-character operator
+      if (token.length() == 1 && this.position + 1 < this.expression.length()) {
+        char next = this.expression.charAt(this.position + 1);
+        if ((token.equals("<") || token.equals(">") || token.equals("!")) && next == '=')
+          return false;
+      }
+
+      this.position += token.length();
+      return true;
+    }
+
+    private void expect(String token)
+    {
+      if (!accept(token))
+        throw error("expecting '" + token + "'");
+    }
+
+    private void skipWhitespace()
+    {
+      while (this.position < this.expression.length() && Character.isWhitespace(this.expression.charAt(this.position)))
+        this.position++;
+    }
+
+    private IllegalArgumentException error(String message)
+    {
+      return new IllegalArgumentException(
+        message + " at position " + this.position + " of expression '" + this.expression + "'");
+    }
+  }
+}
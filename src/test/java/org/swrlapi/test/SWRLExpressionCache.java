@@ -0,0 +1,77 @@
+package org.swrlapi.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The {@link SWRLCompiledExpression}s of <code>swrlm:eval</code> expressions, held in a {@link BoundedLruCache}.
+ * <p>
+ * An expression is keyed by its text together with its variable names in order, because the order assigns each
+ * variable its slot in the value array: <code>x - y</code> over <code>(x, y)</code> and over <code>(y, x)</code> are
+ * different compiled expressions. Compiled expressions are immutable, so one entry can be evaluated by any number of
+ * threads at once.
+ */
+public class SWRLExpressionCache
+{
+  private final BoundedLruCache<Key, SWRLCompiledExpression> expressions;
+
+  public SWRLExpressionCache(int maximumSize)
+  {
+    this.expressions = new BoundedLruCache<>(maximumSize);
+  }
+
+  /**
+   * The compiled form of an expression over the named variables.
+   *
+   * @throws IllegalArgumentException if the expression is malformed or uses an unknown variable or function
+   */
+  public SWRLCompiledExpression getExpression(String expression, List<String> variableNames)
+  {
+    return this.expressions
+      .get(new Key(expression, variableNames), key -> SWRLCompiledExpression.compile(expression, variableNames));
+  }
+
+  /**
+   * The value of the expression for the given variable values, as
+   * <code>swrlm:eval(?result, expression, ?variable, ...)</code>.
+   */
+  public double eval(String expression, List<String> variableNames, double... values)
+  {
+    return getExpression(expression, variableNames).evaluate(values);
+  }
+
+  public BoundedLruCache.Statistics getStatistics()
+  {
+    return this.expressions.getStatistics();
+  }
+
+  private static class Key
+  {
+    private final String expression;
+    private final List<String> variableNames;
+
+    private Key(String expression, List<String> variableNames)
+    {
+      this.expression = expression;
+      this.variableNames = new ArrayList<>(variableNames);
+    }
+
+    @Override public boolean equals(Object o)
+    {
+      if (this == o)
+        return true;
+      if (o == null || getClass() != o.getClass())
+        return false;
+
+      Key other = (Key)o;
+
+      return this.expression.equals(other.expression) && this.variableNames.equals(other.variableNames);
+    }
+
+    @Override public int hashCode()
+    {
+      return Objects.hash(this.expression, this.variableNames);
+    }
+  }
+}
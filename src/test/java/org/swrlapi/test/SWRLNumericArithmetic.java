@@ -0,0 +1,448 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+
+/**
+ * Evaluates the arithmetic built-ins <code>swrlb:add</code>, <code>swrlb:subtract</code>, <code>swrlb:multiply</code>,
+ * <code>swrlb:divide</code>, <code>swrlb:mod</code> and <code>swrlb:pow</code> on <code>long</code> and
+ * <code>double</code> values where the operand types allow it.
+ * <p>
+ * The built-in library converts every operand to a {@link BigDecimal}, computes in decimal and narrows the result to
+ * the widest operand type, in the order <code>xsd:byte</code>, <code>xsd:short</code>, <code>xsd:int</code>,
+ * <code>xsd:long</code>, <code>xsd:integer</code>, <code>xsd:float</code>, <code>xsd:double</code>,
+ * <code>xsd:decimal</code>. This class types results the same way but parses operands straight to primitives:
+ * <ul>
+ * <li><code>xsd:byte</code> to <code>xsd:long</code> results are computed in <code>long</code> arithmetic, whose
+ * wrap-around gives exactly the low-order bits that the library keeps when it narrows an out-of-range result.</li>
+ * <li><code>xsd:integer</code> results are computed with the overflow-checked <code>long</code> operations of
+ * {@link Math} and recomputed on {@link BigInteger} values only when an operand or an intermediate result does not fit
+ * in a <code>long</code>.</li>
+ * <li><code>xsd:float</code> and <code>xsd:double</code> results are by default computed as in the library, on
+ * {@link BigDecimal} values narrowed once at the end, so that <code>1.0 / 3.0</code> gives <code>0.3</code>, and
+ * division by zero throws an {@link ArithmeticException}. With {@link FloatingPointSemantics#IEEE} they are instead
+ * computed in IEEE arithmetic of the result type, as XPath specifies: <code>1.0 / 3.0</code> gives
+ * <code>0.3333333333333333</code>, division by zero gives an infinity, and <code>xsd:float</code> results are narrowed
+ * after every operation.</li>
+ * <li><code>xsd:decimal</code> results are computed on {@link BigDecimal} values, as in the library.</li>
+ * </ul>
+ * Quotients computed on {@link BigDecimal} values and integral quotients are rounded half up to the scale of the
+ * dividend, as in the library, and division by zero throws an {@link ArithmeticException}. Operands that have no
+ * decimal value, i.e., <code>INF</code>, <code>-INF</code> and <code>NaN</code>, are rejected unless the result is
+ * computed in IEEE arithmetic.
+ */
+public class SWRLNumericArithmetic
+{
+  /**
+   * The numeric types that the arithmetic built-ins produce, from narrowest to widest.
+   */
+  public enum NumericType
+  {
+    BYTE(OWL2Datatype.XSD_BYTE), SHORT(OWL2Datatype.XSD_SHORT), INT(OWL2Datatype.XSD_INT), LONG(OWL2Datatype.XSD_LONG),
+    INTEGER(OWL2Datatype.XSD_INTEGER), FLOAT(OWL2Datatype.XSD_FLOAT), DOUBLE(OWL2Datatype.XSD_DOUBLE),
+    DECIMAL(OWL2Datatype.XSD_DECIMAL);
+
+    private final OWL2Datatype datatype;
+
+    NumericType(OWL2Datatype datatype)
+    {
+      this.datatype = datatype;
+    }
+
+    public OWL2Datatype getDatatype()
+    {
+      return this.datatype;
+    }
+
+    public boolean isIntegral()
+    {
+      return compareTo(INTEGER) <= 0;
+    }
+  }
+
+  /**
+   * How <code>xsd:float</code> and <code>xsd:double</code> results are computed.
+   */
+  public enum FloatingPointSemantics
+  {
+    /**
+     * On {@link BigDecimal} values, as the built-in library computes them.
+     */
+    LIBRARY,
+    /**
+     * In IEEE arithmetic of the result type, as XPath specifies.
+     */
+    IEEE
+  }
+
+  private enum Operator
+  {
+    ADD, SUBTRACT, MULTIPLY, DIVIDE, MOD, POW
+  }
+
+  private static final NumericType[] NUMERIC_TYPES = NumericType.values();
+
+  private SWRLNumericArithmetic()
+  {
+  }
+
+  /**
+   * The numeric type of a literal.
+   *
+   * @throws IllegalArgumentException if the literal is not of one of the {@link NumericType}s
+   */
+  public static NumericType getNumericType(OWLLiteral literal)
+  {
+    IRI datatypeIRI = literal.getDatatype().getIRI();
+
+    for (NumericType type : NUMERIC_TYPES)
+      if (type.datatype.getIRI().equals(datatypeIRI))
+        return type;
+
+    throw new IllegalArgumentException(
+      "expecting a byte, short, int, long, integer, float, double or decimal literal; got " + literal);
+  }
+
+  /**
+   * The sum of two or more operands, as <code>swrlb:add(?result, operand, ...)</code>.
+   */
+  public static OWLLiteral add(OWLLiteral... operands)
+  {
+    return add(FloatingPointSemantics.LIBRARY, operands);
+  }
+
+  public static OWLLiteral add(FloatingPointSemantics semantics, OWLLiteral... operands)
+  {
+    return apply(semantics, Operator.ADD, operands);
+  }
+
+  /**
+   * The difference of two operands, as <code>swrlb:subtract(?result, minuend, subtrahend)</code>.
+   */
+  public static OWLLiteral subtract(OWLLiteral minuend, OWLLiteral subtrahend)
+  {
+    return subtract(FloatingPointSemantics.LIBRARY, minuend, subtrahend);
+  }
+
+  public static OWLLiteral subtract(FloatingPointSemantics semantics, OWLLiteral minuend, OWLLiteral subtrahend)
+  {
+    return apply(semantics, Operator.SUBTRACT, minuend, subtrahend);
+  }
+
+  /**
+   * The product of two or more operands, as <code>swrlb:multiply(?result, operand, ...)</code>.
+   */
+  public static OWLLiteral multiply(OWLLiteral... operands)
+  {
+    return multiply(FloatingPointSemantics.LIBRARY, operands);
+  }
+
+  public static OWLLiteral multiply(FloatingPointSemantics semantics, OWLLiteral... operands)
+  {
+    return apply(semantics, Operator.MULTIPLY, operands);
+  }
+
+  /**
+   * The quotient of two operands, as <code>swrlb:divide(?result, dividend, divisor)</code>.
+   */
+  public static OWLLiteral divide(OWLLiteral dividend, OWLLiteral divisor)
+  {
+    return divide(FloatingPointSemantics.LIBRARY, dividend, divisor);
+  }
+
+  public static OWLLiteral divide(FloatingPointSemantics semantics, OWLLiteral dividend, OWLLiteral divisor)
+  {
+    return apply(semantics, Operator.DIVIDE, dividend, divisor);
+  }
+
+  /**
+   * The remainder of truncating division, with the sign of the dividend, as
+   * <code>swrlb:mod(?result, dividend, divisor)</code>.
+   */
+  public static OWLLiteral mod(OWLLiteral dividend, OWLLiteral divisor)
+  {
+    return mod(FloatingPointSemantics.LIBRARY, dividend, divisor);
+  }
+
+  public static OWLLiteral mod(FloatingPointSemantics semantics, OWLLiteral dividend, OWLLiteral divisor)
+  {
+    return apply(semantics, Operator.MOD, dividend, divisor);
+  }
+
+  /**
+   * The base raised to an integral exponent, as <code>swrlb:pow(?result, base, exponent)</code>.
+   *
+   * @throws IllegalArgumentException if the exponent is not an integral literal in the range of an <code>int</code>
+   * @throws ArithmeticException      if the exponent is negative and the result is not computed in IEEE arithmetic
+   */
+  public static OWLLiteral pow(OWLLiteral base, OWLLiteral exponent)
+  {
+    return pow(FloatingPointSemantics.LIBRARY, base, exponent);
+  }
+
+  public static OWLLiteral pow(FloatingPointSemantics semantics, OWLLiteral base, OWLLiteral exponent)
+  {
+    if (!getNumericType(exponent).isIntegral())
+      throw new IllegalArgumentException("expecting an integral exponent; got " + exponent);
+
+    try {
+      Integer.parseInt(exponent.getLiteral());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("exponent out of int range; got " + exponent);
+    }
+
+    return apply(semantics, Operator.POW, base, exponent);
+  }
+
+  private static OWLLiteral apply(FloatingPointSemantics semantics, Operator operator, OWLLiteral... operands)
+  {
+    if (operands.length < 2)
+      throw new IllegalArgumentException("expecting at least two operands; got " + operands.length);
+
+    NumericType type = getNumericType(operands[0]);
+
+    for (int i = 1; i < operands.length; i++) {
+      NumericType operandType = getNumericType(operands[i]);
+      if (operandType.compareTo(type) > 0)
+        type = operandType;
+    }
+
+    switch (type) {
+    case BYTE:
+    case SHORT:
+    case INT:
+    case LONG: {
+      long result = Long.parseLong(operands[0].getLiteral());
+      for (int i = 1; i < operands.length; i++)
+        result = applyWrapping(operator, result, Long.parseLong(operands[i].getLiteral()));
+      return createLongLiteral(result, type);
+    }
+    case INTEGER:
+      try {
+        long result = Long.parseLong(operands[0].getLiteral());
+        for (int i = 1; i < operands.length; i++)
+          result = applyExact(operator, result, Long.parseLong(operands[i].getLiteral()));
+        return Literal(Long.toString(result), type.datatype);
+      } catch (NumberFormatException | ArithmeticException e) {
+        // An operand or a result outside the long range; integer division by zero fails again below
+        return Literal(applyDecimal(operator, operands).toBigIntegerExact().toString(), type.datatype);
+      }
+    case FLOAT:
+      if (semantics == FloatingPointSemantics.IEEE) {
+        float result = (float)parseDouble(operands[0].getLiteral());
+        for (int i = 1; i < operands.length; i++)
+          result = (float)applyDouble(operator, result, (float)parseDouble(operands[i].getLiteral()));
+        return Literal(formatDouble(result, Float.toString(result)), type.datatype);
+      } else {
+        float result = applyDecimal(operator, operands).floatValue();
+        return Literal(formatDouble(result, Float.toString(result)), type.datatype);
+      }
+    case DOUBLE:
+      if (semantics == FloatingPointSemantics.IEEE) {
+        double result = parseDouble(operands[0].getLiteral());
+        for (int i = 1; i < operands.length; i++)
+          result = applyDouble(operator, result, parseDouble(operands[i].getLiteral()));
+        return Literal(formatDouble(result, Double.toString(result)), type.datatype);
+      } else {
+        double result = applyDecimal(operator, operands).doubleValue();
+        return Literal(formatDouble(result, Double.toString(result)), type.datatype);
+      }
+    default:
+      return Literal(applyDecimal(operator, operands).toString(), type.datatype);
+    }
+  }
+
+  private static long applyWrapping(Operator operator, long a, long b)
+  {
+    switch (operator) {
+    case ADD:
+      return a + b;
+    case SUBTRACT:
+      return a - b;
+    case MULTIPLY:
+      return a * b;
+    case DIVIDE:
+      return divideHalfUp(a, b);
+    case MOD:
+      return mod(a, b);
+    default: {
+      long result = 1;
+      for (long base = a, exponent = checkExponent(b); exponent != 0; exponent >>= 1, base *= base)
+        if ((exponent & 1) != 0)
+          result *= base;
+      return result;
+    }
+    }
+  }
+
+  private static long applyExact(Operator operator, long a, long b)
+  {
+    switch (operator) {
+    case ADD:
+      return Math.addExact(a, b);
+    case SUBTRACT:
+      return Math.subtractExact(a, b);
+    case MULTIPLY:
+      return Math.multiplyExact(a, b);
+    case DIVIDE:
+      if (a == Long.MIN_VALUE && b == -1)
+        throw new ArithmeticException("long overflow");
+      return divideHalfUp(a, b);
+    case MOD:
+      return mod(a, b);
+    default: {
+      long result = 1;
+      for (long base = a, exponent = checkExponent(b); exponent != 0; exponent >>= 1) {
+        if ((exponent & 1) != 0)
+          result = Math.multiplyExact(result, base);
+        if (exponent > 1)
+          base = Math.multiplyExact(base, base);
+      }
+      return result;
+    }
+    }
+  }
+
+  private static double applyDouble(Operator operator, double a, double b)
+  {
+    switch (operator) {
+    case ADD:
+      return a + b;
+    case SUBTRACT:
+      return a - b;
+    case MULTIPLY:
+      return a * b;
+    case DIVIDE:
+      return a / b;
+    case MOD:
+      return a % b;
+    default:
+      return Math.pow(a, b);
+    }
+  }
+
+  private static BigDecimal applyDecimal(Operator operator, OWLLiteral... operands)
+  {
+    BigDecimal result = parseDecimal(operands[0]);
+
+    for (int i = 1; i < operands.length; i++) {
+      BigDecimal operand = parseDecimal(operands[i]);
+
+      switch (operator) {
+      case ADD:
+        result = result.add(operand);
+        break;
+      case SUBTRACT:
+        result = result.subtract(operand);
+        break;
+      case MULTIPLY:
+        result = result.multiply(operand);
+        break;
+      case DIVIDE:
+        if (operand.signum() == 0)
+          throw new ArithmeticException("division by zero");
+        result = result.divide(operand, RoundingMode.HALF_UP);
+        break;
+      case MOD:
+        if (operand.signum() == 0)
+          throw new ArithmeticException("division by zero");
+        result = result.remainder(operand);
+        break;
+      default:
+        result = result.pow(operand.intValueExact());
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * The quotient rounded to the nearest integer, with ties rounded away from zero.
+   */
+  private static long divideHalfUp(long a, long b)
+  {
+    if (b == 0)
+      throw new ArithmeticException("division by zero");
+
+    long quotient = a / b, remainder = a % b;
+
+    // Compare |remainder| with |b| - |remainder| as unsigned values, since |Long.MIN_VALUE| does not fit in a long
+    if (remainder != 0 && Long.compareUnsigned(Math.abs(remainder), Math.abs(b) - Math.abs(remainder)) >= 0)
+      quotient += (a < 0) == (b < 0) ? 1 : -1;
+
+    return quotient;
+  }
+
+  private static long mod(long a, long b)
+  {
+    if (b == 0)
+      throw new ArithmeticException("division by zero");
+
+    return a % b;
+  }
+
+  private static long checkExponent(long exponent)
+  {
+    if (exponent < 0)
+      throw new ArithmeticException("negative exponent for an integral or decimal result; got " + exponent);
+
+    return exponent;
+  }
+
+  private static OWLLiteral createLongLiteral(long value, NumericType type)
+  {
+    switch (type) {
+    case BYTE:
+      return Literal(Byte.toString((byte)value), type.datatype);
+    case SHORT:
+      return Literal(Short.toString((short)value), type.datatype);
+    case INT:
+      return Literal(Integer.toString((int)value), type.datatype);
+    default:
+      return Literal(Long.toString(value), type.datatype);
+    }
+  }
+
+  private static BigDecimal parseDecimal(OWLLiteral operand)
+  {
+    switch (operand.getLiteral()) {
+    case "INF":
+    case "+INF":
+    case "-INF":
+    case "NaN":
+      throw new IllegalArgumentException("operand has no decimal value; got " + operand);
+    default:
+      return new BigDecimal(operand.getLiteral());
+    }
+  }
+
+  private static double parseDouble(String lexicalForm)
+  {
+    switch (lexicalForm) {
+    case "INF":
+    case "+INF":
+      return Double.POSITIVE_INFINITY;
+    case "-INF":
+      return Double.NEGATIVE_INFINITY;
+    default:
+      return Double.parseDouble(lexicalForm);
+    }
+  }
+
+  private static String formatDouble(double value, String finiteForm)
+  {
+    if (value == Double.POSITIVE_INFINITY)
+      return "INF";
+    else if (value == Double.NEGATIVE_INFINITY)
+      return "-INF";
+    else
+      return finiteForm;
+  }
+}
@@ -0,0 +1,173 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.SWRLAtom;
+import org.semanticweb.owlapi.model.SWRLBuiltInAtom;
+import org.semanticweb.owlapi.model.SWRLDifferentIndividualsAtom;
+import org.semanticweb.owlapi.model.SWRLRule;
+import org.semanticweb.owlapi.model.SWRLSameIndividualAtom;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Groups the predicates of an ontology, i.e., its classes and properties, into components that no SWRL rule or OWL
+ * axiom connects.
+ * <p>
+ * Two predicates are connected when they appear together in a rule, which covers the rule's body and head, or
+ * together in any other axiom, such as <code>SubClassOf(A, B)</code>. Since OWL 2 RL inference instantiates its rules
+ * from the ontology's axioms, neither kind of inference can derive a fact about one component from facts about
+ * another, and components can be inferred independently. SQWRL queries do not take part in inference and are
+ * ignored. Individuals, datatypes and built-in entities such as <code>owl:Thing</code> are not predicates.
+ * <p>
+ * Some rules can reach across components and make the ontology unpartitionable: rules with
+ * <code>sameAs</code> or <code>differentFrom</code> atoms, whose consequences apply to every predicate, and rules
+ * using the ABox, TBox or RBox built-in libraries, which read the ontology directly.
+ */
+public class SWRLRuleDependencyGraph
+{
+  private static final Set<String> ONTOLOGY_READING_BUILT_IN_LIBRARIES = Collections
+    .unmodifiableSet(new HashSet<>(Arrays.asList("abox.owl#", "tbox.owl#", "rbox.owl#")));
+
+  private final Map<OWLEntity, OWLEntity> parents = new HashMap<>();
+  private final Map<OWLEntity, Integer> componentIndexes = new HashMap<>();
+  private final List<Set<OWLEntity>> components = new ArrayList<>();
+  private final Set<OWLEntity> rulePredicates = new HashSet<>();
+
+  private boolean partitionable = true;
+
+  public SWRLRuleDependencyGraph(OWLOntology ontology)
+  {
+    for (OWLAxiom axiom : ontology.getAxioms(Imports.INCLUDED)) {
+      if (IncrementalSWRLInferrer.isSQWRLQuery(axiom))
+        continue;
+
+      Set<OWLEntity> predicates = getPredicates(axiom);
+      OWLEntity first = null;
+
+      for (OWLEntity predicate : predicates) {
+        if (first == null)
+          first = find(predicate);
+        else
+          union(first, predicate);
+      }
+
+      if (axiom instanceof SWRLRule) {
+        this.rulePredicates.addAll(predicates);
+        if (readsAcrossComponents((SWRLRule)axiom))
+          this.partitionable = false;
+      }
+    }
+
+    Map<OWLEntity, Set<OWLEntity>> componentsByRoot = new HashMap<>();
+
+    for (OWLEntity predicate : this.parents.keySet())
+      componentsByRoot.computeIfAbsent(find(predicate), root -> new HashSet<>()).add(predicate);
+
+    for (Set<OWLEntity> component : componentsByRoot.values()) {
+      for (OWLEntity predicate : component)
+        this.componentIndexes.put(predicate, this.components.size());
+      this.components.add(Collections.unmodifiableSet(component));
+    }
+  }
+
+  /**
+   * Returns the classes and properties in an axiom's signature.
+   */
+  public static Set<OWLEntity> getPredicates(OWLAxiom axiom)
+  {
+    return axiom.getSignature().stream()
+      .filter(entity -> !entity.isOWLNamedIndividual() && !entity.isOWLDatatype() && !entity.isBuiltIn())
+      .collect(Collectors.toSet());
+  }
+
+  /**
+   * Returns true if no rule in the ontology can derive facts outside its own component.
+   */
+  public boolean isPartitionable()
+  {
+    return this.partitionable;
+  }
+
+  public int getNumberOfComponents()
+  {
+    return this.components.size();
+  }
+
+  /**
+   * Returns the number of components that contain a predicate used by at least one rule.
+   */
+  public int getNumberOfRuleComponents()
+  {
+    return (int)this.components.stream().filter(this::hasRules).count();
+  }
+
+  public List<Set<OWLEntity>> getComponents()
+  {
+    return Collections.unmodifiableList(this.components);
+  }
+
+  /**
+   * Returns the index in {@link #getComponents()} of a predicate's component, or -1 if the ontology does not use it.
+   */
+  public int getComponentIndex(OWLEntity predicate)
+  {
+    return this.componentIndexes.getOrDefault(predicate, -1);
+  }
+
+  public boolean hasRules(Set<OWLEntity> component)
+  {
+    return component.stream().anyMatch(this.rulePredicates::contains);
+  }
+
+  private static boolean readsAcrossComponents(SWRLRule rule)
+  {
+    List<SWRLAtom> atoms = new ArrayList<>(rule.getBody());
+
+    atoms.addAll(rule.getHead());
+
+    for (SWRLAtom atom : atoms) {
+      if (atom instanceof SWRLSameIndividualAtom || atom instanceof SWRLDifferentIndividualsAtom)
+        return true;
+      if (atom instanceof SWRLBuiltInAtom) {
+        String builtInIRI = ((SWRLBuiltInAtom)atom).getPredicate().toString();
+        String namespace = builtInIRI.substring(0, builtInIRI.indexOf('#') + 1);
+        if (ONTOLOGY_READING_BUILT_IN_LIBRARIES.stream().anyMatch(namespace::endsWith))
+          return true;
+      }
+    }
+    return false;
+  }
+
+  private OWLEntity find(OWLEntity predicate)
+  {
+    OWLEntity current = predicate;
+    OWLEntity parent = this.parents.putIfAbsent(current, current);
+
+    while (parent != null && !parent.equals(current)) {
+      OWLEntity grandparent = this.parents.get(parent);
+      this.parents.put(current, grandparent);
+      current = grandparent;
+      parent = this.parents.get(current);
+    }
+    return current;
+  }
+
+  private void union(OWLEntity root, OWLEntity predicate)
+  {
+    OWLEntity otherRoot = find(predicate);
+
+    if (!otherRoot.equals(root))
+      this.parents.put(otherRoot, find(root));
+  }
+}
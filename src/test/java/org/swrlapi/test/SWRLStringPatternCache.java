@@ -0,0 +1,261 @@
+package org.swrlapi.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Two {@link BoundedLruCache}s, one of compiled regular expressions and one of character translation tables, for the
+ * string built-ins <code>swrlb:matches</code>, <code>swrlb:replace</code> and <code>swrlb:tokenize</code>.
+ * <p>
+ * The built-in library compiles the regular expression of <code>swrlb:matches</code> and <code>swrlb:replace</code>
+ * for every binding that it is invoked with, although a rule almost always applies one constant pattern to many
+ * values. {@link #matches(String, String)}, {@link #replace(String, String, String)} and
+ * {@link #tokenize(String, String)} give the same results as those built-ins but compile each pattern or delimiter set
+ * once. Patterns are keyed by their text and {@link Pattern} flags, and character tables by their map and translation
+ * strings.
+ * <p>
+ * {@link #translate(String, String, String)} follows XPath <code>fn:translate</code>, which maps single characters.
+ * The engine's <code>swrlb:translate</code> does not: it is {@link String#replace(CharSequence, CharSequence)}, which
+ * replaces every occurrence of the whole map string with the whole translation string, so the two differ whenever the
+ * map string is not found verbatim.
+ */
+public class SWRLStringPatternCache
+{
+  public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+  private static final SWRLStringPatternCache SHARED_CACHE = new SWRLStringPatternCache(DEFAULT_MAXIMUM_SIZE);
+
+  private final BoundedLruCache<PatternKey, Pattern> patterns;
+  private final BoundedLruCache<TranslationKey, TranslationTable> translationTables;
+
+  /**
+   * A cache that holds at most <code>maximumSize</code> patterns and, separately, as many translation tables.
+   */
+  public SWRLStringPatternCache(int maximumSize)
+  {
+    this.patterns = new BoundedLruCache<>(maximumSize);
+    this.translationTables = new BoundedLruCache<>(maximumSize);
+  }
+
+  /**
+   * The cache shared by all callers in the JVM.
+   */
+  public static SWRLStringPatternCache getSharedCache()
+  {
+    return SHARED_CACHE;
+  }
+
+  /**
+   * The compiled form of a regular expression with the given {@link Pattern} flags.
+   *
+   * @throws java.util.regex.PatternSyntaxException if the regular expression is invalid
+   */
+  public Pattern getPattern(String regex, int flags)
+  {
+    return this.patterns.get(new PatternKey(regex, flags), key -> Pattern.compile(regex, flags));
+  }
+
+  /**
+   * The table that maps each character of <code>mapString</code> to the character at the same position of
+   * <code>transString</code>, or removes it if <code>transString</code> is shorter.
+   */
+  public TranslationTable getTranslationTable(String mapString, String transString)
+  {
+    return this.translationTables
+      .get(new TranslationKey(mapString, transString), key -> new TranslationTable(mapString, transString));
+  }
+
+  /**
+   * True if the regular expression matches the whole input, as <code>swrlb:matches(input, regex)</code>.
+   */
+  public boolean matches(String input, String regex)
+  {
+    return getPattern(regex, 0).matcher(input).matches();
+  }
+
+  /**
+   * The input with every match of the regular expression replaced, as
+   * <code>swrlb:replace(?result, input, regex, replacement)</code>.
+   */
+  public String replace(String input, String regex, String replacement)
+  {
+    return getPattern(regex, 0).matcher(input).replaceAll(replacement);
+  }
+
+  /**
+   * The tokens of the trimmed input separated by runs of the delimiter characters, as
+   * <code>swrlb:tokenize(?token, input, delimiters)</code>.
+   */
+  public List<String> tokenize(String input, String delimiters)
+  {
+    TranslationTable delimiterTable = getTranslationTable(delimiters, "");
+    String trimmed = input.trim();
+    List<String> tokens = new ArrayList<>();
+    int start = -1;
+
+    for (int i = 0; i < trimmed.length(); ) {
+      int codePoint = trimmed.codePointAt(i);
+
+      if (delimiterTable.isMapped(codePoint)) {
+        if (start >= 0)
+          tokens.add(trimmed.substring(start, i));
+        start = -1;
+      } else if (start < 0)
+        start = i;
+      i += Character.charCount(codePoint);
+    }
+    if (start >= 0)
+      tokens.add(trimmed.substring(start));
+
+    return tokens;
+  }
+
+  /**
+   * The input with its characters mapped as XPath <code>fn:translate(input, mapString, transString)</code>, which is
+   * not what the engine's <code>swrlb:translate</code> computes.
+   */
+  public String translate(String input, String mapString, String transString)
+  {
+    return getTranslationTable(mapString, transString).translate(input);
+  }
+
+  public BoundedLruCache.Statistics getPatternStatistics()
+  {
+    return this.patterns.getStatistics();
+  }
+
+  public BoundedLruCache.Statistics getTranslationTableStatistics()
+  {
+    return this.translationTables.getStatistics();
+  }
+
+  /**
+   * Maps characters to replacement characters or to nothing; unmapped characters are kept. ASCII characters are looked
+   * up in an array.
+   */
+  public static class TranslationTable
+  {
+    private static final int KEEP = -1;
+    private static final int REMOVE = -2;
+    private static final int ASCII_SIZE = 128;
+
+    private final int[] asciiMappings = new int[ASCII_SIZE];
+    private final Map<Integer, Integer> otherMappings = new HashMap<>();
+
+    private TranslationTable(String mapString, String transString)
+    {
+      int[] transCodePoints = transString.codePoints().toArray();
+      int position = 0;
+
+      Arrays.fill(this.asciiMappings, KEEP);
+
+      for (int codePoint : mapString.codePoints().toArray()) {
+        int mapping = position < transCodePoints.length ? transCodePoints[position] : REMOVE;
+
+        if (getMapping(codePoint) == KEEP) { // The first occurrence in the map string wins
+          if (codePoint < ASCII_SIZE)
+            this.asciiMappings[codePoint] = mapping;
+          else
+            this.otherMappings.put(codePoint, mapping);
+        }
+        position++;
+      }
+    }
+
+    public boolean isMapped(int codePoint)
+    {
+      return getMapping(codePoint) != KEEP;
+    }
+
+    public String translate(String input)
+    {
+      StringBuilder sb = null;
+
+      for (int i = 0; i < input.length(); ) {
+        int codePoint = input.codePointAt(i);
+        int mapping = getMapping(codePoint);
+
+        if (mapping != KEEP && sb == null)
+          sb = new StringBuilder(input.length()).append(input, 0, i);
+
+        if (sb != null) {
+          if (mapping == KEEP)
+            sb.appendCodePoint(codePoint);
+          else if (mapping != REMOVE)
+            sb.appendCodePoint(mapping);
+        }
+        i += Character.charCount(codePoint);
+      }
+
+      return sb == null ? input : sb.toString();
+    }
+
+    private int getMapping(int codePoint)
+    {
+      return codePoint < ASCII_SIZE ? this.asciiMappings[codePoint] : this.otherMappings.getOrDefault(codePoint, KEEP);
+    }
+  }
+
+  private static class PatternKey
+  {
+    private final String regex;
+    private final int flags;
+
+    private PatternKey(String regex, int flags)
+    {
+      this.regex = regex;
+      this.flags = flags;
+    }
+
+    @Override public boolean equals(Object o)
+    {
+      if (this == o)
+        return true;
+      if (o == null || getClass() != o.getClass())
+        return false;
+
+      PatternKey other = (PatternKey)o;
+
+      return this.flags == other.flags && this.regex.equals(other.regex);
+    }
+
+    @Override public int hashCode()
+    {
+      return 31 * this.regex.hashCode() + this.flags;
+    }
+  }
+
+  private static class TranslationKey
+  {
+    private final String mapString;
+    private final String transString;
+
+    private TranslationKey(String mapString, String transString)
+    {
+      this.mapString = mapString;
+      this.transString = transString;
+    }
+
+    @Override public boolean equals(Object o)
+    {
+      if (this == o)
+        return true;
+      if (o == null || getClass() != o.getClass())
+        return false;
+
+      TranslationKey other = (TranslationKey)o;
+
+      return this.mapString.equals(other.mapString) && this.transString.equals(other.transString);
+    }
+
+    @Override public int hashCode()
+    {
+      return Objects.hash(this.mapString, this.transString);
+    }
+  }
+}
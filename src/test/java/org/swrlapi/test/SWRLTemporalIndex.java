@@ -0,0 +1,312 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.vocab.XSDVocabulary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A sorted index over the <code>xsd:date</code>, <code>xsd:dateTime</code> and <code>xsd:dateTimeStamp</code> values of
+ * a data property that answers <code>temporal:before</code>, <code>temporal:after</code> and
+ * <code>temporal:during</code> questions about those values with range scans.
+ * <p>
+ * In a query such as <code>hasTime(?e, ?t) ^ temporal:before(?t, "2020-01-01", "Years")</code>, the built-in is a
+ * filter over every binding of <code>?t</code>. The temporal library compares instants by their number of granules
+ * since year 0. Whole granules are contiguous, so each question is a half-open range of instants, found by binary
+ * search over the sorted values:
+ * <ul>
+ * <li><code>before(t, b, g)</code> holds iff <code>t</code> is earlier than the start of the granule of
+ * <code>b</code>;</li>
+ * <li><code>after(t, b, g)</code> holds iff <code>t</code> is no earlier than the start of the granule after that of
+ * <code>b</code>;</li>
+ * <li><code>during(t, s, f, g)</code> holds iff <code>t</code> lies from the start of the granule of <code>s</code> up
+ * to the end of the granule of <code>f</code>, unless <code>s</code> and <code>f</code> share a granule, in which case
+ * the built-in finds the instant equal to the period and nothing is during it.</li>
+ * </ul>
+ * Values are placed at their UTC instant and granules follow the proleptic Gregorian calendar in UTC. The temporal
+ * library ignores timezones, so the two agree for values without one.
+ * <p>
+ * Values can be added incrementally; the index is sorted lazily on the next question after an addition.
+ */
+public class SWRLTemporalIndex
+{
+  /**
+   * The granularities of the temporal built-ins, which name them by {@link #getName()}.
+   */
+  public enum Granularity
+  {
+    YEARS("Years", 0), MONTHS("Months", 0), DAYS("Days", 86400000L), HOURS("Hours", 3600000L),
+    MINUTES("Minutes", 60000L), SECONDS("Seconds", 1000L), MILLISECONDS("Milliseconds", 1L);
+
+    private final String name;
+    private final long millis;
+
+    Granularity(String name, long millis)
+    {
+      this.name = name;
+      this.millis = millis;
+    }
+
+    /**
+     * The granularity with a name as written in a temporal built-in argument, ignoring case.
+     *
+     * @throws IllegalArgumentException if there is no granularity with the name
+     */
+    public static Granularity fromName(String name)
+    {
+      for (Granularity granularity : values()) {
+        if (granularity.name.equalsIgnoreCase(name))
+          return granularity;
+      }
+      throw new IllegalArgumentException(
+        "unknown granularity '" + name + "'; expecting Years, Months, Days, Hours, Minutes, Seconds or Milliseconds");
+    }
+
+    public String getName()
+    {
+      return this.name;
+    }
+
+    /**
+     * The first millisecond of the granule that contains an instant.
+     */
+    long granuleStart(long epochMillis)
+    {
+      if (this.millis != 0)
+        return epochMillis - Math.floorMod(epochMillis, this.millis);
+
+      LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(epochMillis, Granularity.DAYS.millis));
+
+      date = this == YEARS ? date.withDayOfYear(1) : date.withDayOfMonth(1);
+
+      return date.toEpochDay() * Granularity.DAYS.millis;
+    }
+
+    /**
+     * The first millisecond of the granule after the one that contains an instant.
+     */
+    long nextGranuleStart(long epochMillis)
+    {
+      long start = granuleStart(epochMillis);
+
+      if (this.millis != 0)
+        return start + this.millis;
+
+      LocalDate date = LocalDate.ofEpochDay(start / Granularity.DAYS.millis);
+
+      date = this == YEARS ? date.plusYears(1) : date.plusMonths(1);
+
+      return date.toEpochDay() * Granularity.DAYS.millis;
+    }
+  }
+
+  private final OWLDataProperty property;
+  private final List<Entry> entries = new ArrayList<>();
+  private final Set<Entry> entrySet = new HashSet<>();
+
+  private boolean sorted = true;
+  private long[] instants = new long[0];
+  private OWLNamedIndividual[] subjects = new OWLNamedIndividual[0];
+
+  public SWRLTemporalIndex(OWLDataProperty property)
+  {
+    this.property = property;
+  }
+
+  /**
+   * Indexes every assertion of a property with a named subject and an <code>xsd:date</code>, <code>xsd:dateTime</code>
+   * or <code>xsd:dateTimeStamp</code> value in an ontology and its imports. Values of other datatypes are skipped.
+   *
+   * @throws IllegalArgumentException if an indexed value has an invalid lexical form
+   */
+  public static SWRLTemporalIndex fromOntology(OWLOntology ontology, OWLDataProperty property)
+  {
+    SWRLTemporalIndex index = new SWRLTemporalIndex(property);
+
+    for (OWLDataPropertyAssertionAxiom axiom : ontology
+      .getAxioms(AxiomType.DATA_PROPERTY_ASSERTION, Imports.INCLUDED)) {
+      if (axiom.getProperty().equals(property) && axiom.getSubject().isNamed() && isInstant(axiom.getObject()))
+        index.add(axiom.getSubject().asOWLNamedIndividual(), axiom.getObject());
+    }
+
+    return index;
+  }
+
+  public OWLDataProperty getProperty()
+  {
+    return this.property;
+  }
+
+  /**
+   * Records the assertion <code>p(subject, value)</code>.
+   *
+   * @return true if the subject did not already have a value at the same instant
+   * @throws IllegalArgumentException if the value is not a valid date, dateTime or dateTimeStamp literal
+   */
+  public boolean add(OWLNamedIndividual subject, OWLLiteral value)
+  {
+    if (!isInstant(value))
+      throw new IllegalArgumentException("expecting a date, dateTime or dateTimeStamp literal; got " + value);
+
+    Entry entry = new Entry(subject, SWRLTemporalValue.of(value).getMillis());
+
+    if (!this.entrySet.add(entry))
+      return false;
+
+    this.entries.add(entry);
+    this.sorted = false;
+
+    return true;
+  }
+
+  /**
+   * Returns every subject with a value <code>?t</code> such that <code>temporal:before(?t, bound, granularity)</code>,
+   * earliest value first.
+   */
+  public Set<OWLNamedIndividual> getBefore(SWRLTemporalValue bound, Granularity granularity)
+  {
+    return getSubjects(0, lowerBound(granularity.granuleStart(instant(bound))));
+  }
+
+  /**
+   * Returns every subject with a value <code>?t</code> such that <code>temporal:after(?t, bound, granularity)</code>,
+   * earliest value first.
+   */
+  public Set<OWLNamedIndividual> getAfter(SWRLTemporalValue bound, Granularity granularity)
+  {
+    return getSubjects(lowerBound(granularity.nextGranuleStart(instant(bound))), size());
+  }
+
+  /**
+   * Returns every subject with a value <code>?t</code> such that
+   * <code>temporal:during(?t, start, finish, granularity)</code>, earliest value first.
+   *
+   * @throws IllegalArgumentException if the start is in a later granule than the finish
+   */
+  public Set<OWLNamedIndividual> getDuring(SWRLTemporalValue start, SWRLTemporalValue finish, Granularity granularity)
+  {
+    long from = granularity.granuleStart(instant(start)), to = granularity.granuleStart(instant(finish));
+
+    if (from > to)
+      throw new IllegalArgumentException("start " + start + " is after finish " + finish);
+    else if (from == to)
+      return new LinkedHashSet<>();
+    else
+      return getSubjects(lowerBound(from), lowerBound(granularity.nextGranuleStart(to)));
+  }
+
+  public int getNumberOfValues()
+  {
+    return this.entries.size();
+  }
+
+  private static boolean isInstant(OWLLiteral literal)
+  {
+    IRI datatypeIRI = literal.getDatatype().getIRI();
+
+    return datatypeIRI.equals(XSDVocabulary.DATE_TIME.getIRI()) || datatypeIRI.equals(XSDVocabulary.DATE.getIRI())
+      || datatypeIRI.equals(XSDVocabulary.DATE_TIME_STAMP.getIRI());
+  }
+
+  private static long instant(SWRLTemporalValue value)
+  {
+    if (value.getKind() != SWRLTemporalValue.Kind.DATE && value.getKind() != SWRLTemporalValue.Kind.DATE_TIME)
+      throw new IllegalArgumentException("expecting a date or dateTime value; got " + value);
+
+    return value.getMillis();
+  }
+
+  private int size()
+  {
+    sort();
+
+    return this.instants.length;
+  }
+
+  /**
+   * The position of the first value at or after an instant.
+   */
+  private int lowerBound(long epochMillis)
+  {
+    int low = 0, high = size();
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (this.instants[middle] < epochMillis)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+    return low;
+  }
+
+  private Set<OWLNamedIndividual> getSubjects(int from, int to)
+  {
+    Set<OWLNamedIndividual> subjects = new LinkedHashSet<>();
+
+    for (int position = from; position < to; position++)
+      subjects.add(this.subjects[position]);
+
+    return subjects;
+  }
+
+  private void sort()
+  {
+    if (this.sorted)
+      return;
+
+    int n = this.entries.size();
+
+    this.entries.sort(Comparator.comparingLong(entry -> entry.instant));
+    this.instants = new long[n];
+    this.subjects = new OWLNamedIndividual[n];
+    for (int position = 0; position < n; position++) {
+      this.instants[position] = this.entries.get(position).instant;
+      this.subjects[position] = this.entries.get(position).subject;
+    }
+    this.sorted = true;
+  }
+
+  private static final class Entry
+  {
+    private final OWLNamedIndividual subject;
+    private final long instant;
+
+    private Entry(OWLNamedIndividual subject, long instant)
+    {
+      this.subject = subject;
+      this.instant = instant;
+    }
+
+    @Override public boolean equals(Object o)
+    {
+      if (this == o)
+        return true;
+      if (o == null || getClass() != o.getClass())
+        return false;
+
+      Entry other = (Entry)o;
+
+      return this.instant == other.instant && this.subject.equals(other.subject);
+    }
+
+    @Override public int hashCode()
+    {
+      return Objects.hash(this.subject, this.instant);
+    }
+  }
+}
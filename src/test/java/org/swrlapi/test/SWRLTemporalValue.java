@@ -0,0 +1,763 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.XSDVocabulary;
+
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * An <code>xsd:date</code>, <code>xsd:dateTime</code>, <code>xsd:time</code> or <code>xsd:duration</code> value held
+ * as integers, so that comparisons and duration arithmetic are integer operations.
+ * <p>
+ * {@link org.swrlapi.literal.XSDDateTime} and its siblings keep the lexical form and parse it again, through
+ * {@link java.text.SimpleDateFormat} or Axis types, whenever they are compared. A temporal value is parsed once by a
+ * hand-written ISO 8601 scanner into a canonical form:
+ * <ul>
+ * <li>dates and date-times are the milliseconds since 1970-01-01T00:00:00Z of their first instant, plus nanoseconds
+ * within the millisecond; values without a timezone are taken to be in UTC;</li>
+ * <li>times are the milliseconds since midnight UTC, plus nanoseconds within the millisecond;</li>
+ * <li>durations are a signed number of months plus a signed number of milliseconds and nanoseconds.</li>
+ * </ul>
+ * Nanoseconds are always in <code>[0, 999999]</code>, so that the value of the millisecond and nanosecond pair is
+ * <code>millis * 10^6 + nanos</code> for negative values too. Fractional seconds beyond nine digits are truncated.
+ * <p>
+ * Dates, date-times and times are totally ordered within their kind. Durations are only partially ordered, as XSD
+ * specifies: one duration is less than another if it is less when added to each of the date-times 1696-09-01,
+ * 1697-02-01, 1903-03-01 and 1903-07-01 in UTC, so that <code>P1M</code> is less than <code>P40D</code>, but the order
+ * of <code>P1M</code> and <code>P30D</code> is indeterminate. Two durations are equal only if their months and their
+ * day-time parts are equal.
+ */
+public final class SWRLTemporalValue implements Comparable<SWRLTemporalValue>
+{
+  public enum Kind
+  {
+    DATE, DATE_TIME, TIME, DURATION
+  }
+
+  public static final int NO_TIMEZONE = Integer.MIN_VALUE;
+
+  private static final long MILLIS_PER_DAY = 86400000L;
+  private static final int NANOS_PER_MILLI = 1000000;
+  private static final long MAXIMUM_YEAR = 292278993L;
+  private static final int[] DAYS_IN_MONTH = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+  private static final SWRLTemporalValue[] REFERENCE_DATE_TIMES = {
+    parse("1696-09-01T00:00:00Z", Kind.DATE_TIME), parse("1697-02-01T00:00:00Z", Kind.DATE_TIME),
+    parse("1903-03-01T00:00:00Z", Kind.DATE_TIME), parse("1903-07-01T00:00:00Z", Kind.DATE_TIME) };
+
+  private final Kind kind;
+  private final long months;
+  private final long millis;
+  private final int nanos;
+  private final int timezoneOffsetMinutes;
+
+  private SWRLTemporalValue(Kind kind, long months, long millis, int nanos, int timezoneOffsetMinutes)
+  {
+    this.kind = kind;
+    this.months = months;
+    this.millis = millis;
+    this.nanos = nanos;
+    this.timezoneOffsetMinutes = timezoneOffsetMinutes;
+  }
+
+  /**
+   * The value of an <code>xsd:date</code>, <code>xsd:dateTime</code>, <code>xsd:dateTimeStamp</code>,
+   * <code>xsd:time</code> or <code>xsd:duration</code> literal.
+   *
+   * @throws IllegalArgumentException if the literal is of another datatype or its lexical form is invalid
+   */
+  public static SWRLTemporalValue of(OWLLiteral literal)
+  {
+    IRI datatypeIRI = literal.getDatatype().getIRI();
+
+    if (datatypeIRI.equals(XSDVocabulary.DATE_TIME.getIRI()))
+      return parse(literal.getLiteral(), Kind.DATE_TIME);
+    else if (datatypeIRI.equals(XSDVocabulary.DATE.getIRI()))
+      return parse(literal.getLiteral(), Kind.DATE);
+    else if (datatypeIRI.equals(XSDVocabulary.TIME.getIRI()))
+      return parse(literal.getLiteral(), Kind.TIME);
+    else if (datatypeIRI.equals(XSDVocabulary.DURATION.getIRI()))
+      return parse(literal.getLiteral(), Kind.DURATION);
+    else if (datatypeIRI.equals(XSDVocabulary.DATE_TIME_STAMP.getIRI())) {
+      SWRLTemporalValue value = parse(literal.getLiteral(), Kind.DATE_TIME);
+      if (!value.hasTimezone())
+        throw new IllegalArgumentException("invalid xsd:dateTimeStamp lexical form '" + literal.getLiteral() + "'");
+      return value;
+    } else
+      throw new IllegalArgumentException("expecting a date, dateTime, dateTimeStamp, time or duration literal; got "
+        + literal);
+  }
+
+  /**
+   * The value of a lexical form of the given kind.
+   *
+   * @throws IllegalArgumentException if the lexical form is invalid
+   */
+  public static SWRLTemporalValue parse(String lexicalForm, Kind kind)
+  {
+    Scanner scanner = new Scanner(lexicalForm, kind);
+    SWRLTemporalValue value;
+
+    switch (kind) {
+    case DATE:
+      value = scanner.scanDate();
+      break;
+    case DATE_TIME:
+      value = scanner.scanDateTime();
+      break;
+    case TIME:
+      value = scanner.scanTime();
+      break;
+    default:
+      value = scanner.scanDuration();
+    }
+    scanner.expectEnd();
+
+    return value;
+  }
+
+  public Kind getKind()
+  {
+    return this.kind;
+  }
+
+  /**
+   * For a date or date-time, the milliseconds since the epoch; for a time, the milliseconds since midnight UTC; for a
+   * duration, the milliseconds of its day-time part.
+   */
+  public long getMillis()
+  {
+    return this.millis;
+  }
+
+  /**
+   * The nanoseconds within the millisecond, from 0 to 999999.
+   */
+  public int getNanos()
+  {
+    return this.nanos;
+  }
+
+  /**
+   * The months of a duration's year-month part; 0 for other kinds.
+   */
+  public long getMonths()
+  {
+    return this.months;
+  }
+
+  public boolean hasTimezone()
+  {
+    return this.timezoneOffsetMinutes != NO_TIMEZONE;
+  }
+
+  /**
+   * The timezone offset of the lexical form in minutes, or {@link #NO_TIMEZONE}. The offset is already applied to
+   * {@link #getMillis()}; it is kept only to render the value in its own timezone.
+   */
+  public int getTimezoneOffsetMinutes()
+  {
+    return this.timezoneOffsetMinutes;
+  }
+
+  /**
+   * This date, date-time or time moved by a duration, or the sum of two durations. Months are added to the year and
+   * month of a date or date-time in its own timezone, with the day of month pinned to the length of the resulting
+   * month, before the day-time part is added; times ignore months and wrap around midnight. A date keeps only the day
+   * of the result.
+   *
+   * @throws IllegalArgumentException if the argument is not a duration
+   * @throws ArithmeticException      if the result is out of range
+   */
+  public SWRLTemporalValue plus(SWRLTemporalValue duration)
+  {
+    if (duration.kind != Kind.DURATION)
+      throw new IllegalArgumentException("expecting a duration; got " + duration.kind);
+
+    long sumNanos = (long)this.nanos + duration.nanos;
+    long sumMillis = Math.addExact(this.millis, duration.millis) + sumNanos / NANOS_PER_MILLI;
+    int resultNanos = (int)(sumNanos % NANOS_PER_MILLI);
+
+    switch (this.kind) {
+    case DURATION: {
+      long sumMonths = Math.addExact(this.months, duration.months);
+      if ((sumMonths > 0 && sumMillis < 0) || (sumMonths < 0 && (sumMillis > 0 || resultNanos > 0)))
+        throw new IllegalArgumentException(
+          "sum of " + this + " and " + duration + " has year-month and day-time parts of opposite signs");
+      return new SWRLTemporalValue(Kind.DURATION, sumMonths, sumMillis, resultNanos, NO_TIMEZONE);
+    }
+    case TIME:
+      return new SWRLTemporalValue(Kind.TIME, 0, Math.floorMod(sumMillis, MILLIS_PER_DAY), resultNanos,
+        this.timezoneOffsetMinutes);
+    default: {
+      long offsetMillis = hasTimezone() ? this.timezoneOffsetMinutes * 60000L : 0;
+      long local = this.millis + offsetMillis;
+
+      if (duration.months != 0) {
+        long days = Math.floorDiv(local, MILLIS_PER_DAY), millisOfDay = Math.floorMod(local, MILLIS_PER_DAY);
+        long[] civil = civilFromDays(days);
+        long monthIndex = Math.addExact(Math.multiplyExact(civil[0], 12L) + civil[1] - 1, duration.months);
+        long year = Math.floorDiv(monthIndex, 12L);
+        int month = (int)Math.floorMod(monthIndex, 12L) + 1;
+        int day = (int)Math.min(civil[2], daysInMonth(year, month));
+
+        checkYear(year);
+        local = daysFromCivil(year, month, day) * MILLIS_PER_DAY + millisOfDay;
+      }
+
+      local = Math.addExact(local, duration.millis) + sumNanos / NANOS_PER_MILLI;
+
+      if (this.kind == Kind.DATE)
+        return new SWRLTemporalValue(Kind.DATE, 0, Math.floorDiv(local, MILLIS_PER_DAY) * MILLIS_PER_DAY - offsetMillis,
+          0, this.timezoneOffsetMinutes);
+      else
+        return new SWRLTemporalValue(Kind.DATE_TIME, 0, local - offsetMillis, resultNanos,
+          this.timezoneOffsetMinutes);
+    }
+    }
+  }
+
+  /**
+   * This value moved back by a duration, or, for two values of the same kind, the duration from the argument to this
+   * value. The difference of two dates, date-times or times is a day-time duration.
+   *
+   * @throws IllegalArgumentException if the argument is neither a duration nor of the same kind
+   */
+  public SWRLTemporalValue minus(SWRLTemporalValue other)
+  {
+    if (other.kind == Kind.DURATION)
+      return plus(other.negate());
+    else if (other.kind != this.kind)
+      throw new IllegalArgumentException("cannot subtract a " + other.kind + " from a " + this.kind);
+
+    long differenceNanos = (long)this.nanos - other.nanos;
+    long differenceMillis =
+      Math.subtractExact(this.millis, other.millis) + Math.floorDiv(differenceNanos, NANOS_PER_MILLI);
+
+    return new SWRLTemporalValue(Kind.DURATION, 0, differenceMillis,
+      (int)Math.floorMod(differenceNanos, (long)NANOS_PER_MILLI), NO_TIMEZONE);
+  }
+
+  /**
+   * The duration with the opposite sign.
+   *
+   * @throws IllegalArgumentException if this value is not a duration
+   */
+  public SWRLTemporalValue negate()
+  {
+    if (this.kind != Kind.DURATION)
+      throw new IllegalArgumentException("expecting a duration; got " + this.kind);
+
+    return this.nanos == 0 ?
+      new SWRLTemporalValue(Kind.DURATION, -this.months, Math.negateExact(this.millis), 0, NO_TIMEZONE) :
+      new SWRLTemporalValue(Kind.DURATION, -this.months, -this.millis - 1, NANOS_PER_MILLI - this.nanos, NO_TIMEZONE);
+  }
+
+  /**
+   * @throws IllegalArgumentException if the values are of different kinds, or are durations whose order is
+   *                                  indeterminate
+   * @see #partialCompareTo(SWRLTemporalValue)
+   */
+  @Override public int compareTo(SWRLTemporalValue other)
+  {
+    OptionalInt comparison = partialCompareTo(other);
+
+    if (!comparison.isPresent())
+      throw new IllegalArgumentException("order of " + this + " and " + other + " is indeterminate");
+
+    return comparison.getAsInt();
+  }
+
+  /**
+   * Compares two values of the same kind; for two durations whose order is indeterminate, returns an empty result.
+   * Durations with different months are compared by adding each to the four reference date-times; their order is
+   * determinate if it is the same, and not equal, at every reference date-time.
+   *
+   * @throws IllegalArgumentException if the values are of different kinds
+   * @throws ArithmeticException      if a duration moves a reference date-time out of range
+   */
+  public OptionalInt partialCompareTo(SWRLTemporalValue other)
+  {
+    if (other.kind != this.kind)
+      throw new IllegalArgumentException("cannot compare a " + this.kind + " with a " + other.kind);
+
+    if (this.months == other.months)
+      return OptionalInt.of(compareInstants(this, other));
+
+    int comparison = 0;
+
+    for (SWRLTemporalValue referenceDateTime : REFERENCE_DATE_TIMES) {
+      int referenceComparison =
+        Integer.signum(compareInstants(referenceDateTime.plus(this), referenceDateTime.plus(other)));
+      if (referenceComparison == 0 || (comparison != 0 && referenceComparison != comparison))
+        return OptionalInt.empty();
+      comparison = referenceComparison;
+    }
+
+    return OptionalInt.of(comparison);
+  }
+
+  private static int compareInstants(SWRLTemporalValue value1, SWRLTemporalValue value2)
+  {
+    int comparison = Long.compare(value1.millis, value2.millis);
+
+    return comparison != 0 ? comparison : Integer.compare(value1.nanos, value2.nanos);
+  }
+
+  @Override public boolean equals(Object o)
+  {
+    if (this == o)
+      return true;
+    if (o == null || getClass() != o.getClass())
+      return false;
+
+    SWRLTemporalValue other = (SWRLTemporalValue)o;
+
+    return this.kind == other.kind && this.months == other.months && this.millis == other.millis
+      && this.nanos == other.nanos;
+  }
+
+  @Override public int hashCode()
+  {
+    return Objects.hash(this.kind, this.months, this.millis, this.nanos);
+  }
+
+  /**
+   * The canonical lexical form, in the value's own timezone.
+   */
+  @Override public String toString()
+  {
+    StringBuilder sb = new StringBuilder(32);
+
+    if (this.kind == Kind.DURATION) {
+      appendDuration(sb);
+      return sb.toString();
+    }
+
+    long local = this.millis + (hasTimezone() ? this.timezoneOffsetMinutes * 60000L : 0);
+    long millisOfDay = Math.floorMod(local, MILLIS_PER_DAY);
+
+    if (this.kind != Kind.TIME) {
+      long[] civil = civilFromDays(Math.floorDiv(local, MILLIS_PER_DAY));
+      if (civil[0] < 0)
+        sb.append('-');
+      appendPadded(sb, Math.abs(civil[0]), 4).append('-');
+      appendPadded(sb, civil[1], 2).append('-');
+      appendPadded(sb, civil[2], 2);
+      if (this.kind == Kind.DATE_TIME)
+        sb.append('T');
+    }
+
+    if (this.kind != Kind.DATE) {
+      appendPadded(sb, millisOfDay / 3600000L, 2).append(':');
+      appendPadded(sb, millisOfDay / 60000L % 60, 2).append(':');
+      appendPadded(sb, millisOfDay / 1000L % 60, 2);
+      appendFraction(sb, millisOfDay % 1000L * NANOS_PER_MILLI + this.nanos);
+    }
+
+    if (hasTimezone()) {
+      if (this.timezoneOffsetMinutes == 0)
+        sb.append('Z');
+      else {
+        sb.append(this.timezoneOffsetMinutes < 0 ? '-' : '+');
+        appendPadded(sb, Math.abs(this.timezoneOffsetMinutes) / 60, 2).append(':');
+        appendPadded(sb, Math.abs(this.timezoneOffsetMinutes) % 60, 2);
+      }
+    }
+
+    return sb.toString();
+  }
+
+  private void appendDuration(StringBuilder sb)
+  {
+    boolean negative = this.months < 0 || this.millis < 0;
+    long months = Math.abs(this.months);
+    long millis = this.millis, nanos = this.nanos;
+
+    if (negative) {
+      sb.append('-');
+      if (nanos != 0) {
+        millis = -millis - 1;
+        nanos = NANOS_PER_MILLI - nanos;
+      } else
+        millis = -millis;
+    }
+    sb.append('P');
+
+    if (months / 12 != 0)
+      sb.append(months / 12).append('Y');
+    if (months % 12 != 0)
+      sb.append(months % 12).append('M');
+    if (millis / MILLIS_PER_DAY != 0)
+      sb.append(millis / MILLIS_PER_DAY).append('D');
+
+    long millisOfDay = millis % MILLIS_PER_DAY;
+    if (millisOfDay != 0 || nanos != 0 || (months == 0 && millis == 0)) {
+      sb.append('T');
+      if (millisOfDay / 3600000L != 0)
+        sb.append(millisOfDay / 3600000L).append('H');
+      if (millisOfDay / 60000L % 60 != 0)
+        sb.append(millisOfDay / 60000L % 60).append('M');
+      if (millisOfDay % 60000L != 0 || nanos != 0 || (months == 0 && millis == 0)) {
+        sb.append(millisOfDay / 1000L % 60);
+        appendFraction(sb, millisOfDay % 1000L * NANOS_PER_MILLI + nanos);
+        sb.append('S');
+      }
+    }
+  }
+
+  private static StringBuilder appendPadded(StringBuilder sb, long value, int width)
+  {
+    String digits = Long.toString(value);
+
+    for (int i = digits.length(); i < width; i++)
+      sb.append('0');
+
+    return sb.append(digits);
+  }
+
+  private static void appendFraction(StringBuilder sb, long nanosOfSecond)
+  {
+    if (nanosOfSecond == 0)
+      return;
+
+    int length = sb.length();
+
+    sb.append('.');
+    appendPadded(sb, nanosOfSecond, 9);
+    int end = sb.length();
+    while (sb.charAt(end - 1) == '0')
+      end--;
+    sb.setLength(Math.max(end, length + 2));
+  }
+
+  private static boolean isLeapYear(long year)
+  {
+    return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+  }
+
+  private static int daysInMonth(long year, int month)
+  {
+    return month == 2 && isLeapYear(year) ? 29 : DAYS_IN_MONTH[month - 1];
+  }
+
+  private static void checkYear(long year)
+  {
+    if (Math.abs(year) > MAXIMUM_YEAR)
+      throw new ArithmeticException("year out of range: " + year);
+  }
+
+  /**
+   * Days since 1970-01-01 of a date in the proleptic Gregorian calendar.
+   */
+  private static long daysFromCivil(long year, int month, int day)
+  {
+    long y = month <= 2 ? year - 1 : year;
+    long era = Math.floorDiv(y, 400L);
+    long yearOfEra = y - era * 400;
+    long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  /**
+   * The year, month and day of the date that is the given number of days since 1970-01-01.
+   */
+  private static long[] civilFromDays(long days)
+  {
+    long z = days + 719468;
+    long era = Math.floorDiv(z, 146097L);
+    long dayOfEra = z - era * 146097;
+    long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    long monthIndex = (5 * dayOfYear + 2) / 153;
+    long day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+    long month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+
+    return new long[] { yearOfEra + era * 400 + (month <= 2 ? 1 : 0), month, day };
+  }
+
+  /**
+   * Reads a lexical form left to right without creating intermediate strings.
+   */
+  private static class Scanner
+  {
+    private final String text;
+    private final Kind kind;
+
+    private int position = 0;
+
+    private Scanner(String text, Kind kind)
+    {
+      this.text = text;
+      this.kind = kind;
+    }
+
+    private SWRLTemporalValue scanDate()
+    {
+      long days = scanCivilDate();
+      int offset = scanTimezone();
+
+      return new SWRLTemporalValue(Kind.DATE, 0, days * MILLIS_PER_DAY - offsetMillis(offset), 0, offset);
+    }
+
+    private SWRLTemporalValue scanDateTime()
+    {
+      long days = scanCivilDate();
+
+      expect('T');
+
+      long timeOfDayNanos = scanTimeOfDay();
+      int offset = scanTimezone();
+      long millis = days * MILLIS_PER_DAY + timeOfDayNanos / NANOS_PER_MILLI - offsetMillis(offset);
+
+      return new SWRLTemporalValue(Kind.DATE_TIME, 0, millis, (int)(timeOfDayNanos % NANOS_PER_MILLI), offset);
+    }
+
+    private SWRLTemporalValue scanTime()
+    {
+      long timeOfDayNanos = scanTimeOfDay();
+      int offset = scanTimezone();
+      long millis = Math.floorMod(timeOfDayNanos / NANOS_PER_MILLI - offsetMillis(offset), MILLIS_PER_DAY);
+
+      return new SWRLTemporalValue(Kind.TIME, 0, millis, (int)(timeOfDayNanos % NANOS_PER_MILLI), offset);
+    }
+
+    private SWRLTemporalValue scanDuration()
+    {
+      boolean negative = accept('-');
+      long months = 0, millis = 0;
+      int nanos = 0;
+      boolean anyComponent = false;
+      String designators = "YMD";
+      int designatorIndex = 0;
+
+      expect('P');
+      try {
+        while (this.position < this.text.length() && this.text.charAt(this.position) != 'T') {
+          long value = scanUnsignedLong();
+          int index = designators.indexOf(next(), designatorIndex);
+          if (index == -1)
+            throw invalid();
+          designatorIndex = index + 1;
+          anyComponent = true;
+          if (index == 0)
+            months = Math.addExact(months, Math.multiplyExact(value, 12L));
+          else if (index == 1)
+            months = Math.addExact(months, value);
+          else
+            millis = Math.addExact(millis, Math.multiplyExact(value, MILLIS_PER_DAY));
+        }
+
+        if (accept('T')) {
+          boolean anyTimeComponent = false;
+          designators = "HMS";
+          designatorIndex = 0;
+          while (this.position < this.text.length()) {
+            long value = scanUnsignedLong();
+            long fractionNanos = -1;
+            if (accept('.'))
+              fractionNanos = scanFractionNanos();
+            int index = designators.indexOf(next(), designatorIndex);
+            if (index == -1 || (fractionNanos != -1 && index != 2))
+              throw invalid();
+            designatorIndex = index + 1;
+            anyTimeComponent = true;
+            if (index == 0)
+              millis = Math.addExact(millis, Math.multiplyExact(value, 3600000L));
+            else if (index == 1)
+              millis = Math.addExact(millis, Math.multiplyExact(value, 60000L));
+            else {
+              millis = Math.addExact(millis, Math.multiplyExact(value, 1000L));
+              if (fractionNanos > 0) {
+                millis += fractionNanos / NANOS_PER_MILLI;
+                nanos = (int)(fractionNanos % NANOS_PER_MILLI);
+              }
+            }
+          }
+          if (!anyTimeComponent)
+            throw invalid();
+          anyComponent = true;
+        }
+      } catch (ArithmeticException e) {
+        throw invalid();
+      }
+
+      if (!anyComponent)
+        throw invalid();
+
+      SWRLTemporalValue value = new SWRLTemporalValue(Kind.DURATION, months, millis, nanos, NO_TIMEZONE);
+
+      return negative ? value.negate() : value;
+    }
+
+    /**
+     * Days since the epoch of a <code>-?yyyy-MM-dd</code> date.
+     */
+    private long scanCivilDate()
+    {
+      boolean negative = accept('-');
+      int start = this.position;
+      long year = scanUnsignedLong();
+      int yearDigits = this.position - start;
+
+      if (yearDigits < 4 || (yearDigits > 4 && this.text.charAt(start) == '0'))
+        throw invalid();
+      if (negative)
+        year = -year;
+      if (Math.abs(year) > MAXIMUM_YEAR)
+        throw invalid();
+
+      expect('-');
+      int month = scanDigits(2);
+      expect('-');
+      int day = scanDigits(2);
+
+      if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month))
+        throw invalid();
+
+      return daysFromCivil(year, month, day);
+    }
+
+    /**
+     * Nanoseconds since midnight of a <code>hh:mm:ss(.s+)?</code> time, which may be <code>24:00:00</code>.
+     */
+    private long scanTimeOfDay()
+    {
+      int hour = scanDigits(2);
+      expect(':');
+      int minute = scanDigits(2);
+      expect(':');
+      int second = scanDigits(2);
+      long fractionNanos = accept('.') ? scanFractionNanos() : 0;
+
+      if (hour > 24 || minute > 59 || second > 59 || (hour == 24 && (minute != 0 || second != 0 || fractionNanos != 0)))
+        throw invalid();
+
+      return ((hour * 60L + minute) * 60L + second) * 1000000000L + fractionNanos;
+    }
+
+    /**
+     * The offset in minutes of an optional <code>Z</code> or <code>(+|-)hh:mm</code> timezone.
+     */
+    private int scanTimezone()
+    {
+      if (accept('Z'))
+        return 0;
+      else if (this.position < this.text.length() && (this.text.charAt(this.position) == '+'
+        || this.text.charAt(this.position) == '-')) {
+        int sign = next() == '-' ? -1 : 1;
+        int hours = scanDigits(2);
+        expect(':');
+        int minutes = scanDigits(2);
+        if (minutes > 59 || hours > 14 || (hours == 14 && minutes != 0))
+          throw invalid();
+        return sign * (hours * 60 + minutes);
+      } else
+        return NO_TIMEZONE;
+    }
+
+    /**
+     * Nanoseconds of a fraction of a second after its decimal point, truncated to nine digits.
+     */
+    private long scanFractionNanos()
+    {
+      long nanos = 0;
+      int digits = 0;
+
+      while (this.position < this.text.length() && isDigit(this.text.charAt(this.position))) {
+        if (digits < 9)
+          nanos = nanos * 10 + (this.text.charAt(this.position) - '0');
+        digits++;
+        this.position++;
+      }
+
+      if (digits == 0)
+        throw invalid();
+
+      for (int i = digits; i < 9; i++)
+        nanos *= 10;
+
+      return nanos;
+    }
+
+    private long scanUnsignedLong()
+    {
+      int start = this.position;
+      long value = 0;
+
+      while (this.position < this.text.length() && isDigit(this.text.charAt(this.position))) {
+        value = Math.addExact(Math.multiplyExact(value, 10L), this.text.charAt(this.position) - '0');
+        this.position++;
+      }
+
+      if (this.position == start)
+        throw invalid();
+
+      return value;
+    }
+
+    private int scanDigits(int count)
+    {
+      int value = 0;
+
+      for (int i = 0; i < count; i++) {
+        if (this.position >= this.text.length() || !isDigit(this.text.charAt(this.position)))
+          throw invalid();
+        value = value * 10 + (this.text.charAt(this.position++) - '0');
+      }
+
+      return value;
+    }
+
+    private static boolean isDigit(char c)
+    {
+      return c >= '0' && c <= '9';
+    }
+
+    private static long offsetMillis(int offset)
+    {
+      return offset == NO_TIMEZONE ? 0 : offset * 60000L;
+    }
+
+    private char next()
+    {
+      if (this.position >= this.text.length())
+        throw invalid();
+
+      return this.text.charAt(this.position++);
+    }
+
+    private boolean accept(char c)
+    {
+      if (this.position < this.text.length() && this.text.charAt(this.position) == c) {
+        this.position++;
+        return true;
+      } else
+        return false;
+    }
+
+    private void expect(char c)
+    {
+      if (!accept(c))
+        throw invalid();
+    }
+
+    private void expectEnd()
+    {
+      if (this.position != this.text.length())
+        throw invalid();
+    }
+
+    private IllegalArgumentException invalid()
+    {
+      String datatype = this.kind == Kind.DATE ?
+        "date" :
+        this.kind == Kind.DATE_TIME ? "dateTime" : this.kind == Kind.TIME ? "time" : "duration";
+
+      return new IllegalArgumentException("invalid xsd:" + datatype + " lexical form '" + this.text + "'");
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+/**
+ * The parsed {@link SWRLTemporalValue}s of temporal literals, held in a {@link BoundedLruCache} keyed by the literal.
+ * <p>
+ * Literals are immutable and cannot carry their parsed value, so a literal compared many times, such as the bound of
+ * a time window, would otherwise be parsed for every comparison. Literals with the same lexical form and datatype are
+ * equal, so they share an entry wherever they come from.
+ */
+public class SWRLTemporalValueCache
+{
+  private final BoundedLruCache<OWLLiteral, SWRLTemporalValue> values;
+
+  public SWRLTemporalValueCache(int maximumSize)
+  {
+    this.values = new BoundedLruCache<>(maximumSize);
+  }
+
+  /**
+   * The value of a temporal literal.
+   *
+   * @throws IllegalArgumentException if the literal is not a valid temporal literal
+   */
+  public SWRLTemporalValue getValue(OWLLiteral literal)
+  {
+    return this.values.get(literal, SWRLTemporalValue::of);
+  }
+
+  /**
+   * Compares the values of two temporal literals of the same kind.
+   *
+   * @throws IllegalArgumentException if a literal is invalid, the literals are of different kinds, or they are
+   *                                  durations whose order is indeterminate
+   */
+  public int compare(OWLLiteral literal1, OWLLiteral literal2)
+  {
+    return getValue(literal1).compareTo(getValue(literal2));
+  }
+
+  public BoundedLruCache.Statistics getStatistics()
+  {
+    return this.values.getStatistics();
+  }
+}
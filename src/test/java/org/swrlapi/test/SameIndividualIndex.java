@@ -0,0 +1,242 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLSameIndividualAxiom;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.util.OWLObjectDuplicator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A union-find index over the asserted <code>SameIndividual</code> axioms of an ontology, mapping every named
+ * individual to a canonical representative of its equality class.
+ * <p>
+ * The OWL 2 RL equality rules (<code>eq-sym</code>, <code>eq-trans</code> and <code>eq-rep-*</code>) materialize a
+ * <code>sameAs</code> fact for every ordered pair of a clique and copy every assertion about one member to all
+ * others, which is quadratic in the size of the clique. Here each union is near-constant time, and
+ * {@link #canonicalize(OWLOntology)} rewrites an ontology onto the representatives so that the engine sees one
+ * individual per class. Results over the canonical ontology are expanded back with {@link #getMembers}.
+ * <p>
+ * The representative of a class is its member with the smallest IRI, so it does not depend on the order in which
+ * axioms were added. Only asserted equalities are indexed; equalities that rules or functional properties would infer
+ * are not. Queries over a canonical ontology should not use <code>sameAs</code> atoms.
+ */
+public class SameIndividualIndex
+{
+  private final Map<OWLNamedIndividual, Integer> ids = new HashMap<>();
+  private final List<OWLNamedIndividual> individuals = new ArrayList<>();
+  private int[] parents = new int[16];
+  private int[] ranks = new int[16];
+  private int[] representatives = new int[16];
+  private final Map<Integer, List<Integer>> members = new HashMap<>();
+  private int numberOfUnions;
+
+  /**
+   * Indexes every <code>SameIndividual</code> axiom of an ontology and its imports.
+   */
+  public static SameIndividualIndex fromOntology(OWLOntology ontology)
+  {
+    SameIndividualIndex index = new SameIndividualIndex();
+
+    for (OWLSameIndividualAxiom axiom : ontology.getAxioms(AxiomType.SAME_INDIVIDUAL, Imports.INCLUDED))
+      index.add(axiom);
+
+    return index;
+  }
+
+  public void add(OWLSameIndividualAxiom axiom)
+  {
+    OWLNamedIndividual first = null;
+
+    for (OWLIndividual individual : axiom.getIndividuals()) {
+      if (individual.isAnonymous())
+        continue;
+      if (first == null)
+        first = individual.asOWLNamedIndividual();
+      else
+        union(first, individual.asOWLNamedIndividual());
+    }
+  }
+
+  /**
+   * Records that two individuals are the same.
+   *
+   * @return true if they were in different equality classes
+   */
+  public boolean union(OWLNamedIndividual individual1, OWLNamedIndividual individual2)
+  {
+    int root1 = find(id(individual1)), root2 = find(id(individual2));
+
+    if (root1 == root2)
+      return false;
+
+    if (this.ranks[root1] < this.ranks[root2]) {
+      int swap = root1;
+      root1 = root2;
+      root2 = swap;
+    }
+
+    this.parents[root2] = root1;
+    if (this.ranks[root1] == this.ranks[root2])
+      this.ranks[root1]++;
+
+    if (this.individuals.get(this.representatives[root2]).getIRI()
+      .compareTo(this.individuals.get(this.representatives[root1]).getIRI()) < 0)
+      this.representatives[root1] = this.representatives[root2];
+
+    List<Integer> members1 = this.members.computeIfAbsent(root1, root -> new ArrayList<>(Collections.singleton(root)));
+    List<Integer> members2 = this.members.remove(root2);
+
+    if (members2 == null)
+      members1.add(root2);
+    else
+      members1.addAll(members2);
+
+    this.numberOfUnions++;
+    return true;
+  }
+
+  public boolean isSameIndividual(OWLNamedIndividual individual1, OWLNamedIndividual individual2)
+  {
+    Integer id1 = this.ids.get(individual1), id2 = this.ids.get(individual2);
+
+    if (id1 == null || id2 == null)
+      return individual1.equals(individual2);
+
+    return find(id1) == find(id2);
+  }
+
+  /**
+   * Returns the member of an individual's equality class with the smallest IRI, or the individual itself if it is not
+   * known to be the same as any other.
+   */
+  public OWLNamedIndividual getRepresentative(OWLNamedIndividual individual)
+  {
+    Integer id = this.ids.get(individual);
+
+    return id == null ? individual : this.individuals.get(this.representatives[find(id)]);
+  }
+
+  /**
+   * Returns all members of an individual's equality class, including the individual itself.
+   */
+  public Set<OWLNamedIndividual> getMembers(OWLNamedIndividual individual)
+  {
+    Integer id = this.ids.get(individual);
+
+    if (id == null)
+      return Collections.singleton(individual);
+
+    List<Integer> memberIds = this.members.getOrDefault(find(id), Collections.singletonList(id));
+    Set<OWLNamedIndividual> memberIndividuals = new HashSet<>();
+
+    for (int memberId : memberIds)
+      memberIndividuals.add(this.individuals.get(memberId));
+
+    return memberIndividuals;
+  }
+
+  public int getNumberOfIndividuals()
+  {
+    return this.individuals.size();
+  }
+
+  /**
+   * Returns the number of equality classes with more than one member.
+   */
+  public int getNumberOfEqualityClasses()
+  {
+    return this.members.size();
+  }
+
+  public int getNumberOfUnions()
+  {
+    return this.numberOfUnions;
+  }
+
+  /**
+   * Copies an ontology into a new ontology in which every indexed individual is replaced by its representative and
+   * the <code>SameIndividual</code> axioms that the index covers are dropped.
+   */
+  public OWLOntology canonicalize(OWLOntology ontology) throws OWLOntologyCreationException
+  {
+    OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+    Map<OWLEntity, IRI> replacements = new HashMap<>();
+
+    for (OWLNamedIndividual individual : this.individuals) {
+      OWLNamedIndividual representative = getRepresentative(individual);
+      if (!representative.equals(individual))
+        replacements.put(individual, representative.getIRI());
+    }
+
+    OWLObjectDuplicator duplicator = new OWLObjectDuplicator(replacements, manager.getOWLDataFactory());
+    Set<OWLAxiom> axioms = new HashSet<>();
+
+    for (OWLAxiom axiom : ontology.getAxioms(Imports.INCLUDED)) {
+      if (axiom.isOfType(AxiomType.SAME_INDIVIDUAL) && isCovered((OWLSameIndividualAxiom)axiom))
+        continue;
+      axioms.add(duplicator.duplicateObject(axiom));
+    }
+
+    return manager.createOntology(axioms);
+  }
+
+  private boolean isCovered(OWLSameIndividualAxiom axiom)
+  {
+    return axiom.getIndividuals().stream().noneMatch(OWLIndividual::isAnonymous);
+  }
+
+  private int id(OWLNamedIndividual individual)
+  {
+    Integer id = this.ids.get(individual);
+
+    if (id != null)
+      return id;
+
+    int newId = this.individuals.size();
+
+    if (newId == this.parents.length) {
+      this.parents = Arrays.copyOf(this.parents, newId * 2);
+      this.ranks = Arrays.copyOf(this.ranks, newId * 2);
+      this.representatives = Arrays.copyOf(this.representatives, newId * 2);
+    }
+
+    this.ids.put(individual, newId);
+    this.individuals.add(individual);
+    this.parents[newId] = newId;
+    this.representatives[newId] = newId;
+
+    return newId;
+  }
+
+  private int find(int id)
+  {
+    int root = id;
+
+    while (this.parents[root] != root)
+      root = this.parents[root];
+
+    while (this.parents[id] != root) {
+      int next = this.parents[id];
+      this.parents[id] = root;
+      id = next;
+    }
+    return root;
+  }
+}
@@ -0,0 +1,294 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ClassAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.DataPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Declaration;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.EquivalentClasses;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.EquivalentObjectProperties;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.IRI;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Literal;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.NamedIndividual;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectProperty;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.ObjectPropertyAssertion;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SameIndividual;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubObjectPropertyOf;
+
+/**
+ * Deterministic generator of large ABox, TBox and RBox workloads for integration tests and benchmarks.
+ * <p>
+ * Entities are created in the {@link IntegrationTestBase} namespace so that generated ontologies can be queried using
+ * the same short names as the hand-built ones. Two generators created with the same seed and fan-out produce the same
+ * axioms in the same order.
+ */
+public class SyntheticOntologyGenerator
+{
+  private static final String NS = "http://org.swrlapi.test#";
+
+  private final Random random;
+  private final int fanOut;
+
+  public SyntheticOntologyGenerator(long seed, int fanOut)
+  {
+    if (fanOut < 1)
+      throw new IllegalArgumentException("fan-out must be at least 1; got " + fanOut);
+
+    this.random = new Random(seed);
+    this.fanOut = fanOut;
+  }
+
+  public int getFanOut()
+  {
+    return this.fanOut;
+  }
+
+  /**
+   * Applies the axioms to the ontology in a single batch of changes. Prefer this to
+   * {@link IntegrationTestBase#addOWLAxioms} for large workloads.
+   */
+  public static void addOWLAxioms(OWLOntology ontology, Collection<? extends OWLAxiom> axioms)
+  {
+    List<OWLOntologyChange> changes = new ArrayList<>(axioms.size());
+
+    for (OWLAxiom axiom : axioms)
+      changes.add(new AddAxiom(ontology, axiom));
+
+    ontology.getOWLOntologyManager().applyChanges(changes);
+  }
+
+  public static OWLClass generatedClass(String name)
+  {
+    return Class(IRI(NS + name));
+  }
+
+  public static OWLNamedIndividual generatedIndividual(String name)
+  {
+    return NamedIndividual(IRI(NS + name));
+  }
+
+  public static OWLObjectProperty generatedObjectProperty(String name)
+  {
+    return ObjectProperty(IRI(NS + name));
+  }
+
+  public static OWLDataProperty generatedDataProperty(String name)
+  {
+    return DataProperty(IRI(NS + name));
+  }
+
+  /**
+   * Individuals named <code>prefix0</code> to <code>prefix(n-1)</code>.
+   */
+  public List<OWLNamedIndividual> individuals(String prefix, int n)
+  {
+    List<OWLNamedIndividual> individuals = new ArrayList<>(n);
+
+    for (int i = 0; i < n; i++)
+      individuals.add(generatedIndividual(prefix + i));
+
+    return individuals;
+  }
+
+  public List<OWLAxiom> classAssertions(OWLClass cls, List<OWLNamedIndividual> individuals)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(individuals.size() + 1);
+
+    axioms.add(Declaration(cls));
+    for (OWLNamedIndividual individual : individuals)
+      axioms.add(ClassAssertion(cls, individual));
+
+    return axioms;
+  }
+
+  /**
+   * Asserts each individual into one randomly chosen class of the list.
+   */
+  public List<OWLAxiom> randomClassAssertions(List<OWLClass> classes, List<OWLNamedIndividual> individuals)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(individuals.size());
+
+    for (OWLNamedIndividual individual : individuals)
+      axioms.add(ClassAssertion(classes.get(this.random.nextInt(classes.size())), individual));
+
+    return axioms;
+  }
+
+  /**
+   * Gives each individual one integer value of the property drawn uniformly from [0, maxValue).
+   */
+  public List<OWLAxiom> dataPropertyAssertions(OWLDataProperty property, List<OWLNamedIndividual> individuals,
+    int maxValue)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(individuals.size() + 1);
+
+    axioms.add(Declaration(property));
+    for (OWLNamedIndividual individual : individuals)
+      axioms.add(DataPropertyAssertion(property, individual, Literal(this.random.nextInt(maxValue))));
+
+    return axioms;
+  }
+
+  /**
+   * Links each individual to fan-out randomly chosen individuals of the list.
+   */
+  public List<OWLAxiom> objectPropertyAssertions(OWLObjectProperty property, List<OWLNamedIndividual> individuals)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(individuals.size() * this.fanOut + 1);
+
+    axioms.add(Declaration(property));
+    for (OWLNamedIndividual subject : individuals)
+      for (int i = 0; i < this.fanOut; i++)
+        axioms.add(ObjectPropertyAssertion(property, subject, individuals.get(this.random.nextInt(individuals.size()))));
+
+    return axioms;
+  }
+
+  /**
+   * Links the individuals into trees in which every node has fan-out children, e.g., part-of hierarchies. Individual
+   * <code>i</code> is the child of individual <code>(i - 1) / fan-out</code>.
+   */
+  public List<OWLAxiom> objectPropertyTree(OWLObjectProperty property, List<OWLNamedIndividual> individuals)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(individuals.size());
+
+    axioms.add(Declaration(property));
+    for (int i = 1; i < individuals.size(); i++)
+      axioms.add(ObjectPropertyAssertion(property, individuals.get(i), individuals.get((i - 1) / this.fanOut)));
+
+    return axioms;
+  }
+
+  /**
+   * Splits the individuals into consecutive chains of the given length and asserts
+   * <code>SameIndividual(i, i+1)</code> between neighbours in each chain.
+   */
+  public List<OWLAxiom> sameIndividualChains(List<OWLNamedIndividual> individuals, int chainLength)
+  {
+    if (chainLength < 2)
+      throw new IllegalArgumentException("chain length must be at least 2; got " + chainLength);
+
+    List<OWLAxiom> axioms = new ArrayList<>(individuals.size());
+
+    for (int i = 0; i + 1 < individuals.size(); i++)
+      if ((i + 1) % chainLength != 0)
+        axioms.add(SameIndividual(individuals.get(i), individuals.get(i + 1)));
+
+    return axioms;
+  }
+
+  /**
+   * Classes of a complete fan-out-ary subclass tree of the given depth, in breadth-first order, named
+   * <code>prefix0</code>, <code>prefix1</code>, ...; class <code>i</code> is a subclass of class
+   * <code>(i - 1) / fan-out</code>.
+   */
+  public List<OWLClass> classHierarchy(String prefix, int depth)
+  {
+    List<OWLClass> classes = new ArrayList<>();
+    int n = treeSize(depth);
+
+    for (int i = 0; i < n; i++)
+      classes.add(generatedClass(prefix + i));
+
+    return classes;
+  }
+
+  public List<OWLAxiom> subClassAxioms(List<OWLClass> classes)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(classes.size() * 2);
+
+    for (OWLClass cls : classes)
+      axioms.add(Declaration(cls));
+    for (int i = 1; i < classes.size(); i++)
+      axioms.add(SubClassOf(classes.get(i), classes.get((i - 1) / this.fanOut)));
+
+    return axioms;
+  }
+
+  /**
+   * Gives every class of the hierarchy an equivalent class named <code>prefix</code> plus the original class name.
+   */
+  public List<OWLAxiom> equivalentClassAxioms(List<OWLClass> classes, String prefix)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(classes.size() * 2);
+
+    for (OWLClass cls : classes) {
+      OWLClass equivalent = generatedClass(prefix + cls.getIRI().getShortForm());
+      axioms.add(Declaration(equivalent));
+      axioms.add(EquivalentClasses(cls, equivalent));
+    }
+
+    return axioms;
+  }
+
+  /**
+   * Object properties of a complete fan-out-ary sub-property tree of the given depth, named as in
+   * {@link #classHierarchy(String, int)}.
+   */
+  public List<OWLObjectProperty> objectPropertyHierarchy(String prefix, int depth)
+  {
+    List<OWLObjectProperty> properties = new ArrayList<>();
+    int n = treeSize(depth);
+
+    for (int i = 0; i < n; i++)
+      properties.add(generatedObjectProperty(prefix + i));
+
+    return properties;
+  }
+
+  public List<OWLAxiom> subObjectPropertyAxioms(List<OWLObjectProperty> properties)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(properties.size() * 2);
+
+    for (OWLObjectProperty property : properties)
+      axioms.add(Declaration(property));
+    for (int i = 1; i < properties.size(); i++)
+      axioms.add(SubObjectPropertyOf(properties.get(i), properties.get((i - 1) / this.fanOut)));
+
+    return axioms;
+  }
+
+  public List<OWLAxiom> equivalentObjectPropertyAxioms(List<OWLObjectProperty> properties, String prefix)
+  {
+    List<OWLAxiom> axioms = new ArrayList<>(properties.size() * 2);
+
+    for (OWLObjectProperty property : properties) {
+      OWLObjectProperty equivalent = generatedObjectProperty(prefix + property.getIRI().getShortForm());
+      axioms.add(Declaration(equivalent));
+      axioms.add(EquivalentObjectProperties(property, equivalent));
+    }
+
+    return axioms;
+  }
+
+  private int treeSize(int depth)
+  {
+    if (depth < 0)
+      throw new IllegalArgumentException("depth must not be negative; got " + depth);
+
+    long size = 0, level = 1;
+    for (int d = 0; d <= depth; d++) {
+      size += level;
+      level *= this.fanOut;
+      if (size > Integer.MAX_VALUE)
+        throw new IllegalArgumentException("hierarchy of depth " + depth + " and fan-out " + this.fanOut + " too large");
+    }
+
+    return (int)size;
+  }
+}
@@ -0,0 +1,344 @@
+package org.swrlapi.test;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A reachability index over the asserted assertions of a transitive object property that answers
+ * <code>p(?x, ?y)</code>-style questions about the transitive closure without materializing it.
+ * <p>
+ * The OWL 2 RL rule <code>prp-trp</code> derives a fact for every pair in the closure, which is quadratic in the depth
+ * of a chain. The asserted graph is split into its weakly connected components, and individuals in different
+ * components never reach one another. A component in which every individual has at most one successor and there are
+ * no cycles, as in a part-of hierarchy in which each part belongs to one whole, is a tree, and each of its individuals
+ * is labelled with the interval <code>[pre, last]</code> of a depth-first numbering from the root; <code>x p+ y</code>
+ * then holds iff <code>pre(y) &lt; pre(x) &lt;= last(y)</code>. Only questions about the other components are answered
+ * by a breadth-first search over the asserted edges, which stays within the component.
+ * <p>
+ * Assertions can be added incrementally. An addition merges the components of its subject and object, and only the
+ * merged component is relabelled, lazily on the next question about it.
+ */
+public class TransitiveClosureIndex
+{
+  private final OWLObjectProperty property;
+  private final Map<OWLNamedIndividual, Integer> ids = new HashMap<>();
+  private final List<OWLNamedIndividual> individuals = new ArrayList<>();
+  private final List<List<Integer>> successors = new ArrayList<>();
+  private final List<List<Integer>> predecessors = new ArrayList<>();
+  private final List<Component> components = new ArrayList<>();
+  private int numberOfEdges;
+  private int numberOfComponents;
+
+  private int[] pre = new int[16];
+  private int[] last = new int[16];
+
+  public TransitiveClosureIndex(OWLObjectProperty property)
+  {
+    this.property = property;
+  }
+
+  /**
+   * Indexes every assertion of a property with named subject and object in an ontology and its imports.
+   */
+  public static TransitiveClosureIndex fromOntology(OWLOntology ontology, OWLObjectProperty property)
+  {
+    TransitiveClosureIndex index = new TransitiveClosureIndex(property);
+
+    for (OWLObjectPropertyAssertionAxiom axiom : ontology
+      .getAxioms(AxiomType.OBJECT_PROPERTY_ASSERTION, Imports.INCLUDED)) {
+      if (axiom.getProperty().equals(property) && axiom.getSubject().isNamed() && axiom.getObject().isNamed())
+        index.add(axiom.getSubject().asOWLNamedIndividual(), axiom.getObject().asOWLNamedIndividual());
+    }
+
+    return index;
+  }
+
+  public OWLObjectProperty getProperty()
+  {
+    return this.property;
+  }
+
+  /**
+   * Records the assertion <code>p(subject, object)</code>.
+   *
+   * @return true if the assertion was not already indexed
+   */
+  public boolean add(OWLNamedIndividual subject, OWLNamedIndividual object)
+  {
+    int s = id(subject), o = id(object);
+
+    if (this.successors.get(s).contains(o))
+      return false;
+
+    this.successors.get(s).add(o);
+    this.predecessors.get(o).add(s);
+    this.numberOfEdges++;
+    merge(this.components.get(s), this.components.get(o)).labelled = false;
+
+    return true;
+  }
+
+  /**
+   * Returns true if <code>p(subject, object)</code> follows from the indexed assertions and the transitivity of the
+   * property.
+   */
+  public boolean isReachable(OWLNamedIndividual subject, OWLNamedIndividual object)
+  {
+    Integer s = this.ids.get(subject), o = this.ids.get(object);
+
+    if (s == null || o == null || this.components.get(s) != this.components.get(o))
+      return false;
+
+    if (label(s).tree)
+      return this.pre[o] < this.pre[s] && this.pre[s] <= this.last[o];
+    else
+      return search(s, this.successors).get(o);
+  }
+
+  /**
+   * Returns every <code>?y</code> with <code>p(subject, ?y)</code> in the transitive closure, nearest first.
+   */
+  public Set<OWLNamedIndividual> getTransitiveSuccessors(OWLNamedIndividual subject)
+  {
+    Integer s = this.ids.get(subject);
+    Set<OWLNamedIndividual> reachable = new LinkedHashSet<>();
+
+    if (s == null)
+      return reachable;
+
+    if (label(s).tree) {
+      for (List<Integer> next = this.successors.get(s); !next.isEmpty(); next = this.successors.get(next.get(0)))
+        reachable.add(this.individuals.get(next.get(0)));
+    } else
+      addIndividuals(search(s, this.successors), reachable);
+
+    return reachable;
+  }
+
+  /**
+   * Returns every <code>?x</code> with <code>p(?x, object)</code> in the transitive closure.
+   */
+  public Set<OWLNamedIndividual> getTransitivePredecessors(OWLNamedIndividual object)
+  {
+    Integer o = this.ids.get(object);
+    Set<OWLNamedIndividual> reachable = new LinkedHashSet<>();
+
+    if (o == null)
+      return reachable;
+
+    Component component = label(o);
+
+    if (component.tree) {
+      for (int position = this.pre[o] + 1; position <= this.last[o]; position++)
+        reachable.add(this.individuals.get(component.preOrder[position]));
+    } else
+      addIndividuals(search(o, this.predecessors), reachable);
+
+    return reachable;
+  }
+
+  /**
+   * Returns the number of pairs in the transitive closure, i.e., the number of facts that <code>prp-trp</code> would
+   * materialize, including the asserted ones. Only individuals in components that are not trees are searched.
+   */
+  public long getNumberOfClosurePairs()
+  {
+    long pairs = 0;
+
+    for (int id = 0; id < this.individuals.size(); id++)
+      pairs += label(id).tree ? this.last[id] - this.pre[id] : search(id, this.successors).cardinality();
+
+    return pairs;
+  }
+
+  public int getNumberOfIndividuals()
+  {
+    return this.individuals.size();
+  }
+
+  public int getNumberOfEdges()
+  {
+    return this.numberOfEdges;
+  }
+
+  /**
+   * Returns the number of weakly connected components of the indexed assertions.
+   */
+  public int getNumberOfComponents()
+  {
+    return this.numberOfComponents;
+  }
+
+  /**
+   * Returns true if the indexed assertions form a forest and every question is answered from interval labels.
+   */
+  public boolean isIntervalLabelled()
+  {
+    for (int id = 0; id < this.individuals.size(); id++)
+      if (!label(id).tree)
+        return false;
+
+    return true;
+  }
+
+  /**
+   * Returns true if the component of an individual is a tree and questions about it are answered from interval
+   * labels.
+   */
+  public boolean isIntervalLabelled(OWLNamedIndividual individual)
+  {
+    Integer id = this.ids.get(individual);
+
+    return id != null && label(id).tree;
+  }
+
+  /**
+   * Labels the component of an individual if an addition has changed it since it was last labelled.
+   */
+  private Component label(int id)
+  {
+    Component component = this.components.get(id);
+
+    if (component.labelled)
+      return component;
+
+    component.tree = component.members.stream().allMatch(member -> this.successors.get(member).size() <= 1);
+    component.preOrder = null;
+
+    if (component.tree) {
+      int[] preOrder = new int[component.members.size()];
+      int position = 0;
+      Deque<int[]> stack = new ArrayDeque<>();
+
+      for (int root : component.members) {
+        if (!this.successors.get(root).isEmpty())
+          continue;
+
+        this.pre[root] = position;
+        preOrder[position++] = root;
+        stack.push(new int[] { root, 0 });
+
+        while (!stack.isEmpty()) {
+          int[] frame = stack.peek();
+          List<Integer> children = this.predecessors.get(frame[0]);
+
+          if (frame[1] < children.size()) {
+            int child = children.get(frame[1]++);
+            this.pre[child] = position;
+            preOrder[position++] = child;
+            stack.push(new int[] { child, 0 });
+          } else {
+            this.last[frame[0]] = position - 1;
+            stack.pop();
+          }
+        }
+      }
+      // Individuals that are not reachable from a root lie on a cycle
+      component.tree = position == preOrder.length;
+      if (component.tree)
+        component.preOrder = preOrder;
+    }
+    component.labelled = true;
+
+    return component;
+  }
+
+  /**
+   * Moves the members of the smaller of two components into the larger one.
+   */
+  private Component merge(Component component1, Component component2)
+  {
+    if (component1 == component2)
+      return component1;
+
+    Component larger = component1.members.size() >= component2.members.size() ? component1 : component2;
+    Component smaller = larger == component1 ? component2 : component1;
+
+    for (int member : smaller.members)
+      this.components.set(member, larger);
+    larger.members.addAll(smaller.members);
+    this.numberOfComponents--;
+
+    return larger;
+  }
+
+  private BitSet search(int start, List<List<Integer>> edges)
+  {
+    BitSet visited = new BitSet(this.individuals.size());
+    Deque<Integer> queue = new ArrayDeque<>();
+
+    queue.add(start);
+    while (!queue.isEmpty()) {
+      for (int next : edges.get(queue.poll())) {
+        if (!visited.get(next)) {
+          visited.set(next);
+          queue.add(next);
+        }
+      }
+    }
+    return visited;
+  }
+
+  private void addIndividuals(BitSet ids, Set<OWLNamedIndividual> individuals)
+  {
+    for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+      individuals.add(this.individuals.get(id));
+  }
+
+  private int id(OWLNamedIndividual individual)
+  {
+    Integer id = this.ids.get(individual);
+
+    if (id != null)
+      return id;
+
+    int newId = this.individuals.size();
+
+    this.ids.put(individual, newId);
+    this.individuals.add(individual);
+    this.successors.add(new ArrayList<>(1));
+    this.predecessors.add(new ArrayList<>(1));
+    this.components.add(new Component(newId));
+    this.numberOfComponents++;
+
+    if (newId == this.pre.length) {
+      this.pre = Arrays.copyOf(this.pre, 2 * newId);
+      this.last = Arrays.copyOf(this.last, 2 * newId);
+    }
+
+    return newId;
+  }
+
+  /**
+   * A weakly connected component of the asserted graph. The interval labels of a tree component are numbered from 0
+   * within the component, and <code>preOrder</code> maps them back to its members.
+   */
+  private static final class Component
+  {
+    private final List<Integer> members = new ArrayList<>(1);
+
+    private boolean labelled;
+    private boolean tree;
+    private int[] preOrder;
+
+    private Component(int member)
+    {
+      this.members.add(member);
+    }
+  }
+}